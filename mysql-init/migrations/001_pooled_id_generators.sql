@@ -0,0 +1,18 @@
+-- Migration for databases created before purchases switched to table-based ID generation.
+-- Compra and CompraProducto now take their IDs in blocks from id_generators (pooled-lo),
+-- which lets Hibernate batch the purchase inserts. New installs get this from shopping_db.sql.
+--
+-- Run once against an existing database:
+--   mysql -u <user> -p shopping < mysql-init/migrations/001_pooled_id_generators.sql
+
+CREATE TABLE IF NOT EXISTS id_generators (
+    gen_name VARCHAR(64) PRIMARY KEY,
+    gen_value BIGINT NOT NULL
+);
+
+-- Start each generator after the highest ID already in use
+INSERT IGNORE INTO id_generators (gen_name, gen_value)
+SELECT 'compras', COALESCE(MAX(id), 0) + 1 FROM compras;
+
+INSERT IGNORE INTO id_generators (gen_name, gen_value)
+SELECT 'compra_productos', COALESCE(MAX(id), 0) + 1 FROM compra_productos;
@@ -0,0 +1,13 @@
+-- Migration for databases created before the in-memory product catalog cache.
+-- Product writes bump the 'productos' row, and every API node drops its cached
+-- catalog when the version it reads no longer matches. New installs get this from shopping_db.sql.
+--
+-- Run once against an existing database:
+--   mysql -u <user> -p shopping < mysql-init/migrations/002_catalog_versions.sql
+
+CREATE TABLE IF NOT EXISTS catalog_versions (
+    catalog_name VARCHAR(64) PRIMARY KEY,
+    catalog_version BIGINT NOT NULL
+);
+
+INSERT IGNORE INTO catalog_versions (catalog_name, catalog_version) VALUES ('productos', 0);
@@ -0,0 +1,13 @@
+-- Migration for databases created before the shared rate limit backend.
+-- With rate-limit.backend.type=jdbc every API node keeps the token buckets in this table,
+-- so the limits hold across the cluster. New installs get this from shopping_db.sql.
+--
+-- Run once against an existing database:
+--   mysql -u <user> -p shopping < mysql-init/migrations/003_rate_limit_buckets.sql
+
+CREATE TABLE IF NOT EXISTS rate_limit_buckets (
+    bucket_key VARCHAR(255) PRIMARY KEY,
+    state VARBINARY(1024) NOT NULL,
+    expires_at BIGINT NOT NULL,
+    INDEX idx_rate_limit_buckets_expires_at (expires_at)
+);
@@ -0,0 +1,9 @@
+-- Migration for databases created before products had a stock.
+-- Purchases decrement the stock of a product with a conditional UPDATE and are rejected when it
+-- would go below zero. Existing products keep a NULL stock, which sells them without tracking it,
+-- until their stock is set through PATCH /api/productos/stock/{id}. New installs get this from shopping_db.sql.
+--
+-- Run once against an existing database:
+--   mysql -u <user> -p shopping < mysql-init/migrations/004_productos_stock.sql
+
+ALTER TABLE productos ADD COLUMN stock INT NULL CHECK (stock >= 0);
@@ -0,0 +1,19 @@
+-- Migration for databases created before purchases accepted an Idempotency-Key header.
+-- Each key is stored with the purchase it created, so a retried submission returns that purchase
+-- instead of creating another one. New installs get this from shopping_db.sql.
+--
+-- Run once against an existing database:
+--   mysql -u <user> -p shopping < mysql-init/migrations/005_idempotency_keys.sql
+
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    usuario_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    compra_id BIGINT,
+    fecha_creacion DATETIME(6) NOT NULL,
+    UNIQUE KEY uk_idempotency_keys_usuario_clave (usuario_id, idempotency_key),
+    INDEX idx_idempotency_keys_fecha_creacion (fecha_creacion),
+    FOREIGN KEY (usuario_id) REFERENCES usuario(id),
+    FOREIGN KEY (compra_id) REFERENCES compras(id)
+);
@@ -0,0 +1,24 @@
+-- Migration for databases created before purchase and catalog changes were recorded in an outbox.
+-- Each change is inserted in outbox_events in the transaction that makes it, and the API relay numbers
+-- the events and delivers them to the sinks, keeping the position of each one in outbox_offsets.
+-- New installs get this from shopping_db.sql.
+--
+-- Run once against an existing database:
+--   mysql -u <user> -p shopping < mysql-init/migrations/006_outbox.sql
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    posicion BIGINT,
+    tipo VARCHAR(40) NOT NULL,
+    agregado_id BIGINT NOT NULL,
+    payload LONGTEXT NOT NULL,
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_publicacion DATETIME(6),
+    UNIQUE KEY uk_outbox_events_posicion (posicion)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_offsets (
+    consumidor VARCHAR(100) PRIMARY KEY,
+    posicion BIGINT NOT NULL,
+    fecha_actualizacion DATETIME(6) NOT NULL
+);
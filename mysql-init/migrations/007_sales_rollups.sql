@@ -0,0 +1,34 @@
+-- Migration for databases created before the admin sales analytics.
+-- The API relay adds each committed purchase to the daily, per-product and per-customer rollups,
+-- and the rebuild looks up the creation event of each purchase through idx_outbox_events_agregado.
+-- New installs get this from shopping_db.sql.
+--
+-- Run once against an existing database, after 006_outbox.sql:
+--   mysql -u <user> -p shopping < mysql-init/migrations/007_sales_rollups.sql
+-- then count the existing purchases with POST /api/admin/ventas/reconstruccion.
+
+CREATE INDEX idx_outbox_events_agregado ON outbox_events (agregado_id, tipo);
+
+CREATE TABLE IF NOT EXISTS ventas_diarias (
+    fecha DATE PRIMARY KEY,
+    compras BIGINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    ingresos DECIMAL(14,2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS ventas_productos (
+    producto_id BIGINT PRIMARY KEY,
+    compras BIGINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    ingresos DECIMAL(14,2) NOT NULL,
+    INDEX idx_ventas_productos_ingresos (ingresos),
+    INDEX idx_ventas_productos_unidades (unidades)
+);
+
+CREATE TABLE IF NOT EXISTS ventas_usuarios (
+    usuario_id BIGINT PRIMARY KEY,
+    compras BIGINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    ingresos DECIMAL(14,2) NOT NULL,
+    INDEX idx_ventas_usuarios_ingresos (ingresos)
+);
@@ -16,7 +16,8 @@ CREATE TABLE productos (
     descripcion TEXT,
     precio DECIMAL(10, 2) NOT NULL,
     fecha_creacion TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    activo BOOLEAN DEFAULT TRUE
+    activo BOOLEAN DEFAULT TRUE,
+    stock INT CHECK (stock >= 0)
 );
 
 -- Tabla Compras
@@ -39,6 +40,85 @@ CREATE TABLE compra_productos (
     FOREIGN KEY (producto_id) REFERENCES productos(id)
 );
 
+-- Tabla de generadores de IDs (pooled-lo, usada por compras y compra_productos)
+CREATE TABLE id_generators (
+    gen_name VARCHAR(64) PRIMARY KEY,
+    gen_value BIGINT NOT NULL
+);
+
+-- Tabla de versiones de catálogo (invalida la caché de productos en todos los nodos)
+CREATE TABLE catalog_versions (
+    catalog_name VARCHAR(64) PRIMARY KEY,
+    catalog_version BIGINT NOT NULL
+);
+
+-- Tabla de buckets de rate limiting compartidos entre nodos (rate-limit.backend.type=jdbc)
+CREATE TABLE rate_limit_buckets (
+    bucket_key VARCHAR(255) PRIMARY KEY,
+    state VARBINARY(1024) NOT NULL,
+    expires_at BIGINT NOT NULL,
+    INDEX idx_rate_limit_buckets_expires_at (expires_at)
+);
+
+-- Tabla de claves de idempotencia de las compras (reintentos de POST /api/compras/nueva)
+CREATE TABLE idempotency_keys (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    usuario_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(100) NOT NULL,
+    request_hash CHAR(64) NOT NULL,
+    compra_id BIGINT,
+    fecha_creacion DATETIME(6) NOT NULL,
+    UNIQUE KEY uk_idempotency_keys_usuario_clave (usuario_id, idempotency_key),
+    INDEX idx_idempotency_keys_fecha_creacion (fecha_creacion),
+    FOREIGN KEY (usuario_id) REFERENCES usuario(id),
+    FOREIGN KEY (compra_id) REFERENCES compras(id)
+);
+
+-- Tabla de eventos del outbox (cambios de compras y productos, escritos en su misma transacción)
+CREATE TABLE outbox_events (
+    id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    posicion BIGINT,
+    tipo VARCHAR(40) NOT NULL,
+    agregado_id BIGINT NOT NULL,
+    payload LONGTEXT NOT NULL,
+    fecha_creacion DATETIME(6) NOT NULL,
+    fecha_publicacion DATETIME(6),
+    UNIQUE KEY uk_outbox_events_posicion (posicion),
+    INDEX idx_outbox_events_agregado (agregado_id, tipo)
+);
+
+-- Tabla de posiciones de lectura del outbox (relay y sinks duraderos)
+CREATE TABLE outbox_offsets (
+    consumidor VARCHAR(100) PRIMARY KEY,
+    posicion BIGINT NOT NULL,
+    fecha_actualizacion DATETIME(6) NOT NULL
+);
+
+-- Tablas de ventas agregadas para la analítica (mantenidas por el relay del outbox)
+CREATE TABLE ventas_diarias (
+    fecha DATE PRIMARY KEY,
+    compras BIGINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    ingresos DECIMAL(14,2) NOT NULL
+);
+
+CREATE TABLE ventas_productos (
+    producto_id BIGINT PRIMARY KEY,
+    compras BIGINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    ingresos DECIMAL(14,2) NOT NULL,
+    INDEX idx_ventas_productos_ingresos (ingresos),
+    INDEX idx_ventas_productos_unidades (unidades)
+);
+
+CREATE TABLE ventas_usuarios (
+    usuario_id BIGINT PRIMARY KEY,
+    compras BIGINT NOT NULL,
+    unidades BIGINT NOT NULL,
+    ingresos DECIMAL(14,2) NOT NULL,
+    INDEX idx_ventas_usuarios_ingresos (ingresos)
+);
+
 -- Insert users with BCrypt encoded passwords
 INSERT INTO usuario (nombre, email, password, rol) VALUES
 ('Admin', 'admin@example.com', '$2a$10$vojmaj3pMOzWHVid5J9su..YSckd.RIswZ3STy5xiJkYwmAB8b67.', 'ADMIN'), -- Admin123!
@@ -101,4 +181,13 @@ INSERT INTO compra_productos (compra_id, producto_id, cantidad, subtotal) VALUES
 (6, 4, 1, 199.99),
 (7, 10, 1, 159.99),
 (8, 7, 1, 79.99),
-(8, 5, 1, 269.99);
\ No newline at end of file
+(8, 5, 1, 269.99);
+
+-- Seed ID generators past the existing purchase rows
+INSERT INTO id_generators (gen_name, gen_value)
+SELECT 'compras', COALESCE(MAX(id), 0) + 1 FROM compras;
+INSERT INTO id_generators (gen_name, gen_value)
+SELECT 'compra_productos', COALESCE(MAX(id), 0) + 1 FROM compra_productos;
+
+-- Seed the product catalog version
+INSERT INTO catalog_versions (catalog_name, catalog_version) VALUES ('productos', 0);
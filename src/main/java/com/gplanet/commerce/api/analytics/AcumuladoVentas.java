@@ -0,0 +1,113 @@
+package com.gplanet.commerce.api.analytics;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.gplanet.commerce.api.dtos.analitica.LineaVentaProjection;
+
+import lombok.Getter;
+
+/**
+ * Sales totals per day, product and customer of a set of purchases, added up in memory.
+ * The rollups are moved by the totals of the purchases in each delivery of the outbox, and
+ * rebuilt from the totals of every purchase, so both go through the same sums.
+ *
+ * <p>Not thread-safe: each thread fills its own, and they are merged once filled.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Getter
+public class AcumuladoVentas {
+
+    private final Map<LocalDate, Totales> dias = new HashMap<>();
+    private final Map<Long, Totales> productos = new HashMap<>();
+    private final Map<Long, Totales> usuarios = new HashMap<>();
+    private long compras;
+
+    /**
+     * Adds the purchases of a set of rows, which must come grouped by purchase. A purchase is
+     * counted once per product too, even when it lists the product in several lines.
+     *
+     * @param lineas the rows, one per line item
+     */
+    public void sumar(List<LineaVentaProjection> lineas) {
+        Long compraActual = null;
+        Set<Long> productosCompra = new HashSet<>();
+        for (LineaVentaProjection linea : lineas) {
+            LocalDate dia = linea.fecha().toLocalDate();
+            if (!linea.compraId().equals(compraActual)) {
+                compraActual = linea.compraId();
+                productosCompra.clear();
+                compras++;
+                totales(dias, dia).sumar(1, 0, linea.total());
+                if (linea.usuarioId() != null) {
+                    totales(usuarios, linea.usuarioId()).sumar(1, 0, linea.total());
+                }
+            }
+            if (linea.cantidad() != null) {
+                totales(dias, dia).sumar(0, linea.cantidad(), BigDecimal.ZERO);
+                if (linea.usuarioId() != null) {
+                    totales(usuarios, linea.usuarioId()).sumar(0, linea.cantidad(), BigDecimal.ZERO);
+                }
+                if (linea.productoId() != null) {
+                    long nuevaCompra = 0;
+                    if (productosCompra.add(linea.productoId())) {
+                        nuevaCompra = 1;
+                    }
+                    totales(productos, linea.productoId()).sumar(nuevaCompra, linea.cantidad(), linea.subtotal());
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the totals of another set of purchases, with no purchase in common.
+     *
+     * @param otro the totals to add
+     */
+    public void sumar(AcumuladoVentas otro) {
+        otro.dias.forEach((dia, totales) -> totales(dias, dia).sumar(totales));
+        otro.productos.forEach((id, totales) -> totales(productos, id).sumar(totales));
+        otro.usuarios.forEach((id, totales) -> totales(usuarios, id).sumar(totales));
+        compras += otro.compras;
+    }
+
+    /**
+     * Returns whether no purchase has been added.
+     *
+     * @return true without purchases
+     */
+    public boolean isEmpty() {
+        return compras == 0;
+    }
+
+    private static <K> Totales totales(Map<K, Totales> mapa, K clave) {
+        return mapa.computeIfAbsent(clave, k -> new Totales());
+    }
+
+    /**
+     * Purchases, units and revenue of one day, product or customer.
+     */
+    @Getter
+    public static class Totales {
+        private long compras;
+        private long unidades;
+        private BigDecimal ingresos = BigDecimal.ZERO;
+
+        void sumar(long masCompras, long masUnidades, BigDecimal masIngresos) {
+            compras += masCompras;
+            unidades += masUnidades;
+            ingresos = ingresos.add(masIngresos);
+        }
+
+        void sumar(Totales otros) {
+            sumar(otros.compras, otros.unidades, otros.ingresos);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.gplanet.commerce.api.analytics;
+
+import java.util.List;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.gplanet.commerce.api.configs.app.props.OutboxProperties;
+import com.gplanet.commerce.api.dtos.evento.EventType;
+import com.gplanet.commerce.api.dtos.evento.EventoDTO;
+import com.gplanet.commerce.api.outbox.EventSink;
+import com.gplanet.commerce.api.repositories.CompraRepository;
+
+/**
+ * Sink keeping the sales rollups up to date with the purchases committed.
+ *
+ * <p>For each delivery it reads the created purchases by ID and adds their totals to the rollups.
+ * The relay delivers to a durable sink in the transaction that moves its position, so the rollups
+ * and the position commit together and every purchase is counted exactly once. The rollups are
+ * written by a single node at a time and after the purchase has committed, so concurrent purchases
+ * never wait on the row of their day.</p>
+ *
+ * <p>The outbox relay is the only writer of the rollups, so enabling the analytics with the outbox
+ * disabled fails at startup instead of serving totals that never move.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "analytics.enabled", havingValue = "true", matchIfMissing = true)
+public class RollupEventSink implements EventSink {
+
+    /**
+     * Name the position of the rollups is stored under.
+     */
+    public static final String NOMBRE = "rollups";
+
+    private final CompraRepository compraRepository;
+    private final RollupStore rollupStore;
+
+    /**
+     * Constructs the sink.
+     *
+     * @param compraRepository the repository of the purchases delivered
+     * @param rollupStore the store of the rollups
+     * @param outboxProperties the outbox settings
+     * @throws IllegalStateException if the outbox is disabled
+     */
+    public RollupEventSink(CompraRepository compraRepository, RollupStore rollupStore,
+            OutboxProperties outboxProperties) {
+        if (!outboxProperties.isEnabled()) {
+            throw new IllegalStateException(
+                "analytics.enabled requiere outbox.enabled: sin el relay las ventas agregadas no se actualizan");
+        }
+        this.compraRepository = compraRepository;
+        this.rollupStore = rollupStore;
+    }
+
+    @Override
+    public String nombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public boolean duradero() {
+        return true;
+    }
+
+    @Override
+    public void publicar(List<EventoDTO> eventos) {
+        List<Long> compras = eventos.stream()
+            .filter(evento -> evento.tipo() == EventType.PURCHASE_CREATED)
+            .map(EventoDTO::agregadoId)
+            .toList();
+        if (compras.isEmpty()) {
+            return;
+        }
+        AcumuladoVentas acumulado = new AcumuladoVentas();
+        acumulado.sumar(compraRepository.findLineasVentaByCompraIdIn(compras));
+        rollupStore.sumar(acumulado);
+    }
+}
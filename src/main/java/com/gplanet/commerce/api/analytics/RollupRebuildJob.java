@@ -0,0 +1,204 @@
+package com.gplanet.commerce.api.analytics;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gplanet.commerce.api.configs.app.props.AnalyticsProperties;
+import com.gplanet.commerce.api.dtos.analitica.RebuildStatus;
+import com.gplanet.commerce.api.dtos.analitica.ReconstruccionDTO;
+import com.gplanet.commerce.api.dtos.evento.EventType;
+import com.gplanet.commerce.api.entities.OffsetOutbox;
+import com.gplanet.commerce.api.outbox.OutboxRelay;
+import com.gplanet.commerce.api.repositories.CompraRepository;
+import com.gplanet.commerce.api.repositories.OffsetOutboxRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Job recomputing the sales rollups from the purchases, for a database that had purchases before
+ * the rollups existed or after the rollups were changed by hand.
+ *
+ * <p>The range of purchase IDs is split in chunks of {@code chunk-size} IDs, aggregated by
+ * {@code parallelism} threads at a time, each chunk in its own transaction through the primary
+ * key. The rebuild first reads the last position the relay has sequenced, and every chunk leaves
+ * out the purchases whose creation event comes after it. The rollups are then replaced and their
+ * position in the outbox set to that one in a single transaction, and the relay adds the later
+ * purchases on top. Purchases keep being made and counted while it runs.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class RollupRebuildJob implements DisposableBean {
+
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final AnalyticsProperties properties;
+    private final CompraRepository compraRepository;
+    private final OffsetOutboxRepository offsetOutboxRepository;
+    private final RollupStore rollupStore;
+    private final TransactionTemplate transacciones;
+    private final AtomicInteger fragmentosCompletados = new AtomicInteger();
+    private final AtomicLong comprasAgregadas = new AtomicLong();
+    private RebuildStatus estado = RebuildStatus.IDLE;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private int fragmentos;
+    private String error;
+    private Thread hilo;
+
+    /**
+     * Constructs the job.
+     *
+     * @param properties the analytics settings
+     * @param compraRepository the repository the purchases are read from
+     * @param offsetOutboxRepository the repository of the outbox positions
+     * @param rollupStore the store the rollups are replaced through
+     * @param transactionManager the transaction manager of the chunk transactions
+     */
+    public RollupRebuildJob(AnalyticsProperties properties, CompraRepository compraRepository,
+            OffsetOutboxRepository offsetOutboxRepository, RollupStore rollupStore,
+            PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.compraRepository = compraRepository;
+        this.offsetOutboxRepository = offsetOutboxRepository;
+        this.rollupStore = rollupStore;
+        // Read-write, so the purchases and positions are always read from the primary database
+        this.transacciones = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Starts a rebuild in the background, unless one is running already.
+     *
+     * @return the state of the rebuild started or running
+     */
+    public synchronized ReconstruccionDTO iniciar() {
+        if (estado != RebuildStatus.RUNNING) {
+            estado = RebuildStatus.RUNNING;
+            inicio = LocalDateTime.now();
+            fin = null;
+            fragmentos = 0;
+            error = null;
+            fragmentosCompletados.set(0);
+            comprasAgregadas.set(0);
+            hilo = Thread.ofPlatform().name("rollup-rebuild").daemon().start(this::ejecutar);
+            log.info("Sales rollup rebuild started");
+        }
+        return estado();
+    }
+
+    /**
+     * Returns the state of the last rebuild run by this node.
+     *
+     * @return the state of the rebuild
+     */
+    public synchronized ReconstruccionDTO estado() {
+        return new ReconstruccionDTO(estado, inicio, fin, fragmentos, fragmentosCompletados.get(),
+            comprasAgregadas.get(), error);
+    }
+
+    /**
+     * Interrupts a running rebuild, leaving the rollups as they were.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        Thread actual;
+        synchronized (this) {
+            actual = hilo;
+        }
+        if (actual != null) {
+            actual.interrupt();
+            actual.join(TimeUnit.SECONDS.toMillis(STOP_TIMEOUT_SECONDS));
+        }
+    }
+
+    private void ejecutar() {
+        long comienzo = System.nanoTime();
+        try {
+            long posicion = transacciones.execute(status -> offsetOutboxRepository.findById(OutboxRelay.SECUENCIADOR)
+                .map(OffsetOutbox::getPosicion)
+                .orElse(0L));
+            AcumuladoVentas total = agregar(posicion);
+            rollupStore.reemplazar(total, posicion);
+            terminar(RebuildStatus.COMPLETED, null);
+            log.info("Sales rollups rebuilt from {} purchases up to outbox position {} in {} ms",
+                total.getCompras(), posicion, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - comienzo));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            terminar(RebuildStatus.FAILED, "Reconstrucción interrumpida");
+        } catch (ExecutionException e) {
+            fallar(e.getCause());
+        } catch (RuntimeException e) {
+            fallar(e);
+        }
+    }
+
+    /**
+     * Aggregates the purchases chunk by chunk, merging each chunk as it completes.
+     */
+    private AcumuladoVentas agregar(long posicion) throws InterruptedException, ExecutionException {
+        AcumuladoVentas total = new AcumuladoVentas();
+        Long[] rango = transacciones.execute(status ->
+            new Long[] {compraRepository.findMinId(), compraRepository.findMaxId()});
+        if (rango == null || rango[0] == null) {
+            return total;
+        }
+        long minimo = rango[0];
+        long maximo = rango[1];
+        int tamano = properties.getRebuild().getChunkSize();
+        int tareas = (int) ((maximo - minimo) / tamano + 1);
+        synchronized (this) {
+            fragmentos = tareas;
+        }
+        ExecutorService workers = Executors.newFixedThreadPool(properties.getRebuild().getParallelism(),
+            Thread.ofPlatform().name("rollup-rebuild-", 1).daemon().factory());
+        try {
+            CompletionService<AcumuladoVentas> completados = new ExecutorCompletionService<>(workers);
+            for (long desde = minimo - 1; desde < maximo; desde += tamano) {
+                long inicioFragmento = desde;
+                long finFragmento = Math.min(desde + tamano, maximo);
+                completados.submit(() -> agregarFragmento(inicioFragmento, finFragmento, posicion));
+            }
+            for (int i = 0; i < tareas; i++) {
+                total.sumar(completados.take().get());
+            }
+            return total;
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private AcumuladoVentas agregarFragmento(long desde, long hasta, long posicion) {
+        AcumuladoVentas acumulado = new AcumuladoVentas();
+        transacciones.executeWithoutResult(status -> acumulado.sumar(
+            compraRepository.findLineasVentaHastaPosicion(desde, hasta, posicion, EventType.PURCHASE_CREATED)));
+        fragmentosCompletados.incrementAndGet();
+        comprasAgregadas.addAndGet(acumulado.getCompras());
+        return acumulado;
+    }
+
+    private void fallar(Throwable causa) {
+        log.error("Sales rollup rebuild failed, the rollups were left as they were", causa);
+        terminar(RebuildStatus.FAILED, causa.getMessage());
+    }
+
+    private synchronized void terminar(RebuildStatus resultado, String motivo) {
+        estado = resultado;
+        fin = LocalDateTime.now();
+        error = motivo;
+        hilo = null;
+    }
+}
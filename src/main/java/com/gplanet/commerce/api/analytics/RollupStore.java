@@ -0,0 +1,163 @@
+package com.gplanet.commerce.api.analytics;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.analytics.AcumuladoVentas.Totales;
+import com.gplanet.commerce.api.entities.OffsetOutbox;
+import com.gplanet.commerce.api.entities.VentaDiaria;
+import com.gplanet.commerce.api.entities.VentaProducto;
+import com.gplanet.commerce.api.entities.VentaUsuario;
+import com.gplanet.commerce.api.repositories.OffsetOutboxRepository;
+import com.gplanet.commerce.api.repositories.VentaDiariaRepository;
+import com.gplanet.commerce.api.repositories.VentaProductoRepository;
+import com.gplanet.commerce.api.repositories.VentaUsuarioRepository;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Writes the sales rollups: the daily, per-product and per-customer totals of the purchases.
+ *
+ * <p>Both writes run while the {@value RollupEventSink#NOMBRE} position of the outbox is locked,
+ * so they never interleave: the totals of a delivery are added in the transaction that moves the
+ * position, and a rebuild replaces the rollups and sets the position in a single transaction.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class RollupStore {
+
+    private static final int LOTE_ESCRITURA = 1_000;
+
+    private final VentaDiariaRepository ventaDiariaRepository;
+    private final VentaProductoRepository ventaProductoRepository;
+    private final VentaUsuarioRepository ventaUsuarioRepository;
+    private final OffsetOutboxRepository offsetOutboxRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Adds totals to the rollups, reading the rows they touch by primary key and inserting
+     * the missing ones.
+     *
+     * @param acumulado the totals of the purchases to add
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void sumar(AcumuladoVentas acumulado) {
+        sumarFilas(ventaDiariaRepository, acumulado.getDias(), VentaDiaria::getFecha, RollupStore::nuevaVentaDiaria,
+            (fila, totales) -> {
+                fila.setCompras(fila.getCompras() + totales.getCompras());
+                fila.setUnidades(fila.getUnidades() + totales.getUnidades());
+                fila.setIngresos(fila.getIngresos().add(totales.getIngresos()));
+            });
+        sumarFilas(ventaProductoRepository, acumulado.getProductos(), VentaProducto::getProductoId,
+            RollupStore::nuevaVentaProducto, (fila, totales) -> {
+                fila.setCompras(fila.getCompras() + totales.getCompras());
+                fila.setUnidades(fila.getUnidades() + totales.getUnidades());
+                fila.setIngresos(fila.getIngresos().add(totales.getIngresos()));
+            });
+        sumarFilas(ventaUsuarioRepository, acumulado.getUsuarios(), VentaUsuario::getUsuarioId,
+            RollupStore::nuevaVentaUsuario, (fila, totales) -> {
+                fila.setCompras(fila.getCompras() + totales.getCompras());
+                fila.setUnidades(fila.getUnidades() + totales.getUnidades());
+                fila.setIngresos(fila.getIngresos().add(totales.getIngresos()));
+            });
+    }
+
+    /**
+     * Replaces the rollups with the totals of a rebuild, and moves the position of the rollups
+     * in the outbox stream to the last one the totals account for. The events after it are then
+     * added on top by the relay, whatever it had delivered meanwhile.
+     *
+     * @param acumulado the totals of every purchase up to the position
+     * @param posicion the last position of the outbox stream the totals account for
+     */
+    @Transactional
+    public void reemplazar(AcumuladoVentas acumulado, long posicion) {
+        LocalDateTime ahora = LocalDateTime.now();
+        offsetOutboxRepository.findParaActualizar(RollupEventSink.NOMBRE).ifPresentOrElse(
+            offset -> {
+                offset.setPosicion(posicion);
+                offset.setFechaActualizacion(ahora);
+            },
+            () -> entityManager.persist(new OffsetOutbox(RollupEventSink.NOMBRE, posicion, ahora)));
+        entityManager.flush();
+
+        ventaDiariaRepository.deleteAllInBatch();
+        ventaProductoRepository.deleteAllInBatch();
+        ventaUsuarioRepository.deleteAllInBatch();
+        int pendientes = 0;
+        for (Map.Entry<LocalDate, Totales> dia : acumulado.getDias().entrySet()) {
+            entityManager.persist(nuevaVentaDiaria(dia.getKey(), dia.getValue()));
+            pendientes = vaciarSiLleno(pendientes + 1);
+        }
+        for (Map.Entry<Long, Totales> producto : acumulado.getProductos().entrySet()) {
+            entityManager.persist(nuevaVentaProducto(producto.getKey(), producto.getValue()));
+            pendientes = vaciarSiLleno(pendientes + 1);
+        }
+        for (Map.Entry<Long, Totales> usuario : acumulado.getUsuarios().entrySet()) {
+            entityManager.persist(nuevaVentaUsuario(usuario.getKey(), usuario.getValue()));
+            pendientes = vaciarSiLleno(pendientes + 1);
+        }
+    }
+
+    /**
+     * Adds totals to the existing rows of a rollup and inserts the rows that don't exist yet.
+     */
+    private <K, E> void sumarFilas(JpaRepository<E, K> repository, Map<K, Totales> totales, Function<E, K> clave,
+            BiFunction<K, Totales, E> nueva, BiConsumer<E, Totales> sumar) {
+        if (totales.isEmpty()) {
+            return;
+        }
+        Map<K, Totales> nuevas = new HashMap<>(totales);
+        for (E fila : repository.findAllById(totales.keySet())) {
+            sumar.accept(fila, nuevas.remove(clave.apply(fila)));
+        }
+        nuevas.forEach((id, totalesFila) -> entityManager.persist(nueva.apply(id, totalesFila)));
+    }
+
+    /**
+     * Writes the inserted rows and detaches them once a batch is full, so a rebuild doesn't hold
+     * every row in the persistence context.
+     */
+    private int vaciarSiLleno(int pendientes) {
+        if (pendientes < LOTE_ESCRITURA) {
+            return pendientes;
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return 0;
+    }
+
+    private static VentaDiaria nuevaVentaDiaria(LocalDate fecha, Totales totales) {
+        return new VentaDiaria(fecha, totales.getCompras(), totales.getUnidades(), escala(totales.getIngresos()));
+    }
+
+    private static VentaProducto nuevaVentaProducto(Long productoId, Totales totales) {
+        return new VentaProducto(productoId, totales.getCompras(), totales.getUnidades(),
+            escala(totales.getIngresos()));
+    }
+
+    private static VentaUsuario nuevaVentaUsuario(Long usuarioId, Totales totales) {
+        return new VentaUsuario(usuarioId, totales.getCompras(), totales.getUnidades(),
+            escala(totales.getIngresos()));
+    }
+
+    private static BigDecimal escala(BigDecimal importe) {
+        return importe.setScale(2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,143 @@
+package com.gplanet.commerce.api.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gplanet.commerce.api.configs.app.props.IdempotencyProperties;
+import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.exceptions.IdempotencyKeyException;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, TTL-expiring cache of the purchases submitted with an idempotency key,
+ * including the ones still in progress.
+ *
+ * <p>Entries are keyed by user and key. The first request with a key runs the purchase on
+ * the calling thread; duplicates arriving meanwhile wait for its result instead of running
+ * it again, up to {@code wait-timeout}, and retries arriving later get the cached result
+ * without touching the database. A purchase that fails is dropped from the cache, so the
+ * next retry runs it again.</p>
+ *
+ * <p>Hit, miss, size and eviction counters are published through Micrometer under the
+ * cache name {@value #CACHE_NAME}.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component
+public class IdempotencyKeyCache implements MeterBinder {
+
+    /**
+     * Name used to tag the cache metrics.
+     */
+    public static final String CACHE_NAME = "compras.idempotency";
+
+    private final AsyncCache<ClaveCompra, Resultado> cache;
+    private final long waitTimeoutMillis;
+
+    /**
+     * Constructs the idempotency key cache with the configured size, TTL and wait timeout.
+     *
+     * @param properties the idempotency settings
+     */
+    public IdempotencyKeyCache(IdempotencyProperties properties) {
+        this.waitTimeoutMillis = properties.getWaitTimeout().toMillis();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the purchase submitted with the given key, running it if the key is new.
+     *
+     * @param email the email of the user submitting the purchase
+     * @param clave the idempotency key
+     * @param huella the fingerprint of the submitted purchase lines
+     * @param compra runs the purchase, or finds the one stored for the key, on a miss
+     * @return the purchase created with the key
+     * @throws IdempotencyKeyException if the key was used for different purchase lines (422),
+     *         or the first request with the key didn't finish in time (409)
+     */
+    public CompraResponseDTO get(String email, String clave, String huella, Supplier<Resultado> compra) {
+        CompletableFuture<Resultado> load = new CompletableFuture<>();
+        CompletableFuture<Resultado> resultado = cache.get(new ClaveCompra(email, clave), (key, executor) -> load);
+        if (resultado == load) {
+            try {
+                load.complete(compra.get());
+            } catch (Throwable ex) {
+                // Failed futures are dropped from the cache, so the next retry runs the purchase again;
+                // an Error too, or the key would look in progress until the entry is evicted
+                load.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        Resultado hecho = esperar(resultado);
+        if (!hecho.huella().equals(huella)) {
+            throw new IdempotencyKeyException(
+                "La clave de idempotencia ya se usó para otra compra", HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+        return hecho.compra();
+    }
+
+    /**
+     * Registers the cache hit, miss, size and eviction metrics.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    private Resultado esperar(CompletableFuture<Resultado> resultado) {
+        try {
+            return resultado.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            // A duplicate gets the same error as the request it waited for
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw enCurso();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw enCurso();
+        }
+    }
+
+    private static IdempotencyKeyException enCurso() {
+        return new IdempotencyKeyException(
+            "La compra con esta clave de idempotencia aún se está procesando", HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Purchase submitted with a key, with the fingerprint of the lines it was first sent with.
+     *
+     * @param huella the fingerprint of the purchase lines stored with the key
+     * @param compra the purchase; may be null when the fingerprint doesn't match the request
+     */
+    public record Resultado(String huella, CompraResponseDTO compra) {}
+
+    /**
+     * Cache key of a purchase submission.
+     *
+     * @param email the email of the user
+     * @param clave the idempotency key
+     */
+    private record ClaveCompra(String email, String clave) {}
+}
@@ -0,0 +1,68 @@
+package com.gplanet.commerce.api.cache;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gplanet.commerce.api.entities.Producto;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that clears the local product caches on product writes:
+ * the {@link ProductoCountCache} totals and the {@link ProductoCatalogCache} catalog.
+ *
+ * <p>The caches are cleared when Hibernate flushes the change and again once the surrounding
+ * transaction completes, so nothing read by a concurrent request before the commit, or by the
+ * writing transaction itself before a rollback, is kept. Being an entity listener, it also covers
+ * writes made directly through the repository. Other API nodes notice the change through the
+ * shared catalog version instead.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class ProductoCacheListener {
+
+    private final ObjectProvider<ProductoCountCache> countCache;
+    private final ObjectProvider<ProductoCatalogCache> catalogCache;
+
+    /**
+     * Constructs the listener.
+     *
+     * @param countCache lazy provider of the product count cache
+     * @param catalogCache lazy provider of the active catalog cache
+     */
+    public ProductoCacheListener(
+            ObjectProvider<ProductoCountCache> countCache,
+            ObjectProvider<ProductoCatalogCache> catalogCache) {
+        this.countCache = countCache;
+        this.catalogCache = catalogCache;
+    }
+
+    /**
+     * Clears the cached totals and catalog after a product is created, updated or removed.
+     *
+     * @param producto the written product
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWritten(Producto producto) {
+        limpiar();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    limpiar();
+                }
+            });
+        }
+    }
+
+    private void limpiar() {
+        countCache.ifAvailable(ProductoCountCache::evictAll);
+        catalogCache.ifAvailable(ProductoCatalogCache::invalidar);
+    }
+}
@@ -0,0 +1,418 @@
+package com.gplanet.commerce.api.cache;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToLongFunction;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.gplanet.commerce.api.configs.app.props.ProductoCatalogCacheProperties;
+import com.gplanet.commerce.api.dtos.producto.ProductoMapper;
+import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
+import com.gplanet.commerce.api.entities.CatalogoVersion;
+import com.gplanet.commerce.api.repositories.CatalogoVersionRepository;
+import com.gplanet.commerce.api.repositories.ProductoRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Read-through, in-memory copy of the active product catalog.
+ *
+ * <p>The catalog is loaded once and kept as arrays of {@link ProductoResponseDTO}, one per
+ * supported sort field, so an unfiltered page of active products is an array slice with no
+ * database round-trip. A descending page reads the same array backwards. The catalog is read
+ * in name order, so names keep the order of the database collation the listings fall back to;
+ * the other fields are sorted in memory by their natural order, which the database shares.</p>
+ *
+ * <p>The copy is dropped when a product is written through this node (see
+ * {@link ProductoCacheListener}) and when the shared catalog version in the database no longer
+ * matches the one it was built from. Writes bump that version through {@link #registrarCambio()},
+ * and every node reads it at most once per {@code version-check-interval}. A catalog whose
+ * estimated size exceeds {@code max-memory} is not cached, and while the active products counted
+ * at later versions still exceed it at the same size per product, it isn't loaded again and its
+ * listings count as misses. The same version, available through
+ * {@link #version()}, identifies the state of the catalog in the HTTP entity tags of the
+ * product listings.</p>
+ *
+ * <p>Hit and miss counters, the hit ratio, the number of cached products and their estimated
+ * memory are published through Micrometer under the cache name {@value #CACHE_NAME}.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ProductoCatalogCache implements MeterBinder {
+
+    /**
+     * Name used to tag the cache metrics.
+     */
+    public static final String CACHE_NAME = "productos.catalog";
+
+    /**
+     * Name of the shared version of the product catalog.
+     */
+    public static final String CATALOG_VERSION = "productos";
+
+    private static final String ID_FIELD = "id";
+    private static final String NOMBRE_FIELD = "nombre";
+    private static final String CACHE_TAG = "cache";
+    private static final String RESULT_TAG = "result";
+
+    // Rough per-object sizes (compressed references) used to estimate the catalog memory
+    private static final long DTO_BYTES = 40;
+    private static final long LONG_BYTES = 16;
+    private static final long DECIMAL_BYTES = 64;
+    private static final long DATE_TIME_BYTES = 72;
+    private static final long STRING_BYTES = 40;
+    private static final long REFERENCE_BYTES = 4;
+
+    private static final Map<String, Comparator<ProductoResponseDTO>> ORDERS = ordenes();
+
+    private final ProductoCatalogCacheProperties properties;
+    private final ProductoRepository productoRepository;
+    private final ProductoMapper productoMapper;
+    private final CatalogoVersionRepository catalogoVersionRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final AtomicReference<Long> knownVersion = new AtomicReference<>();
+    private final AtomicLong generation = new AtomicLong();
+    // Not a monitor: the load queries the database, which would pin a virtual thread to its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile long nextVersionCheck;
+    // Estimated bytes per product of the last catalog too large to be cached, 0 if it fitted
+    private volatile long bytesPorProducto;
+
+    /**
+     * Constructs the catalog cache.
+     *
+     * @param properties the catalog cache settings
+     * @param productoRepository repository the catalog is loaded from
+     * @param productoMapper mapper used to pre-build the response DTOs
+     * @param catalogoVersionRepository repository of the shared catalog version
+     */
+    public ProductoCatalogCache(
+            ProductoCatalogCacheProperties properties,
+            ProductoRepository productoRepository,
+            ProductoMapper productoMapper,
+            CatalogoVersionRepository catalogoVersionRepository) {
+        this.properties = properties;
+        this.productoRepository = productoRepository;
+        this.productoMapper = productoMapper;
+        this.catalogoVersionRepository = catalogoVersionRepository;
+    }
+
+    /**
+     * Returns a page of active products from memory, loading the catalog on a miss.
+     *
+     * @param pageable the requested page, sorted by a single supported field
+     * @return the page, or empty if the cache is disabled, the sort isn't supported
+     *         or the catalog is too large to be cached
+     */
+    public Optional<Page<ProductoResponseDTO>> buscar(Pageable pageable) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        Sort.Order order = ordenSoportado(pageable.getSort());
+        if (order == null) {
+            return Optional.empty();
+        }
+
+        Snapshot actual = snapshot.get();
+        if (actual != null && versionCambiada(actual)) {
+            invalidar();
+            actual = null;
+        }
+        boolean cargado = false;
+        if (actual == null) {
+            actual = cargar();
+            cargado = true;
+        }
+        if (actual.ordenados() == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (cargado) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return Optional.of(actual.pagina(order, pageable));
+    }
+
+    /**
+     * Returns the shared catalog version as last read by this node. The version is read again
+     * once the check interval has elapsed, and right away after a local product write.
+     * Unlike the catalog itself, it is kept even when the cache is disabled.
+     *
+     * @return the current catalog version
+     */
+    public long version() {
+        Long actual = knownVersion.get();
+        if (actual != null && System.nanoTime() - nextVersionCheck < 0) {
+            return actual;
+        }
+        long readGeneration = generation.get();
+        nextVersionCheck = System.nanoTime() + properties.getVersionCheckInterval().toNanos();
+        long leida = leerVersion();
+        if (generation.get() == readGeneration) {
+            knownVersion.set(leida);
+        }
+        return leida;
+    }
+
+    /**
+     * Bumps the shared catalog version so every node drops its copy.
+     * Must be called inside the transaction that writes the products, so the new
+     * version becomes visible to the other nodes together with the change.
+     *
+     * @return the version the change is recorded at
+     */
+    public long registrarCambio() {
+        if (catalogoVersionRepository.incrementVersion(CATALOG_VERSION) == 0) {
+            catalogoVersionRepository.save(new CatalogoVersion(CATALOG_VERSION, 1L));
+            return 1L;
+        }
+        // The row stays locked by the update until the transaction ends
+        return leerVersion();
+    }
+
+    /**
+     * Drops the in-memory catalog of this node. The next request reloads it.
+     */
+    public void invalidar() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+        knownVersion.set(null);
+    }
+
+    /**
+     * Registers the cache hit, miss, hit ratio, size and memory metrics.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+            .tags(CACHE_TAG, CACHE_NAME, RESULT_TAG, "hit")
+            .description("Listings served from the in-memory catalog")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+            .tags(CACHE_TAG, CACHE_NAME, RESULT_TAG, "miss")
+            .description("Listings that had to load the catalog or were read from the database")
+            .register(registry);
+        Gauge.builder("cache.hit.ratio", this, ProductoCatalogCache::hitRatio)
+            .tags(CACHE_TAG, CACHE_NAME)
+            .description("Fraction of listings served from the in-memory catalog")
+            .register(registry);
+        Gauge.builder("cache.size", this, cache -> cache.medida(Snapshot::size))
+            .tags(CACHE_TAG, CACHE_NAME)
+            .description("Number of cached products")
+            .register(registry);
+        Gauge.builder("cache.memory.estimated", this, cache -> cache.medida(Snapshot::bytes))
+            .tags(CACHE_TAG, CACHE_NAME)
+            .baseUnit("bytes")
+            .description("Estimated memory of the cached catalog")
+            .register(registry);
+    }
+
+    private double hitRatio() {
+        double total = hits.sum() + misses.sum();
+        if (total == 0) {
+            return 0;
+        }
+        return hits.sum() / total;
+    }
+
+    private double medida(ToLongFunction<Snapshot> metric) {
+        Snapshot actual = snapshot.get();
+        if (actual == null) {
+            return 0;
+        }
+        return metric.applyAsLong(actual);
+    }
+
+    /**
+     * Checks the shared catalog version, at most once per check interval.
+     *
+     * @param actual the cached catalog
+     * @return true if the catalog was changed since the copy was built
+     */
+    private boolean versionCambiada(Snapshot actual) {
+        return version() != actual.version();
+    }
+
+    private long leerVersion() {
+        return catalogoVersionRepository.findVersionByNombre(CATALOG_VERSION).orElse(0L);
+    }
+
+    /**
+     * Loads the active catalog, unless another request loaded it meanwhile or it is still
+     * too large to be cached. A copy loaded while this node invalidated the catalog is
+     * returned to the caller but not kept.
+     *
+     * @return the loaded catalog
+     */
+    private Snapshot cargar() {
+        loadLock.lock();
+        try {
+            Snapshot actual = snapshot.get();
+            if (actual != null) {
+                return actual;
+            }
+            long loadGeneration = generation.get();
+            long version = version();
+
+            Snapshot cargado = estimarSinCargar(version);
+            if (cargado == null) {
+                ProductoResponseDTO[] porNombre = productoRepository.findByActivoTrueOrderByNombreAscIdAsc().stream()
+                    .map(productoMapper::toProductoResponseDTO)
+                    .toArray(ProductoResponseDTO[]::new);
+                cargado = construir(version, porNombre);
+            }
+            if (generation.get() == loadGeneration) {
+                snapshot.set(cargado);
+            }
+            return cargado;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Counts the active products instead of loading them when the last catalog was too large,
+     * estimating its memory with the size per product of that catalog.
+     *
+     * @param version the shared catalog version
+     * @return the uncached catalog if it is still too large, null if it must be loaded
+     */
+    private Snapshot estimarSinCargar(long version) {
+        long porProducto = bytesPorProducto;
+        if (porProducto == 0) {
+            return null;
+        }
+        long activos = productoRepository.countByActivoTrue();
+        long bytes = REFERENCE_BYTES * activos * (ORDERS.size() + 1) + activos * porProducto;
+        if (bytes <= properties.getMaxMemory().toBytes()) {
+            return null;
+        }
+        log.debug("Active catalog of {} products (~{} bytes) still exceeds the cache limit at version {}",
+            activos, bytes, version);
+        return new Snapshot(version, null, Math.toIntExact(activos), bytes);
+    }
+
+    private Snapshot construir(long version, ProductoResponseDTO[] porNombre) {
+        long productosBytes = 0;
+        for (ProductoResponseDTO producto : porNombre) {
+            productosBytes += estimarBytes(producto);
+        }
+        long bytes = REFERENCE_BYTES * porNombre.length * (ORDERS.size() + 1) + productosBytes;
+        if (bytes > properties.getMaxMemory().toBytes()) {
+            bytesPorProducto = Math.max(productosBytes / porNombre.length, 1);
+            log.warn("Active catalog of {} products (~{} bytes) exceeds the cache limit of {}, "
+                + "reading it from the database", porNombre.length, bytes, properties.getMaxMemory());
+            return new Snapshot(version, null, porNombre.length, bytes);
+        }
+        bytesPorProducto = 0;
+
+        Map<String, ProductoResponseDTO[]> ordenados = new HashMap<>();
+        ordenados.put(NOMBRE_FIELD, porNombre);
+        ORDERS.forEach((field, comparator) -> {
+            ProductoResponseDTO[] ordenado = porNombre.clone();
+            Arrays.sort(ordenado, comparator);
+            ordenados.put(field, ordenado);
+        });
+        log.info("Cached active catalog of {} products (~{} bytes) at version {}", porNombre.length, bytes, version);
+        return new Snapshot(version, ordenados, porNombre.length, bytes);
+    }
+
+    private static long estimarBytes(ProductoResponseDTO producto) {
+        return DTO_BYTES + LONG_BYTES + DECIMAL_BYTES + DATE_TIME_BYTES
+            + estimarBytes(producto.nombre()) + estimarBytes(producto.descripcion());
+    }
+
+    private static long estimarBytes(String value) {
+        if (value == null) {
+            return 0;
+        }
+        return STRING_BYTES + 2L * value.length();
+    }
+
+    private static Sort.Order ordenSoportado(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() != 1) {
+            return null;
+        }
+        String property = orders.get(0).getProperty();
+        if (!NOMBRE_FIELD.equals(property) && !ORDERS.containsKey(property)) {
+            return null;
+        }
+        return orders.get(0);
+    }
+
+    /**
+     * Builds the ascending order of each sort field sorted in memory, with the ID as tie-breaker.
+     * The name isn't one of them: its order is the one the catalog is read in.
+     *
+     * @return the comparators by sort field
+     */
+    private static Map<String, Comparator<ProductoResponseDTO>> ordenes() {
+        Comparator<ProductoResponseDTO> porId = Comparator.comparing(ProductoResponseDTO::id);
+
+        Map<String, Comparator<ProductoResponseDTO>> ordenes = new HashMap<>();
+        ordenes.put(ID_FIELD, porId);
+        ordenes.put("precio", Comparator.comparing(ProductoResponseDTO::precio,
+            Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder())).thenComparing(porId));
+        ordenes.put("fechaCreacion", Comparator.comparing(ProductoResponseDTO::fechaCreacion,
+            Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())).thenComparing(porId));
+        return Map.copyOf(ordenes);
+    }
+
+    /**
+     * Immutable copy of the active catalog.
+     *
+     * @param version the shared catalog version it was built from
+     * @param ordenados the products in ascending order by sort field, or null if the catalog was too large
+     * @param size the number of active products
+     * @param bytes the estimated memory of the copy
+     */
+    private record Snapshot(long version, Map<String, ProductoResponseDTO[]> ordenados, int size, long bytes) {
+
+        Page<ProductoResponseDTO> pagina(Sort.Order order, Pageable pageable) {
+            ProductoResponseDTO[] productos = ordenados.get(order.getProperty());
+            long from = Math.min(pageable.getOffset(), productos.length);
+            long to = Math.min(from + pageable.getPageSize(), productos.length);
+            List<ProductoResponseDTO> content = new ArrayList<>((int) (to - from));
+            for (long i = from; i < to; i++) {
+                int index = (int) i;
+                if (order.isDescending()) {
+                    index = productos.length - 1 - index;
+                }
+                content.add(productos[index]);
+            }
+            return new PageImpl<>(content, pageable, productos.length);
+        }
+    }
+}
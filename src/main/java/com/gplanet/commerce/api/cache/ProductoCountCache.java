@@ -0,0 +1,120 @@
+package com.gplanet.commerce.api.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongSupplier;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gplanet.commerce.api.configs.app.props.ProductoCountCacheProperties;
+import com.gplanet.commerce.api.dtos.producto.ProductStatus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, short-TTL cache of the total number of products matching a listing.
+ *
+ * <p>Entries are keyed by product status and the normalized search term, so the
+ * {@code COUNT(*)} behind a paginated listing runs once per key and TTL instead of
+ * on every page request. Every product write clears the cache through
+ * {@link ProductoCacheListener}.</p>
+ *
+ * <p>The count runs on the calling thread, which holds the transaction, and outside of the
+ * cache's internal locks, so a virtual thread waiting on the query is never pinned. Concurrent
+ * misses for the same key wait for the first one instead of counting again.</p>
+ *
+ * <p>Hit, miss, size and eviction counters are published through Micrometer under the
+ * cache name {@value #CACHE_NAME}.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component
+public class ProductoCountCache implements MeterBinder {
+
+    /**
+     * Name used to tag the cache metrics.
+     */
+    public static final String CACHE_NAME = "productos.count";
+
+    private final boolean enabled;
+    private final AsyncCache<CountKey, Long> cache;
+
+    /**
+     * Constructs the count cache with the configured size and TTL.
+     *
+     * @param properties the count cache settings
+     */
+    public ProductoCountCache(ProductoCountCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the total for the given listing, counting it on a miss.
+     *
+     * @param status the product status of the listing
+     * @param searchTerm the normalized search term, or an empty string when not searching
+     * @param counter runs the count query on a miss
+     * @return the number of matching products
+     */
+    public long get(ProductStatus status, String searchTerm, LongSupplier counter) {
+        if (!enabled) {
+            return counter.getAsLong();
+        }
+        CompletableFuture<Long> load = new CompletableFuture<>();
+        CompletableFuture<Long> total = cache.get(new CountKey(status, searchTerm), (key, executor) -> load);
+        if (total == load) {
+            try {
+                load.complete(counter.getAsLong());
+            } catch (Throwable ex) {
+                // Failed futures are dropped from the cache, so the next request counts again;
+                // an Error too, or concurrent requests would wait on it forever
+                load.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return total.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Removes all cached totals.
+     */
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Registers the cache hit, miss, size and eviction metrics.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Cache key of a product listing total.
+     *
+     * @param status the product status of the listing
+     * @param searchTerm the normalized search term
+     */
+    private record CountKey(ProductStatus status, String searchTerm) {}
+}
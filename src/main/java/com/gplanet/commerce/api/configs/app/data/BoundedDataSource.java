@@ -0,0 +1,127 @@
+package com.gplanet.commerce.api.configs.app.data;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * DataSource that caps the number of connections handed out at once with a fair semaphore.
+ *
+ * <p>With requests served on virtual threads there is no worker pool limiting how many of them
+ * reach the database: thousands can ask for a connection at the same time. The semaphore,
+ * sized to the connection pool, queues them in arrival order before they get to the pool, and
+ * gives up after the pool's connection timeout like the pool itself would. A permit is released
+ * when the connection is closed.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class BoundedDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final int maxConnections;
+    private final long timeoutNanos;
+
+    /**
+     * Constructs the bounded datasource.
+     *
+     * @param target the pooled datasource
+     * @param maxConnections maximum connections in use at once, usually the pool size
+     * @param timeout maximum wait for a free connection
+     */
+    public BoundedDataSource(DataSource target, int maxConnections, Duration timeout) {
+        super(target);
+        this.permits = new Semaphore(maxConnections, true);
+        this.maxConnections = maxConnections;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        adquirir();
+        try {
+            return liberarAlCerrar(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        adquirir();
+        try {
+            return liberarAlCerrar(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the number of connections currently handed out.
+     *
+     * @return connections in use
+     */
+    public int getActiveConnections() {
+        return maxConnections - permits.availablePermits();
+    }
+
+    /**
+     * Returns the number of threads waiting for a connection.
+     *
+     * @return the waiting threads, estimated
+     */
+    public int getWaitingThreads() {
+        return permits.getQueueLength();
+    }
+
+    private void adquirir() throws SQLException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException("No database connection available within "
+                    + TimeUnit.NANOSECONDS.toMillis(timeoutNanos) + "ms (" + getWaitingThreads() + " waiting)");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", ex);
+        }
+    }
+
+    private Connection liberarAlCerrar(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        InvocationHandler handler = (proxy, method, args) -> invocar(proxy, connection, released, method, args);
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+    }
+
+    private Object invocar(Object proxy, Connection connection, AtomicBoolean released, Method method, Object[] args)
+            throws Throwable {
+        if ("equals".equals(method.getName())) {
+            return proxy == args[0];
+        }
+        if ("hashCode".equals(method.getName())) {
+            return System.identityHashCode(proxy);
+        }
+        try {
+            return method.invoke(connection, args);
+        } catch (InvocationTargetException ex) {
+            throw ex.getTargetException();
+        } finally {
+            if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.gplanet.commerce.api.configs.app.data;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.NonNull;
+import org.springframework.util.StringUtils;
+
+import com.gplanet.commerce.api.configs.app.props.ReadReplicaProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Database configuration for the read replicas.
+ *
+ * <p>With {@code datasource.replicas.enabled=true}, the primary datasource is wrapped in a
+ * {@link ReadWriteRoutingDataSource}. Read-only transactions then go to one Hikari pool per
+ * replica URL, in turn. The replica pools copy the primary's pool settings, hand out read-only
+ * connections, and don't stop startup when a replica is down. In the virtual thread mode each
+ * of them is bounded like the primary. The {@code hikaricp.connections.*} meters are
+ * registered for every replica pool.</p>
+ *
+ * <p>Open Session In View must be disabled. Otherwise a request keeps the connection of its
+ * first transaction, and a write that follows a read-only transaction would be sent to a
+ * replica.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "datasource.replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig implements BeanPostProcessor, Ordered, MeterBinder {
+    private final ObjectProvider<ReadReplicaProperties> properties;
+    private final Environment environment;
+    private final List<HikariDataSource> replicaPools = new ArrayList<>();
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Constructs the read replica configuration.
+     *
+     * @param properties the replica settings
+     * @param environment the Spring environment
+     */
+    public ReadReplicaDataSourceConfig(ObjectProvider<ReadReplicaProperties> properties, Environment environment) {
+        this.properties = properties;
+        this.environment = environment;
+    }
+
+    /**
+     * Wraps the primary Hikari datasource in a datasource routing read-only transactions to the replicas.
+     *
+     * @param bean the initialized bean
+     * @param beanName the name of the bean
+     * @return the routing datasource for the primary datasource, the bean itself otherwise
+     */
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (!(bean instanceof DataSource primary) || bean instanceof ReadWriteRoutingDataSource) {
+            return bean;
+        }
+        HikariDataSource hikari = DataSourceUnwrapper.unwrap(primary, HikariConfigMXBean.class, HikariDataSource.class);
+        if (hikari == null) {
+            return bean;
+        }
+        if (environment.getProperty("spring.jpa.open-in-view", Boolean.class, true)) {
+            throw new IllegalStateException(
+                "Read replicas require spring.jpa.open-in-view=false, so each transaction gets its own connection");
+        }
+        ReadReplicaProperties replicas = properties.getObject();
+        if (replicas.getUrls().isEmpty()) {
+            log.warn("Read replicas enabled without datasource.replicas.urls, all queries use the primary");
+            return bean;
+        }
+
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        for (String url : replicas.getUrls()) {
+            HikariDataSource pool = crearPool(hikari, replicas, url, replicaPools.size() + 1);
+            replicaPools.add(pool);
+            dataSources.put(pool.getPoolName(), limitar(pool));
+        }
+        registrarMetricas();
+        log.info("Routing read-only transactions of datasource {} to {} read replicas", beanName, dataSources.size());
+        return new ReadWriteRoutingDataSource(primary,
+            new ReplicaRoutingDataSource(primary, dataSources, replicas.getRetryInterval()));
+    }
+
+    /**
+     * Runs after the other datasource post-processors, so the routing datasource wraps
+     * the primary as they left it.
+     *
+     * @return the lowest precedence
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    /**
+     * Registers the Hikari meters of the replica pools.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.meterRegistry = registry;
+        registrarMetricas();
+    }
+
+    private HikariDataSource crearPool(HikariDataSource primary, ReadReplicaProperties replicas, String url, int n) {
+        HikariConfig config = new HikariConfig();
+        primary.copyStateTo(config);
+        String poolName = primary.getPoolName();
+        if (!StringUtils.hasText(poolName)) {
+            poolName = "HikariPool";
+        }
+        config.setPoolName(poolName + "-replica-" + n);
+        config.setJdbcUrl(url);
+        if (StringUtils.hasText(replicas.getUsername())) {
+            config.setUsername(replicas.getUsername());
+        }
+        if (StringUtils.hasText(replicas.getPassword())) {
+            config.setPassword(replicas.getPassword());
+        }
+        config.setReadOnly(true);
+        // Start even if the replica is down, reads then fall back to the primary
+        config.setInitializationFailTimeout(-1);
+        return new HikariDataSource(config);
+    }
+
+    private DataSource limitar(HikariDataSource pool) {
+        if (!Threading.VIRTUAL.isActive(environment)) {
+            return pool;
+        }
+        return new BoundedDataSource(pool, pool.getMaximumPoolSize(), Duration.ofMillis(pool.getConnectionTimeout()));
+    }
+
+    private void registrarMetricas() {
+        if (meterRegistry == null) {
+            return;
+        }
+        for (HikariDataSource pool : replicaPools) {
+            if (pool.getMetricRegistry() == null && pool.getMetricsTrackerFactory() == null) {
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            }
+        }
+    }
+}
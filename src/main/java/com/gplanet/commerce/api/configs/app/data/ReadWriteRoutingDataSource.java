@@ -0,0 +1,65 @@
+package com.gplanet.commerce.api.configs.app.data;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * DataSource that sends read-only transactions to the read replicas and everything else to
+ * the primary.
+ *
+ * <p>Connections are only fetched when the first statement runs. By then the transaction
+ * manager has marked the connection read-only for {@code @Transactional(readOnly = true)}
+ * methods and Spring Data's read methods. Those connections come from the
+ * {@link ReplicaRoutingDataSource}. Write transactions never set that flag, so they stay on
+ * the primary, together with any read made inside them. For example, the response of a
+ * purchase is built from the rows the same transaction just wrote.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements AutoCloseable {
+    private final ReplicaRoutingDataSource replicas;
+
+    /**
+     * Constructs the routing datasource.
+     *
+     * @param primary the datasource for writes and read-write transactions
+     * @param replicas the datasource for read-only transactions
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaRoutingDataSource replicas) {
+        super(primary);
+        this.replicas = replicas;
+        setReadOnlyDataSource(replicas);
+    }
+
+    /**
+     * Returns the datasource serving read-only transactions.
+     *
+     * @return the replica datasource
+     */
+    public ReplicaRoutingDataSource getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * Closes the replica pools and the primary pool.
+     */
+    @Override
+    public void close() {
+        for (DataSource replica : replicas.getReplicaDataSources()) {
+            cerrar(replica);
+        }
+        cerrar(obtainTargetDataSource());
+    }
+
+    private static void cerrar(DataSource dataSource) {
+        HikariDataSource pool = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+        if (pool != null) {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.gplanet.commerce.api.configs.app.data;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DataSource that hands out connections from a set of read replicas in turn.
+ *
+ * <p>A replica that can't be connected to is skipped for the retry interval, and the next one
+ * is tried. The first request after the interval tries it again. A replica whose pool just had
+ * no free connection in time is only passed over for that request: the timeout says it is busy,
+ * not down. When no replica gives a connection, it comes from the primary, so reads keep working
+ * while the replicas are down.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long retryNanos;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryFallbacks = new LongAdder();
+
+    /**
+     * Constructs the replica datasource.
+     *
+     * @param primary the datasource used when no replica is available
+     * @param replicas the replica datasources by name, in the order they are used
+     * @param retryInterval time a failed replica is skipped
+     */
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration retryInterval) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.retryNanos = retryInterval.toNanos();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return conectar(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return conectar(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    /**
+     * Returns the state of every replica.
+     *
+     * @return the replicas, in the order they are used
+     */
+    public List<ReplicaStatus> getReplicas() {
+        long ahora = System.nanoTime();
+        return replicas.stream()
+            .map(replica -> new ReplicaStatus(replica.name, replica.disponible(ahora), replica.conexiones.sum()))
+            .toList();
+    }
+
+    /**
+     * Returns the number of read connections taken from the primary because no replica was available.
+     *
+     * @return the connections served by the primary
+     */
+    public long getPrimaryFallbacks() {
+        return primaryFallbacks.sum();
+    }
+
+    /**
+     * Returns the replica datasources.
+     *
+     * @return the replica datasources, in the order they are used
+     */
+    public List<DataSource> getReplicaDataSources() {
+        return replicas.stream().map(replica -> replica.dataSource).toList();
+    }
+
+    private Connection conectar(ConnectionSource source) throws SQLException {
+        int total = replicas.size();
+        int inicio = Math.floorMod(next.getAndIncrement(), Math.max(total, 1));
+        long ahora = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            Replica replica = replicas.get((inicio + i) % total);
+            if (!replica.disponible(ahora)) {
+                continue;
+            }
+            try {
+                Connection connection = source.get(replica.dataSource);
+                replica.marcarDisponible();
+                return connection;
+            } catch (SQLException ex) {
+                if (!esFalloDeConexion(ex)) {
+                    log.debug("Read replica {} busy, trying the next one: {}", replica.name, ex.getMessage());
+                    continue;
+                }
+                replica.marcarCaida(ahora + retryNanos);
+                log.warn("Read replica {} unavailable, skipping it for {} s: {}",
+                    replica.name, Duration.ofNanos(retryNanos).toSeconds(), ex.getMessage());
+            }
+        }
+        log.debug("No read replica available, reading from the primary");
+        primaryFallbacks.increment();
+        return source.get(primary);
+    }
+
+    /**
+     * Tells a replica that can't be reached from one whose pool is exhausted. Hikari and
+     * {@link BoundedDataSource} report an exhausted pool with a
+     * {@link SQLTransientConnectionException}; Hikari attaches the last failure to connect to
+     * the database as its cause when the timeout is due to the replica being unreachable.
+     *
+     * @param ex the exception thrown by the replica datasource
+     * @return true if the replica failed to connect or to validate a connection
+     */
+    private static boolean esFalloDeConexion(SQLException ex) {
+        return !(ex instanceof SQLTransientConnectionException) || ex.getCause() instanceof SQLException;
+    }
+
+    /**
+     * State of a read replica.
+     *
+     * @param name the replica name
+     * @param available whether the replica is being used, false while it is skipped after a failure
+     * @param connections connections handed out by the replica so far
+     */
+    public record ReplicaStatus(String name, boolean available, long connections) {
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder conexiones = new LongAdder();
+        private volatile boolean caida;
+        private volatile long reintento;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        private boolean disponible(long ahora) {
+            return !caida || ahora - reintento >= 0;
+        }
+
+        private void marcarDisponible() {
+            conexiones.increment();
+            if (caida) {
+                caida = false;
+                log.info("Read replica {} available again", name);
+            }
+        }
+
+        private void marcarCaida(long hasta) {
+            reintento = hasta;
+            caida = true;
+        }
+    }
+}
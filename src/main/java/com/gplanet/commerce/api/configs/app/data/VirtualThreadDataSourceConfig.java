@@ -0,0 +1,64 @@
+package com.gplanet.commerce.api.configs.app.data;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.lang.NonNull;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Database configuration for the virtual thread execution mode.
+ *
+ * <p>With {@code spring.threads.virtual.enabled=true}, Tomcat serves every request on its own
+ * virtual thread instead of a bounded worker pool. The Hikari pool is then wrapped in a
+ * {@link BoundedDataSource} with as many permits as pool connections, so the database still
+ * sees at most that many concurrent requests.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadDataSourceConfig implements BeanPostProcessor, Ordered {
+    private static final int HIKARI_DEFAULT_POOL_SIZE = 10;
+
+    /**
+     * Wraps the Hikari datasource in a semaphore sized to its pool.
+     *
+     * @param bean the initialized bean
+     * @param beanName the name of the bean
+     * @return the bounded datasource for the Hikari pool, the bean itself otherwise
+     */
+    @Override
+    public Object postProcessAfterInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if (bean instanceof HikariDataSource hikari) {
+            // Unset until the pool starts, Hikari then applies its default size
+            int poolSize = hikari.getMaximumPoolSize();
+            if (poolSize < 1) {
+                poolSize = HIKARI_DEFAULT_POOL_SIZE;
+            }
+            log.info("Virtual threads enabled, bounding datasource {} to {} concurrent connections",
+                beanName, poolSize);
+            return new BoundedDataSource(hikari, poolSize, Duration.ofMillis(hikari.getConnectionTimeout()));
+        }
+        return bean;
+    }
+
+    /**
+     * Runs before the other datasource post-processors, so the semaphore sits right on the pool.
+     *
+     * @return the highest precedence
+     */
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
@@ -22,6 +22,7 @@ import io.swagger.v3.oas.models.media.BooleanSchema;
 import io.swagger.v3.oas.models.media.IntegerSchema;
 import io.swagger.v3.oas.models.media.ObjectSchema;
 import io.swagger.v3.oas.models.media.Schema;
+import io.swagger.v3.oas.models.media.StringSchema;
 import io.swagger.v3.oas.models.responses.ApiResponse;
 import io.swagger.v3.oas.models.responses.ApiResponses;
 
@@ -101,6 +102,16 @@ public class OpenAPIConfig {
                             .addApiResponse("DuplicatedProduct", createErrorApiResponse("Product already exists"))
                             .addApiResponse("ProductNotFound", createErrorApiResponse("Product not found"))
                             .addApiResponse("ConstraintError", createErrorApiResponse("Data constraint error"))
+                            .addApiResponse("InsufficientStock", createErrorApiResponse("Insufficient stock"))
+                            .addApiResponse("PurchaseConflict",
+                                createErrorApiResponse("Insufficient stock, data constraint error, "
+                                    + "or a purchase with the same idempotency key in progress"))
+                            .addApiResponse("PurchaseQueueFull",
+                                createErrorApiResponse("Purchase ingestion queue full or stopped"))
+                            .addApiResponse("QueuedPurchaseNotFound",
+                                createErrorApiResponse("Queued purchase not found or expired"))
+                            .addApiResponse("IdempotencyKeyReused",
+                                createErrorApiResponse("Idempotency key already used for a different purchase"))
                             .addApiResponse("UnauthenticatedRateLimitExceeded", createErrorApiResponse(
                                 String.format(RATE_LIMIT_MSG, unauthenticatedCapacity, windowMinutes)))
                             .addApiResponse("UserRateLimitExceeded", createErrorApiResponse(
@@ -162,6 +173,8 @@ public class OpenAPIConfig {
             Schema<?> dtoSchema = schemas.get(dtoSchemaName);
             if (dtoSchema != null) {
                 addPaginatedSchema(components, dtoSchema, paginatedSchemaName, dtoSchemaName);
+                addCursorSchema(components, dtoSchema,
+                    paginatedSchemaName.replace("Paginated", "Cursor"), dtoSchemaName);
             }
         });
     }
@@ -190,17 +203,45 @@ public class OpenAPIConfig {
 
         paginatedSchema.addProperty("totalElements", new IntegerSchema()
             .format("int64")
-            .description("Total number of elements"));
+            .description("Total number of elements, omitted when includeTotal=false"));
 
         paginatedSchema.addProperty("totalPages", new IntegerSchema()
             .format(INT32)
-            .description("Total number of pages")
+            .description("Total number of pages, omitted when includeTotal=false")
         );
 
-        paginatedSchema.addProperty("isLastPage", new BooleanSchema()
+        paginatedSchema.addProperty("lastPage", new BooleanSchema()
             .description("Is this the last page?")
         );
 
         components.addSchemas(paginatedSchemaName, paginatedSchema);
     }
+
+    private void addCursorSchema(
+        Components components,
+        Schema<?> dtoSchema,
+        String cursorSchemaName,
+        String dtoSchemaName
+    ) {
+        ObjectSchema cursorSchema = new ObjectSchema();
+        cursorSchema.setName(cursorSchemaName);
+        cursorSchema.setDescription("Cursor-paginated response of " + dtoSchemaName.toLowerCase() + "s");
+
+        ArraySchema contentSchema = new ArraySchema();
+        contentSchema.setItems(dtoSchema);
+        cursorSchema.addProperty("content", contentSchema);
+
+        cursorSchema.addProperty("pageSize", new IntegerSchema()
+            .format(INT32)
+            .description("Number of items per page"));
+
+        cursorSchema.addProperty("nextCursor", new StringSchema()
+            .description("Opaque cursor for the next page, null on the last page"));
+
+        cursorSchema.addProperty("hasNext", new BooleanSchema()
+            .description("Are there more items after this page?")
+        );
+
+        components.addSchemas(cursorSchemaName, cursorSchema);
+    }
 }
@@ -0,0 +1,143 @@
+package com.gplanet.commerce.api.configs.app.health;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.stereotype.Component;
+
+import com.gplanet.commerce.api.configs.app.props.ConnectionPoolAlertProperties;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Health indicator for the Hikari connection pool.
+ * Reports the connections in use, idle and awaited, the longest recent wait for a connection
+ * and the connection timeouts so far, and moves to the {@link #WARNING} status when the pool
+ * is close to saturation according to {@link ConnectionPoolAlertProperties}.
+ *
+ * <p>The wait time and timeouts come from the {@code hikaricp.connections.acquire} and
+ * {@code hikaricp.connections.timeout} meters, which are also the ones to alert on from
+ * the metrics backend.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component("connectionPool")
+public class ConnectionPoolHealthIndicator implements HealthIndicator {
+
+    /**
+     * Status of a pool that still serves connections but is close to saturation.
+     */
+    public static final Status WARNING = new Status("WARNING", "Connection pool close to saturation");
+
+    private static final String POOL_KEY = "pool";
+    private static final String STATUS_KEY = "status";
+
+    private final HikariDataSource hikari;
+    private final ConnectionPoolAlertProperties alerts;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * Constructs the ConnectionPoolHealthIndicator.
+     *
+     * @param dataSource    the application DataSource, backed by a Hikari pool
+     * @param alerts        the thresholds that raise the warning status
+     * @param meterRegistry the registry holding the pool meters, if metrics are enabled
+     */
+    public ConnectionPoolHealthIndicator(DataSource dataSource, ConnectionPoolAlertProperties alerts,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.hikari = DataSourceUnwrapper.unwrap(dataSource, HikariConfigMXBean.class, HikariDataSource.class);
+        this.alerts = alerts;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Evaluates the state of the connection pool against the configured thresholds.
+     *
+     * @return Health object with the pool usage, and the exceeded thresholds if any
+     */
+    @Override
+    public Health health() {
+        if (hikari == null) {
+            return Health.unknown().withDetail(STATUS_KEY, "Not a Hikari connection pool").build();
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        if (pool == null) {
+            return Health.unknown()
+                    .withDetail(POOL_KEY, String.valueOf(hikari.getPoolName()))
+                    .withDetail(STATUS_KEY, "Not started")
+                    .build();
+        }
+
+        int active = pool.getActiveConnections();
+        int pending = pool.getThreadsAwaitingConnection();
+        int max = hikari.getMaximumPoolSize();
+        double utilization = (double) active / max;
+        long acquireMs = tiempoMaximoAdquisicion();
+
+        List<String> exceeded = new ArrayList<>();
+        if (utilization >= alerts.getUtilizationThreshold()) {
+            exceeded.add("utilization");
+        }
+        if (pending >= alerts.getPendingThreshold()) {
+            exceeded.add("pending");
+        }
+        if (acquireMs >= alerts.getAcquireTimeThreshold().toMillis()) {
+            exceeded.add("acquireTime");
+        }
+
+        Health.Builder builder;
+        if (exceeded.isEmpty()) {
+            builder = Health.up();
+        } else {
+            builder = Health.status(WARNING).withDetail("exceeded", exceeded);
+        }
+        return builder
+                .withDetail(POOL_KEY, hikari.getPoolName())
+                .withDetail("active", active)
+                .withDetail("idle", pool.getIdleConnections())
+                .withDetail("pending", pending)
+                .withDetail("max", max)
+                .withDetail("utilization", Math.round(utilization * 100) + "%")
+                .withDetail("maxAcquireTime", acquireMs + "ms")
+                .withDetail("timeouts", (long) totalTimeouts())
+                .build();
+    }
+
+    private long tiempoMaximoAdquisicion() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return 0;
+        }
+        Timer acquire = registry.find("hikaricp.connections.acquire").tag(POOL_KEY, hikari.getPoolName()).timer();
+        if (acquire == null) {
+            return 0;
+        }
+        return (long) acquire.max(TimeUnit.MILLISECONDS);
+    }
+
+    private double totalTimeouts() {
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return 0;
+        }
+        Counter timeouts = registry.find("hikaricp.connections.timeout").tag(POOL_KEY, hikari.getPoolName()).counter();
+        if (timeouts == null) {
+            return 0;
+        }
+        return timeouts.count();
+    }
+}
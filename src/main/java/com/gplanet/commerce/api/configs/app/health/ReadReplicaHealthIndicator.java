@@ -0,0 +1,80 @@
+package com.gplanet.commerce.api.configs.app.health;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.gplanet.commerce.api.configs.app.data.ReadWriteRoutingDataSource;
+import com.gplanet.commerce.api.configs.app.data.ReplicaRoutingDataSource;
+import com.gplanet.commerce.api.configs.app.data.ReplicaRoutingDataSource.ReplicaStatus;
+
+/**
+ * Health indicator for the read replicas.
+ * Reports whether each replica is in use or skipped after a failure, and the reads served by
+ * the primary because no replica was available. With every replica skipped the status is
+ * {@link ConnectionPoolHealthIndicator#WARNING}: reads still work, on the primary.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component("readReplicas")
+@ConditionalOnProperty(prefix = "datasource.replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaHealthIndicator implements HealthIndicator {
+
+    private final DataSource dataSource;
+
+    /**
+     * Constructs the ReadReplicaHealthIndicator.
+     *
+     * @param dataSource the application DataSource, routing read-only transactions to the replicas
+     */
+    public ReadReplicaHealthIndicator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Evaluates the state of the read replicas.
+     *
+     * @return Health object with the state of every replica
+     */
+    @Override
+    public Health health() {
+        ReplicaRoutingDataSource replicas;
+        try {
+            if (!dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)) {
+                return Health.unknown().withDetail("status", "No read replicas configured").build();
+            }
+            replicas = dataSource.unwrap(ReadWriteRoutingDataSource.class).getReplicas();
+        } catch (SQLException e) {
+            return Health.unknown().withDetail("error", e.getMessage()).build();
+        }
+
+        List<ReplicaStatus> estados = replicas.getReplicas();
+        Map<String, Object> detalles = new LinkedHashMap<>();
+        boolean alguna = false;
+        for (ReplicaStatus estado : estados) {
+            detalles.put(estado.name(), Map.of("available", estado.available(), "connections", estado.connections()));
+            alguna = alguna || estado.available();
+        }
+
+        Health.Builder builder;
+        if (alguna) {
+            builder = Health.up();
+        } else {
+            builder = Health.status(ConnectionPoolHealthIndicator.WARNING)
+                    .withDetail("error", "No read replica available, reading from the primary");
+        }
+        return builder
+                .withDetail("replicas", detalles)
+                .withDetail("primaryFallbacks", replicas.getPrimaryFallbacks())
+                .build();
+    }
+}
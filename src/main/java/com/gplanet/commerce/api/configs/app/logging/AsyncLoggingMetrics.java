@@ -0,0 +1,67 @@
+package com.gplanet.commerce.api.configs.app.logging;
+
+import java.util.Iterator;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AsyncAppenderBase;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exposes the state of the asynchronous logback appenders attached to the root logger:
+ * {@code logback.async.queue.size} (events waiting to be written),
+ * {@code logback.async.queue.remaining} (free queue slots) and, for
+ * {@link NonBlockingAsyncAppender}, the {@code logback.async.dropped} counter.
+ * Every meter is tagged with the appender name.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component
+public class AsyncLoggingMetrics implements MeterBinder {
+    private static final String APPENDER_TAG = "appender";
+
+    /**
+     * Registers the queue and dropped event meters of every asynchronous appender.
+     *
+     * @param registry the meter registry
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders = context.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof AsyncAppenderBase<ILoggingEvent> appender) {
+                registrar(registry, appender);
+            }
+        }
+    }
+
+    private static void registrar(MeterRegistry registry, AsyncAppenderBase<ILoggingEvent> appender) {
+        Gauge.builder("logback.async.queue.size", appender, AsyncAppenderBase::getNumberOfElementsInQueue)
+            .tag(APPENDER_TAG, appender.getName())
+            .description("Log events waiting to be written")
+            .register(registry);
+        Gauge.builder("logback.async.queue.remaining", appender, AsyncAppenderBase::getRemainingCapacity)
+            .tag(APPENDER_TAG, appender.getName())
+            .description("Free slots in the log event queue")
+            .register(registry);
+        if (appender instanceof NonBlockingAsyncAppender nonBlocking) {
+            FunctionCounter.builder("logback.async.dropped", nonBlocking, NonBlockingAsyncAppender::getDroppedEvents)
+                .tag(APPENDER_TAG, appender.getName())
+                .description("Log events dropped because the queue was full")
+                .register(registry);
+        }
+    }
+}
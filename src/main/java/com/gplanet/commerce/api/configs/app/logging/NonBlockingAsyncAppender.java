@@ -0,0 +1,60 @@
+package com.gplanet.commerce.api.configs.app.logging;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * Asynchronous logback appender that counts the events it drops.
+ *
+ * <p>Events are handed to a bounded queue and written by a background worker, so request
+ * threads don't wait for file I/O or archive rollover. Logback can only drop events on a full
+ * queue for every level or for none ({@code neverBlock}), so the configuration uses two of these
+ * appenders per destination: one for TRACE, DEBUG and INFO events with {@code neverBlock}, which
+ * drops them instead of blocking, and one for WARN and ERROR events that waits for room so they
+ * are never lost. Events dropped on a full queue or under the usual {@code discardingThreshold}
+ * are counted and exposed by {@link AsyncLoggingMetrics}; a full queue is checked just before the
+ * event is offered, so the count is an estimate when the worker frees a slot in between.</p>
+ *
+ * <p>Caller data is never collected: the patterns must not use caller converters such as
+ * {@code %C}, {@code %M} or {@code %L}, which would walk the stack on every event.</p>
+ *
+ * @author Gustavo
+ * @version 1.1
+ */
+public class NonBlockingAsyncAppender extends AsyncAppender {
+
+    private final LongAdder droppedEvents = new LongAdder();
+
+    /**
+     * Constructs the appender, without caller data.
+     */
+    public NonBlockingAsyncAppender() {
+        setIncludeCallerData(false);
+    }
+
+    /**
+     * Queues the event, counting it if the base appender is about to drop it.
+     *
+     * @param event the logging event
+     */
+    @Override
+    protected void append(ILoggingEvent event) {
+        int remaining = getRemainingCapacity();
+        if (remaining < getDiscardingThreshold() && isDiscardable(event)
+                || remaining == 0 && isNeverBlock()) {
+            droppedEvents.increment();
+        }
+        super.append(event);
+    }
+
+    /**
+     * Returns the number of events dropped since the appender was created.
+     *
+     * @return the dropped event count
+     */
+    public long getDroppedEvents() {
+        return droppedEvents.sum();
+    }
+}
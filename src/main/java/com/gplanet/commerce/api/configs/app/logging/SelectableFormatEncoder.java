@@ -0,0 +1,106 @@
+package com.gplanet.commerce.api.configs.app.logging;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.boot.logging.logback.StructuredLogEncoder;
+import org.springframework.util.StringUtils;
+
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.encoder.Encoder;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+/**
+ * Logback encoder that writes structured JSON when a structured format is configured,
+ * and the plain text pattern otherwise.
+ *
+ * <p>The format comes from Spring Boot's {@code logging.structured.format.console} and
+ * {@code logging.structured.format.file} properties ({@code ecs}, {@code logstash} or
+ * {@code gelf}), so JSON logs can be switched on per output without a Spring profile, which
+ * the application replaces at startup. Structured events carry the MDC request and user ids
+ * as fields.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class SelectableFormatEncoder extends EncoderBase<ILoggingEvent> {
+    private String format;
+    private String pattern;
+    private Charset charset = StandardCharsets.UTF_8;
+    private Encoder<ILoggingEvent> delegate;
+
+    /**
+     * Creates the structured or pattern encoder and starts it.
+     */
+    @Override
+    public void start() {
+        if (StringUtils.hasText(format)) {
+            StructuredLogEncoder structured = new StructuredLogEncoder();
+            structured.setFormat(format.trim());
+            structured.setCharset(charset);
+            delegate = structured;
+        } else {
+            PatternLayoutEncoder text = new PatternLayoutEncoder();
+            text.setPattern(pattern);
+            text.setCharset(charset);
+            delegate = text;
+        }
+        delegate.setContext(getContext());
+        delegate.start();
+        super.start();
+    }
+
+    /**
+     * Stops the underlying encoder.
+     */
+    @Override
+    public void stop() {
+        if (delegate != null) {
+            delegate.stop();
+        }
+        super.stop();
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return delegate.headerBytes();
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        return delegate.encode(event);
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return delegate.footerBytes();
+    }
+
+    /**
+     * Sets the structured format; blank for plain text.
+     *
+     * @param format ecs, logstash, gelf or blank
+     */
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    /**
+     * Sets the pattern used for plain text.
+     *
+     * @param pattern the logback layout pattern
+     */
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    /**
+     * Sets the output charset.
+     *
+     * @param charset the charset of the encoded events
+     */
+    public void setCharset(Charset charset) {
+        this.charset = charset;
+    }
+}
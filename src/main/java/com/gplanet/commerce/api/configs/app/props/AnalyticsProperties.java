@@ -0,0 +1,45 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the sales rollups behind the admin analytics.
+ * This class is used to load the rollup maintenance and rebuild settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "analytics")
+public class AnalyticsProperties {
+    /**
+     * Whether the rollups are kept up to date from the outbox as purchases are committed.
+     * Requires {@code outbox.enabled}; startup fails otherwise.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Full recomputation of the rollups from the purchases.
+     */
+    private Rebuild rebuild = new Rebuild();
+
+    /**
+     * Settings of the rollup rebuild.
+     */
+    @Data
+    public static class Rebuild {
+        /**
+         * Range of purchase IDs aggregated by each task of the rebuild.
+         */
+        private int chunkSize = 5_000;
+
+        /**
+         * Number of chunks aggregated at the same time.
+         */
+        private int parallelism = 4;
+    }
+}
@@ -0,0 +1,35 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the connection pool health check.
+ * Past any of these thresholds the pool is reported with the {@code WARNING} health status.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.pool-alerts")
+public class ConnectionPoolAlertProperties {
+    /**
+     * Share of the pool's connections in use, between 0 and 1.
+     */
+    private double utilizationThreshold = 0.9;
+
+    /**
+     * Number of threads waiting for a connection.
+     */
+    private int pendingThreshold = 5;
+
+    /**
+     * Longest recent wait for a connection.
+     */
+    private Duration acquireTimeThreshold = Duration.ofSeconds(1);
+}
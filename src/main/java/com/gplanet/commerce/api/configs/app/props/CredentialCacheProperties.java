@@ -0,0 +1,35 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the verified-credential cache used by HTTP Basic authentication.
+ * This class is used to load the cache settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "security.credential-cache")
+public class CredentialCacheProperties {
+    /**
+     * Whether successful authentications are cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached credentials.
+     */
+    private long maxSize = 10_000;
+
+    /**
+     * Time a verified credential stays valid in the cache.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,40 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the idempotency keys of purchase submissions.
+ * This class is used to load the idempotency settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "purchases.idempotency")
+public class IdempotencyProperties {
+    /**
+     * Maximum number of recent keys whose results are kept in memory.
+     */
+    private long cacheSize = 10_000;
+
+    /**
+     * Time a completed result stays in memory; older keys are answered from the database.
+     */
+    private Duration cacheTtl = Duration.ofMinutes(10);
+
+    /**
+     * Longest time a duplicate request waits for the in-flight request with the same key.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Time a stored key is honored; a key reused after that creates a new purchase.
+     */
+    private Duration retention = Duration.ofHours(24);
+}
@@ -0,0 +1,99 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the transactional outbox of purchase and catalog changes.
+ * This class is used to load the outbox, relay and sink settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "outbox")
+public class OutboxProperties {
+    /**
+     * Whether changes are recorded in the outbox and relayed to the sinks.
+     * The sales rollups are fed by the relay, so disabling it requires {@code analytics.enabled=false}.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Time the relay waits between two runs once it has caught up.
+     */
+    private Duration pollInterval = Duration.ofMillis(500);
+
+    /**
+     * Maximum number of events sequenced or delivered to a sink in one run.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Time a relayed event is kept once every durable sink, on any node, has received it.
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * In-memory sink, keeping the latest events for consumers in this node.
+     */
+    private Memory memory = new Memory();
+
+    /**
+     * Local file sink, appending the events as JSON lines.
+     */
+    private File file = new File();
+
+    /**
+     * Settings of the in-memory sink.
+     */
+    @Data
+    public static class Memory {
+        /**
+         * Whether the in-memory sink is enabled.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Number of latest events kept.
+         */
+        private int capacity = 10_000;
+    }
+
+    /**
+     * Settings of the local file sink.
+     */
+    @Data
+    public static class File {
+        /**
+         * Whether the file sink is enabled.
+         */
+        private boolean enabled;
+
+        /**
+         * Name of the sink; its offset is stored under this name followed by {@code @} and the node ID.
+         */
+        private String name = "file";
+
+        /**
+         * ID of this node, so each node appending to its own file keeps its own offset;
+         * the host name when empty.
+         */
+        private String nodeId = "";
+
+        /**
+         * File the events are appended to.
+         */
+        private String path = "data/outbox/events.jsonl";
+
+        /**
+         * Whether each delivery is forced to disk before its offset is stored.
+         */
+        private boolean sync = true;
+    }
+}
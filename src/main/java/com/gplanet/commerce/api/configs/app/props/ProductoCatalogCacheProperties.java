@@ -0,0 +1,38 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the in-memory copy of the active product catalog.
+ * This class is used to load the cache settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.product-catalog")
+public class ProductoCatalogCacheProperties {
+    /**
+     * Whether unfiltered listings of active products are served from memory.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum estimated memory of the cached catalog. A larger catalog isn't cached
+     * and its listings are read from the database.
+     */
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+
+    /**
+     * How often the shared catalog version is read from the database to detect
+     * writes made through other API nodes.
+     */
+    private Duration versionCheckInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,35 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the cache of product listing totals.
+ * This class is used to load the cache settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "cache.product-count")
+public class ProductoCountCacheProperties {
+    /**
+     * Whether product listing totals are cached.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached totals, one per status and search term.
+     */
+    private long maxSize = 1_000;
+
+    /**
+     * Time a total stays valid in the cache when no product is written.
+     */
+    private Duration ttl = Duration.ofSeconds(30);
+}
@@ -0,0 +1,36 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import com.gplanet.commerce.api.dtos.producto.ProductStatus;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for HTTP caching of the product listings.
+ * This class is used to load the ETag and Cache-Control settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "http-cache.product-listing")
+public class ProductoHttpCacheProperties {
+    /**
+     * Whether product listings carry an ETag and answer conditional requests with 304 Not Modified.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cache-Control header sent with the product listings, by status filter.
+     */
+    private Map<ProductStatus, String> cacheControl = new EnumMap<>(Map.of(
+        ProductStatus.ACTIVE, "public, max-age=60",
+        ProductStatus.INACTIVE, "private, no-cache",
+        ProductStatus.ALL, "private, no-cache"));
+}
@@ -0,0 +1,52 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the embedded full-text product search index.
+ * This class is used to load the search settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "search.productos")
+public class ProductoSearchProperties {
+    /**
+     * Whether product searches are served from the full-text index.
+     * When disabled, searches fall back to the database LIKE queries.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Directory where the index is stored. Empty keeps the index in memory.
+     * The index is rebuilt from the database at startup in both cases. On disk, a rebuilt
+     * index is written to a second subdirectory while the current one keeps serving.
+     */
+    private String indexPath = "";
+
+    /**
+     * Number of products read from the database per batch while rebuilding the index,
+     * and of outbox events read per batch while applying the changes of other nodes.
+     */
+    private int rebuildBatchSize = 1000;
+
+    /**
+     * Deepest result position (page number times page size) served by the index.
+     * Deeper pages fall back to the database.
+     */
+    private int maxResultWindow = 10_000;
+
+    /**
+     * How often the changes of other nodes are applied to the index. They are read from the
+     * outbox, or, with the outbox disabled, the index is rebuilt from the database when the
+     * shared catalog version moved since it was built.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(10);
+}
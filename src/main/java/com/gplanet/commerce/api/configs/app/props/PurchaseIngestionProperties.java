@@ -0,0 +1,75 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the asynchronous ingestion of purchases.
+ * This class is used to load the ingestion settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "purchases.ingestion")
+public class PurchaseIngestionProperties {
+    /**
+     * Whether purchases are queued and written in batches instead of one transaction each.
+     */
+    private boolean enabled;
+
+    /**
+     * Maximum number of purchases waiting to be written.
+     */
+    private int queueCapacity = 10_000;
+
+    /**
+     * Longest time a purchase waits for room in a full queue before being rejected.
+     */
+    private Duration enqueueTimeout = Duration.ofMillis(100);
+
+    /**
+     * Maximum number of purchases written in one transaction.
+     */
+    private int batchSize = 100;
+
+    /**
+     * Longest time the writer waits for more purchases to fill a batch.
+     */
+    private Duration maxWait = Duration.ofMillis(5);
+
+    /**
+     * When a queued purchase is answered.
+     */
+    private Durability durability = Durability.COMMIT;
+
+    /**
+     * Longest time a purchase answered on commit waits for its batch before 202 Accepted is returned instead.
+     */
+    private Duration responseTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Time the status of a queued purchase can be read after it was queued.
+     */
+    private Duration ticketTtl = Duration.ofMinutes(15);
+
+    /**
+     * Maximum number of queued purchases whose status is kept.
+     */
+    private long ticketsMaxSize = 100_000;
+
+    /**
+     * Points at which a queued purchase is answered.
+     */
+    public enum Durability {
+        /** Answered with the purchase once the batch holding it is committed. */
+        COMMIT,
+        /** Answered with 202 Accepted once queued; purchases still queued are lost if the node fails. */
+        QUEUE
+    }
+}
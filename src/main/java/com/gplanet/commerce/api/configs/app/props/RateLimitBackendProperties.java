@@ -0,0 +1,50 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the storage backend of the rate limit buckets.
+ * This class is used to load the backend settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit.backend")
+public class RateLimitBackendProperties {
+    /**
+     * Where the buckets are kept: in each node's memory, or in a database table shared by all nodes.
+     */
+    private Type type = Type.LOCAL;
+
+    /**
+     * Name of the table holding the shared buckets.
+     */
+    private String tableName = "rate_limit_buckets";
+
+    /**
+     * Tokens a node consumes locally before writing them to the shared bucket; 0 writes on every request.
+     */
+    private long syncTokens = 10;
+
+    /**
+     * Longest time locally consumed tokens wait before being written to the shared bucket.
+     */
+    private Duration syncTimeout = Duration.ofSeconds(1);
+
+    /**
+     * Available storage backends.
+     */
+    public enum Type {
+        /** Buckets kept in the memory of each node. */
+        LOCAL,
+        /** Buckets kept in a database table shared by all nodes. */
+        JDBC
+    }
+}
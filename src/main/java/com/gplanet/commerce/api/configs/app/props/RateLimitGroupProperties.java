@@ -0,0 +1,42 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the rate limits of endpoint groups.
+ * This class is used to load the per-group limits from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitGroupProperties {
+    /**
+     * Limits by endpoint group, applied per user or client on top of the general limits.
+     */
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * Token bucket limits of an endpoint group, refilled every {@code rate-limit.window-minutes}.
+     */
+    @Data
+    public static class Group {
+        /**
+         * Maximum tokens a user or client can spend at once on the group.
+         */
+        private int capacity;
+
+        /**
+         * Tokens restored per window.
+         */
+        private int refill;
+    }
+}
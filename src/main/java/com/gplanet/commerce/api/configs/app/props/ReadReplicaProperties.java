@@ -0,0 +1,47 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the read replicas of the database.
+ * This class is used to load the replica settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "datasource.replicas")
+public class ReadReplicaProperties {
+    /**
+     * Whether read-only transactions are sent to the replicas.
+     */
+    private boolean enabled;
+
+    /**
+     * JDBC URLs of the replicas, used in turn.
+     */
+    private List<String> urls = new ArrayList<>();
+
+    /**
+     * Login user of the replicas; the primary's when not set.
+     */
+    private String username;
+
+    /**
+     * Login password of the replicas; the primary's when not set.
+     */
+    private String password;
+
+    /**
+     * Time a replica that failed to give a connection is skipped before being tried again.
+     */
+    private Duration retryInterval = Duration.ofSeconds(30);
+}
@@ -0,0 +1,31 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the HTTP request log.
+ * This class is used to load the request log sampling settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "request-logging")
+public class RequestLoggingProperties {
+    /**
+     * Log one in every this many successful requests; 1 logs them all.
+     * Failed and slow requests are always logged.
+     */
+    private int sampleRate = 1;
+
+    /**
+     * Requests taking longer than this are always logged.
+     */
+    private Duration slowThreshold = Duration.ofSeconds(1);
+}
@@ -0,0 +1,43 @@
+package com.gplanet.commerce.api.configs.app.props;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import lombok.Data;
+
+/**
+ * Configuration properties for the in-memory stock reservations of flash-sale products.
+ * This class is used to load the reservation settings from the application properties file.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "inventory.reservations")
+public class StockReservationProperties {
+    /**
+     * Whether purchases reserve the units in memory before decrementing the stock in the database.
+     */
+    private boolean enabled;
+
+    /**
+     * IDs of the products reserved in memory; every product with tracked stock when empty.
+     */
+    private Set<Long> productIds = new LinkedHashSet<>();
+
+    /**
+     * Number of counters the units of each product are spread over, to keep concurrent
+     * purchases of the same product off a single counter.
+     */
+    private int stripes = 8;
+
+    /**
+     * Time after which the units held in memory are read again from the stock in the database.
+     */
+    private Duration refreshInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,73 @@
+package com.gplanet.commerce.api.configs.security;
+
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Authentication provider that puts a {@link CredentialCache} in front of a delegate provider.
+ * On a cache hit the user lookup and the password hash verification are skipped entirely,
+ * and a new token is built with the cached principal and authorities and the details of the
+ * current request; on a miss the delegate authenticates the request and a successful result
+ * is cached.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+    private final CredentialCache credentialCache;
+
+    /**
+     * Constructs a caching provider around the given delegate.
+     *
+     * @param delegate the provider that performs the actual verification
+     * @param credentialCache the cache of verified credentials
+     */
+    public CachingAuthenticationProvider(AuthenticationProvider delegate, CredentialCache credentialCache) {
+        this.delegate = delegate;
+        this.credentialCache = credentialCache;
+    }
+
+    /**
+     * Authenticates the request, serving it from the credential cache when possible.
+     *
+     * @param authentication the authentication request
+     * @return the authenticated token
+     * @throws AuthenticationException if the delegate rejects the credentials
+     */
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        Object credentials = authentication.getCredentials();
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String username = authentication.getName();
+        String password = credentials.toString();
+        UsernamePasswordAuthenticationToken cached = credentialCache.get(username, password);
+        if (cached != null) {
+            cached.setDetails(authentication.getDetails());
+            return cached;
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            credentialCache.put(username, password, result);
+        }
+        return result;
+    }
+
+    /**
+     * Indicates that this provider handles username/password authentication requests.
+     *
+     * @param authentication the authentication type
+     * @return true for username/password tokens
+     */
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
+    }
+}
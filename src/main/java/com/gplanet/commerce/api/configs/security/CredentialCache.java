@@ -0,0 +1,172 @@
+package com.gplanet.commerce.api.configs.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gplanet.commerce.api.configs.app.props.CredentialCacheProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded, TTL-expiring cache of successfully verified HTTP Basic credentials.
+ *
+ * <p>Entries are keyed by an HMAC-SHA256 of the submitted credentials, computed with a
+ * random key generated at startup, so neither the plaintext password nor a reusable
+ * hash of it is ever kept in memory. Only the principal and authorities of the verified
+ * authentication are kept, so nothing tied to the request that filled an entry, like its
+ * details, is handed to later requests. A hit skips both the user lookup and the BCrypt
+ * verification.</p>
+ *
+ * <p>Hit, miss, size and eviction counters are published through Micrometer under the
+ * cache name {@value #CACHE_NAME}.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @see CachingAuthenticationProvider
+ */
+@Slf4j
+@Component
+public class CredentialCache implements MeterBinder {
+
+    /**
+     * Name used to tag the cache metrics.
+     */
+    public static final String CACHE_NAME = "auth.credentials";
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int KEY_LENGTH = 32;
+
+    private final boolean enabled;
+    private final SecretKeySpec hmacKey;
+    private final Cache<String, CachedAuthentication> cache;
+
+    /**
+     * Constructs the credential cache with the configured size and TTL.
+     *
+     * @param properties the credential cache settings
+     */
+    public CredentialCache(CredentialCacheProperties properties) {
+        this.enabled = properties.isEnabled();
+        byte[] keyBytes = new byte[KEY_LENGTH];
+        new SecureRandom().nextBytes(keyBytes);
+        this.hmacKey = new SecretKeySpec(keyBytes, HMAC_ALGORITHM);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns a new authenticated token for the given credentials, if they were verified before.
+     * The token holds the cached principal and authorities and no details yet.
+     *
+     * @param username the submitted username
+     * @param password the submitted raw password
+     * @return a new token for the previously verified user, or null on a miss
+     */
+    public UsernamePasswordAuthenticationToken get(String username, String password) {
+        if (!enabled) {
+            return null;
+        }
+        CachedAuthentication cached = cache.getIfPresent(key(username, password));
+        if (cached == null) {
+            return null;
+        }
+        return UsernamePasswordAuthenticationToken.authenticated(cached.principal(), null, cached.authorities());
+    }
+
+    /**
+     * Stores a successfully verified authentication for the given credentials.
+     * The entry belongs to the user named by the authentication, the email as stored,
+     * whatever case the client typed it in.
+     *
+     * @param username the submitted username
+     * @param password the submitted raw password
+     * @param authentication the authenticated result returned by the delegate provider
+     */
+    public void put(String username, String password, Authentication authentication) {
+        if (enabled) {
+            cache.put(key(username, password), new CachedAuthentication(authentication.getName(),
+                authentication.getPrincipal(), List.copyOf(authentication.getAuthorities())));
+        }
+    }
+
+    /**
+     * Evicts every cached credential that belongs to the given user.
+     * Must be called whenever the user's password or role changes. Emails are compared
+     * ignoring case, as the database looks them up.
+     *
+     * @param username the email of the user whose entries are evicted
+     */
+    public void evictUser(String username) {
+        if (cache.asMap().values().removeIf(entry -> entry.username().equalsIgnoreCase(username))) {
+            log.debug("Evicted cached credentials for user: {}", username);
+        }
+    }
+
+    /**
+     * Removes all cached credentials.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * Registers the cache hit, miss, size and eviction metrics.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, CACHE_NAME);
+    }
+
+    /**
+     * Computes the keyed hash used as cache key for a username/password pair.
+     *
+     * @param username the submitted username
+     * @param password the submitted raw password
+     * @return the Base64 encoded HMAC of the credentials
+     */
+    private String key(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hmacKey);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) ':');
+            byte[] digest = mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC algorithm not available", e);
+        }
+    }
+
+    /**
+     * Cached entry holding what a verified authentication grants, and its owner.
+     *
+     * @param username the email of the authenticated user
+     * @param principal the authenticated principal
+     * @param authorities the authorities granted to the principal
+     */
+    private record CachedAuthentication(String username, Object principal,
+            Collection<GrantedAuthority> authorities) {}
+}
@@ -4,17 +4,20 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import com.gplanet.commerce.api.configs.app.props.CorsProperties;
+import com.gplanet.commerce.api.filters.AuthenticatedUserMdcFilter;
 import com.gplanet.commerce.api.services.UsuarioDetallesService;
 
 import lombok.RequiredArgsConstructor;
@@ -35,6 +38,7 @@ public class SecurityConfig {
 
     private final CorsProperties corsProperties;
     private final UsuarioDetallesService customUserDetailsService;
+    private final CredentialCache credentialCache;
 
     /**
      * Configures the security filter chain with specific security rules and permissions.
@@ -55,14 +59,15 @@ public class SecurityConfig {
                 .requestMatchers("/api/usuarios/admin/**").hasRole(ROLE_ADMIN)
                 .requestMatchers("/api/usuarios/perfil", "/api/usuarios/password").authenticated()
                 .requestMatchers("/api/usuarios/**").permitAll()
-                .requestMatchers(HttpMethod.GET, "/api/productos/listar").permitAll()
+                .requestMatchers(HttpMethod.GET, "/api/productos/listar", "/api/productos/listar/cursor").permitAll()
                 .requestMatchers("/api/productos/**").hasRole(ROLE_ADMIN)
                 .requestMatchers("/api/compras/nueva").hasRole("USER")
                 .requestMatchers("/api/compras/**").authenticated()
                 .requestMatchers("/api/admin/**").hasRole(ROLE_ADMIN)
                 .anyRequest().authenticated()
             )
-            .httpBasic(httpBasic -> httpBasic.realmName("MyAppRealm"));
+            .httpBasic(httpBasic -> httpBasic.realmName("MyAppRealm"))
+            .addFilterAfter(new AuthenticatedUserMdcFilter(), BasicAuthenticationFilter.class);
         
         return http.build();
     }
@@ -79,6 +84,8 @@ public class SecurityConfig {
 
     /**
      * Configures the authentication manager with custom user details service and password encoder.
+     * The user lookup and password verification are fronted by the {@link CredentialCache}, so
+     * repeated requests with the same credentials don't pay for the BCrypt check every time.
      *
      * @param http the HttpSecurity to configure
      * @param passwordEncoder the password encoder to use
@@ -90,9 +97,12 @@ public class SecurityConfig {
         AuthenticationManagerBuilder authenticationManagerBuilder = 
                 http.getSharedObject(AuthenticationManagerBuilder.class);
 
+        DaoAuthenticationProvider daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(customUserDetailsService);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+
         authenticationManagerBuilder
-                .userDetailsService(customUserDetailsService)
-                .passwordEncoder(passwordEncoder);
+                .authenticationProvider(new CachingAuthenticationProvider(daoAuthenticationProvider, credentialCache));
         
         return authenticationManagerBuilder.build();
     }
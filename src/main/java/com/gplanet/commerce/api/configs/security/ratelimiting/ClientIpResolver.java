@@ -0,0 +1,83 @@
+package com.gplanet.commerce.api.configs.security.ratelimiting;
+
+import java.util.List;
+
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.util.StringUtils;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolves the address of the client that sent a request, for keying the rate limits
+ * of unauthenticated requests.
+ *
+ * <p>The {@code X-Forwarded-For} header is only honoured when the request comes from one of
+ * the trusted proxies configured in {@code rate-limit.trusted-proxies} (addresses or CIDR
+ * ranges). The header is then read from right to left, skipping the trusted proxies, and the
+ * first other address is taken as the client. Entries further left were written by the
+ * client itself and can't be trusted. Without trusted proxies, the header is ignored and the
+ * connection address is used, so a client can't pick its own rate limit bucket.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class ClientIpResolver {
+    private static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final List<IpAddressMatcher> trustedProxies;
+
+    /**
+     * Constructs the resolver.
+     *
+     * @param trustedProxies addresses or CIDR ranges of the proxies allowed to set X-Forwarded-For
+     */
+    public ClientIpResolver(List<String> trustedProxies) {
+        this.trustedProxies = trustedProxies.stream()
+            .filter(StringUtils::hasText)
+            .map(String::trim)
+            .map(IpAddressMatcher::new)
+            .toList();
+    }
+
+    /**
+     * Returns the client address of the request.
+     *
+     * @param request the HTTP request
+     * @return the address of the client, as seen by the closest untrusted hop
+     */
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (!esProxyConfiable(remoteAddr) || !StringUtils.hasText(forwardedFor)) {
+            return remoteAddr;
+        }
+
+        String[] hops = forwardedFor.split(",");
+        String client = remoteAddr;
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!StringUtils.hasText(hop)) {
+                continue;
+            }
+            client = hop;
+            if (!esProxyConfiable(hop)) {
+                break;
+            }
+        }
+        return client;
+    }
+
+    private boolean esProxyConfiable(String address) {
+        for (IpAddressMatcher matcher : trustedProxies) {
+            try {
+                if (matcher.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException ex) {
+                // Not an IP address (e.g. "unknown" or an obfuscated identifier)
+                return false;
+            }
+        }
+        return false;
+    }
+}
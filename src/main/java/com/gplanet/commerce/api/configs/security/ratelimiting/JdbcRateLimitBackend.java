@@ -0,0 +1,98 @@
+package com.gplanet.commerce.api.configs.security.ratelimiting;
+
+import java.time.Duration;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.BucketProxy;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Rate limit backend that keeps the buckets in a database table shared by every node,
+ * through a {@link JdbcSelectForUpdateProxyManager}.
+ *
+ * <p>With local batching enabled, each node consumes up to {@code syncTokens} tokens of a
+ * bucket in memory and writes them to the database in one locked update, at the latest
+ * after {@code syncTimeout}. The hot path then does a database round-trip only once per batch,
+ * at the cost of letting the cluster go over a limit by at most {@code syncTokens} tokens
+ * per node. Tokens still held locally are written when the bucket is evicted from the node.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+public class JdbcRateLimitBackend implements RateLimitBackend {
+
+    private final JdbcSelectForUpdateProxyManager proxyManager;
+    private final Optimization optimization;
+    private final Duration syncTimeout;
+
+    /**
+     * Constructs the backend.
+     *
+     * @param proxyManager the manager of the buckets stored in the database
+     * @param syncTokens tokens consumed locally between two writes, 0 to write on every request
+     * @param syncTimeout longest time locally consumed tokens wait before being written
+     */
+    public JdbcRateLimitBackend(JdbcSelectForUpdateProxyManager proxyManager, long syncTokens, Duration syncTimeout) {
+        this.proxyManager = proxyManager;
+        this.syncTimeout = syncTimeout;
+        if (syncTokens > 0) {
+            this.optimization = Optimizations.delaying(new DelayParameters(syncTokens, syncTimeout));
+        } else {
+            this.optimization = Optimization.NONE_OPTIMIZED;
+        }
+    }
+
+    /**
+     * Returns a proxy to the shared bucket of the given key. The bucket row is created with
+     * the given limits on first use.
+     *
+     * @param key the user or client key of the bucket
+     * @param configuration the limits of the bucket
+     * @return a proxy to the shared bucket
+     */
+    @Override
+    public Bucket bucket(String key, BucketConfiguration configuration) {
+        if (optimization != Optimization.NONE_OPTIMIZED) {
+            // Batched proxies can't create a missing bucket row themselves, so it is created first
+            proxyManager.builder().build(key, () -> configuration).getAvailableTokens();
+        }
+        return proxyManager.builder()
+            .withOptimization(optimization)
+            .build(key, () -> configuration);
+    }
+
+    /**
+     * Writes the tokens the evicted bucket consumed locally since its last write, which would
+     * otherwise be given back to the caller by the next proxy of the same key.
+     *
+     * @param bucket the evicted bucket proxy
+     */
+    @Override
+    public void release(Bucket bucket) {
+        if (!(bucket instanceof BucketProxy proxy)) {
+            return;
+        }
+        try {
+            proxy.getOptimizationController().syncImmediately();
+        } catch (RuntimeException ex) {
+            log.warn("Could not write the local tokens of an evicted rate limit bucket", ex);
+        }
+    }
+
+    /**
+     * Keeps expired bucket rows until every node has dropped their proxies. A cached proxy may
+     * be used until {@code idle} after its last use, and its last write may lag that use by up
+     * to {@code syncTimeout}, so rows are purged only once expired for longer than both.
+     *
+     * @param idle the longest time a node keeps an idle bucket proxy
+     */
+    @Override
+    public void retainIdle(Duration idle) {
+        proxyManager.extendPurgeGrace(idle.plus(syncTimeout));
+    }
+}
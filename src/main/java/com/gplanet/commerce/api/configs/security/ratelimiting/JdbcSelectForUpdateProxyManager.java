@@ -0,0 +1,240 @@
+package com.gplanet.commerce.api.configs.security.ratelimiting;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.jdbc.support.SQLStateSQLExceptionTranslator;
+
+import io.github.bucket4j.distributed.proxy.ClientSideConfig;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.AbstractSelectForUpdateBasedProxyManager;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.LockAndGetResult;
+import io.github.bucket4j.distributed.proxy.generic.select_for_update.SelectForUpdateBasedTransaction;
+import io.github.bucket4j.distributed.remote.RemoteBucketState;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bucket4j proxy manager that stores the bucket states in a database table through plain JDBC,
+ * locking the row of a bucket while its state is changed.
+ *
+ * <p>Each bucket is one row holding its serialized state. A change reads the row with
+ * {@code SELECT ... FOR UPDATE}, so the nodes changing the same bucket queue on its row lock,
+ * and writes the new state in the same transaction. A new bucket is first inserted with an empty
+ * state and committed, then locked like any other; when two nodes insert it at once, the loser
+ * simply locks the winner's row. Bucket4j only offers this in synchronous mode, the one the rate
+ * limit interceptor uses.</p>
+ *
+ * <p>Every write also stores when the bucket will be full again. Past that time the row carries
+ * no state a new bucket wouldn't have, so rows are purged once expired for longer than a grace
+ * period, at most once per minute, while new buckets are being created. The grace period must
+ * cover the time a node keeps an idle proxy cached and the tokens it may still hold locally, so
+ * a node never finds the row of a bucket it is using gone; {@link JdbcRateLimitBackend} extends
+ * it to the idle time of the rate limit stores.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+public class JdbcSelectForUpdateProxyManager extends AbstractSelectForUpdateBasedProxyManager<String> {
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final long PURGE_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final byte[] EMPTY_STATE = new byte[0];
+
+    private final DataSource dataSource;
+    private final SQLExceptionTranslator exceptionTranslator = new SQLStateSQLExceptionTranslator();
+    private final String selectSql;
+    private final String insertSql;
+    private final String updateSql;
+    private final String deleteSql;
+    private final String purgeSql;
+    private volatile long purgeGraceMillis;
+    private volatile long nextPurge;
+
+    /**
+     * Constructs the proxy manager.
+     *
+     * @param dataSource the shared datasource
+     * @param tableName name of the bucket table
+     * @param purgeGrace how long an expired row is kept before being purged
+     */
+    public JdbcSelectForUpdateProxyManager(DataSource dataSource, String tableName, Duration purgeGrace) {
+        super(ClientSideConfig.getDefault());
+        if (!TABLE_NAME.matcher(tableName).matches()) {
+            throw new IllegalArgumentException("Invalid rate limit table name: " + tableName);
+        }
+        this.dataSource = dataSource;
+        this.selectSql = "SELECT state FROM " + tableName + " WHERE bucket_key = ? FOR UPDATE";
+        this.insertSql = "INSERT INTO " + tableName + " (bucket_key, state, expires_at) VALUES (?, ?, ?)";
+        this.updateSql = "UPDATE " + tableName + " SET state = ?, expires_at = ? WHERE bucket_key = ?";
+        this.deleteSql = "DELETE FROM " + tableName + " WHERE bucket_key = ?";
+        this.purgeSql = "DELETE FROM " + tableName + " WHERE expires_at < ?";
+        this.purgeGraceMillis = purgeGrace.toMillis();
+    }
+
+    /**
+     * Extends the time an expired row is kept before being purged, if shorter than the given one.
+     *
+     * @param purgeGrace the shortest time an expired row must be kept
+     */
+    public void extendPurgeGrace(Duration purgeGrace) {
+        purgeGraceMillis = Math.max(purgeGraceMillis, purgeGrace.toMillis());
+    }
+
+    @Override
+    protected SelectForUpdateBasedTransaction allocateTransaction(String key) {
+        return new Transaccion(key);
+    }
+
+    @Override
+    public void removeProxy(String key) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(deleteSql)) {
+            statement.setString(1, key);
+            statement.executeUpdate();
+        } catch (SQLException ex) {
+            throw traducir("removeProxy", deleteSql, ex);
+        }
+    }
+
+    private DataAccessException traducir(String task, String sql, SQLException ex) {
+        DataAccessException translated = exceptionTranslator.translate(task, sql, ex);
+        if (translated == null) {
+            return new UncategorizedSQLException(task, sql, ex);
+        }
+        return translated;
+    }
+
+    /**
+     * Change of one bucket, in a transaction of its own connection.
+     */
+    private final class Transaccion implements SelectForUpdateBasedTransaction {
+        private final String key;
+        private Connection connection;
+
+        private Transaccion(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void begin() {
+            try {
+                connection = dataSource.getConnection();
+                connection.setAutoCommit(false);
+            } catch (SQLException ex) {
+                throw traducir("begin", null, ex);
+            }
+        }
+
+        @Override
+        public LockAndGetResult tryLockAndGet() {
+            try (PreparedStatement statement = connection.prepareStatement(selectSql)) {
+                statement.setString(1, key);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (!rs.next()) {
+                        return LockAndGetResult.notLocked();
+                    }
+                    byte[] state = rs.getBytes(1);
+                    if (state.length == 0) {
+                        // Row inserted for a new bucket whose state hasn't been written yet
+                        return LockAndGetResult.locked(null);
+                    }
+                    return LockAndGetResult.locked(state);
+                }
+            } catch (SQLException ex) {
+                throw traducir("tryLockAndGet", selectSql, ex);
+            }
+        }
+
+        @Override
+        public boolean tryInsertEmptyData() {
+            long now = System.currentTimeMillis();
+            purgarExpirados(now);
+            try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+                statement.setString(1, key);
+                statement.setBytes(2, EMPTY_STATE);
+                // Kept past the next purge, so the row isn't deleted before its state is written
+                statement.setLong(3, now + PURGE_INTERVAL_MILLIS);
+                statement.executeUpdate();
+                return true;
+            } catch (SQLException ex) {
+                DataAccessException translated = traducir("tryInsertEmptyData", insertSql, ex);
+                if (translated instanceof DuplicateKeyException) {
+                    // Another node created the bucket first; Bucket4j retries by locking its row
+                    return false;
+                }
+                throw translated;
+            }
+        }
+
+        private void purgarExpirados(long now) {
+            if (now < nextPurge) {
+                return;
+            }
+            nextPurge = now + PURGE_INTERVAL_MILLIS;
+            try (PreparedStatement statement = connection.prepareStatement(purgeSql)) {
+                statement.setLong(1, now - purgeGraceMillis);
+                int purged = statement.executeUpdate();
+                if (purged > 0) {
+                    log.debug("Purged {} expired rate limit buckets", purged);
+                }
+            } catch (SQLException ex) {
+                throw traducir("purgarExpirados", purgeSql, ex);
+            }
+        }
+
+        @Override
+        public void update(byte[] data, RemoteBucketState newState) {
+            long now = System.currentTimeMillis();
+            long expiresAt = now + TimeUnit.NANOSECONDS.toMillis(
+                newState.calculateFullRefillingTime(TimeUnit.MILLISECONDS.toNanos(now)));
+            try (PreparedStatement statement = connection.prepareStatement(updateSql)) {
+                statement.setBytes(1, data);
+                statement.setLong(2, expiresAt);
+                statement.setString(3, key);
+                statement.executeUpdate();
+            } catch (SQLException ex) {
+                throw traducir("update", updateSql, ex);
+            }
+        }
+
+        @Override
+        public void commit() {
+            try {
+                connection.commit();
+            } catch (SQLException ex) {
+                throw traducir("commit", null, ex);
+            }
+        }
+
+        @Override
+        public void rollback() {
+            try {
+                connection.rollback();
+            } catch (SQLException ex) {
+                throw traducir("rollback", null, ex);
+            }
+        }
+
+        @Override
+        public void release() {
+            if (connection == null) {
+                return;
+            }
+            try (Connection pooled = connection) {
+                pooled.setAutoCommit(true);
+            } catch (SQLException ex) {
+                log.warn("Could not release the rate limit bucket connection", ex);
+            }
+        }
+    }
+}
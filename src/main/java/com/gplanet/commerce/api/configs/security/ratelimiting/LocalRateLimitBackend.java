@@ -0,0 +1,32 @@
+package com.gplanet.commerce.api.configs.security.ratelimiting;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+
+/**
+ * Rate limit backend that keeps every bucket in the memory of this node.
+ * This is the default; with several nodes, each one enforces the limits on its own.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class LocalRateLimitBackend implements RateLimitBackend {
+
+    /**
+     * Creates an in-memory bucket with the given limits.
+     *
+     * @param key the user or client key of the bucket
+     * @param configuration the limits of the bucket
+     * @return a new local bucket
+     */
+    @Override
+    public Bucket bucket(String key, BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth limit : configuration.getBandwidths()) {
+            builder.addLimit(limit);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.gplanet.commerce.api.configs.security.ratelimiting;
+
+import java.time.Duration;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * Storage backend of the rate limit buckets.
+ *
+ * <p>The backend decides where the bucket state lives: in the memory of each node
+ * ({@link LocalRateLimitBackend}) or in a store shared by every node, so the limits hold
+ * across the whole cluster ({@link JdbcRateLimitBackend}). {@link RateLimitingConfig} keeps
+ * the returned buckets in its own bounded stores, so a backend is asked for a bucket only
+ * the first time a key is seen, or after it was evicted.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public interface RateLimitBackend {
+
+    /**
+     * Returns the bucket for the given key, creating it with the given limits if needed.
+     *
+     * @param key the user or client key of the bucket
+     * @param configuration the limits of the bucket
+     * @return the bucket
+     */
+    Bucket bucket(String key, BucketConfiguration configuration);
+
+    /**
+     * Called when a bucket returned by {@link #bucket} is evicted from the store of
+     * {@link RateLimitingConfig} to make room, so a backend can write out any state the bucket
+     * still holds only locally.
+     *
+     * @param bucket the bucket no longer in use
+     */
+    default void release(Bucket bucket) {
+    }
+
+    /**
+     * Called once with the longest time {@link RateLimitingConfig} keeps an idle bucket in its
+     * stores, so a backend that expires stored state keeps it at least that long after last use.
+     *
+     * @param idle the longest time an idle bucket stays in use
+     */
+    default void retainIdle(Duration idle) {
+    }
+}
@@ -0,0 +1,38 @@
+package com.gplanet.commerce.api.configs.security.ratelimiting;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.gplanet.commerce.api.configs.app.props.RateLimitBackendProperties;
+
+/**
+ * Configuration of the shared rate limit backend.
+ *
+ * <p>Setting {@code rate-limit.backend.type=jdbc} registers a {@link JdbcRateLimitBackend} over
+ * the application datasource, so every node enforces the same limits. Otherwise no backend bean
+ * is defined and {@link RateLimitingConfig} falls back to a {@link LocalRateLimitBackend}.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Configuration
+public class RateLimitBackendConfig {
+
+    /**
+     * Creates the database-backed rate limit backend.
+     *
+     * @param dataSource the application datasource
+     * @param properties the backend settings
+     * @return the shared rate limit backend
+     */
+    @Bean
+    @ConditionalOnProperty(name = "rate-limit.backend.type", havingValue = "jdbc")
+    public RateLimitBackend jdbcRateLimitBackend(DataSource dataSource, RateLimitBackendProperties properties) {
+        JdbcSelectForUpdateProxyManager proxyManager =
+            new JdbcSelectForUpdateProxyManager(dataSource, properties.getTableName(), properties.getSyncTimeout());
+        return new JdbcRateLimitBackend(proxyManager, properties.getSyncTokens(), properties.getSyncTimeout());
+    }
+}
@@ -0,0 +1,20 @@
+package com.gplanet.commerce.api.configs.security.ratelimiting;
+
+import java.time.Duration;
+
+import io.github.bucket4j.Bucket;
+
+/**
+ * A rate limit bucket together with the limits it was built with,
+ * which are reported to clients in the {@code RateLimit-*} response headers.
+ *
+ * @param bucket the token bucket
+ * @param capacity the maximum number of tokens
+ * @param refill the tokens restored per window
+ * @param window the refill window
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public record RateLimitBucket(Bucket bucket, long capacity, long refill, Duration window) {
+}
@@ -0,0 +1,40 @@
+package com.gplanet.commerce.api.configs.security.ratelimiting;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the rate limit cost of an endpoint, on a handler method or on a whole controller.
+ *
+ * <p>Every request consumes {@link #value()} tokens from the caller's bucket, so expensive
+ * endpoints use up the quota faster than cheap reads, which cost one token. An endpoint can
+ * also belong to a {@link #group()}; when {@code rate-limit.groups.<group>} defines limits, the
+ * request must additionally fit in the caller's bucket for that group. Unannotated endpoints
+ * cost one token and belong to no group.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @see RateLimitInterceptor
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RateLimitCost {
+
+    /**
+     * Tokens consumed by each request.
+     *
+     * @return the token cost
+     */
+    long value() default 1;
+
+    /**
+     * Endpoint group whose own limits apply on top of the caller's general limits.
+     *
+     * @return the group name, or empty for none
+     */
+    String group() default "";
+}
@@ -1,11 +1,14 @@
 package com.gplanet.commerce.api.configs.security.ratelimiting;
 
+import java.util.Optional;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.lang.NonNull;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import com.gplanet.commerce.api.exceptions.RateLimitExceededException;
 
-import io.github.bucket4j.Bucket;
 import io.github.bucket4j.ConsumptionProbe;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -13,17 +16,25 @@ import jakarta.servlet.http.HttpServletResponse;
 /**
  * Interceptor that implements rate limiting for API requests.
  * Uses token bucket algorithm to control request rates based on user roles.
- * 
+ *
+ * <p>Each request consumes the token cost declared with {@link RateLimitCost} (one token by
+ * default) from the caller's bucket and, when the endpoint belongs to a group with its own
+ * limits, from the caller's bucket for that group too. The state of the most exhausted bucket
+ * is reported in the {@code RateLimit-Limit}, {@code RateLimit-Remaining},
+ * {@code RateLimit-Reset} and {@code RateLimit-Policy} headers, so clients can pace themselves
+ * before being throttled.</p>
+ *
  * @author Gustavo
  * @version 1.0
  */
 public class RateLimitInterceptor implements HandlerInterceptor {
     private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long DEFAULT_COST = 1;
     private final RateLimitingConfig rateLimitingConfig;
 
     /**
      * Constructs a new rate limit interceptor with the specified configuration.
-     * 
+     *
      * @param rateLimitingConfig the configuration containing rate limit settings
      */
     public RateLimitInterceptor(RateLimitingConfig rateLimitingConfig) {
@@ -33,7 +44,7 @@ public class RateLimitInterceptor implements HandlerInterceptor {
     /**
      * Handles the rate limiting before the request is processed.
      * Adds rate limit headers and throws exception if limit is exceeded.
-     * 
+     *
      * @param request the HTTP request
      * @param response the HTTP response
      * @param handler the handler for the request
@@ -42,20 +53,87 @@ public class RateLimitInterceptor implements HandlerInterceptor {
      */
     @Override
     public boolean preHandle(
-        @NonNull HttpServletRequest request, 
-        @NonNull HttpServletResponse response, 
+        @NonNull HttpServletRequest request,
+        @NonNull HttpServletResponse response,
         @NonNull Object handler
     ) throws Exception {
-        Bucket bucket = rateLimitingConfig.resolveBucket();
-        ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
-        if (probe.isConsumed()) {
-            response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
-            return true;
+        RateLimitCost rateLimitCost = costeDe(handler);
+        long cost = DEFAULT_COST;
+        Optional<RateLimitBucket> groupBucket = Optional.empty();
+        if (rateLimitCost != null) {
+            cost = rateLimitCost.value();
+            if (!rateLimitCost.group().isEmpty()) {
+                groupBucket = rateLimitingConfig.resolveGroupBucket(request, rateLimitCost.group());
+            }
+        }
+
+        ConsumptionProbe groupProbe = null;
+        if (groupBucket.isPresent()) {
+            groupProbe = groupBucket.get().bucket().tryConsumeAndReturnRemaining(cost);
+            if (!groupProbe.isConsumed()) {
+                rechazar(response, groupBucket.get(), groupProbe);
+            }
+        }
+
+        RateLimitBucket bucket = rateLimitingConfig.resolveBucket(request);
+        ConsumptionProbe probe = bucket.bucket().tryConsumeAndReturnRemaining(cost);
+        if (!probe.isConsumed()) {
+            // The request is refused, so it must not count against the group either
+            if (groupBucket.isPresent()) {
+                groupBucket.get().bucket().addTokens(cost);
+            }
+            rechazar(response, bucket, probe);
+        }
+
+        if (groupProbe != null && groupProbe.getRemainingTokens() < probe.getRemainingTokens()) {
+            informar(response, groupBucket.get(), groupProbe, segundos(groupProbe.getNanosToWaitForReset()));
         } else {
-            long waitForRefill = probe.getNanosToWaitForRefill() 
-                / NANOS_PER_SECOND;
-            response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
-            throw new RateLimitExceededException("Rate limit exceeded");
+            informar(response, bucket, probe, segundos(probe.getNanosToWaitForReset()));
+        }
+        response.addHeader("X-Rate-Limit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        return true;
+    }
+
+    private static RateLimitCost costeDe(Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return null;
+        }
+        RateLimitCost cost = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), RateLimitCost.class);
+        if (cost == null) {
+            cost = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RateLimitCost.class);
         }
+        return cost;
+    }
+
+    private static void rechazar(HttpServletResponse response, RateLimitBucket bucket, ConsumptionProbe probe) {
+        long waitForRefill = Math.min(segundos(probe.getNanosToWaitForRefill()), segundosHastaLlenar(bucket));
+        informar(response, bucket, probe, waitForRefill);
+        response.addHeader("Retry-After", String.valueOf(waitForRefill));
+        response.addHeader("X-Rate-Limit-Retry-After-Seconds", String.valueOf(waitForRefill));
+        throw new RateLimitExceededException("Rate limit exceeded");
+    }
+
+    private static void informar(
+            HttpServletResponse response, RateLimitBucket bucket, ConsumptionProbe probe, long reset) {
+        response.setHeader("RateLimit-Limit", String.valueOf(bucket.capacity()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        response.setHeader("RateLimit-Reset", String.valueOf(reset));
+        response.setHeader("RateLimit-Policy", String.format("%d;w=%d;burst=%d",
+            bucket.refill(), bucket.window().toSeconds(), bucket.capacity()));
+    }
+
+    /**
+     * Converts a wait in nanoseconds to whole seconds, rounding up so clients never retry early.
+     */
+    private static long segundos(long nanos) {
+        return Math.ceilDiv(nanos, NANOS_PER_SECOND);
+    }
+
+    /**
+     * Seconds an empty bucket takes to fill up again, the longest wait worth announcing. Bucket4j
+     * reports {@link Long#MAX_VALUE} when the cost exceeds the capacity, which no wait can cover.
+     */
+    private static long segundosHastaLlenar(RateLimitBucket bucket) {
+        return Math.ceilDiv(bucket.capacity() * bucket.window().toSeconds(), Math.max(bucket.refill(), 1));
     }
 }
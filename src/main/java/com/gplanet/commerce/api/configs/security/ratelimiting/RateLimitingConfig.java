@@ -1,20 +1,35 @@
 package com.gplanet.commerce.api.configs.security.ratelimiting;
 
 import java.time.Duration;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.gplanet.commerce.api.configs.app.props.RateLimitGroupProperties;
+
 import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.Refill;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
 
 /**
  * Configuration class for rate limiting functionality in the application.
@@ -35,6 +50,26 @@ import io.github.bucket4j.Refill;
  *   <li>Time window is configurable in minutes</li>
  * </ul>
  *
+ * <p>Authenticated users get one bucket per user and role tier, so a role change starts the
+ * user on a fresh bucket with the new limits. Unauthenticated requests share one bucket per client
+ * address, resolved by {@link ClientIpResolver}. Both kinds of bucket live in bounded stores
+ * ({@code rate-limit.authenticated.max-users} and {@code rate-limit.unauthenticated.max-clients}):
+ * a bucket left idle long enough to refill completely carries no state and expires, and once the
+ * store is full the entries least likely to be used again are evicted. An evicted local bucket
+ * simply starts again full; an evicted bucket is handed to the backend, so a shared backend can
+ * first write out the tokens the bucket consumed only locally.</p>
+ *
+ * <p>Endpoints can declare a token cost and an endpoint group with {@link RateLimitCost}. A group
+ * with limits under {@code rate-limit.groups} gets its own bucket per user or client, kept in the
+ * same stores, so expensive write and authentication paths can be limited tighter than reads.</p>
+ *
+ * <p>The bucket state itself is kept by a {@link RateLimitBackend}: in memory by default, or in a
+ * database table shared by every node when {@code rate-limit.backend.type=jdbc}, so the limits
+ * hold across the whole cluster instead of once per node.</p>
+ *
+ * <p>Size, eviction and estimated memory metrics of both stores are published through
+ * Micrometer under the cache names {@value #USER_BUCKETS} and {@value #CLIENT_BUCKETS}.</p>
+ *
  * <p>Configuration can be adjusted through application properties with the prefix 'rate-limit'.</p>
  *
  * @author Gustavo
@@ -43,11 +78,46 @@ import io.github.bucket4j.Refill;
  * @see RateLimitInterceptor
  */
 @Component
-public class RateLimitingConfig implements WebMvcConfigurer {
+public class RateLimitingConfig implements WebMvcConfigurer, MeterBinder {
+    /**
+     * Name used to tag the metrics of the authenticated user buckets.
+     */
+    public static final String USER_BUCKETS = "ratelimit.users";
+
+    /**
+     * Name used to tag the metrics of the unauthenticated client buckets.
+     */
+    public static final String CLIENT_BUCKETS = "ratelimit.clients";
+
+    // Rough footprint of a store entry: key, cache node, bucket state and its configuration
+    private static final long ENTRY_BYTES = 400;
+    private static final String ADMIN_TIER = "ADMIN";
+    private static final String USER_TIER = "USER";
+    private static final String USER_KEY_PREFIX = "user:";
+    private static final String CLIENT_KEY_PREFIX = "ip:";
+
     /** 
-     * Cache of rate limit buckets per user.
+     * Bounded cache of rate limit buckets per user and role tier.
+     */
+    private Cache<String, RateLimitBucket> buckets;
+
+    /**
+     * Bounded cache of rate limit buckets per client address, for unauthenticated requests.
+     */
+    private Cache<String, RateLimitBucket> anonymousBuckets;
+
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+    private final ObjectProvider<RateLimitBackend> backendProvider;
+    private final ObjectProvider<RateLimitGroupProperties> groupPropertiesProvider;
+    private RateLimitBackend backend;
+    private RateLimitGroupProperties groupProperties;
+    private ClientIpResolver clientIpResolver;
+
+    /**
+     * Proxies (addresses or CIDR ranges) trusted to report the client address in X-Forwarded-For.
      */
-    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    @Value("${rate-limit.trusted-proxies:}")
+    private List<String> trustedProxies;
 
     /** 
      * Maximum requests capacity for unauthenticated users.
@@ -60,6 +130,12 @@ public class RateLimitingConfig implements WebMvcConfigurer {
      */
     @Value("${rate-limit.unauthenticated.refill:5}")
     private int unauthenticatedRefill;
+
+    /**
+     * Maximum number of client addresses whose unauthenticated buckets are kept.
+     */
+    @Value("${rate-limit.unauthenticated.max-clients:100000}")
+    private long unauthenticatedMaxClients;
     
     /** 
      * Maximum requests capacity for regular users.
@@ -72,6 +148,12 @@ public class RateLimitingConfig implements WebMvcConfigurer {
      */
     @Value("${rate-limit.user.refill:20}")
     private int userRefill;
+
+    /**
+     * Maximum number of authenticated users whose buckets are kept.
+     */
+    @Value("${rate-limit.authenticated.max-users:100000}")
+    private long authenticatedMaxUsers;
     
     /** 
      * Maximum requests capacity for admin users.
@@ -92,68 +174,216 @@ public class RateLimitingConfig implements WebMvcConfigurer {
     private int windowMinutes;
 
     /**
-     * Resolves the appropriate rate limit bucket for the current user.
+     * Constructs the rate limiting configuration.
+     *
+     * @param backendProvider provider of the configured bucket backend, if any
+     * @param groupPropertiesProvider provider of the endpoint group limits, if any
+     */
+    public RateLimitingConfig(
+            ObjectProvider<RateLimitBackend> backendProvider,
+            ObjectProvider<RateLimitGroupProperties> groupPropertiesProvider) {
+        this.backendProvider = backendProvider;
+        this.groupPropertiesProvider = groupPropertiesProvider;
+    }
+
+    /**
+     * Builds the client address resolver and the bucket stores once the settings are injected.
+     * An idle bucket expires after the time it takes to refill completely, when a new bucket
+     * would behave exactly the same.
+     */
+    @PostConstruct
+    void initBucketStores() {
+        backend = backendProvider.getIfAvailable(LocalRateLimitBackend::new);
+        groupProperties = groupPropertiesProvider.getIfAvailable(RateLimitGroupProperties::new);
+        clientIpResolver = new ClientIpResolver(trustedProxies);
+
+        Duration groupIdle = Duration.ZERO;
+        for (RateLimitGroupProperties.Group group : groupProperties.getGroups().values()) {
+            groupIdle = mayor(groupIdle, tiempoHastaLlenar(group.getCapacity(), group.getRefill()));
+        }
+        Duration userIdle = mayor(mayor(tiempoHastaLlenar(userCapacity, userRefill),
+            tiempoHastaLlenar(adminCapacity, adminRefill)), groupIdle);
+        buckets = Caffeine.newBuilder()
+            .maximumSize(authenticatedMaxUsers)
+            .expireAfterAccess(userIdle)
+            .removalListener(this::liberar)
+            .recordStats()
+            .build();
+        Duration clientIdle = mayor(tiempoHastaLlenar(unauthenticatedCapacity, unauthenticatedRefill), groupIdle);
+        anonymousBuckets = Caffeine.newBuilder()
+            .maximumSize(unauthenticatedMaxClients)
+            .expireAfterAccess(clientIdle)
+            .removalListener(this::liberar)
+            .recordStats()
+            .build();
+        // Every bucket of a store stays cached as long as the slowest one to refill
+        backend.retainIdle(mayor(userIdle, clientIdle));
+    }
+
+    private void liberar(String key, RateLimitBucket bucket, RemovalCause cause) {
+        // An expired bucket is full again, so only one evicted for room can hold unwritten tokens
+        if (bucket != null && cause == RemovalCause.SIZE) {
+            backend.release(bucket.bucket());
+        }
+    }
+
+    private static Duration mayor(Duration first, Duration second) {
+        if (first.compareTo(second) >= 0) {
+            return first;
+        }
+        return second;
+    }
+
+    /**
+     * Registers the size, eviction and estimated memory metrics of the bucket stores.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        registrarMetricas(registry, buckets, USER_BUCKETS);
+        registrarMetricas(registry, anonymousBuckets, CLIENT_BUCKETS);
+    }
+
+    private static void registrarMetricas(MeterRegistry registry, Cache<String, RateLimitBucket> store, String name) {
+        CaffeineCacheMetrics.monitor(registry, store, name);
+        Gauge.builder("cache.memory.estimated", store, cache -> cache.estimatedSize() * ENTRY_BYTES)
+            .tags("cache", name)
+            .baseUnit("bytes")
+            .description("Estimated memory of the rate limit buckets")
+            .register(registry);
+    }
+
+    private Duration tiempoHastaLlenar(int capacity, int refill) {
+        long refillsToFull = (capacity + refill - 1L) / refill;
+        return Duration.ofMinutes(windowMinutes * refillsToFull);
+    }
+
+    /**
+     * Resolves the appropriate rate limit bucket for the current user, or for the client
+     * address when the request is not authenticated.
      * Creates a new bucket if one doesn't exist.
      * 
-     * @return the rate limit bucket for the current user
+     * @param request the HTTP request being rate limited
+     * @return the rate limit bucket for the current user or client address
      */
-    public Bucket resolveBucket() {
+    public RateLimitBucket resolveBucket(HttpServletRequest request) {
+        return resolver(request, null, null);
+    }
+
+    /**
+     * Resolves the bucket of the current user or client address for an endpoint group.
+     *
+     * @param request the HTTP request being rate limited
+     * @param group the endpoint group
+     * @return the group bucket, or empty if the group has no limits of its own
+     */
+    public Optional<RateLimitBucket> resolveGroupBucket(HttpServletRequest request, String group) {
+        RateLimitGroupProperties.Group limits = groupProperties.getGroups().get(group);
+        if (limits == null) {
+            return Optional.empty();
+        }
+        return Optional.of(resolver(request, group, limits));
+    }
+
+    private RateLimitBucket resolver(HttpServletRequest request, String group, RateLimitGroupProperties.Group limits) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        
-        // If not authenticated, use default limits
-        if (auth == null || !auth.isAuthenticated()) {
-            return createDefaultBucket();
+        String suffix = "";
+        if (group != null) {
+            suffix = "#" + group;
         }
         
-        // Use username as the key
-        String username = auth.getName();
+        // If not authenticated, use default limits shared by the client address
+        if (auth == null || !auth.isAuthenticated() || trustResolver.isAnonymous(auth)) {
+            return obtener(anonymousBuckets, clientIpResolver.resolve(request) + suffix,
+                key -> createDefaultBucket(key, limits));
+        }
         
-        return buckets.computeIfAbsent(username, this::createUserBucket);
+        // Use username and role tier as the key, so a role change gets a bucket with the new limits
+        String tier = tier(auth);
+        return obtener(buckets, auth.getName() + "|" + tier + suffix, key -> createUserBucket(key, tier, limits));
     }
 
     /**
-     * Creates a rate limit bucket for unauthenticated users.
+     * Returns the bucket of a key from a store, creating it if missing.
+     * The bucket is created outside the store's compute: a shared backend does database
+     * round-trips to create it, which must neither hold a lock other keys share nor pin a
+     * virtual thread. When two requests create the same bucket at once, the loser's is released.
+     *
+     * @param store the store of the bucket
+     * @param key the key of the bucket
+     * @param factory creates the bucket when the store doesn't hold it
+     * @return the bucket held by the store
+     */
+    private RateLimitBucket obtener(Cache<String, RateLimitBucket> store, String key,
+            Function<String, RateLimitBucket> factory) {
+        RateLimitBucket bucket = store.getIfPresent(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        RateLimitBucket created = factory.apply(key);
+        RateLimitBucket existing = store.asMap().putIfAbsent(key, created);
+        if (existing == null) {
+            return created;
+        }
+        backend.release(created.bucket());
+        return existing;
+    }
+
+    /**
+     * Returns the rate limit tier of an authenticated user.
+     *
+     * @param auth the user's authentication
+     * @return the admin tier for ROLE_ADMIN, the user tier otherwise
+     */
+    private static String tier(Authentication auth) {
+        if (auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
+            return ADMIN_TIER;
+        }
+        return USER_TIER;
+    }
+
+    /**
+     * Creates a rate limit bucket for an unauthenticated client.
      * 
+     * @param key the client address, followed by the endpoint group if any
+     * @param groupLimits the limits of the endpoint group, or null for the general bucket
      * @return a new bucket with unauthenticated user limits
      */
-    private Bucket createDefaultBucket() {
+    private RateLimitBucket createDefaultBucket(String key, RateLimitGroupProperties.Group groupLimits) {
+        if (groupLimits != null) {
+            return crear(CLIENT_KEY_PREFIX + key, groupLimits.getCapacity(), groupLimits.getRefill());
+        }
         // Unauthenticated users get a more restricted rate limit
-        Bandwidth limit = Bandwidth.classic(
-            unauthenticatedCapacity, 
-            Refill.greedy(unauthenticatedRefill, Duration.ofMinutes(windowMinutes))
-        );
-        return Bucket.builder()
-                .addLimit(limit)
-                .build();
+        return crear(CLIENT_KEY_PREFIX + key, unauthenticatedCapacity, unauthenticatedRefill);
     }
 
     /**
      * Creates a rate limit bucket for an authenticated user.
      * 
-     * @param username the username of the authenticated user
+     * @param key the user and role tier key, followed by the endpoint group if any
+     * @param tier the role tier of the user
+     * @param groupLimits the limits of the endpoint group, or null for the general bucket
      * @return a new bucket with appropriate limits based on user role
      */
-    private Bucket createUserBucket(String username) {
+    private RateLimitBucket createUserBucket(String key, String tier, RateLimitGroupProperties.Group groupLimits) {
+        if (groupLimits != null) {
+            return crear(USER_KEY_PREFIX + key, groupLimits.getCapacity(), groupLimits.getRefill());
+        }
         // Different rate limits based on user role
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        
-        if (auth.getAuthorities().stream().anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"))) {
-            Bandwidth limit = Bandwidth.classic(
-                adminCapacity, 
-                Refill.greedy(adminRefill, Duration.ofMinutes(windowMinutes))
-            );
-            return Bucket.builder()
-                    .addLimit(limit)
-                    .build();
-        } else {
-            Bandwidth limit = Bandwidth.classic(
-                userCapacity, 
-                Refill.greedy(userRefill, Duration.ofMinutes(windowMinutes))
-            );
-            return Bucket.builder()
-                    .addLimit(limit)
-                    .build();
+        if (ADMIN_TIER.equals(tier)) {
+            return crear(USER_KEY_PREFIX + key, adminCapacity, adminRefill);
         }
+        return crear(USER_KEY_PREFIX + key, userCapacity, userRefill);
+    }
+
+    private RateLimitBucket crear(String key, int capacity, int refill) {
+        Duration window = Duration.ofMinutes(windowMinutes);
+        Bandwidth limit = Bandwidth.classic(capacity, Refill.greedy(refill, window));
+        BucketConfiguration configuration = BucketConfiguration.builder()
+                .addLimit(limit)
+                .build();
+        return new RateLimitBucket(backend.bucket(key, configuration), capacity, refill, window);
     }
 
     /**
@@ -0,0 +1,222 @@
+package com.gplanet.commerce.api.controllers;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitCost;
+import com.gplanet.commerce.api.dtos.analitica.ReconstruccionDTO;
+import com.gplanet.commerce.api.dtos.analitica.ResumenVentasDTO;
+import com.gplanet.commerce.api.dtos.analitica.SalesRanking;
+import com.gplanet.commerce.api.dtos.analitica.VentaDiariaDTO;
+import com.gplanet.commerce.api.dtos.analitica.VentaProductoDTO;
+import com.gplanet.commerce.api.dtos.analitica.VentaUsuarioDTO;
+import com.gplanet.commerce.api.services.AnaliticaService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST Controller exposing the sales analytics to administrators.
+ *
+ * <p>The figures are read from rollups kept up to date as purchases are committed, so they load
+ * in the same time whatever the number of purchases. Ranges of days default to the last 30 days.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Tag(name = "Sales Analytics", description = "API for revenue, best sellers and average basket")
+@RestController
+@RequestMapping("/api/admin/ventas")
+@RequiredArgsConstructor
+@Validated
+public class AnaliticaController {
+
+    private static final int DIAS_POR_DEFECTO = 30;
+
+    private final AnaliticaService analiticaService;
+
+    /**
+     * Retrieves the revenue of each day of a range.
+     *
+     * @param desde the first day, 29 days before the last one by default
+     * @param hasta the last day, today by default
+     * @return the sales of the days with purchases, by ascending day
+     */
+    @Operation(summary = "Get the revenue per day",
+               description = "Returns the purchases, units and revenue of each day of the range with purchases")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Daily sales found successfully",
+            content = @Content(mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = VentaDiariaDTO.class)))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
+    })
+    @GetMapping("/diarias")
+    public List<VentaDiariaDTO> ventasDiarias(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "First day, inclusive", example = "2025-06-01") LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "Last day, inclusive", example = "2025-06-30") LocalDate hasta) {
+        LocalDate fin = fin(hasta);
+        return analiticaService.ventasDiarias(inicio(desde, fin), fin);
+    }
+
+    /**
+     * Retrieves the totals of a range of days and the average basket.
+     *
+     * @param desde the first day, 29 days before the last one by default
+     * @param hasta the last day, today by default
+     * @return the totals of the range, with the average total and units of a purchase
+     */
+    @Operation(summary = "Get the sales summary and average basket",
+               description = "Returns the purchases, units and revenue of the range, and the average total "
+                             + "and units of a purchase")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Summary found successfully",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ResumenVentasDTO.class))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
+    })
+    @GetMapping("/resumen")
+    public ResumenVentasDTO resumen(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "First day, inclusive", example = "2025-06-01") LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            @Parameter(description = "Last day, inclusive", example = "2025-06-30") LocalDate hasta) {
+        LocalDate fin = fin(hasta);
+        return analiticaService.resumen(inicio(desde, fin), fin);
+    }
+
+    /**
+     * Retrieves the best selling products.
+     *
+     * @param orden whether the products are ranked by revenue or by units sold
+     * @param limite the maximum number of products
+     * @return the sales of the first products in the ranking
+     */
+    @Operation(summary = "Get the top selling products",
+               description = "Returns the products with the highest revenue or units sold since the first purchase")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Products found successfully",
+            content = @Content(mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = VentaProductoDTO.class)))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
+    })
+    @GetMapping("/productos")
+    public List<VentaProductoDTO> productosMasVendidos(
+            @RequestParam(defaultValue = "REVENUE")
+            @Parameter(description = "Ranking order") SalesRanking orden,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100)
+            @Parameter(description = "Maximum number of products", example = "10") int limite) {
+        return analiticaService.productosMasVendidos(orden, limite);
+    }
+
+    /**
+     * Retrieves the customers with the highest revenue.
+     *
+     * @param limite the maximum number of customers
+     * @return the sales of the best customers, highest revenue first
+     */
+    @Operation(summary = "Get the revenue per customer",
+               description = "Returns the customers with the highest revenue since their first purchase")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Customers found successfully",
+            content = @Content(mediaType = "application/json",
+                array = @ArraySchema(schema = @Schema(implementation = VentaUsuarioDTO.class)))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
+    })
+    @GetMapping("/clientes")
+    public List<VentaUsuarioDTO> mejoresClientes(
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100)
+            @Parameter(description = "Maximum number of customers", example = "10") int limite) {
+        return analiticaService.mejoresClientes(limite);
+    }
+
+    /**
+     * Starts recomputing the rollups from every purchase in the background.
+     *
+     * @return 202 Accepted with the state of the rebuild, which is at the Location URL
+     */
+    @Operation(summary = "Rebuild the sales rollups",
+               description = "Recomputes the rollups from the purchases in parallel chunks, in the background. "
+                             + "A rebuild already running on the node is reported instead of starting another one.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Rebuild started or running",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ReconstruccionDTO.class))),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
+    })
+    @RateLimitCost(value = 2, group = "write")
+    @PostMapping("/reconstruccion")
+    public ResponseEntity<ReconstruccionDTO> reconstruir() {
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/admin/ventas/reconstruccion"))
+            .body(analiticaService.reconstruir());
+    }
+
+    /**
+     * Retrieves the state of the last rebuild of the rollups on this node.
+     *
+     * @return the state of the rebuild
+     */
+    @Operation(summary = "Get the state of the rollup rebuild",
+               description = "Returns the progress of the last rebuild started on the node")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "State found successfully",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = ReconstruccionDTO.class))),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
+    })
+    @GetMapping("/reconstruccion")
+    public ReconstruccionDTO estadoReconstruccion() {
+        return analiticaService.estadoReconstruccion();
+    }
+
+    private static LocalDate fin(LocalDate hasta) {
+        if (hasta == null) {
+            return LocalDate.now();
+        }
+        return hasta;
+    }
+
+    private static LocalDate inicio(LocalDate desde, LocalDate fin) {
+        if (desde == null) {
+            return fin.minusDays(DIAS_POR_DEFECTO - 1);
+        }
+        return desde;
+    }
+}
@@ -1,21 +1,39 @@
 package com.gplanet.commerce.api.controllers;
 
+import java.net.URI;
+import java.util.Arrays;
+
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.gplanet.commerce.api.configs.app.props.PurchaseIngestionProperties;
+import com.gplanet.commerce.api.configs.app.props.PurchaseIngestionProperties.Durability;
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitCost;
+import com.gplanet.commerce.api.dtos.api.CursorPaginatedResponse;
 import com.gplanet.commerce.api.dtos.api.PaginatedResponse;
 import com.gplanet.commerce.api.dtos.compra.CompraDTO;
 import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.dtos.compra.IngestaCompraDTO;
 import com.gplanet.commerce.api.exceptions.ApiException;
+import com.gplanet.commerce.api.exceptions.IdempotencyKeyException;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
 import com.gplanet.commerce.api.exceptions.ResourceNotFoundException;
+import com.gplanet.commerce.api.ingestion.CompraIngestionPipeline;
+import com.gplanet.commerce.api.ingestion.CompraIngestionPipeline.Pedido;
 import com.gplanet.commerce.api.services.CompraService;
+import com.gplanet.commerce.api.services.IdempotenciaService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -25,6 +43,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -44,43 +65,131 @@ import lombok.RequiredArgsConstructor;
  * @version 1.0
  */
 @Tag(name = "Compras", description = "API endpoints to manage user purchases")
+@Validated
 @RestController
 @RequestMapping("/api/compras")
 @RequiredArgsConstructor
 public class CompraController {
 
+    private static final String RESPOND_ASYNC = "respond-async";
+
     private final CompraService compraService;
+    private final IdempotenciaService idempotenciaService;
+    private final CompraIngestionPipeline compraIngestionPipeline;
+    private final PurchaseIngestionProperties purchaseIngestionProperties;
 
     /**
      * Creates a new purchase for the authenticated user.
      * Validates product availability and user's privileges before processing the purchase.
+     * With an {@code Idempotency-Key}, a retried submission returns the purchase created
+     * by the first one instead of creating another.
+     * With ingestion enabled, the purchase is queued and written in a batch with others: it is
+     * answered once its batch commits, or with 202 Accepted and the URL of its status as soon as it
+     * is queued when the durability is {@code QUEUE} or the client prefers {@code respond-async}.
+     * Purchases sent with an idempotency key are always written on their own.
      *
      * @param authentication the current user's authentication object
+     * @param idempotencyKey the client key identifying the submission, optional
+     * @param prefer the Prefer header of the request, optional
      * @param compraDTO the purchase details including products and quantities
-     * @return CompraResponseDTO containing the created purchase information
+     * @return CompraResponseDTO containing the created purchase information, or 202 Accepted
      * @throws UsernameNotFoundException if the user is not found
      * @throws ResourceNotFoundException if any of the products don't exist
-     * @throws ApiException if the purchase could not be added due to a constraint violation
+     * @throws InsufficientStockException if any of the products doesn't have the requested units in stock
+     * @throws IdempotencyKeyException if the key was used for another purchase or its first submission is in progress
+     * @throws ApiException if the purchase could not be added due to a constraint violation,
+     *         or the ingestion queue is full
      */
     @Operation(summary = "Create a new purchase",
-               description = "Creates a new purchase for the authenticated user with the provided information")
+               description = "Creates a new purchase for the authenticated user with the provided information. "
+                             + "Retries sent with the same Idempotency-Key return the original purchase. "
+                             + "With ingestion enabled the purchase may be answered with 202 Accepted.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Purchase created successfully",
             content = @Content(mediaType = "application/json",
                 schema = @Schema(implementation = CompraResponseDTO.class))),
+        @ApiResponse(responseCode = "202", description = "Purchase queued; its status is at the Location URL",
+            content = @Content),
         @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
         @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
         @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedAdmin"),
         @ApiResponse(responseCode = "404", ref = "#/components/responses/ProductNotFound"),
-        @ApiResponse(responseCode = "409", ref = "#/components/responses/ConstraintError"),
-        @ApiResponse(responseCode = "429", ref = "#/components/responses/UserRateLimitExceeded")
+        @ApiResponse(responseCode = "409", ref = "#/components/responses/PurchaseConflict"),
+        @ApiResponse(responseCode = "422", ref = "#/components/responses/IdempotencyKeyReused"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/UserRateLimitExceeded"),
+        @ApiResponse(responseCode = "503", ref = "#/components/responses/PurchaseQueueFull")
     })
+    @RateLimitCost(value = 5, group = "write")
     @PostMapping("/nueva")
-    public CompraResponseDTO realizarCompra(
+    public ResponseEntity<CompraResponseDTO> realizarCompra(
             Authentication authentication,
+            @RequestHeader(name = "Idempotency-Key", required = false) @Size(min = 1, max = 100)
+            @Parameter(description = "Client key of the submission; retries with the same key return the "
+                                     + "original purchase") String idempotencyKey,
+            @RequestHeader(name = "Prefer", required = false)
+            @Parameter(description = "respond-async to get 202 Accepted as soon as the purchase is queued, "
+                                     + "when ingestion is enabled") String prefer,
             @Valid @RequestBody @Parameter(description = "New purchase details", required = true)
             CompraDTO compraDTO) {
-        return compraService.realizarCompra(authentication.getName(), compraDTO);
+        if (idempotencyKey != null) {
+            return ResponseEntity.ok(
+                idempotenciaService.realizarCompra(authentication.getName(), idempotencyKey, compraDTO));
+        }
+        if (!compraIngestionPipeline.isEnabled()) {
+            return ResponseEntity.ok(compraService.realizarCompra(authentication.getName(), compraDTO));
+        }
+
+        Pedido pedido = compraIngestionPipeline.encolar(authentication.getName(), compraDTO);
+        if (purchaseIngestionProperties.getDurability() == Durability.QUEUE || respondAsync(prefer)) {
+            return aceptada(pedido);
+        }
+        return compraIngestionPipeline.esperar(pedido)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> aceptada(pedido));
+    }
+
+    /**
+     * Retrieves the status of a purchase accepted for asynchronous processing.
+     * Only the user who made the purchase can read it.
+     *
+     * @param ticket the ticket returned in the Location header of the accepted purchase
+     * @param authentication the current user's authentication object
+     * @return IngestaCompraDTO with the state of the purchase, and the purchase once completed
+     * @throws ResourceNotFoundException if the ticket is unknown, expired or belongs to another user
+     */
+    @Operation(summary = "Get the status of a queued purchase",
+               description = "Returns the state of a purchase accepted with 202, and the purchase once written. "
+                             + "Tickets are kept by the node that queued the purchase, so requests for them "
+                             + "must be routed to that node")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Status found successfully",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = IngestaCompraDTO.class))),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "404", ref = "#/components/responses/QueuedPurchaseNotFound"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/UserRateLimitExceeded")
+    })
+    @GetMapping("/pendientes/{ticket}")
+    public IngestaCompraDTO obtenerEstadoCompra(
+            @PathVariable @Parameter(description = "Ticket of the queued purchase") String ticket,
+            Authentication authentication) {
+        return compraIngestionPipeline.estado(ticket, authentication.getName())
+            .orElseThrow(() -> new ResourceNotFoundException("Compra pendiente no encontrada"));
+    }
+
+    private static ResponseEntity<CompraResponseDTO> aceptada(Pedido pedido) {
+        return ResponseEntity.accepted()
+            .location(URI.create("/api/compras/pendientes/" + pedido.ticket()))
+            .build();
+    }
+
+    private static boolean respondAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        return Arrays.stream(prefer.split(","))
+            .map(String::trim)
+            .anyMatch(RESPOND_ASYNC::equalsIgnoreCase);
     }
 
 
@@ -93,13 +202,15 @@ public class CompraController {
      * @param size The page size
      * @param sort The field to sort by
      * @param direction The sort direction (ASC or DESC)
+     * @param includeTotal Whether to compute the totals; when false only {@code lastPage} is reported
      * @param authentication the current user's authentication object
      * @return {@code PaginatedResponse<CompraResponseDTO>} containing paginated purchases
      * @throws UsernameNotFoundException if the user is not found
      */
     @Operation(summary = "Lists user purchases with pagination",
                description = "Returns a paginated list of purchases made by the authenticated user. "
-                             + "Administrators can see all purchases.")
+                             + "Administrators can see all purchases. "
+                             + "includeTotal=false skips the total count.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Purchases found successfully",
             content = @Content(mediaType = "application/json",
@@ -118,9 +229,58 @@ public class CompraController {
            @RequestParam(defaultValue = "DESC")
            @Schema(description = "Sort direction", example = "DESC", allowableValues = {"ASC", "DESC"}) 
            String direction,
+           @RequestParam(defaultValue = "true")
+           @Schema(description = "Whether to compute totalElements and totalPages", example = "true")
+           boolean includeTotal,
            Authentication authentication) {
+        if (!includeTotal) {
+            return PaginatedResponse.fromSlice(compraService.listarComprasSinTotal(
+                authentication.getName(), page, size, sort, direction));
+        }
         Page<CompraResponseDTO> pageResult = compraService.listarCompras(
             authentication.getName(), page, size, sort, direction);
         return PaginatedResponse.fromPage(pageResult);
     }
+
+    /**
+     * Retrieves the purchase history using keyset (cursor) pagination.
+     * Regular users can only see their own purchases.
+     * Administrators can see all purchases.
+     *
+     * @param cursor The cursor returned with the previous page, omitted for the first page
+     * @param size The page size
+     * @param sort The field to sort by
+     * @param direction The sort direction (ASC or DESC)
+     * @param authentication the current user's authentication object
+     * @return {@code CursorPaginatedResponse<CompraResponseDTO>} with the purchases and the next cursor
+     * @throws UsernameNotFoundException if the user is not found
+     */
+    @Operation(summary = "Lists user purchases with cursor pagination",
+               description = "Returns purchases made by the authenticated user using keyset pagination, "
+                             + "without a total count. Administrators can see all purchases.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Purchases found successfully",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/CursorPurchases"))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/UserRateLimitExceeded")
+    })
+    @GetMapping("/listar/cursor")
+    public CursorPaginatedResponse<CompraResponseDTO> listarComprasCursor(
+           @RequestParam(required = false)
+           @Schema(description = "Cursor returned with the previous page") String cursor,
+           @RequestParam(defaultValue = "10") @Min(1) @Max(100)
+           @Schema(description = "Page size", example = "10") int size,
+           @RequestParam(defaultValue = "fecha")
+           @Schema(description = "Sort field", example = "fecha", allowableValues = {"fecha", "total", "id"})
+           String sort,
+           @RequestParam(defaultValue = "DESC")
+           @Schema(description = "Sort direction", example = "DESC", allowableValues = {"ASC", "DESC"}) 
+           String direction,
+           Authentication authentication) {
+        Window<CompraResponseDTO> window = compraService.listarComprasCursor(
+            authentication.getName(), cursor, size, sort, direction);
+        return CursorPaginatedResponse.fromWindow(window, size);
+    }
 }
@@ -0,0 +1,67 @@
+package com.gplanet.commerce.api.controllers;
+
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.gplanet.commerce.api.dtos.evento.EventosDTO;
+import com.gplanet.commerce.api.services.EventoService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * REST Controller exposing the stream of purchase and catalog changes to administrators.
+ *
+ * <p>Downstream consumers read the events after the last position they processed, and send
+ * the returned {@code siguiente} position with the next request.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Tag(name = "Events", description = "API for following purchase and catalog changes")
+@RestController
+@RequestMapping("/api/admin/eventos")
+@RequiredArgsConstructor
+@Validated
+public class EventoController {
+
+    private final EventoService eventoService;
+
+    /**
+     * Retrieves the events following a position of the stream.
+     *
+     * @param desde the position of the last event already processed, 0 to start from the oldest kept
+     * @param limite the maximum number of events
+     * @return EventosDTO with the events in stream order and the position of the next page
+     */
+    @Operation(summary = "Read the change stream from an offset",
+               description = "Returns the purchase and catalog changes after the given position, in the order "
+                             + "they were committed. Send 'siguiente' back as 'desde' to read the next ones.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Events read successfully",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = EventosDTO.class))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/UserRateLimitExceeded")
+    })
+    @GetMapping
+    public EventosDTO leerEventos(
+            @RequestParam(defaultValue = "0") @Min(0)
+            @Schema(description = "Position of the last event already processed", example = "0") long desde,
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000)
+            @Schema(description = "Maximum number of events", example = "100") int limite) {
+        return eventoService.leerEventos(desde, limite);
+    }
+}
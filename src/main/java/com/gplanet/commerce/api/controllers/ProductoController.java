@@ -1,11 +1,16 @@
 package com.gplanet.commerce.api.controllers;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -13,12 +18,19 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.gplanet.commerce.api.configs.app.props.ProductoHttpCacheProperties;
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitCost;
+import com.gplanet.commerce.api.dtos.api.CursorPaginatedResponse;
 import com.gplanet.commerce.api.dtos.api.PaginatedResponse;
+import com.gplanet.commerce.api.dtos.producto.AjusteStockDTO;
 import com.gplanet.commerce.api.dtos.producto.ProductStatus;
 import com.gplanet.commerce.api.dtos.producto.ProductoDTO;
 import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
+import com.gplanet.commerce.api.dtos.producto.StockDTO;
 import com.gplanet.commerce.api.exceptions.ApiException;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
 import com.gplanet.commerce.api.exceptions.ResourceNotFoundException;
 import com.gplanet.commerce.api.exceptions.UnauthorizedOperationException;
 import com.gplanet.commerce.api.services.ProductoService;
@@ -31,6 +43,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 
@@ -59,6 +72,7 @@ import lombok.RequiredArgsConstructor;
 public class ProductoController {
 
     private final ProductoService productoService;
+    private final ProductoHttpCacheProperties httpCacheProperties;
 
     /**
      * Retrieves a paginated list of products based on their status, search criteria, and authentication.
@@ -68,6 +82,8 @@ public class ProductoController {
      * - Users with ROLE_USER can only access products with ACTIVE status
      * - Users with ROLE_ADMIN can filter products by status (ACTIVE/INACTIVE/ALL)
      * - Optional search parameter filters products by matching text in name or description fields
+     * - Responses carry an ETag built from the catalog version; a matching If-None-Match
+     *   is answered with 304 Not Modified before any product is read
      * </p>
      *
      * @param status Optional query parameter to filter products by status (ACTIVE/INACTIVE/ALL)
@@ -76,8 +92,11 @@ public class ProductoController {
      * @param size The page size
      * @param sort The field to sort by
      * @param direction The sort direction (ASC or DESC)
+     * @param includeTotal Whether to compute the totals; when false only {@code lastPage} is reported
      * @param authentication Spring Security authentication object, may be null for unauthenticated requests
-     * @return {@code PaginatedResponse<ProductoResponseDTO>} containing the filtered and searched paginated products
+     * @param webRequest the current request, used to evaluate If-None-Match
+     * @return {@code PaginatedResponse<ProductoResponseDTO>} containing the filtered and searched paginated products,
+     *         or an empty 304 response if the client's copy is still current
      * @throws AccessDeniedException if a non-admin user attempts to access non-active products
      */
     @Operation(
@@ -88,19 +107,22 @@ public class ProductoController {
             - ROLE_ADMIN users can filter by ACTIVE, INACTIVE, or ALL status
             - ROLE_USER users can access ACTIVE products
             - Search parameter filters products by matching text in name or description
+            - includeTotal=false skips the total count and only reports whether this is the last page
+            - Send the ETag back in If-None-Match to get 304 Not Modified while the catalog is unchanged
             """
     )
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Products found successfully",
             content = @Content(mediaType = "application/json",
                 schema = @Schema(ref = "#/components/schemas/PaginatedProducts"))),
+        @ApiResponse(responseCode = "304", description = "The catalog has not changed since the given ETag"),
         @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
         @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
         @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
         @ApiResponse(responseCode = "429", ref = "#/components/responses/UserRateLimitExceeded")
     })
     @GetMapping("/listar")
-    public PaginatedResponse<ProductoResponseDTO> listarProductos(
+    public ResponseEntity<PaginatedResponse<ProductoResponseDTO>> listarProductos(
             @RequestParam(required = false, defaultValue = "ACTIVE") 
             @Schema(description = "Filter products by status (ADMIN only for non-ACTIVE)")
             ProductStatus status,
@@ -116,17 +138,112 @@ public class ProductoController {
             @RequestParam(defaultValue = "ASC") 
             @Schema(description = "Sort direction", example = "ASC", allowableValues = {"ASC", "DESC"})
             String direction,
+            @RequestParam(defaultValue = "true") 
+            @Schema(description = "Whether to compute totalElements and totalPages", example = "true")
+            boolean includeTotal,
+            Authentication authentication,
+            WebRequest webRequest) {
+
+        verificarAccesoEstado(status, authentication);
+        HttpHeaders headers = new HttpHeaders();
+        String cacheControl = httpCacheProperties.getCacheControl().get(status);
+        if (cacheControl != null) {
+            headers.setCacheControl(cacheControl);
+        }
+        if (httpCacheProperties.isEnabled()) {
+            String etag = "\"productos-" + productoService.versionCatalogo() + "\"";
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
+            headers.setETag(etag);
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().headers(headers);
+
+        if (!includeTotal) {
+            return response.body(PaginatedResponse.fromSlice(
+                productoService.listarProductosSinTotal(status, searchText, page, size, sort, direction)));
+        }
+        Page<ProductoResponseDTO> pageResult = 
+            productoService.listarProductos(status, searchText, page, size, sort, direction);
+        return response.body(PaginatedResponse.fromPage(pageResult));
+    }
+
+    /**
+     * Retrieves products using keyset (cursor) pagination, with the same status and search
+     * rules as {@link #listarProductos}.
+     *
+     * <p>The response carries no total count. To read the next page, pass the returned
+     * {@code nextCursor} back together with the same sort and direction.</p>
+     *
+     * @param status Optional query parameter to filter products by status (ACTIVE/INACTIVE/ALL)
+     * @param searchText Optional query parameter to search within product name and description
+     * @param cursor The cursor returned with the previous page, omitted for the first page
+     * @param size The page size
+     * @param sort The field to sort by
+     * @param direction The sort direction (ASC or DESC)
+     * @param authentication Spring Security authentication object, may be null for unauthenticated requests
+     * @return {@code CursorPaginatedResponse<ProductoResponseDTO>} with the products and the next cursor
+     * @throws AccessDeniedException if a non-admin user attempts to access non-active products
+     */
+    @Operation(
+        summary = "List and search products with cursor pagination", 
+        description = """
+            Returns products filtered by status and optional search text using keyset pagination.
+            Access rules are the same as /listar. No total count is computed; pass nextCursor
+            back with the same sort and direction to fetch the following page.
+            """
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Products found successfully",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/CursorProducts"))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/UserRateLimitExceeded")
+    })
+    @GetMapping("/listar/cursor")
+    public CursorPaginatedResponse<ProductoResponseDTO> listarProductosCursor(
+            @RequestParam(required = false, defaultValue = "ACTIVE") 
+            @Schema(description = "Filter products by status (ADMIN only for non-ACTIVE)")
+            ProductStatus status,
+            @RequestParam(required = false) 
+            @Schema(description = "Search text for product name or description")
+            String searchText,
+            @RequestParam(required = false) 
+            @Schema(description = "Cursor returned with the previous page") String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100)
+            @Schema(description = "Page size", example = "10") int size,
+            @RequestParam(defaultValue = "nombre") 
+            @Schema(description = "Sort field", example = "nombre",
+                allowableValues = {"nombre", "precio", "id", "relevance"}) String sort,
+            @RequestParam(defaultValue = "ASC") 
+            @Schema(description = "Sort direction", example = "ASC", allowableValues = {"ASC", "DESC"})
+            String direction,
             Authentication authentication) {
-    
+
+        verificarAccesoEstado(status, authentication);
+        Window<ProductoResponseDTO> window =
+            productoService.listarProductosCursor(status, searchText, cursor, size, sort, direction);
+        return CursorPaginatedResponse.fromWindow(window, size);
+    }
+
+    /**
+     * Checks that the caller may list products with the requested status.
+     * Unauthenticated users and ROLE_USER users can only access ACTIVE products.
+     *
+     * @param status The requested product status
+     * @param authentication Spring Security authentication object, may be null for unauthenticated requests
+     * @throws AccessDeniedException if an unauthenticated user requests non-active products
+     * @throws UnauthorizedOperationException if a non-admin user requests non-active products
+     */
+    private void verificarAccesoEstado(ProductStatus status, Authentication authentication) {
         // Allow unauthenticated access for ACTIVE products
         if (authentication == null) {
             if (status != ProductStatus.ACTIVE) {
                 throw new AccessDeniedException("Unauthenticated users can only access active products");
             }
-            Page<ProductoResponseDTO> pageResult = productoService.listarProductos(
-                ProductStatus.ACTIVE, searchText, page, size, sort, direction
-            );
-            return PaginatedResponse.fromPage(pageResult);
+            return;
         }
     
         // For authenticated users
@@ -136,10 +253,6 @@ public class ProductoController {
         if (!isAdmin && status != ProductStatus.ACTIVE) {
             throw new UnauthorizedOperationException("Only administrators can access non-active products");
         }
-    
-        Page<ProductoResponseDTO> pageResult = 
-            productoService.listarProductos(status, searchText, page, size, sort, direction);
-        return PaginatedResponse.fromPage(pageResult);
     }
 
 
@@ -163,6 +276,7 @@ public class ProductoController {
         @ApiResponse(responseCode = "409", ref = "#/components/responses/DuplicatedProduct"),
         @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
     })
+    @RateLimitCost(value = 2, group = "write")
     @PostMapping("/crear")
     public ProductoResponseDTO crearProducto(
             @Valid @RequestBody @Parameter(description = "New product parameters", required = true) 
@@ -197,6 +311,7 @@ public class ProductoController {
         @ApiResponse(responseCode = "409", ref = "#/components/responses/DuplicatedProduct"),
         @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
     })
+    @RateLimitCost(value = 2, group = "write")
     @PutMapping("/actualizar/{id}")
     public ProductoResponseDTO actualizarProducto(
             @Parameter(name = "id", description = "Unique identifier of the product to update",
@@ -228,6 +343,7 @@ public class ProductoController {
         @ApiResponse(responseCode = "404", ref = "#/components/responses/ProductNotFound"),
         @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
     })
+    @RateLimitCost(value = 2, group = "write")
     @DeleteMapping("/eliminar/{id}")
     public void eliminarProducto(
         @Parameter(name = "id", description = "Unique identifier of the product to delete",
@@ -237,4 +353,76 @@ public class ProductoController {
         @PathVariable @Min(1) Long id) {
         productoService.eliminarProducto(id);
     }
+
+
+    /**
+     * Returns the units in stock of a product.
+     *
+     * <p>This operation is restricted to administrators only.</p>
+     *
+     * @param id the unique identifier of the product
+     * @return StockDTO with the units in stock, null if the product's stock isn't tracked
+     * @throws ResourceNotFoundException if the product with the given ID doesn't exist
+     */
+    @Operation(summary = "Get the stock of a product", description = "Returns the units in stock of a product")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock retrieved successfully",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = StockDTO.class))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "404", ref = "#/components/responses/ProductNotFound"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
+    })
+    @GetMapping("/stock/{id}")
+    public StockDTO obtenerStock(
+        @Parameter(name = "id", description = "Unique identifier of the product",
+                   required = true,
+                   example = "1",
+                   schema = @Schema(type = "long", minimum = "1"))
+        @PathVariable @Min(1) Long id) {
+        return productoService.obtenerStock(id);
+    }
+
+    /**
+     * Adds units to the stock of a product, or removes them with a negative quantity.
+     *
+     * <p>This operation is restricted to administrators only.</p>
+     *
+     * @param id the unique identifier of the product
+     * @param ajusteStockDTO the units to add or remove
+     * @return StockDTO with the units in stock after the adjustment
+     * @throws ResourceNotFoundException if the product with the given ID doesn't exist
+     * @throws InsufficientStockException if the product doesn't have the units to remove
+     */
+    @Operation(
+        summary = "Adjust the stock of a product",
+        description = "Adds units to the stock of a product, or removes them with a negative quantity. "
+            + "Units sold meanwhile are kept, and an untracked stock starts from zero."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stock adjusted successfully",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(implementation = StockDTO.class))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "404", ref = "#/components/responses/ProductNotFound"),
+        @ApiResponse(responseCode = "409", ref = "#/components/responses/InsufficientStock"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
+    })
+    @RateLimitCost(value = 2, group = "write")
+    @PatchMapping("/stock/{id}")
+    public StockDTO ajustarStock(
+            @Parameter(name = "id", description = "Unique identifier of the product",
+                      required = true,
+                      example = "1",
+                      schema = @Schema(type = "long", minimum = "1"))
+            @PathVariable @Min(1) Long id,
+            @Valid @RequestBody
+            @Parameter(description = "Units to add or remove", required = true)
+            AjusteStockDTO ajusteStockDTO) {
+        return productoService.ajustarStock(id, ajusteStockDTO.cantidad());
+    }
 }
@@ -1,8 +1,10 @@
 package com.gplanet.commerce.api.controllers;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Window;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -11,6 +13,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitCost;
+import com.gplanet.commerce.api.dtos.api.CursorPaginatedResponse;
 import com.gplanet.commerce.api.dtos.api.PaginatedResponse;
 import com.gplanet.commerce.api.dtos.usuario.ActualizacionUsuarioDTO;
 import com.gplanet.commerce.api.dtos.usuario.CambioPasswdDTO;
@@ -34,6 +38,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 
 /**
@@ -57,6 +63,7 @@ import lombok.RequiredArgsConstructor;
  * @author Gustavo
  * @version 1.0
  */
+@Validated
 @RestController
 @RequestMapping("/api/usuarios")
 @Tag(name = "User", 
@@ -84,6 +91,7 @@ public class UsuarioController {
         @ApiResponse(responseCode = "409", ref = "#/components/responses/DuplicatedEmail"),
         @ApiResponse(responseCode = "429", ref = "#/components/responses/UnauthenticatedRateLimitExceeded")
     })
+    @RateLimitCost(value = 2, group = "auth")
     @PostMapping("/registro")
     public UsuarioResponseDTO registrarUsuario(
             @Valid @RequestBody @Parameter(description = "User registration details", required = true) 
@@ -110,6 +118,7 @@ public class UsuarioController {
         @ApiResponse(responseCode = "401", ref = "#/components/responses/InvalidPassword"),
         @ApiResponse(responseCode = "429", ref = "#/components/responses/UnauthenticatedRateLimitExceeded")
     })
+    @RateLimitCost(value = 2, group = "auth")
     @PostMapping("/login")
     public UsuarioResponseDTO login(
             @Valid @RequestBody @Parameter(description = "User credentials", required = true) 
@@ -137,6 +146,7 @@ public class UsuarioController {
         @ApiResponse(responseCode = "409", ref = "#/components/responses/DuplicatedEmail"),
         @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
     })
+    @RateLimitCost(value = 2, group = "write")
     @PostMapping("/admin/registro")
     public UsuarioResponseDTO registrarAdmin(
             @Valid @RequestBody @Parameter(description = "Admin user credentials", required = true) 
@@ -210,6 +220,7 @@ public class UsuarioController {
         @ApiResponse(responseCode = "401", ref = "#/components/responses/InvalidPassword"),
         @ApiResponse(responseCode = "429", ref = "#/components/responses/UserRateLimitExceeded")
     })
+    @RateLimitCost(value = 2, group = "auth")
     @PutMapping("/password")
     public void changePassword(
             Authentication authentication,
@@ -226,11 +237,13 @@ public class UsuarioController {
      * @param size The page size
      * @param sort The field to sort by
      * @param direction The sort direction (ASC or DESC)
+     * @param includeTotal Whether to compute the totals; when false only {@code lastPage} is reported
      * @return PaginatedResponse of UsuarioResponseDTO containing paginated users' information
      * @throws AccessDeniedException if the current user is not an administrator
      */
     @Operation(summary = "List all users with pagination", 
-               description = "Retrieves a paginated list of all users in the system. Requires ADMIN role.")
+               description = "Retrieves a paginated list of all users in the system. Requires ADMIN role. "
+                             + "includeTotal=false skips the total count.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Users successfully retrieved",
             content = @Content(mediaType = "application/json",
@@ -249,11 +262,56 @@ public class UsuarioController {
             @Schema(description = "Sort field", example = "email") String sort,
             @RequestParam(defaultValue = "ASC") 
             @Schema(description = "Sort direction", example = "ASC", allowableValues = {"ASC", "DESC"}) 
-            String direction) {
+            String direction,
+            @RequestParam(defaultValue = "true") 
+            @Schema(description = "Whether to compute totalElements and totalPages", example = "true")
+            boolean includeTotal) {
         
+        if (!includeTotal) {
+            return PaginatedResponse.fromSlice(usuarioService.listarUsuariosSinTotal(page, size, sort, direction));
+        }
         Page<UsuarioResponseDTO> pageResult = usuarioService.listarUsuarios(page, size, sort, direction);
         return PaginatedResponse.fromPage(pageResult);
     }
+
+
+    /**
+     * Lists all users using keyset (cursor) pagination. Only accessible by administrators.
+     * 
+     * @param cursor The cursor returned with the previous page, omitted for the first page
+     * @param size The page size
+     * @param sort The field to sort by
+     * @param direction The sort direction (ASC or DESC)
+     * @return CursorPaginatedResponse of UsuarioResponseDTO with the users and the next cursor
+     * @throws AccessDeniedException if the current user is not an administrator
+     */
+    @Operation(summary = "List all users with cursor pagination", 
+               description = "Retrieves all users using keyset pagination, without a total count. Requires ADMIN role.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Users successfully retrieved",
+            content = @Content(mediaType = "application/json",
+                schema = @Schema(ref = "#/components/schemas/CursorUsers"))),
+        @ApiResponse(responseCode = "400", ref = "#/components/responses/InvalidInput"),
+        @ApiResponse(responseCode = "401", ref = "#/components/responses/AccessDenied"),
+        @ApiResponse(responseCode = "403", ref = "#/components/responses/AccessDeniedUser"),
+        @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
+    })
+    @GetMapping("/admin/listar/cursor")
+    public CursorPaginatedResponse<UsuarioResponseDTO> listarUsuariosCursor(
+            @RequestParam(required = false) 
+            @Schema(description = "Cursor returned with the previous page") String cursor,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100)
+            @Schema(description = "Page size", example = "10") int size,
+            @RequestParam(defaultValue = "email") 
+            @Schema(description = "Sort field", example = "email", allowableValues = {"nombre", "email", "rol", "id"})
+            String sort,
+            @RequestParam(defaultValue = "ASC") 
+            @Schema(description = "Sort direction", example = "ASC", allowableValues = {"ASC", "DESC"}) 
+            String direction) {
+        
+        Window<UsuarioResponseDTO> window = usuarioService.listarUsuariosCursor(cursor, size, sort, direction);
+        return CursorPaginatedResponse.fromWindow(window, size);
+    }
     
 
     /**
@@ -273,6 +331,7 @@ public class UsuarioController {
         @ApiResponse(responseCode = "404", ref = "#/components/responses/UserNotFound"),
         @ApiResponse(responseCode = "429", ref = "#/components/responses/AdminRateLimitExceeded")
     })
+    @RateLimitCost(value = 2, group = "write")
     @PutMapping("/admin/change-role")
     public void cambiarRol(
             @RequestParam @Parameter(description = "ID of the user", required = true) Long userId,
@@ -0,0 +1,29 @@
+package com.gplanet.commerce.api.dtos.analitica;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only row the sales rollups are computed from.
+ * Each row carries the purchase header repeated next to one of its line items; the
+ * line fields are null for a purchase without items.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param compraId The unique identifier of the purchase.
+ * @param usuarioId The unique identifier of the customer.
+ * @param fecha The date and time when the purchase was made.
+ * @param total The total amount of the purchase.
+ * @param productoId The unique identifier of the purchased product.
+ * @param cantidad The quantity of the product purchased.
+ * @param subtotal The subtotal for this line item.
+ */
+public record LineaVentaProjection(
+    Long compraId,
+    Long usuarioId,
+    LocalDateTime fecha,
+    BigDecimal total,
+    Long productoId,
+    Integer cantidad,
+    BigDecimal subtotal
+) {}
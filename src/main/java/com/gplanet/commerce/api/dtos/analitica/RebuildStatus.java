@@ -0,0 +1,29 @@
+package com.gplanet.commerce.api.dtos.analitica;
+
+/**
+ * Represents the states of the rebuild of the sales rollups.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+public enum RebuildStatus {
+    /**
+     * No rebuild has run since the node started.
+     */
+    IDLE,
+
+    /**
+     * The purchases are being aggregated.
+     */
+    RUNNING,
+
+    /**
+     * The rollups were replaced with the aggregated totals.
+     */
+    COMPLETED,
+
+    /**
+     * The rebuild stopped before replacing the rollups, which were left as they were.
+     */
+    FAILED
+}
@@ -0,0 +1,42 @@
+package com.gplanet.commerce.api.dtos.analitica;
+
+import java.time.LocalDateTime;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for the state of the last rebuild of the sales rollups.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param estado The state of the rebuild.
+ * @param inicio The date and time the rebuild started, null before the first one.
+ * @param fin The date and time the rebuild ended, null while it runs.
+ * @param fragmentos The number of ranges of purchase IDs to aggregate.
+ * @param fragmentosCompletados The number of ranges of purchase IDs aggregated so far.
+ * @param compras The number of purchases aggregated so far.
+ * @param error Why the rebuild failed, null otherwise.
+ */
+@Schema(name = "RollupRebuild", description = "State of the last rebuild of the sales rollups")
+public record ReconstruccionDTO(
+    @Schema(description = "Rebuild state", example = "COMPLETED")
+    RebuildStatus estado,
+
+    @Schema(description = "Start date and time")
+    LocalDateTime inicio,
+
+    @Schema(description = "End date and time")
+    LocalDateTime fin,
+
+    @Schema(description = "Ranges of purchase IDs to aggregate", example = "20")
+    int fragmentos,
+
+    @Schema(description = "Ranges of purchase IDs aggregated", example = "20")
+    int fragmentosCompletados,
+
+    @Schema(description = "Purchases aggregated", example = "100000")
+    long compras,
+
+    @Schema(description = "Failure reason")
+    String error
+) {}
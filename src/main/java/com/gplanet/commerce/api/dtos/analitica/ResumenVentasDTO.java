@@ -0,0 +1,43 @@
+package com.gplanet.commerce.api.dtos.analitica;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for the sales totals of a range of days and the average basket.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param desde The first day of the range.
+ * @param hasta The last day of the range.
+ * @param compras The number of purchases in the range.
+ * @param unidades The units sold in the range.
+ * @param ingresos The revenue in the range.
+ * @param ticketMedio The average total of a purchase, 0 without purchases.
+ * @param unidadesPorCompra The average units of a purchase, 0 without purchases.
+ */
+@Schema(name = "SalesSummary", description = "Sales totals of a range of days and the average basket")
+public record ResumenVentasDTO(
+    @Schema(description = "First day, inclusive", example = "2025-06-01")
+    LocalDate desde,
+
+    @Schema(description = "Last day, inclusive", example = "2025-06-30")
+    LocalDate hasta,
+
+    @Schema(description = "Number of purchases", example = "1260")
+    long compras,
+
+    @Schema(description = "Units sold", example = "2911")
+    long unidades,
+
+    @Schema(description = "Revenue", example = "157035.00")
+    BigDecimal ingresos,
+
+    @Schema(description = "Average purchase total", example = "124.63")
+    BigDecimal ticketMedio,
+
+    @Schema(description = "Average units per purchase", example = "2.31")
+    BigDecimal unidadesPorCompra
+) {}
@@ -0,0 +1,19 @@
+package com.gplanet.commerce.api.dtos.analitica;
+
+/**
+ * Represents the orders the best selling products can be ranked in.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+public enum SalesRanking {
+    /**
+     * By revenue, highest first.
+     */
+    REVENUE,
+
+    /**
+     * By units sold, highest first.
+     */
+    UNITS
+}
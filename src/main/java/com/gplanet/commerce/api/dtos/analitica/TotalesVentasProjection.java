@@ -0,0 +1,18 @@
+package com.gplanet.commerce.api.dtos.analitica;
+
+import java.math.BigDecimal;
+
+/**
+ * Sums of the daily sales rollup over a range of days.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param compras The number of purchases.
+ * @param unidades The units sold.
+ * @param ingresos The revenue.
+ */
+public record TotalesVentasProjection(
+    long compras,
+    long unidades,
+    BigDecimal ingresos
+) {}
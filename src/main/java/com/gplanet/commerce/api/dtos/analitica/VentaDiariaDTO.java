@@ -0,0 +1,31 @@
+package com.gplanet.commerce.api.dtos.analitica;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for the sales of one day.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param fecha The day of the purchases.
+ * @param compras The number of purchases made that day.
+ * @param unidades The units sold that day.
+ * @param ingresos The sum of the totals of the day's purchases.
+ */
+@Schema(name = "DailySales", description = "Sales totals of one day")
+public record VentaDiariaDTO(
+    @Schema(description = "Day", example = "2025-06-30")
+    LocalDate fecha,
+
+    @Schema(description = "Number of purchases", example = "42")
+    long compras,
+
+    @Schema(description = "Units sold", example = "97")
+    long unidades,
+
+    @Schema(description = "Revenue", example = "5234.50")
+    BigDecimal ingresos
+) {}
@@ -0,0 +1,34 @@
+package com.gplanet.commerce.api.dtos.analitica;
+
+import java.math.BigDecimal;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for the sales of one product.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param productoId The unique identifier of the product.
+ * @param nombre The current name of the product, null if it no longer exists.
+ * @param compras The number of purchases including the product.
+ * @param unidades The units of the product sold.
+ * @param ingresos The revenue from the product.
+ */
+@Schema(name = "ProductSales", description = "Sales totals of one product")
+public record VentaProductoDTO(
+    @Schema(description = "Product ID", example = "1")
+    Long productoId,
+
+    @Schema(description = "Product name", example = "Laptop")
+    String nombre,
+
+    @Schema(description = "Number of purchases including the product", example = "12")
+    long compras,
+
+    @Schema(description = "Units sold", example = "15")
+    long unidades,
+
+    @Schema(description = "Revenue", example = "14999.85")
+    BigDecimal ingresos
+) {}
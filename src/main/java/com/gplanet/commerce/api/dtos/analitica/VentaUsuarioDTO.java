@@ -0,0 +1,38 @@
+package com.gplanet.commerce.api.dtos.analitica;
+
+import java.math.BigDecimal;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for the sales to one customer.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param usuarioId The unique identifier of the customer.
+ * @param nombre The name of the customer, null if the account no longer exists.
+ * @param email The email of the customer, null if the account no longer exists.
+ * @param compras The number of purchases made by the customer.
+ * @param unidades The units bought by the customer.
+ * @param ingresos The sum of the totals of the customer's purchases.
+ */
+@Schema(name = "CustomerSales", description = "Sales totals of one customer")
+public record VentaUsuarioDTO(
+    @Schema(description = "User ID", example = "2")
+    Long usuarioId,
+
+    @Schema(description = "User name", example = "John Doe")
+    String nombre,
+
+    @Schema(description = "User email", example = "john@example.com")
+    String email,
+
+    @Schema(description = "Number of purchases", example = "7")
+    long compras,
+
+    @Schema(description = "Units bought", example = "11")
+    long unidades,
+
+    @Schema(description = "Revenue", example = "2349.93")
+    BigDecimal ingresos
+) {}
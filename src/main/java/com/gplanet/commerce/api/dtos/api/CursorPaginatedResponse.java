@@ -0,0 +1,44 @@
+package com.gplanet.commerce.api.dtos.api;
+
+import java.util.List;
+
+import org.springframework.data.domain.Window;
+
+import com.gplanet.commerce.api.utilities.CursorCodec;
+
+/**
+ * Generic cursor-paginated response DTO for keyset (seek) pagination.
+ * Unlike {@link PaginatedResponse} it carries no total count; clients walk the
+ * results by passing {@code nextCursor} back until {@code hasNext} is false.
+ *
+ * @param <T> The type of content being paginated
+ * @param content The list of content items for the current page
+ * @param pageSize The requested page size
+ * @param nextCursor Opaque cursor for the next page, or null if this is the last page
+ * @param hasNext Whether more items follow this page
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public record CursorPaginatedResponse<T>(
+    List<T> content,
+    int pageSize,
+    String nextCursor,
+    boolean hasNext
+) {
+    /**
+     * Creates a CursorPaginatedResponse from a Spring Data scroll window.
+     *
+     * @param <T> The type of content being paginated
+     * @param window The window returned by a keyset scroll query
+     * @param pageSize The requested page size
+     * @return A new CursorPaginatedResponse containing the window and the cursor of its last item
+     */
+    public static <T> CursorPaginatedResponse<T> fromWindow(Window<T> window, int pageSize) {
+        String nextCursor = null;
+        if (window.hasNext() && !window.isEmpty()) {
+            nextCursor = CursorCodec.encode(window.positionAt(window.size() - 1));
+        }
+        return new CursorPaginatedResponse<>(window.getContent(), pageSize, nextCursor, window.hasNext());
+    }
+}
@@ -3,6 +3,10 @@ package com.gplanet.commerce.api.dtos.api;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
  * Generic paginated response DTO that wraps any type of content with pagination information.
@@ -11,9 +15,9 @@ import org.springframework.data.domain.Page;
  * @param content The list of content items for the current page
  * @param pageNumber The current page number (zero-based)
  * @param pageSize The size of the page
- * @param totalElements The total number of elements across all pages
- * @param totalPages The total number of pages
- * @param isLastPage Whether this page is the last one
+ * @param totalElements The total number of elements across all pages, null when totals weren't requested
+ * @param totalPages The total number of pages, null when totals weren't requested
+ * @param isLastPage Whether this page is the last one, serialized as {@code lastPage}
  *
  * @author Gustavo
  * @version 1.0
@@ -22,9 +26,9 @@ public record PaginatedResponse<T>(
     List<T> content,
     int pageNumber,
     int pageSize,
-    long totalElements,
-    int totalPages,
-    boolean isLastPage
+    @JsonInclude(JsonInclude.Include.NON_NULL) Long totalElements,
+    @JsonInclude(JsonInclude.Include.NON_NULL) Integer totalPages,
+    @JsonProperty("lastPage") boolean isLastPage
 ) {
     /**
      * Creates a PaginatedResponse from a Spring Page object.
@@ -43,4 +47,24 @@ public record PaginatedResponse<T>(
             page.isLast()
         );
     }
+
+    /**
+     * Creates a PaginatedResponse without totals from a Spring Slice object.
+     * Used when the client skipped the total count, so only {@code lastPage} tells
+     * whether another page follows.
+     *
+     * @param <T> The type of content being paginated
+     * @param slice The Spring Slice object to convert
+     * @return A new PaginatedResponse containing the slice information and no totals
+     */
+    public static <T> PaginatedResponse<T> fromSlice(Slice<T> slice) {
+        return new PaginatedResponse<>(
+            slice.getContent(),
+            slice.getNumber(),
+            slice.getSize(),
+            null,
+            null,
+            slice.isLast()
+        );
+    }
 }
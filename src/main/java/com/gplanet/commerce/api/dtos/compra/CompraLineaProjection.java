@@ -0,0 +1,34 @@
+package com.gplanet.commerce.api.dtos.compra;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Flat, read-only row of the purchase history projection query.
+ * Each row carries the purchase header repeated next to one of its line items,
+ * so a page of purchases can be read without hydrating any entity. The line
+ * fields are null for a purchase without items.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param compraId The unique identifier of the purchase.
+ * @param usuarioNombre The name of the customer who made the purchase.
+ * @param fecha The date and time when the purchase was made.
+ * @param total The total amount of the purchase.
+ * @param productoId The unique identifier of the purchased product.
+ * @param productoNombre The name of the purchased product.
+ * @param precioUnitario The unit price of the product.
+ * @param cantidad The quantity of the product purchased.
+ * @param subtotal The subtotal for this line item.
+ */
+public record CompraLineaProjection(
+    Long compraId,
+    String usuarioNombre,
+    LocalDateTime fecha,
+    BigDecimal total,
+    Long productoId,
+    String productoNombre,
+    BigDecimal precioUnitario,
+    Integer cantidad,
+    BigDecimal subtotal
+) {}
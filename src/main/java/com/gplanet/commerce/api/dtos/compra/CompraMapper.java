@@ -1,5 +1,9 @@
 package com.gplanet.commerce.api.dtos.compra;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Component;
@@ -55,4 +59,47 @@ public class CompraMapper {
             entity.getSubtotal()
         );
     }
+
+    /**
+     * Groups the flat rows of the purchase history projection into response DTOs in a
+     * single pass. The result follows the order of the given purchase IDs, which is the
+     * order of the page they were selected from.
+     *
+     * @param compraIds the purchase IDs of the page, in display order
+     * @param lineas the projection rows for those purchases, ordered by line item
+     * @return the purchase response DTOs in the order of {@code compraIds}
+     */
+    public List<CompraResponseDTO> toCompraResponseList(List<Long> compraIds, List<CompraLineaProjection> lineas) {
+        Map<Long, CompraLineaProjection> cabeceras = new HashMap<>();
+        Map<Long, List<CompraProductoResponseDTO>> productos = new HashMap<>();
+        for (CompraLineaProjection linea : lineas) {
+            cabeceras.putIfAbsent(linea.compraId(), linea);
+            List<CompraProductoResponseDTO> items = productos.computeIfAbsent(
+                linea.compraId(), id -> new ArrayList<>());
+            if (linea.productoId() != null) {
+                items.add(new CompraProductoResponseDTO(
+                    linea.productoId(),
+                    linea.productoNombre(),
+                    linea.precioUnitario(),
+                    linea.cantidad(),
+                    linea.subtotal()
+                ));
+            }
+        }
+
+        List<CompraResponseDTO> result = new ArrayList<>(compraIds.size());
+        for (Long compraId : compraIds) {
+            CompraLineaProjection cabecera = cabeceras.get(compraId);
+            if (cabecera != null) {
+                result.add(new CompraResponseDTO(
+                    cabecera.compraId(),
+                    cabecera.usuarioNombre(),
+                    cabecera.fecha(),
+                    cabecera.total(),
+                    productos.get(compraId)
+                ));
+            }
+        }
+        return result;
+    }
 }
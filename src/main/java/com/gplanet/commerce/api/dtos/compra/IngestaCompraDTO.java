@@ -0,0 +1,29 @@
+package com.gplanet.commerce.api.dtos.compra;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for the status of a purchase accepted for asynchronous processing.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param ticket The ticket the purchase was accepted with.
+ * @param estado The processing state of the purchase.
+ * @param compra The purchase, once completed.
+ * @param error The reason the purchase was rejected.
+ */
+@Schema(name = "QueuedPurchase", 
+        description = "Status of a purchase accepted for asynchronous processing")
+public record IngestaCompraDTO(
+    @Schema(description = "Ticket of the queued purchase", example = "5f0c6a52-8d0e-4f7a-9a43-1c2b7e9d4a10")
+    String ticket,
+
+    @Schema(description = "Processing state", example = "COMPLETED")
+    IngestionStatus estado,
+
+    @Schema(description = "Purchase created, once completed")
+    CompraResponseDTO compra,
+
+    @Schema(description = "Reason the purchase was rejected", example = "Stock insuficiente para los productos: [1]")
+    String error
+) {}
@@ -0,0 +1,25 @@
+package com.gplanet.commerce.api.dtos.compra;
+
+/**
+ * Represents the states of a purchase accepted for asynchronous processing.
+ * This enum is used to report the status of a queued purchase through its ticket.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+public enum IngestionStatus {
+    /**
+     * The purchase is waiting in the queue or its batch is being written.
+     */
+    PENDING,
+
+    /**
+     * The purchase was written and its batch committed.
+     */
+    COMPLETED,
+
+    /**
+     * The purchase was not written; the error tells why.
+     */
+    REJECTED
+}
@@ -0,0 +1,35 @@
+package com.gplanet.commerce.api.dtos.evento;
+
+/**
+ * Represents the kinds of change recorded in the outbox.
+ * Each event carries the ID of the purchase or product it refers to and its state after the change.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+public enum EventType {
+    /**
+     * A purchase was created. The payload is the purchase with its lines.
+     */
+    PURCHASE_CREATED,
+
+    /**
+     * A product was created. The payload is the product.
+     */
+    PRODUCT_CREATED,
+
+    /**
+     * A product was edited. The payload is the product after the change.
+     */
+    PRODUCT_UPDATED,
+
+    /**
+     * A product was marked as inactive. The payload is the product after the change.
+     */
+    PRODUCT_DEACTIVATED,
+
+    /**
+     * Units were added to or removed from the stock of a product. The payload is the stock after the change.
+     */
+    STOCK_ADJUSTED
+}
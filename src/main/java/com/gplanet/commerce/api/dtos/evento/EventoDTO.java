@@ -0,0 +1,38 @@
+package com.gplanet.commerce.api.dtos.evento;
+
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for an event of the outbox stream.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param posicion The position of the event in the stream, increasing without gaps.
+ * @param tipo The kind of change.
+ * @param agregadoId The ID of the purchase or product changed.
+ * @param payload The state after the change, as JSON.
+ * @param fecha The date and time of the change.
+ */
+@Schema(name = "Event", description = "Change of a purchase or product, in the order it was committed")
+public record EventoDTO(
+    @Schema(description = "Position of the event in the stream; the offset to read the following events from",
+            example = "1042")
+    Long posicion,
+
+    @Schema(description = "Kind of change", example = "PURCHASE_CREATED")
+    EventType tipo,
+
+    @Schema(description = "ID of the purchase or product changed", example = "17")
+    Long agregadoId,
+
+    @JsonRawValue
+    @Schema(description = "State of the purchase, product or stock after the change", type = "object")
+    String payload,
+
+    @Schema(description = "Date and time of the change", example = "2025-01-01T10:00:00")
+    LocalDateTime fecha
+) {}
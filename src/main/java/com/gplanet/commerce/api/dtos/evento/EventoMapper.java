@@ -0,0 +1,38 @@
+package com.gplanet.commerce.api.dtos.evento;
+
+import java.util.List;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import com.gplanet.commerce.api.entities.EventoOutbox;
+
+/**
+ * Mapper interface for converting outbox events to DTOs.
+ * This interface uses MapStruct to automatically generate the implementation
+ * of the mapping methods.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface EventoMapper {
+
+    /**
+     * Converts an outbox event to an EventoDTO.
+     *
+     * @param evento the event entity to convert
+     * @return the corresponding EventoDTO
+     */
+    @Mapping(target = "fecha", source = "fechaCreacion")
+    EventoDTO toEventoDTO(EventoOutbox evento);
+
+    /**
+     * Converts a list of outbox events to EventoDTOs.
+     *
+     * @param eventos the event entities to convert
+     * @return the corresponding EventoDTOs, in the same order
+     */
+    List<EventoDTO> toEventoDTOList(List<EventoOutbox> eventos);
+}
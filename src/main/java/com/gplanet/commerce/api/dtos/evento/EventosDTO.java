@@ -0,0 +1,23 @@
+package com.gplanet.commerce.api.dtos.evento;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for a page of the outbox stream.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param eventos The events after the requested offset, in stream order.
+ * @param siguiente The offset to read the next page from.
+ */
+@Schema(name = "EventPage", description = "Events after an offset, and the offset of the next page")
+public record EventosDTO(
+    @Schema(description = "Events in stream order")
+    List<EventoDTO> eventos,
+
+    @Schema(description = "Offset to send as 'desde' for the next page; the same one when there were no new events",
+            example = "1042")
+    long siguiente
+) {}
@@ -0,0 +1,20 @@
+package com.gplanet.commerce.api.dtos.producto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data Transfer Object (DTO) for adjusting the stock of a product.
+ * The adjustment is relative, so it can't overwrite units sold while it was being sent.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param cantidad The units to add, or to remove when negative.
+ */
+@Schema(name = "StockAdjustmentRequest", description = "Relative adjustment of the stock of a product")
+public record AjusteStockDTO(
+    @Schema(description = "Units to add (positive) or remove (negative). Starts tracking an untracked product",
+            example = "50", required = true)
+    @NotNull(message = "La cantidad es obligatoria")
+    Integer cantidad
+) {}
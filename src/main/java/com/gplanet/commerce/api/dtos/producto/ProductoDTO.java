@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 
 
 /**
@@ -18,6 +19,9 @@ import jakarta.validation.constraints.Positive;
  * @param descripcion The detailed description of the product.
  * @param precio The price of the product.
  * @param activo Indicates if the product is active.
+ * @param stock The initial units in stock, or null to sell the product without tracking its stock.
+ *              Only read when the product is created; the stock of an existing product is adjusted
+ *              through its own endpoint.
  */
 @Schema(name = "ProductRequest", 
         description = "Product data for creation and updates")
@@ -34,7 +38,11 @@ public record ProductoDTO(
     BigDecimal precio,
 
     @Schema(description = "Product status", example = "true", defaultValue = "true")
-    boolean activo
+    boolean activo,
+
+    @Schema(description = "Initial units in stock, only read on creation. Untracked when null", example = "100")
+    @PositiveOrZero(message = "El stock no puede ser negativo")
+    Integer stock
 ) {
     /**
      * Creates a ProductoDTO with default active status.
@@ -42,4 +50,11 @@ public record ProductoDTO(
     public ProductoDTO(String nombre, String descripcion, BigDecimal precio) {
         this(nombre, descripcion, precio, true);
     }
+
+    /**
+     * Creates a ProductoDTO for a product whose stock isn't tracked.
+     */
+    public ProductoDTO(String nombre, String descripcion, BigDecimal precio, boolean activo) {
+        this(nombre, descripcion, precio, activo, null);
+    }
 }
@@ -0,0 +1,20 @@
+package com.gplanet.commerce.api.dtos.producto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Data Transfer Object (DTO) for the stock of a product.
+ *
+ * @author Gustavo
+ * @version 1.0
+ * @param productoId The ID of the product.
+ * @param stock The units in stock, or null if the product's stock isn't tracked.
+ */
+@Schema(name = "Stock", description = "Units in stock of a product")
+public record StockDTO(
+    @Schema(description = "Product unique identifier", example = "1")
+    Long productoId,
+
+    @Schema(description = "Units in stock. Null when the product's stock isn't tracked", example = "100")
+    Integer stock
+) {}
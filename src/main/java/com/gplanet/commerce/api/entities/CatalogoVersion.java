@@ -0,0 +1,37 @@
+package com.gplanet.commerce.api.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity class holding the change version of a cached data set.
+ * Every API node compares the version with the one its in-memory copy was built from,
+ * so a write made through any node invalidates the copies on all of them.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "catalog_versions")
+public class CatalogoVersion {
+    /** 
+     * Name of the versioned data set. 
+     */
+    @Id
+    @Column(name = "catalog_name", length = 64)
+    private String nombre;
+
+    /** 
+     * Version number, incremented on every write to the data set. 
+     */
+    @Column(name = "catalog_version", nullable = false)
+    private long version;
+}
@@ -0,0 +1,68 @@
+package com.gplanet.commerce.api.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Entity class recording the idempotency key a purchase was submitted with.
+ * The key is unique per user, so a retried submission finds the purchase it already created
+ * instead of creating another one, whichever API node it reaches.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "idempotency_keys",
+    uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_usuario_clave",
+        columnNames = {"usuario_id", "idempotency_key"}),
+    indexes = @Index(name = "idx_idempotency_keys_fecha_creacion", columnList = "fecha_creacion"))
+public class ClaveIdempotencia {
+    /** 
+     * Unique identifier for the key record. 
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 
+     * ID of the user who sent the key. 
+     */
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    /** 
+     * Idempotency key sent by the client. 
+     */
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String clave;
+
+    /** 
+     * SHA-256 of the purchase lines, to tell a retry from a different purchase reusing the key. 
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String huella;
+
+    /** 
+     * ID of the purchase created with the key, set in the same transaction. 
+     */
+    @Column(name = "compra_id")
+    private Long compraId;
+
+    /** 
+     * Date and time when the key was first used. 
+     */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+}
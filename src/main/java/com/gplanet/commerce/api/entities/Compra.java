@@ -17,6 +17,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -33,10 +34,19 @@ import lombok.Setter;
 @Table(name = "compras")
 public class Compra {
     /** 
-     * Unique identifier for the purchase. 
+     * Unique identifier for the purchase. Allocated in blocks from the
+     * {@code id_generators} table so the cascaded inserts can be batched.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "compra_id_gen")
+    @TableGenerator(
+        name = "compra_id_gen",
+        table = "id_generators",
+        pkColumnName = "gen_name",
+        valueColumnName = "gen_value",
+        pkColumnValue = "compras",
+        allocationSize = 50
+    )
     private Long id;
     
     /** 
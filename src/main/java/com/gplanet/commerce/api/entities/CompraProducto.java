@@ -12,6 +12,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -28,10 +29,19 @@ import lombok.Setter;
 @Table(name = "compra_productos")
 public class CompraProducto {
     /** 
-     * Unique identifier for the purchase item. 
+     * Unique identifier for the purchase item. Allocated in blocks from the
+     * {@code id_generators} table so the line items can be inserted in one JDBC batch.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "compra_producto_id_gen")
+    @TableGenerator(
+        name = "compra_producto_id_gen",
+        table = "id_generators",
+        pkColumnName = "gen_name",
+        valueColumnName = "gen_value",
+        pkColumnValue = "compra_productos",
+        allocationSize = 50
+    )
     private Long id;
     
     /** 
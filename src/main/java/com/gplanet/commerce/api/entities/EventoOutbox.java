@@ -0,0 +1,80 @@
+package com.gplanet.commerce.api.entities;
+
+import java.time.LocalDateTime;
+
+import com.gplanet.commerce.api.dtos.evento.EventType;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Entity class recording a purchase or catalog change in the outbox.
+ * The event is inserted in the transaction of the change, so it exists if and only if the
+ * change was committed. Its position in the stream is assigned later by the relay, in the
+ * order the events became visible, which the IDs don't follow when transactions overlap.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "outbox_events",
+    uniqueConstraints = @UniqueConstraint(name = "uk_outbox_events_posicion", columnNames = "posicion"),
+    indexes = @Index(name = "idx_outbox_events_agregado", columnList = "agregado_id, tipo"))
+public class EventoOutbox {
+    /** 
+     * Unique identifier for the event. 
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** 
+     * Position of the event in the stream, null until the relay sequences it. 
+     */
+    private Long posicion;
+
+    /** 
+     * Kind of change. 
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 40)
+    private EventType tipo;
+
+    /** 
+     * ID of the purchase or product changed. 
+     */
+    @Column(name = "agregado_id", nullable = false)
+    private Long agregadoId;
+
+    /** 
+     * State after the change, as JSON. 
+     */
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    /** 
+     * Date and time of the change. 
+     */
+    @Column(name = "fecha_creacion", nullable = false)
+    private LocalDateTime fechaCreacion;
+
+    /** 
+     * Date and time the relay sequenced the event. 
+     */
+    @Column(name = "fecha_publicacion")
+    private LocalDateTime fechaPublicacion;
+}
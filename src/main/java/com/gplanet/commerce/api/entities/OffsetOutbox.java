@@ -0,0 +1,44 @@
+package com.gplanet.commerce.api.entities;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity class holding how far a consumer has read the outbox stream.
+ * The relay keeps one row per durable sink, and one with the last position it assigned.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "outbox_offsets")
+public class OffsetOutbox {
+    /** 
+     * Name of the consumer. 
+     */
+    @Id
+    @Column(length = 100)
+    private String consumidor;
+
+    /** 
+     * Position of the last event the consumer has processed, 0 before the first one. 
+     */
+    @Column(nullable = false)
+    private long posicion;
+
+    /** 
+     * Date and time the position last moved. 
+     */
+    @Column(name = "fecha_actualizacion", nullable = false)
+    private LocalDateTime fechaActualizacion;
+}
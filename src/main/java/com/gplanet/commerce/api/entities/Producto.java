@@ -3,8 +3,12 @@ package com.gplanet.commerce.api.entities;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.gplanet.commerce.api.cache.ProductoCacheListener;
+import com.gplanet.commerce.api.search.ProductoSearchIndexListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -13,7 +17,9 @@ import lombok.Data;
 
 /**
  * Entity class representing a product in the system.
- * Contains product information such as name, description, price, and status.
+ * Contains product information such as name, description, price, status and stock.
+ * Changes are propagated to the full-text search index by {@link ProductoSearchIndexListener}
+ * and clear the cached listing totals and catalog through {@link ProductoCacheListener}.
  * 
  * @author Gustavo
  * @version 1.0
@@ -21,6 +27,7 @@ import lombok.Data;
 @Data
 @Entity
 @Table(name = "productos")
+@EntityListeners({ProductoSearchIndexListener.class, ProductoCacheListener.class})
 public class Producto {
     /** 
      * Unique identifier for the product. 
@@ -55,4 +62,13 @@ public class Producto {
      * Indicates if the product is currently active. 
      */
     private boolean activo;
+
+    /**
+     * Units in stock, or null if the product's stock isn't tracked.
+     * Never written by entity updates: it only changes through the conditional
+     * decrements at checkout and the stock adjustments, so an edit of the product
+     * can't overwrite units sold meanwhile.
+     */
+    @Column(updatable = false)
+    private Integer stock;
 }
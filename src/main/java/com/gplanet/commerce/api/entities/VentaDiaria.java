@@ -0,0 +1,51 @@
+package com.gplanet.commerce.api.entities;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity class holding the sales totals of one day.
+ * The row is updated as the day's purchases are committed, so the daily revenue and the
+ * average basket are read without going through the purchases.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ventas_diarias")
+public class VentaDiaria {
+    /** 
+     * Day of the purchases. 
+     */
+    @Id
+    private LocalDate fecha;
+
+    /** 
+     * Number of purchases made that day. 
+     */
+    @Column(nullable = false)
+    private long compras;
+
+    /** 
+     * Units sold that day. 
+     */
+    @Column(nullable = false)
+    private long unidades;
+
+    /** 
+     * Sum of the totals of the day's purchases. 
+     */
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos;
+}
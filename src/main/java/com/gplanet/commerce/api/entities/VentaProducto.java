@@ -0,0 +1,54 @@
+package com.gplanet.commerce.api.entities;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity class holding the sales totals of one product since it was first sold.
+ * The indexes on the revenue and the units read the best sellers without sorting the table.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ventas_productos", indexes = {
+    @Index(name = "idx_ventas_productos_ingresos", columnList = "ingresos"),
+    @Index(name = "idx_ventas_productos_unidades", columnList = "unidades")
+})
+public class VentaProducto {
+    /** 
+     * ID of the product sold. 
+     */
+    @Id
+    @Column(name = "producto_id")
+    private Long productoId;
+
+    /** 
+     * Number of purchases including the product. 
+     */
+    @Column(nullable = false)
+    private long compras;
+
+    /** 
+     * Units of the product sold. 
+     */
+    @Column(nullable = false)
+    private long unidades;
+
+    /** 
+     * Sum of the subtotals of the product's purchase lines. 
+     */
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos;
+}
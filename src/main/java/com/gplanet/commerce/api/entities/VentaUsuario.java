@@ -0,0 +1,52 @@
+package com.gplanet.commerce.api.entities;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entity class holding the sales totals of one customer since their first purchase.
+ * The index on the revenue reads the best customers without sorting the table.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ventas_usuarios",
+    indexes = @Index(name = "idx_ventas_usuarios_ingresos", columnList = "ingresos"))
+public class VentaUsuario {
+    /** 
+     * ID of the customer. 
+     */
+    @Id
+    @Column(name = "usuario_id")
+    private Long usuarioId;
+
+    /** 
+     * Number of purchases made by the customer. 
+     */
+    @Column(nullable = false)
+    private long compras;
+
+    /** 
+     * Units bought by the customer. 
+     */
+    @Column(nullable = false)
+    private long unidades;
+
+    /** 
+     * Sum of the totals of the customer's purchases. 
+     */
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos;
+}
@@ -0,0 +1,24 @@
+package com.gplanet.commerce.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a purchase can't be answered for its idempotency key:
+ * the key was used for a different purchase, or the purchase first sent with it
+ * is still being processed.
+ * Returns HTTP 422 UNPROCESSABLE ENTITY or 409 CONFLICT status code respectively.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+public class IdempotencyKeyException extends ApiException {
+    /**
+     * Creates a new idempotency key exception.
+     * 
+     * @param message The detailed error message
+     * @param status UNPROCESSABLE_ENTITY for a reused key, CONFLICT for a request still in progress
+     */
+    public IdempotencyKeyException(String message, HttpStatus status) {
+        super(message, status);
+    }
+}
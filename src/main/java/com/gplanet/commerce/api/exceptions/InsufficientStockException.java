@@ -0,0 +1,22 @@
+package com.gplanet.commerce.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a purchase or a stock adjustment needs more units
+ * than a product has in stock.
+ * Returns HTTP 409 CONFLICT status code.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+public class InsufficientStockException extends ApiException {
+    /**
+     * Creates a new insufficient stock exception.
+     * 
+     * @param message The detailed message listing the products without enough stock
+     */
+    public InsufficientStockException(String message) {
+        super(message, HttpStatus.CONFLICT);
+    }
+}
@@ -0,0 +1,22 @@
+package com.gplanet.commerce.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a pagination cursor cannot be decoded or doesn't match
+ * the requested sort order, or when the listing can't be paged by cursor in that order.
+ * Returns HTTP 400 BAD REQUEST status code.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+public class InvalidCursorException extends ApiException {
+    /**
+     * Creates a new invalid cursor exception.
+     * 
+     * @param message The detailed message explaining why the cursor is invalid
+     */
+    public InvalidCursorException(String message) {
+        super(message, HttpStatus.BAD_REQUEST);
+    }
+}
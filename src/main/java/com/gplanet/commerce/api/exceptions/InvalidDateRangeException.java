@@ -0,0 +1,21 @@
+package com.gplanet.commerce.api.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * Exception thrown when a range of dates ends before it starts.
+ * Returns HTTP 400 BAD REQUEST status code.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+public class InvalidDateRangeException extends ApiException {
+    /**
+     * Creates a new invalid date range exception.
+     * 
+     * @param message The detailed message explaining why the range is invalid
+     */
+    public InvalidDateRangeException(String message) {
+        super(message, HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,51 @@
+package com.gplanet.commerce.api.filters;
+
+import java.io.IOException;
+
+import org.slf4j.MDC;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AuthenticationTrustResolver;
+import org.springframework.security.authentication.AuthenticationTrustResolverImpl;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Filter that records the authenticated user in the MDC context of the request log.
+ *
+ * <p>It runs inside the Spring Security filter chain, right after the authentication filters,
+ * so the user is taken from the security context instead of decoding the Authorization header
+ * again. It is not a component on purpose: registered as a servlet filter, it would run before
+ * authentication. The {@link RequestLoggingFilter} clears the MDC context at the end of the
+ * request.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class AuthenticatedUserMdcFilter extends OncePerRequestFilter {
+    private final AuthenticationTrustResolver trustResolver = new AuthenticationTrustResolverImpl();
+
+    /**
+     * Puts the name of the authenticated user, if any, in the MDC context.
+     *
+     * @param request the HTTP request to process
+     * @param response the HTTP response being processed
+     * @param filterChain the filter chain to execute
+     * @throws ServletException if a servlet exception occurs
+     * @throws IOException if an I/O exception occurs
+     */
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                   @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !trustResolver.isAnonymous(auth)) {
+            MDC.put(RequestLoggingFilter.USER_ID, auth.getName());
+        }
+        filterChain.doFilter(request, response);
+    }
+}
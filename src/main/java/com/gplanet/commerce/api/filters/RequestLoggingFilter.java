@@ -1,20 +1,22 @@
 package com.gplanet.commerce.api.filters;
 
 import java.io.IOException;
-import java.util.Base64;
-import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.lang.NonNull;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.gplanet.commerce.api.configs.app.props.RequestLoggingProperties;
+
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -33,6 +35,16 @@ import jakarta.servlet.http.HttpServletResponse;
  *   <li>User id (if authenticated)</li>
  * </ul>
  * </p>
+ *
+ * <p>The request id is taken from the inbound {@code X-Request-Id} header when it is a short
+ * token, so calls can be followed across services, and is otherwise generated from a random
+ * per-node prefix and a counter. It is echoed back in the response. The user id is filled in by
+ * {@link AuthenticatedUserMdcFilter} once Spring Security has authenticated the request.</p>
+ *
+ * <p>Only one line is written per request, when it completes. With
+ * {@code request-logging.sample-rate} above 1, successful requests are sampled, while failed
+ * requests (status 400 or above, or an exception) and requests slower than
+ * {@code request-logging.slow-threshold} are always logged.</p>
  * 
  * @author Gustavo
  * @version 1.0
@@ -40,7 +52,38 @@ import jakarta.servlet.http.HttpServletResponse;
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class RequestLoggingFilter extends OncePerRequestFilter {
+    /**
+     * Header carrying the request id, inbound and outbound.
+     */
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+
+    /**
+     * MDC key of the request id.
+     */
+    public static final String REQUEST_ID = "requestId";
+
+    /**
+     * MDC key of the user id.
+     */
+    public static final String USER_ID = "userId";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(RequestLoggingFilter.class);
+    private static final String ANONYMOUS = "anonymous";
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+    private static final int FIRST_ERROR_STATUS = 400;
+    private static final String NODE_PREFIX = String.format("%08x-", ThreadLocalRandom.current().nextInt());
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final RequestLoggingProperties properties;
+
+    /**
+     * Constructs the filter.
+     *
+     * @param propertiesProvider provider of the request log settings, defaults are used if absent
+     */
+    public RequestLoggingFilter(ObjectProvider<RequestLoggingProperties> propertiesProvider) {
+        this.properties = propertiesProvider.getIfAvailable(RequestLoggingProperties::new);
+    }
 
     /**
      * Processes each HTTP request, adding logging context and timing information.
@@ -54,53 +97,88 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, 
                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
-        String requestId = UUID.randomUUID().toString().substring(0, 8);
-        MDC.put("requestId", requestId);
-        MDC.put("userId", getUserId(request));
-        
-        try {
-            LOGGER.info("Request initiated: {} {} [{}]", 
+        String requestId = getRequestId(request);
+        MDC.put(REQUEST_ID, requestId);
+        MDC.put(USER_ID, ANONYMOUS);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Request initiated: {} {} [{}]",
                         request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
-            long startTime = System.currentTimeMillis();
-            
+        }
+        long startTime = System.nanoTime();
+        boolean failed = true;
+        try {
             filterChain.doFilter(request, response);
-            
-            LOGGER.info("Request completed: {} {} - {} in {}ms", 
-                        request.getMethod(), request.getRequestURI(), 
-                        response.getStatus(), System.currentTimeMillis() - startTime);
+            failed = false;
         } finally {
+            logCompletion(request, response, System.nanoTime() - startTime, failed);
             MDC.clear();
         }
     }
-    
+
     /**
-     * Extracts the user identifier from the security context or basic auth header.
-     * Returns "anonymous" for unauthenticated requests or when security context is not available.
-     * 
+     * Writes the completion line of a request, unless it is a successful request left out by sampling.
+     *
+     * @param request the processed HTTP request
+     * @param response the HTTP response
+     * @param elapsedNanos the request processing time
+     * @param failed whether the filter chain ended with an exception
+     */
+    private void logCompletion(HttpServletRequest request, HttpServletResponse response,
+                               long elapsedNanos, boolean failed) {
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (failed) {
+            LOGGER.warn("Request failed: {} {} [{}] in {}ms",
+                        request.getMethod(), request.getRequestURI(), request.getRemoteAddr(), elapsedMillis);
+            return;
+        }
+        int status = response.getStatus();
+        if (status >= FIRST_ERROR_STATUS
+                || elapsedNanos >= properties.getSlowThreshold().toNanos()
+                || isSampled()) {
+            LOGGER.info("Request completed: {} {} [{}] - {} in {}ms",
+                        request.getMethod(), request.getRequestURI(), request.getRemoteAddr(),
+                        status, elapsedMillis);
+        }
+    }
+
+    private boolean isSampled() {
+        int sampleRate = properties.getSampleRate();
+        return sampleRate <= 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    /**
+     * Returns the inbound request id if it is a safe token to log, or a new one otherwise.
+     * New ids are unique per node thanks to the counter, and across nodes thanks to the random prefix.
+     *
      * @param request the HTTP request being processed
-     * @return the user's identifier (email) or "anonymous" if user is not authenticated
+     * @return the request id
+     */
+    private static String getRequestId(HttpServletRequest request) {
+        String inbound = request.getHeader(REQUEST_ID_HEADER);
+        if (isValidRequestId(inbound)) {
+            return inbound;
+        }
+        return NODE_PREFIX + Long.toString(SEQUENCE.incrementAndGet(), Character.MAX_RADIX);
+    }
+
+    /**
+     * Checks that a client supplied request id is short and only contains letters, digits,
+     * dots, colons, dashes or underscores, so it can't forge log lines.
      */
-    private String getUserId(HttpServletRequest request) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getPrincipal())) {
-            // Get user from security context if available
-            return auth.getName();
+    private static boolean isValidRequestId(String requestId) {
+        if (requestId == null || requestId.isEmpty() || requestId.length() > MAX_REQUEST_ID_LENGTH) {
+            return false;
         }
-        
-        // Try to get from HTTP basic auth if security context is not populated yet
-        String authHeader = request.getHeader("Authorization");
-        if (authHeader != null && authHeader.startsWith("Basic ")) {
-            try {
-                String base64Credentials = authHeader.substring("Basic ".length());
-                String credentials = new String(Base64.getDecoder().decode(base64Credentials));
-                String username = credentials.split(":", 2)[0];
-                return username;
-            } catch (Exception ex) {
-                // In case of any parsing issues
-                return "anonymous";
+        for (int i = 0; i < requestId.length(); i++) {
+            char c = requestId.charAt(i);
+            boolean valid = Character.isLetterOrDigit(c) && c < Byte.MAX_VALUE
+                || c == '-' || c == '_' || c == '.' || c == ':';
+            if (!valid) {
+                return false;
             }
         }
-        
-        return "anonymous";
+        return true;
     }
 }
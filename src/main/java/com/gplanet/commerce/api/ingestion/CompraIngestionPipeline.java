@@ -0,0 +1,379 @@
+package com.gplanet.commerce.api.ingestion;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gplanet.commerce.api.configs.app.props.PurchaseIngestionProperties;
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.dtos.compra.IngestaCompraDTO;
+import com.gplanet.commerce.api.dtos.compra.IngestionStatus;
+import com.gplanet.commerce.api.exceptions.ApiException;
+import com.gplanet.commerce.api.services.CompraService;
+import com.gplanet.commerce.api.services.CompraService.ResultadoCompra;
+import com.gplanet.commerce.api.services.CompraService.SolicitudCompra;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous ingestion of purchases, written in batches that share one transaction.
+ *
+ * <p>At peak every purchase is a transaction of its own, and each commit waits for the database
+ * to flush its log. With ingestion enabled, validated purchases are put on a bounded queue and a
+ * single writer thread takes them in batches of up to {@code batch-size}, waiting at most
+ * {@code max-wait} for a batch to fill. Each batch is written by
+ * {@link CompraService#realizarComprasEnLote} in one transaction, with its inserts and stock
+ * decrements sent as JDBC batches, so a single commit covers many purchases. If the batch can't be
+ * written as a whole, because other purchases took its stock meanwhile, its purchases are written
+ * one by one instead.</p>
+ *
+ * <p>A full queue turns purchases away with 503 after {@code enqueue-timeout}, so callers slow
+ * down instead of piling up. Each purchase gets a ticket and a future completed once its batch is
+ * committed; its status can be read by ticket for {@code ticket-ttl}. Queued purchases live only
+ * in this node's memory: they are written before the node stops, but lost if it fails. Tickets
+ * are kept in this node's memory too, so behind a load balancer the status must be read from the
+ * node that queued the purchase, through sticky routing; any other node answers 404.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class CompraIngestionPipeline implements SmartLifecycle, MeterBinder {
+
+    private static final long POLL_MILLIS = 100;
+    private static final long STOP_TIMEOUT_MILLIS = 30_000;
+    // Below the phases of the web server start/stop (-2048) and graceful shutdown (-1024)
+    private static final int PHASE_OFFSET = 4096;
+    private static final String NO_DISPONIBLE_MSG = "La cola de compras no está disponible";
+
+    private final PurchaseIngestionProperties properties;
+    private final CompraService compraService;
+    private final BlockingQueue<Pedido> cola;
+    private final Cache<String, Pedido> pedidos;
+    private final LongAdder lotes = new LongAdder();
+    private final LongAdder escritas = new LongAdder();
+    private final LongAdder individuales = new LongAdder();
+    private final LongAdder rechazadas = new LongAdder();
+    private volatile boolean running;
+    private Thread escritor;
+
+    /**
+     * Constructs the ingestion pipeline with the configured queue and batch settings.
+     *
+     * @param properties the ingestion settings
+     * @param compraService the service writing the batches
+     */
+    public CompraIngestionPipeline(PurchaseIngestionProperties properties, CompraService compraService) {
+        this.properties = properties;
+        this.compraService = compraService;
+        this.cola = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.pedidos = Caffeine.newBuilder()
+                .maximumSize(properties.getTicketsMaxSize())
+                .expireAfterWrite(properties.getTicketTtl())
+                .build();
+    }
+
+    /**
+     * Returns whether purchases are ingested through the queue.
+     *
+     * @return true if ingestion is enabled
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Puts a purchase on the queue, waiting up to {@code enqueue-timeout} for room.
+     *
+     * @param email Email of the user making the purchase
+     * @param compraDTO the validated purchase
+     * @return the queued purchase, with its ticket and the future of its result
+     * @throws ApiException with 503 if the queue is full or the pipeline is stopped
+     */
+    public Pedido encolar(String email, CompraDTO compraDTO) {
+        if (!running) {
+            throw new ApiException(NO_DISPONIBLE_MSG, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        Pedido pedido = new Pedido(UUID.randomUUID().toString(), email, compraDTO, new CompletableFuture<>());
+        pedidos.put(pedido.ticket(), pedido);
+        boolean encolado;
+        try {
+            encolado = cola.offer(pedido, properties.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            encolado = false;
+        }
+        if (!encolado) {
+            pedidos.invalidate(pedido.ticket());
+            rechazadas.increment();
+            throw new ApiException("La cola de compras está llena, inténtelo de nuevo más tarde",
+                HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return pedido;
+    }
+
+    /**
+     * Waits up to {@code response-timeout} for a queued purchase to be written.
+     *
+     * @param pedido the queued purchase
+     * @return the purchase written, or empty if its batch wasn't committed in time
+     */
+    public Optional<CompraResponseDTO> esperar(Pedido pedido) {
+        try {
+            return Optional.of(pedido.resultado().get(properties.getResponseTimeout().toMillis(),
+                TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            return Optional.empty();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Returns the status of a purchase queued on this node.
+     *
+     * @param ticket the ticket the purchase was queued with
+     * @param email Email of the requesting user; only the buyer can read the status
+     * @return the status, or empty if the ticket is unknown, expired or belongs to another user
+     */
+    public Optional<IngestaCompraDTO> estado(String ticket, String email) {
+        return Optional.ofNullable(pedidos.getIfPresent(ticket))
+            .filter(pedido -> pedido.email().equals(email))
+            .map(Pedido::estado);
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        escritor = Thread.ofPlatform().name("compra-ingestion").daemon().start(this::escribir);
+        log.info("Purchase ingestion started - queue capacity: {}, batch size: {}",
+            properties.getQueueCapacity(), properties.getBatchSize());
+    }
+
+    /**
+     * Stops taking purchases and waits for the writer to write the ones already queued.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            escritor.join(STOP_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Purchases queued while the writer was finishing are never written
+        List<Pedido> restantes = new ArrayList<>();
+        cola.drainTo(restantes);
+        restantes.forEach(pedido -> pedido.resultado().completeExceptionally(
+            new ApiException(NO_DISPONIBLE_MSG, HttpStatus.SERVICE_UNAVAILABLE)));
+        log.info("Purchase ingestion stopped - {} queued purchases not written", restantes.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before and stops after the web server, whose lifecycle runs in a later phase, so no
+     * request finds the queue closed while the server still takes them, and the purchases queued
+     * by the requests drained at shutdown are still written.
+     *
+     * @return the lifecycle phase
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - PHASE_OFFSET;
+    }
+
+    /**
+     * Registers the queue size, batch and rejection metrics.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("purchases.ingestion.queue", cola, BlockingQueue::size)
+            .description("Purchases waiting to be written")
+            .register(registry);
+        FunctionCounter.builder("purchases.ingestion.batches", lotes, LongAdder::sum)
+            .description("Batches of purchases written in one transaction")
+            .register(registry);
+        FunctionCounter.builder("purchases.ingestion.written", escritas, LongAdder::sum)
+            .description("Purchases written as part of a batch")
+            .register(registry);
+        FunctionCounter.builder("purchases.ingestion.fallbacks", individuales, LongAdder::sum)
+            .description("Batches written one purchase at a time after the batch failed")
+            .register(registry);
+        FunctionCounter.builder("purchases.ingestion.rejected", rechazadas, LongAdder::sum)
+            .description("Purchases turned away because the queue was full")
+            .register(registry);
+    }
+
+    /**
+     * Writer loop: takes the queued purchases in batches until stopped and the queue is empty.
+     */
+    private void escribir() {
+        List<Pedido> lote = new ArrayList<>(properties.getBatchSize());
+        boolean interrumpido = false;
+        while (!interrumpido && (running || !cola.isEmpty())) {
+            try {
+                Pedido primero = cola.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (primero == null) {
+                    continue;
+                }
+                lote.add(primero);
+                llenar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                interrumpido = true;
+            }
+            if (!lote.isEmpty()) {
+                escribirLote(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    /**
+     * Writes a batch, failing the purchases left unanswered if writing it throws anything at all.
+     * This is the only writer thread: an {@link Error} reaching the loop would end it while the
+     * queue still takes purchases, and their callers would wait for a result that never comes.
+     *
+     * @param lote the batch to write
+     */
+    private void escribirLote(List<Pedido> lote) {
+        try {
+            procesar(lote);
+        } catch (Throwable e) {
+            log.error("Purchase batch of {} could not be written", lote.size(), e);
+            lote.forEach(pedido -> pedido.resultado().completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Adds queued purchases to the batch until it is full or {@code max-wait} has elapsed.
+     *
+     * @param lote the batch, holding its first purchase
+     * @throws InterruptedException if the writer is interrupted while waiting
+     */
+    private void llenar(List<Pedido> lote) throws InterruptedException {
+        int maximo = properties.getBatchSize();
+        cola.drainTo(lote, maximo - lote.size());
+        long limite = System.nanoTime() + properties.getMaxWait().toNanos();
+        while (lote.size() < maximo) {
+            Pedido siguiente = cola.poll(limite - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (siguiente == null) {
+                return;
+            }
+            lote.add(siguiente);
+            cola.drainTo(lote, maximo - lote.size());
+        }
+    }
+
+    private void procesar(List<Pedido> lote) {
+        List<SolicitudCompra> solicitudes = lote.stream()
+            .map(pedido -> new SolicitudCompra(pedido.email(), pedido.compra()))
+            .toList();
+        List<ResultadoCompra> resultados;
+        try {
+            resultados = compraService.realizarComprasEnLote(solicitudes);
+        } catch (RuntimeException e) {
+            // Nothing of the batch was written: each purchase gets a transaction of its own
+            log.info("Purchase batch of {} failed, writing its purchases one by one: {}", lote.size(), e.getMessage());
+            individuales.increment();
+            lote.forEach(this::procesarIndividual);
+            return;
+        }
+        lotes.increment();
+        for (int i = 0; i < lote.size(); i++) {
+            ResultadoCompra resultado = resultados.get(i);
+            if (resultado.error() == null) {
+                escritas.increment();
+                lote.get(i).resultado().complete(resultado.compra());
+            } else {
+                lote.get(i).resultado().completeExceptionally(resultado.error());
+            }
+        }
+    }
+
+    private void procesarIndividual(Pedido pedido) {
+        try {
+            pedido.resultado().complete(compraService.realizarCompra(pedido.email(), pedido.compra()));
+        } catch (RuntimeException e) {
+            pedido.resultado().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Purchase put on the queue.
+     *
+     * @param ticket the ticket identifying the purchase
+     * @param email Email of the user making the purchase
+     * @param compra the purchase lines
+     * @param resultado completed with the purchase once written, or with the error that rejected it
+     */
+    public record Pedido(
+        String ticket,
+        String email,
+        CompraDTO compra,
+        CompletableFuture<CompraResponseDTO> resultado
+    ) {
+
+        /**
+         * Returns the current status of the purchase.
+         *
+         * @return the status DTO
+         */
+        public IngestaCompraDTO estado() {
+            if (!resultado.isDone()) {
+                return new IngestaCompraDTO(ticket, IngestionStatus.PENDING, null, null);
+            }
+            if (!resultado.isCompletedExceptionally()) {
+                return new IngestaCompraDTO(ticket, IngestionStatus.COMPLETED, resultado.join(), null);
+            }
+            return new IngestaCompraDTO(ticket, IngestionStatus.REJECTED, null, mensaje(resultado.exceptionNow()));
+        }
+
+        private static String mensaje(Throwable error) {
+            if (error instanceof ApiException || error instanceof AuthenticationException) {
+                return error.getMessage();
+            }
+            return "Error al registrar la compra";
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.gplanet.commerce.api.inventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gplanet.commerce.api.configs.app.props.StockReservationProperties;
+import com.gplanet.commerce.api.entities.Producto;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * In-memory reservations of the stock of flash-sale products.
+ *
+ * <p>During a flash sale most purchases of a hot product arrive once it is sold out, and each
+ * one would still wait for the product row lock only to find no stock left. With reservations
+ * enabled, the units of each selected product are also counted in memory and a purchase takes
+ * its units there first, so those purchases are turned away without touching the database.
+ * The units of a product are spread over several striped counters, each on its own cache line,
+ * and a purchase takes from the counter of its thread before moving on to the others, so
+ * concurrent purchases of the same product don't all retry on one atomic value.</p>
+ *
+ * <p>The counters only turn purchases away early: the conditional decrement in the database
+ * still decides every sale. They are seeded from the stock read by the purchase, reseeded once
+ * {@code refresh-interval} has elapsed, and dropped when the database rejects a decrement they
+ * allowed or the stock is adjusted, so they follow sales made through other API nodes.
+ * Units taken by a purchase that rolls back are given back.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component
+public class StockReservations implements MeterBinder {
+
+    // Ints per stripe so that every counter sits on its own 64-byte cache line
+    private static final int PADDING = 16;
+
+    private final StockReservationProperties properties;
+    private final Map<Long, Existencias> existencias = new ConcurrentHashMap<>();
+    private final LongAdder rechazadas = new LongAdder();
+
+    /**
+     * Constructs the stock reservations.
+     *
+     * @param properties the reservation settings
+     */
+    public StockReservations(StockReservationProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * Takes the units of the reserved products from memory. The units are given back
+     * if the surrounding transaction doesn't commit.
+     *
+     * @param cantidades units requested by product ID, for the products with tracked stock
+     * @param productos the requested products, as read by the purchase
+     * @return the IDs of the products without enough units in memory; nothing is kept reserved then
+     * @throws IllegalStateException if called outside a transaction
+     */
+    public List<Long> reservar(SortedMap<Long, Integer> cantidades, Map<Long, Producto> productos) {
+        List<Long> agotados = new ArrayList<>();
+        if (!properties.isEnabled()) {
+            return agotados;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock reservations need an active transaction");
+        }
+
+        List<Reserva> reservas = new ArrayList<>();
+        for (Map.Entry<Long, Integer> linea : cantidades.entrySet()) {
+            Long id = linea.getKey();
+            if (!aplica(id)) {
+                continue;
+            }
+            Existencias actuales = existencias(id, productos.get(id).getStock());
+            if (actuales.tomar(linea.getValue())) {
+                reservas.add(new Reserva(actuales, linea.getValue()));
+            } else {
+                agotados.add(id);
+            }
+        }
+
+        if (!agotados.isEmpty()) {
+            rechazadas.increment();
+            reservas.forEach(Reserva::devolver);
+            return agotados;
+        }
+        if (!reservas.isEmpty()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        reservas.forEach(Reserva::devolver);
+                    }
+                }
+            });
+        }
+        return agotados;
+    }
+
+    /**
+     * Drops the units held in memory for a product. The next purchase reads them again
+     * from its stock.
+     *
+     * @param productoId the product ID
+     */
+    public void invalidar(Long productoId) {
+        existencias.remove(productoId);
+    }
+
+    /**
+     * Returns the units held in memory for a product.
+     *
+     * @param productoId the product ID
+     * @return the units, or null if the product isn't reserved in memory or wasn't seeded yet
+     */
+    public Integer disponibles(Long productoId) {
+        Existencias actuales = existencias.get(productoId);
+        if (actuales == null) {
+            return null;
+        }
+        return actuales.disponibles();
+    }
+
+    /**
+     * Registers the rejected purchases and reserved products metrics.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("inventory.reservations.rejected", rechazadas, LongAdder::sum)
+            .description("Purchases turned away by the in-memory stock reservations")
+            .register(registry);
+        Gauge.builder("inventory.reservations.products", existencias, Map::size)
+            .description("Products whose stock is held in memory")
+            .register(registry);
+    }
+
+    private boolean aplica(Long productoId) {
+        return properties.getProductIds().isEmpty() || properties.getProductIds().contains(productoId);
+    }
+
+    /**
+     * Returns the counters of a product, seeding them again if missing or older
+     * than the refresh interval.
+     *
+     * @param productoId the product ID
+     * @param stock the stock read by the purchase
+     * @return the counters of the product
+     */
+    private Existencias existencias(Long productoId, int stock) {
+        long ahora = System.nanoTime();
+        Existencias vigentes = existencias.get(productoId);
+        if (vigentes != null && ahora - vigentes.caducidad() < 0) {
+            return vigentes;
+        }
+        // Only the seeding goes through the map's bin lock, not every purchase of a hot product
+        return existencias.compute(productoId, (id, actuales) -> {
+            if (actuales != null && ahora - actuales.caducidad() < 0) {
+                return actuales;
+            }
+            return new Existencias(stock, Math.max(1, properties.getStripes()),
+                ahora + properties.getRefreshInterval().toNanos());
+        });
+    }
+
+    /**
+     * Units of a product taken from its counters, to give back on rollback.
+     *
+     * @param existencias the counters the units were taken from
+     * @param cantidad the units taken
+     */
+    private record Reserva(Existencias existencias, int cantidad) {
+
+        void devolver() {
+            existencias.devolver(cantidad);
+        }
+    }
+
+    /**
+     * Units of a product spread over striped counters.
+     */
+    private static final class Existencias {
+        private final AtomicIntegerArray stripes;
+        private final int size;
+        private final long caducidad;
+
+        Existencias(int stock, int size, long caducidad) {
+            this.stripes = new AtomicIntegerArray(size * PADDING);
+            this.size = size;
+            this.caducidad = caducidad;
+            for (int i = 0; i < size; i++) {
+                int unidades = stock / size;
+                if (i < stock % size) {
+                    unidades++;
+                }
+                stripes.set(i * PADDING, unidades);
+            }
+        }
+
+        long caducidad() {
+            return caducidad;
+        }
+
+        /**
+         * Takes the units from the counter of the calling thread, then from the others.
+         * The units are taken all or none: a partial take is given back.
+         *
+         * @param cantidad the units to take
+         * @return true if all the units were taken
+         */
+        boolean tomar(int cantidad) {
+            int inicio = stripeActual();
+            int tomadas = 0;
+            for (int k = 0; k < size && tomadas < cantidad; k++) {
+                tomadas += tomarDe((inicio + k) % size, cantidad - tomadas);
+            }
+            if (tomadas < cantidad) {
+                devolver(tomadas);
+                return false;
+            }
+            return true;
+        }
+
+        void devolver(int cantidad) {
+            if (cantidad > 0) {
+                stripes.addAndGet(stripeActual() * PADDING, cantidad);
+            }
+        }
+
+        int disponibles() {
+            int total = 0;
+            for (int i = 0; i < size; i++) {
+                total += stripes.get(i * PADDING);
+            }
+            return total;
+        }
+
+        private int tomarDe(int stripe, int maximo) {
+            int indice = stripe * PADDING;
+            while (true) {
+                int disponibles = stripes.get(indice);
+                if (disponibles == 0) {
+                    return 0;
+                }
+                int tomadas = Math.min(disponibles, maximo);
+                if (stripes.compareAndSet(indice, disponibles, disponibles - tomadas)) {
+                    return tomadas;
+                }
+            }
+        }
+
+        private int stripeActual() {
+            return (int) (Thread.currentThread().threadId() % size);
+        }
+    }
+}
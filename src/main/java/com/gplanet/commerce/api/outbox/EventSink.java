@@ -0,0 +1,41 @@
+package com.gplanet.commerce.api.outbox;
+
+import java.util.List;
+
+import com.gplanet.commerce.api.dtos.evento.EventoDTO;
+
+/**
+ * Destination the {@link OutboxRelay} delivers the outbox events to, in stream order.
+ *
+ * <p>Delivery is at least once: a durable sink whose position couldn't be stored after a
+ * delivery gets the same events again, so consumers skip positions they have already seen.
+ * The position of a durable sink is stored in the database under its name, and it resumes from
+ * there after a restart. Other sinks start at the end of the stream whenever the node starts.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public interface EventSink {
+
+    /**
+     * Returns the name the sink's position is tracked under.
+     *
+     * @return the sink name
+     */
+    String nombre();
+
+    /**
+     * Returns whether the sink keeps what it received across restarts, so its position is stored.
+     *
+     * @return true if the sink is durable
+     */
+    boolean duradero();
+
+    /**
+     * Delivers the next events of the stream. The position only moves once this returns.
+     *
+     * @param eventos the events, in stream order
+     * @throws RuntimeException if the events couldn't be delivered; they are sent again on the next run
+     */
+    void publicar(List<EventoDTO> eventos);
+}
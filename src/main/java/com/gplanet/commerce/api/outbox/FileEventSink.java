@@ -0,0 +1,97 @@
+package com.gplanet.commerce.api.outbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gplanet.commerce.api.dtos.evento.EventoDTO;
+
+/**
+ * Sink appending the outbox events to a local file, one JSON object per line.
+ * Each delivery is written with a single call and, with {@code sync}, forced to disk before
+ * the sink's position is stored. A crash in between can repeat a delivery, never skip one.
+ * Deliveries only come from the relay thread, so writes never overlap.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class FileEventSink implements EventSink, DisposableBean {
+
+    private final String nombre;
+    private final boolean sync;
+    private final ObjectMapper objectMapper;
+    private final FileChannel canal;
+
+    /**
+     * Constructs the sink, creating the file and its directory if needed.
+     *
+     * @param nombre the name the sink's position is stored under
+     * @param path the file the events are appended to
+     * @param sync whether each delivery is forced to disk
+     * @param objectMapper the mapper writing the events
+     * @throws UncheckedIOException if the file can't be opened
+     */
+    public FileEventSink(String nombre, Path path, boolean sync, ObjectMapper objectMapper) {
+        this.nombre = nombre;
+        this.sync = sync;
+        this.objectMapper = objectMapper;
+        try {
+            Path directorio = path.toAbsolutePath().getParent();
+            if (directorio != null) {
+                Files.createDirectories(directorio);
+            }
+            this.canal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el fichero de eventos " + path, e);
+        }
+    }
+
+    @Override
+    public String nombre() {
+        return nombre;
+    }
+
+    @Override
+    public boolean duradero() {
+        return true;
+    }
+
+    @Override
+    public void publicar(List<EventoDTO> eventos) {
+        StringBuilder lineas = new StringBuilder();
+        try {
+            for (EventoDTO evento : eventos) {
+                lineas.append(objectMapper.writeValueAsString(evento)).append('\n');
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento", e);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lineas.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) {
+                canal.write(buffer);
+            }
+            if (sync) {
+                canal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron escribir los eventos", e);
+        }
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        canal.close();
+    }
+}
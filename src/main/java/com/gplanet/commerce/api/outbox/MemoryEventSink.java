@@ -0,0 +1,84 @@
+package com.gplanet.commerce.api.outbox;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.gplanet.commerce.api.dtos.evento.EventoDTO;
+
+/**
+ * Sink keeping the latest outbox events in memory, for consumers running in this node.
+ * Readers tail the stream from the last position they have seen, with no database access.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class MemoryEventSink implements EventSink {
+
+    private final int capacidad;
+    private final Deque<EventoDTO> eventos;
+    // The relay thread appends events while request threads read them
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Constructs the sink.
+     *
+     * @param capacidad the number of latest events kept
+     */
+    public MemoryEventSink(int capacidad) {
+        this.capacidad = capacidad;
+        this.eventos = new ArrayDeque<>(capacidad);
+    }
+
+    @Override
+    public String nombre() {
+        return "memory";
+    }
+
+    @Override
+    public boolean duradero() {
+        return false;
+    }
+
+    @Override
+    public void publicar(List<EventoDTO> nuevos) {
+        lock.lock();
+        try {
+            for (EventoDTO evento : nuevos) {
+                if (eventos.size() == capacidad) {
+                    eventos.removeFirst();
+                }
+                eventos.addLast(evento);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the kept events following a position.
+     *
+     * @param desde the position of the last event already read
+     * @param limite the maximum number of events
+     * @return the following events, in stream order; the events already dropped are skipped
+     */
+    public List<EventoDTO> leer(long desde, int limite) {
+        lock.lock();
+        try {
+            List<EventoDTO> resultado = new ArrayList<>(Math.min(limite, eventos.size()));
+            for (EventoDTO evento : eventos) {
+                if (resultado.size() == limite) {
+                    break;
+                }
+                if (evento.posicion() > desde) {
+                    resultado.add(evento);
+                }
+            }
+            return resultado;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
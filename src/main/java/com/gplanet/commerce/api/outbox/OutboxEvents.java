@@ -0,0 +1,62 @@
+package com.gplanet.commerce.api.outbox;
+
+import java.time.LocalDateTime;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gplanet.commerce.api.configs.app.props.OutboxProperties;
+import com.gplanet.commerce.api.dtos.evento.EventType;
+import com.gplanet.commerce.api.entities.EventoOutbox;
+import com.gplanet.commerce.api.repositories.EventoOutboxRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records purchase and catalog changes in the outbox, in the transaction that makes them.
+ * A rolled back change leaves no event, and a committed one can't lose it. The
+ * {@link OutboxRelay} later sequences the events and delivers them to the sinks.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxEvents {
+
+    private final OutboxProperties properties;
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Records a change in the current transaction.
+     *
+     * @param tipo the kind of change
+     * @param agregadoId the ID of the purchase or product changed
+     * @param estado the state after the change, serialized as the event payload
+     * @throws IllegalStateException if the state can't be serialized
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(EventType tipo, Long agregadoId, Object estado) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        EventoOutbox evento = new EventoOutbox();
+        evento.setTipo(tipo);
+        evento.setAgregadoId(agregadoId);
+        evento.setPayload(serializar(estado));
+        evento.setFechaCreacion(LocalDateTime.now());
+        eventoOutboxRepository.save(evento);
+    }
+
+    private String serializar(Object estado) {
+        try {
+            return objectMapper.writeValueAsString(estado);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento", e);
+        }
+    }
+}
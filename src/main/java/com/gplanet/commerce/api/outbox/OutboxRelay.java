@@ -0,0 +1,407 @@
+package com.gplanet.commerce.api.outbox;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gplanet.commerce.api.configs.app.props.OutboxProperties;
+import com.gplanet.commerce.api.dtos.evento.EventoDTO;
+import com.gplanet.commerce.api.dtos.evento.EventoMapper;
+import com.gplanet.commerce.api.entities.EventoOutbox;
+import com.gplanet.commerce.api.entities.OffsetOutbox;
+import com.gplanet.commerce.api.repositories.EventoOutboxRepository;
+import com.gplanet.commerce.api.repositories.OffsetOutboxRepository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Relay moving the outbox events to the {@link EventSink sinks}.
+ *
+ * <p>Every {@code poll-interval} a single thread sequences the committed events that have no
+ * position yet, in batches of up to {@code batch-size}: it locks the {@value #SECUENCIADOR} row
+ * of {@code outbox_offsets}, so one node at a time does it, and numbers the events after the last
+ * position assigned. Positions are given in the order events became visible and have no gaps, so
+ * a consumer reading the events after its last position never misses one, unlike with the IDs,
+ * which transactions can commit out of order.</p>
+ *
+ * <p>Each sink then gets the events after its position. The position of a durable sink is stored
+ * in {@code outbox_offsets} under its name, locked and moved in the transaction of the delivery,
+ * so it resumes where it stopped. Sequenced events older than {@code retention} that every registered
+ * consumer has received, on any node, are purged.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class OutboxRelay implements SmartLifecycle, MeterBinder {
+
+    /**
+     * Consumer name of the row holding the last position assigned.
+     */
+    public static final String SECUENCIADOR = "_sequencer";
+
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final long STOP_TIMEOUT_SECONDS = 30;
+
+    private final OutboxProperties properties;
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final OffsetOutboxRepository offsetOutboxRepository;
+    private final EventoMapper eventoMapper;
+    private final List<EventSink> sinks;
+    private final TransactionTemplate transacciones;
+    private final AtomicLong secuenciada = new AtomicLong();
+    private final Map<String, AtomicLong> posiciones = new HashMap<>();
+    private final Map<String, LongAdder> entregados = new HashMap<>();
+    private final LongAdder secuenciados = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+    private volatile boolean running;
+    private boolean inicializado;
+    private long siguientePurga;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Constructs the relay for the configured sinks.
+     *
+     * @param properties the outbox settings
+     * @param eventoOutboxRepository the repository of the events
+     * @param offsetOutboxRepository the repository of the stored positions
+     * @param eventoMapper the mapper of the delivered events
+     * @param sinks the sinks the events are delivered to
+     * @param transactionManager the transaction manager of the relay transactions
+     * @throws IllegalStateException if two sinks share a name
+     */
+    public OutboxRelay(OutboxProperties properties, EventoOutboxRepository eventoOutboxRepository,
+            OffsetOutboxRepository offsetOutboxRepository, EventoMapper eventoMapper, List<EventSink> sinks,
+            PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.eventoOutboxRepository = eventoOutboxRepository;
+        this.offsetOutboxRepository = offsetOutboxRepository;
+        this.eventoMapper = eventoMapper;
+        this.sinks = List.copyOf(sinks);
+        // Read-write, so the events and positions are always read from the primary database
+        this.transacciones = new TransactionTemplate(transactionManager);
+        for (EventSink sink : this.sinks) {
+            if (SECUENCIADOR.equals(sink.nombre()) || posiciones.put(sink.nombre(), new AtomicLong()) != null) {
+                throw new IllegalStateException("Nombre de sink de eventos repetido: " + sink.nombre());
+            }
+            entregados.put(sink.nombre(), new LongAdder());
+        }
+    }
+
+    /**
+     * Returns the last position this node has seen assigned.
+     *
+     * @return the last sequenced position, 0 before the first event
+     */
+    public long ultimaPosicion() {
+        return secuenciada.get();
+    }
+
+    /**
+     * Returns the position of the last event delivered to a sink from this node.
+     *
+     * @param sink the name of the sink
+     * @return the position of the sink, 0 before the first delivery
+     * @throws IllegalArgumentException if there is no sink with that name
+     */
+    public long posicion(String sink) {
+        AtomicLong posicion = posiciones.get(sink);
+        if (posicion == null) {
+            throw new IllegalArgumentException("Sink de eventos desconocido: " + sink);
+        }
+        return posicion.get();
+    }
+
+    @Override
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("outbox-relay").daemon().factory());
+        executor.scheduleWithFixedDelay(this::ejecutar, 0, properties.getPollInterval().toMillis(),
+            TimeUnit.MILLISECONDS);
+        log.info("Outbox relay started - sinks: {}", posiciones.keySet());
+    }
+
+    /**
+     * Stops the relay once its current run ends. Events not delivered yet are delivered
+     * by the next node to run it.
+     */
+    @Override
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Outbox relay stopped at position {}", secuenciada.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Registers the sequencing, delivery and lag metrics.
+     *
+     * @param registry the meter registry to bind to
+     */
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("outbox.events.sequenced", secuenciados, LongAdder::sum)
+            .description("Outbox events given a position by this node")
+            .register(registry);
+        FunctionCounter.builder("outbox.relay.failures", fallos, LongAdder::sum)
+            .description("Relay runs or deliveries that failed and will be retried")
+            .register(registry);
+        for (EventSink sink : sinks) {
+            FunctionCounter.builder("outbox.events.delivered", entregados.get(sink.nombre()), LongAdder::sum)
+                .description("Outbox events delivered to the sink by this node")
+                .tag("sink", sink.nombre())
+                .register(registry);
+            Gauge.builder("outbox.sink.lag", () -> secuenciada.get() - posiciones.get(sink.nombre()).get())
+                .description("Sequenced events the sink hasn't received yet")
+                .tag("sink", sink.nombre())
+                .register(registry);
+        }
+    }
+
+    /**
+     * Relay run: sequences the pending events and delivers them until caught up, then purges.
+     * Failures are logged and retried on the next run.
+     */
+    private void ejecutar() {
+        try {
+            if (!inicializado) {
+                inicializar();
+            }
+            boolean pendientes;
+            do {
+                pendientes = secuenciar() == properties.getBatchSize();
+                sinks.forEach(this::entregar);
+            } while (pendientes && running);
+            purgar();
+        } catch (RuntimeException e) {
+            fallos.increment();
+            log.warn("Outbox relay run failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registers the positions that don't exist yet and reads the stored ones. Sinks that aren't
+     * durable start at the end of the stream. Runs again after a position had to be registered anew.
+     */
+    private void inicializar() {
+        secuenciada.set(registrar(SECUENCIADOR));
+        for (EventSink sink : sinks) {
+            if (sink.duradero()) {
+                posiciones.get(sink.nombre()).set(registrar(sink.nombre()));
+            } else {
+                posiciones.get(sink.nombre()).set(secuenciada.get());
+            }
+        }
+        siguientePurga = System.nanoTime();
+        inicializado = true;
+    }
+
+    /**
+     * Registers the position of a consumer if it doesn't exist. The sequencer starts after the last
+     * position of the events kept, so positions are never given twice; a sink starts at the beginning.
+     *
+     * @param consumidor the name of the consumer
+     * @return the stored position
+     */
+    private long registrar(String consumidor) {
+        try {
+            OffsetOutbox offset = transacciones.execute(status -> offsetOutboxRepository.findById(consumidor)
+                .orElseGet(() -> offsetOutboxRepository.saveAndFlush(
+                    new OffsetOutbox(consumidor, posicionInicial(consumidor), LocalDateTime.now()))));
+            return offset.getPosicion();
+        } catch (DataIntegrityViolationException e) {
+            // Registered meanwhile by another node
+            return transacciones.execute(status -> offsetOutboxRepository.findById(consumidor)
+                .orElseThrow(() -> e)).getPosicion();
+        }
+    }
+
+    private long posicionInicial(String consumidor) {
+        if (SECUENCIADOR.equals(consumidor)) {
+            return eventoOutboxRepository.findUltimaPosicion();
+        }
+        return 0L;
+    }
+
+    /**
+     * Numbers the next batch of committed events without a position.
+     *
+     * @return the number of events sequenced
+     */
+    private int secuenciar() {
+        Lote lote = transacciones.execute(status -> secuenciarLote());
+        secuenciada.set(lote.posicion());
+        secuenciados.add(lote.eventos());
+        return lote.eventos();
+    }
+
+    /**
+     * Gives the next positions to a batch of pending events, holding the sequencer row lock.
+     * Runs inside the relay transaction.
+     *
+     * @return the batch sequenced
+     */
+    private Lote secuenciarLote() {
+        OffsetOutbox secuenciador = bloquear(SECUENCIADOR);
+        List<EventoOutbox> pendientes =
+            eventoOutboxRepository.findByPosicionIsNullOrderByIdAsc(Limit.of(properties.getBatchSize()));
+        long posicion = secuenciador.getPosicion();
+        if (pendientes.isEmpty()) {
+            return new Lote(0, posicion);
+        }
+        LocalDateTime ahora = LocalDateTime.now();
+        for (EventoOutbox evento : pendientes) {
+            posicion++;
+            evento.setPosicion(posicion);
+            evento.setFechaPublicacion(ahora);
+        }
+        secuenciador.setPosicion(posicion);
+        secuenciador.setFechaActualizacion(ahora);
+        return new Lote(pendientes.size(), posicion);
+    }
+
+    /**
+     * Delivers the events after the sink's position until it is caught up or a delivery fails.
+     *
+     * @param sink the sink
+     */
+    private void entregar(EventSink sink) {
+        try {
+            Lote lote;
+            do {
+                if (sink.duradero()) {
+                    lote = entregarDuradero(sink);
+                } else {
+                    lote = entregarEnMemoria(sink);
+                }
+                posiciones.get(sink.nombre()).set(lote.posicion());
+                entregados.get(sink.nombre()).add(lote.eventos());
+            } while (lote.eventos() == properties.getBatchSize() && running);
+        } catch (RuntimeException e) {
+            fallos.increment();
+            log.warn("Delivery of outbox events to sink {} failed: {}", sink.nombre(), e.getMessage());
+        }
+    }
+
+    private Lote entregarDuradero(EventSink sink) {
+        return transacciones.execute(status -> entregarLote(sink));
+    }
+
+    /**
+     * Delivers the next batch of events to a durable sink and moves its position, holding the
+     * position row lock. Runs inside the relay transaction, so a failed delivery keeps the position.
+     *
+     * @param sink the durable sink
+     * @return the batch delivered
+     */
+    private Lote entregarLote(EventSink sink) {
+        OffsetOutbox offset = bloquear(sink.nombre());
+        List<EventoOutbox> eventos = eventoOutboxRepository.findByPosicionGreaterThanOrderByPosicionAsc(
+            offset.getPosicion(), Limit.of(properties.getBatchSize()));
+        if (eventos.isEmpty()) {
+            return new Lote(0, offset.getPosicion());
+        }
+        sink.publicar(eventoMapper.toEventoDTOList(eventos));
+        offset.setPosicion(eventos.get(eventos.size() - 1).getPosicion());
+        offset.setFechaActualizacion(LocalDateTime.now());
+        return new Lote(eventos.size(), offset.getPosicion());
+    }
+
+    private Lote entregarEnMemoria(EventSink sink) {
+        long desde = posiciones.get(sink.nombre()).get();
+        List<EventoDTO> eventos = transacciones.execute(status -> eventoMapper.toEventoDTOList(
+            eventoOutboxRepository.findByPosicionGreaterThanOrderByPosicionAsc(
+                desde, Limit.of(properties.getBatchSize()))));
+        if (eventos.isEmpty()) {
+            return new Lote(0, desde);
+        }
+        sink.publicar(eventos);
+        return new Lote(eventos.size(), eventos.get(eventos.size() - 1).posicion());
+    }
+
+    /**
+     * Deletes, at most once per minute, the events older than the retention that every consumer
+     * with a stored position has received, including the durable sinks of other nodes.
+     */
+    private void purgar() {
+        long ahora = System.nanoTime();
+        if (ahora - siguientePurga < 0) {
+            return;
+        }
+        siguientePurga = ahora + PURGE_INTERVAL_NANOS;
+        long hasta = offsetOutboxRepository.findPosicionMinimaExcepto(SECUENCIADOR)
+            .orElse(secuenciada.get());
+        LocalDateTime limite = LocalDateTime.now().minus(properties.getRetention());
+        Integer borrados = transacciones.execute(status -> eventoOutboxRepository.deletePublicados(hasta, limite));
+        if (borrados != null && borrados > 0) {
+            log.info("Purged {} outbox events up to position {}", borrados, hasta);
+        }
+    }
+
+    /**
+     * Locks the position of a consumer in the current transaction. A position deleted while the relay
+     * runs, as when the schema is recreated, is registered again, and every position is read again
+     * on the next run.
+     *
+     * @param consumidor the name of the consumer
+     * @return the locked position
+     * @throws IllegalStateException if the position can't be registered again
+     */
+    private OffsetOutbox bloquear(String consumidor) {
+        Optional<OffsetOutbox> offset = offsetOutboxRepository.findParaActualizar(consumidor);
+        if (offset.isEmpty()) {
+            log.warn("Outbox position of {} not found, registering it again", consumidor);
+            registrar(consumidor);
+            inicializado = false;
+            offset = offsetOutboxRepository.findParaActualizar(consumidor);
+        }
+        return offset.orElseThrow(
+            () -> new IllegalStateException("Posición de eventos no registrada: " + consumidor));
+    }
+
+    /**
+     * Events handled in one transaction and the position reached.
+     *
+     * @param eventos the number of events
+     * @param posicion the position after them
+     */
+    private record Lote(int eventos, long posicion) {}
+}
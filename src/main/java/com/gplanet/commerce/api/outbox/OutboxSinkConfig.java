@@ -0,0 +1,64 @@
+package com.gplanet.commerce.api.outbox;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.file.Path;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gplanet.commerce.api.configs.app.props.OutboxProperties;
+
+/**
+ * Configuration of the sinks the outbox events are delivered to.
+ * Every {@link EventSink} bean is picked up by the {@link OutboxRelay}.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Configuration
+public class OutboxSinkConfig {
+
+    /**
+     * Creates the in-memory sink, enabled by default.
+     *
+     * @param properties the outbox settings
+     * @return the in-memory sink
+     */
+    @Bean
+    @ConditionalOnProperty(name = "outbox.memory.enabled", havingValue = "true", matchIfMissing = true)
+    public MemoryEventSink memoryEventSink(OutboxProperties properties) {
+        return new MemoryEventSink(properties.getMemory().getCapacity());
+    }
+
+    /**
+     * Creates the local file sink when {@code outbox.file.enabled} is set. The file is local to the
+     * node, so the sink's position is stored per node: each node's file receives the whole stream.
+     *
+     * @param properties the outbox settings
+     * @param objectMapper the mapper writing the events
+     * @return the file sink
+     * @throws IllegalStateException if no node ID is set and the host name can't be resolved
+     */
+    @Bean
+    @ConditionalOnProperty(name = "outbox.file.enabled", havingValue = "true")
+    public FileEventSink fileEventSink(OutboxProperties properties, ObjectMapper objectMapper) {
+        OutboxProperties.File file = properties.getFile();
+        String nombre = file.getName() + "@" + idNodo(file);
+        return new FileEventSink(nombre, Path.of(file.getPath()), file.isSync(), objectMapper);
+    }
+
+    private static String idNodo(OutboxProperties.File file) {
+        if (StringUtils.hasText(file.getNodeId())) {
+            return file.getNodeId();
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("No se pudo resolver el nombre del host; configure outbox.file.node-id", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.gplanet.commerce.api.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.entities.CatalogoVersion;
+
+/**
+ * Repository interface for managing the change versions (CatalogoVersion) of cached data sets.
+ * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Transactional(readOnly = true)
+public interface CatalogoVersionRepository extends JpaRepository<CatalogoVersion, String> {
+
+    /**
+     * Reads the current version of a data set.
+     * @param nombre the name of the data set
+     * @return an Optional containing the version if the data set has been registered
+     */
+    @Query("SELECT v.version FROM CatalogoVersion v WHERE v.nombre = :nombre")
+    Optional<Long> findVersionByNombre(@Param("nombre") String nombre);
+
+    /**
+     * Increments the version of a data set in the current transaction.
+     * @param nombre the name of the data set
+     * @return the number of updated rows, 0 if the data set hasn't been registered yet
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE CatalogoVersion v SET v.version = v.version + 1 WHERE v.nombre = :nombre")
+    int incrementVersion(@Param("nombre") String nombre);
+}
@@ -0,0 +1,43 @@
+package com.gplanet.commerce.api.repositories;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.entities.ClaveIdempotencia;
+
+/**
+ * Repository interface for managing the idempotency keys of purchase submissions.
+ * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Transactional(readOnly = true)
+public interface ClaveIdempotenciaRepository extends JpaRepository<ClaveIdempotencia, Long> {
+
+    /**
+     * Finds the record of a key sent by a user, through the unique index on both columns.
+     *
+     * @param usuarioId the user ID
+     * @param clave the idempotency key
+     * @return the key record, if the key was used by the user
+     */
+    Optional<ClaveIdempotencia> findByUsuarioIdAndClave(Long usuarioId, String clave);
+
+    /**
+     * Deletes the keys first used before the given date, through the index on the creation date.
+     *
+     * @param limite the oldest creation date kept
+     * @return the number of deleted keys
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ClaveIdempotencia c WHERE c.fechaCreacion < :limite")
+    int deleteByFechaCreacionBefore(LocalDateTime limite);
+}
@@ -1,24 +1,37 @@
 package com.gplanet.commerce.api.repositories;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.gplanet.commerce.api.dtos.analitica.LineaVentaProjection;
+import com.gplanet.commerce.api.dtos.compra.CompraLineaProjection;
+import com.gplanet.commerce.api.dtos.evento.EventType;
 import com.gplanet.commerce.api.entities.Compra;
 import com.gplanet.commerce.api.entities.Usuario;
 
 /**
  * Repository interface for managing Purchase (Compra) entities in the database.
- * Provides CRUD operations and custom queries for purchase-related operations.
+ * Provides CRUD operations, specification-based keyset scrolling and custom queries
+ * for purchase-related operations.
  * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
  * @author Gustavo
  * @version 1.0
  */
-public interface CompraRepository extends JpaRepository<Compra, Long> {
+@Transactional(readOnly = true)
+public interface CompraRepository extends JpaRepository<Compra, Long>, JpaSpecificationExecutor<Compra> {
     
     /**
      * Finds all purchases made by a specific user with pagination support.
@@ -38,13 +51,112 @@ public interface CompraRepository extends JpaRepository<Compra, Long> {
     Page<Compra> findByFechaBetween(LocalDateTime yesterday, LocalDateTime tomorrow, Pageable pageable);
 
     /**
-     * Finds all purchases made by a user, including their associated products, with pagination support.
-     * Uses JOIN FETCH to avoid N+1 query problems.
+     * Finds one page of purchase IDs, honoring the requested sort.
+     * @param pageable pagination information
+     * @return a page of purchase IDs
+     */
+    @Query(value = "SELECT c.id FROM Compra c",
+           countQuery = "SELECT COUNT(c) FROM Compra c")
+    Page<Long> findPageOfIds(Pageable pageable);
+
+    /**
+     * Finds one page of IDs of the purchases made by a user, honoring the requested sort.
      * @param usuarioId the ID of the user
      * @param pageable pagination information
-     * @return a page of purchases with their products
+     * @return a page of purchase IDs
+     */
+    @Query(value = "SELECT c.id FROM Compra c WHERE c.usuario.id = :usuarioId",
+           countQuery = "SELECT COUNT(c) FROM Compra c WHERE c.usuario.id = :usuarioId")
+    Page<Long> findPageOfIdsByUsuarioId(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+    /**
+     * Finds one slice of purchase IDs, honoring the requested sort, without a count query.
+     *
+     * @param pageable pagination and sort information
+     * @return a slice of purchase IDs
+     */
+    @Query("SELECT c.id FROM Compra c")
+    Slice<Long> findSliceOfIds(Pageable pageable);
+
+    /**
+     * Finds one slice of IDs of the purchases made by a user, honoring the requested sort,
+     * without a count query.
+     *
+     * @param usuarioId the ID of the user
+     * @param pageable pagination and sort information
+     * @return a slice of purchase IDs
+     */
+    @Query("SELECT c.id FROM Compra c WHERE c.usuario.id = :usuarioId")
+    Slice<Long> findSliceOfIdsByUsuarioId(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+    /**
+     * Reads the purchase history of the given purchases as flat rows, one per line item,
+     * straight into a DTO projection. Nothing is loaded into the persistence context.
+     * @param ids the purchase IDs to read
+     * @return the projection rows, ordered by line item
+     */
+    @Query("SELECT new com.gplanet.commerce.api.dtos.compra.CompraLineaProjection("
+           + "c.id, u.nombre, c.fecha, c.total, p.id, p.nombre, p.precio, cp.cantidad, cp.subtotal) "
+           + "FROM Compra c JOIN c.usuario u LEFT JOIN c.productos cp LEFT JOIN cp.producto p "
+           + "WHERE c.id IN :ids ORDER BY cp.id")
+    List<CompraLineaProjection> findLineasByCompraIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads the given purchases as flat rows for the sales rollups, one per line item.
+     * @param ids the purchase IDs to read
+     * @return the projection rows, grouped by purchase
+     */
+    @Query("SELECT new com.gplanet.commerce.api.dtos.analitica.LineaVentaProjection("
+           + "c.id, c.usuario.id, c.fecha, c.total, cp.producto.id, cp.cantidad, cp.subtotal) "
+           + "FROM Compra c LEFT JOIN c.productos cp "
+           + "WHERE c.id IN :ids ORDER BY c.id")
+    List<LineaVentaProjection> findLineasVentaByCompraIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Reads a range of purchases as flat rows for the sales rollups, one per line item, leaving out
+     * the purchases whose creation event comes after a position of the outbox stream or hasn't been
+     * sequenced yet. Those are added to the rollups when the event is delivered.
+     *
+     * @param desde the purchase ID the range starts after
+     * @param hasta the last purchase ID of the range
+     * @param posicion the last position of the outbox stream the rows account for
+     * @param tipo the type of the purchase creation event
+     * @return the projection rows, grouped by purchase
+     */
+    @Query("SELECT new com.gplanet.commerce.api.dtos.analitica.LineaVentaProjection("
+           + "c.id, c.usuario.id, c.fecha, c.total, cp.producto.id, cp.cantidad, cp.subtotal) "
+           + "FROM Compra c LEFT JOIN c.productos cp "
+           + "WHERE c.id > :desde AND c.id <= :hasta AND NOT EXISTS (SELECT e.id FROM EventoOutbox e "
+           + "WHERE e.agregadoId = c.id AND e.tipo = :tipo AND (e.posicion IS NULL OR e.posicion > :posicion)) "
+           + "ORDER BY c.id")
+    List<LineaVentaProjection> findLineasVentaHastaPosicion(@Param("desde") long desde, @Param("hasta") long hasta,
+        @Param("posicion") long posicion, @Param("tipo") EventType tipo);
+
+    /**
+     * Finds the lowest purchase ID.
+     * @return the lowest ID, null without purchases
+     */
+    @Query("SELECT MIN(c.id) FROM Compra c")
+    Long findMinId();
+
+    /**
+     * Finds the highest purchase ID.
+     * @return the highest ID, null without purchases
+     */
+    @Query("SELECT MAX(c.id) FROM Compra c")
+    Long findMaxId();
+
+    /**
+     * Finds all purchases made by a user, with pagination support.
+     * Only the buyer is fetched with the page, so the database applies the limit; fetching the
+     * line items too would make Hibernate page the joined rows in memory. The line items are
+     * loaded on first access, within the caller's transaction.
+     * @param usuarioId the ID of the user
+     * @param pageable pagination information
+     * @return a page of purchases made by the user
      */
-    @Query(value = "SELECT c FROM Compra c LEFT JOIN FETCH c.productos WHERE c.usuario.id = :usuarioId",
+    @EntityGraph(attributePaths = "usuario")
+    @Query(value = "SELECT c FROM Compra c WHERE c.usuario.id = :usuarioId",
            countQuery = "SELECT COUNT(c) FROM Compra c WHERE c.usuario.id = :usuarioId")
     Page<Compra> findAllByUsuarioIdWithProductos(@Param("usuarioId") Long usuarioId, Pageable pageable);
 }
@@ -0,0 +1,61 @@
+package com.gplanet.commerce.api.repositories;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.entities.EventoOutbox;
+
+/**
+ * Repository interface for managing the events (EventoOutbox) of the transactional outbox.
+ * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Transactional(readOnly = true)
+public interface EventoOutboxRepository extends JpaRepository<EventoOutbox, Long> {
+
+    /**
+     * Finds the committed events the relay hasn't sequenced yet, oldest first.
+     *
+     * @param limite the maximum number of events
+     * @return the events without a position, by ascending ID
+     */
+    List<EventoOutbox> findByPosicionIsNullOrderByIdAsc(Limit limite);
+
+    /**
+     * Finds the events following a position of the stream, through the unique index on the position.
+     *
+     * @param posicion the position of the last event already read
+     * @param limite the maximum number of events
+     * @return the following events, in stream order
+     */
+    List<EventoOutbox> findByPosicionGreaterThanOrderByPosicionAsc(long posicion, Limit limite);
+
+    /**
+     * Finds the highest position given to an event still kept.
+     *
+     * @return the last position, 0 if no kept event has one
+     */
+    @Query("SELECT COALESCE(MAX(e.posicion), 0) FROM EventoOutbox e")
+    long findUltimaPosicion();
+
+    /**
+     * Deletes the sequenced events up to a position that were sequenced before the given date.
+     *
+     * @param hasta the last position every durable sink has received
+     * @param limite the oldest sequencing date kept
+     * @return the number of deleted events
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EventoOutbox e WHERE e.posicion <= :hasta AND e.fechaPublicacion < :limite")
+    int deletePublicados(long hasta, LocalDateTime limite);
+}
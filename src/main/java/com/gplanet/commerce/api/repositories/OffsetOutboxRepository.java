@@ -0,0 +1,45 @@
+package com.gplanet.commerce.api.repositories;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.entities.OffsetOutbox;
+
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repository interface for managing the read positions (OffsetOutbox) of the outbox consumers.
+ * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Transactional(readOnly = true)
+public interface OffsetOutboxRepository extends JpaRepository<OffsetOutbox, String> {
+
+    /**
+     * Reads the position of a consumer and locks it until the current transaction ends,
+     * so a single node at a time moves it.
+     *
+     * @param consumidor the name of the consumer
+     * @return the locked position, if the consumer has been registered
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Transactional
+    @Query("SELECT o FROM OffsetOutbox o WHERE o.consumidor = :consumidor")
+    Optional<OffsetOutbox> findParaActualizar(String consumidor);
+
+    /**
+     * Finds the lowest position among every registered consumer but one, whichever node reads for it.
+     *
+     * @param excluido the name of the consumer left out
+     * @return the lowest position, if any other consumer has been registered
+     */
+    @Query("SELECT MIN(o.posicion) FROM OffsetOutbox o WHERE o.consumidor <> :excluido")
+    Optional<Long> findPosicionMinimaExcepto(String excluido);
+}
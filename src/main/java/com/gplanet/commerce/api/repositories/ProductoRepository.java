@@ -1,65 +1,182 @@
 package com.gplanet.commerce.api.repositories;
 
-import org.springframework.data.domain.Page;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.gplanet.commerce.api.entities.Producto;
 
 /**
  * Repository interface for managing Product (Producto) entities in the database.
- * Provides CRUD operations and custom queries for product-related operations.
+ * Provides CRUD operations, specification-based keyset scrolling and custom queries
+ * for product-related operations. Listing queries return slices and are paired with
+ * count queries, so totals are only computed when requested.
  * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
  * @author Gustavo
  * @version 1.0
  */
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+@Transactional(readOnly = true)
+public interface ProductoRepository extends JpaRepository<Producto, Long>, JpaSpecificationExecutor<Producto> {
+
+    /**
+     * Search condition on name and description shared by the search and count queries.
+     */
+    String SEARCH = "(LOWER(p.nombre) LIKE :searchTerm OR LOWER(p.descripcion) LIKE :searchTerm)";
+
+    /**
+     * WHERE clause of the active products search.
+     */
+    String ACTIVE_SEARCH = " WHERE p.activo = true AND " + SEARCH;
+
+    /**
+     * WHERE clause of the inactive products search.
+     */
+    String INACTIVE_SEARCH = " WHERE p.activo = false AND " + SEARCH;
+
+    /**
+     * WHERE clause of the search over all products.
+     */
+    String ANY_SEARCH = " WHERE " + SEARCH;
     
     /**
      * Finds all active products in the system with pagination support.
+     * The slice is read without a count query; see {@link #countByActivoTrue()}.
      * @param pageable pagination information
-     * @return a page of products where the 'activo' flag is true
+     * @return a slice of products where the 'activo' flag is true
      */
-    Page<Producto> findByActivoTrue(Pageable pageable);
+    Slice<Producto> findByActivoTrue(Pageable pageable);
 
     /**
      * Finds all non-active products in the system with pagination support.
+     * The slice is read without a count query; see {@link #countByActivoFalse()}.
      * @param pageable pagination information
-     * @return a page of products where the 'activo' flag is false
+     * @return a slice of products where the 'activo' flag is false
      */
-    Page<Producto> findByActivoFalse(Pageable pageable);
+    Slice<Producto> findByActivoFalse(Pageable pageable);
+
+    /**
+     * Finds all products (active and inactive) with pagination support, without a count query.
+     * @param pageable pagination information
+     * @return a slice of products
+     */
+    Slice<Producto> findAllBy(Pageable pageable);
+
+    /**
+     * Counts the active products.
+     * @return the number of products where the 'activo' flag is true
+     */
+    long countByActivoTrue();
+
+    /**
+     * Counts the non-active products.
+     * @return the number of products where the 'activo' flag is false
+     */
+    long countByActivoFalse();
 
     /**
      * Finds active products containing the search term in either name or description.
      * 
      * @param searchTerm The search term to match against name or description (should include % wildcards)
      * @param pageable Pagination information
-     * @return Page of Producto entities matching the criteria
+     * @return Slice of Producto entities matching the criteria
+     */
+    @Query("SELECT p FROM Producto p" + ACTIVE_SEARCH)
+    Slice<Producto> findByActivoTrueAndSearch(String searchTerm, Pageable pageable);
+
+    /**
+     * Counts the active products containing the search term in either name or description.
+     * 
+     * @param searchTerm The search term to match against name or description (should include % wildcards)
+     * @return the number of matching products
      */
-    @Query("SELECT p FROM Producto p"
-        + " WHERE p.activo = true AND (LOWER(p.nombre) LIKE :searchTerm OR LOWER(p.descripcion) LIKE :searchTerm)")
-    Page<Producto> findByActivoTrueAndSearch(String searchTerm, Pageable pageable);
+    @Query("SELECT COUNT(p) FROM Producto p" + ACTIVE_SEARCH)
+    long countByActivoTrueAndSearch(String searchTerm);
 
     /**
      * Finds inactive products containing the search term in either name or description.
      * 
      * @param searchTerm The search term to match against name or description (should include % wildcards)
      * @param pageable Pagination information
-     * @return Page of Producto entities matching the criteria
+     * @return Slice of Producto entities matching the criteria
      */
-    @Query("SELECT p FROM Producto p"
-        + " WHERE p.activo = false AND (LOWER(p.nombre) LIKE :searchTerm OR LOWER(p.descripcion) LIKE :searchTerm)")
-    Page<Producto> findByActivoFalseAndSearch(String searchTerm, Pageable pageable);
+    @Query("SELECT p FROM Producto p" + INACTIVE_SEARCH)
+    Slice<Producto> findByActivoFalseAndSearch(String searchTerm, Pageable pageable);
+
+    /**
+     * Counts the inactive products containing the search term in either name or description.
+     * 
+     * @param searchTerm The search term to match against name or description (should include % wildcards)
+     * @return the number of matching products
+     */
+    @Query("SELECT COUNT(p) FROM Producto p" + INACTIVE_SEARCH)
+    long countByActivoFalseAndSearch(String searchTerm);
 
     /**
      * Finds all products (active and inactive) containing the search term in either name or description.
      * 
      * @param searchTerm The search term to match against name or description (should include % wildcards)
      * @param pageable Pagination information
-     * @return Page of Producto entities matching the criteria
+     * @return Slice of Producto entities matching the criteria
+     */
+    @Query("SELECT p FROM Producto p" + ANY_SEARCH)
+    Slice<Producto> findBySearch(String searchTerm, Pageable pageable);
+
+    /**
+     * Counts all products (active and inactive) containing the search term in either name or description.
+     * 
+     * @param searchTerm The search term to match against name or description (should include % wildcards)
+     * @return the number of matching products
+     */
+    @Query("SELECT COUNT(p) FROM Producto p" + ANY_SEARCH)
+    long countBySearch(String searchTerm);
+
+    /**
+     * Finds all active products in ascending name order, with the database collation, then by ID.
+     * Used to load the in-memory catalog of active products, which keeps this name order.
+     *
+     * @return the products where the 'activo' flag is true
+     */
+    List<Producto> findByActivoTrueOrderByNombreAscIdAsc();
+
+    /**
+     * Finds the next batch of products after the given ID, in ascending ID order.
+     * Used to stream the catalog without offset paging.
+     *
+     * @param id the last ID of the previous batch (0 for the first batch)
+     * @param limit maximum number of products to return
+     * @return the products with an ID greater than the given one
+     */
+    List<Producto> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    /**
+     * Reads the units in stock of a product.
+     *
+     * @param id the product ID
+     * @return the units in stock, or null if the product's stock isn't tracked or it doesn't exist
+     */
+    @Query("SELECT p.stock FROM Producto p WHERE p.id = :id")
+    Integer findStockById(Long id);
+
+    /**
+     * Adds units to the stock of a product in a single relative update, unless the stock would
+     * become negative. An untracked stock is taken as zero.
+     *
+     * @param id the product ID
+     * @param cantidad the units to add, or to remove when negative
+     * @return the number of updated rows: 0 if the product doesn't exist or lacks the units to remove
      */
-    @Query("SELECT p FROM Producto p"
-        + " WHERE LOWER(p.nombre) LIKE :searchTerm OR LOWER(p.descripcion) LIKE :searchTerm")
-    Page<Producto> findBySearch(String searchTerm, Pageable pageable);
+    @Modifying
+    @Transactional
+    @Query("UPDATE Producto p SET p.stock = COALESCE(p.stock, 0) + :cantidad "
+        + "WHERE p.id = :id AND COALESCE(p.stock, 0) + :cantidad >= 0")
+    int ajustarStock(Long id, int cantidad);
 }
@@ -1,28 +1,63 @@
 package com.gplanet.commerce.api.repositories;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.gplanet.commerce.api.entities.Usuario;
 import com.gplanet.commerce.api.entities.Usuario.Role;
 
 /**
  * Repository interface for managing User (Usuario) entities in the database.
- * Provides CRUD operations and custom queries for user-related operations.
+ * Provides CRUD operations, specification-based keyset scrolling and custom queries
+ * for user-related operations.
  * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
  * @author Gustavo
  * @version 1.0
  */
-public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+@Transactional(readOnly = true)
+public interface UsuarioRepository extends JpaRepository<Usuario, Long>, JpaSpecificationExecutor<Usuario> {
     
+    /**
+     * Finds all users with pagination support, without a count query.
+     * @param pageable pagination information
+     * @return a slice of users
+     */
+    Slice<Usuario> findAllBy(Pageable pageable);
+
     /**
      * Finds a user by the email address.
      * @param email the email address to search for
      * @return an Optional containing the user if found
      */
     Optional<Usuario> findByEmail(String email);
+
+    /**
+     * Finds a user by the email address to check their credentials. Runs in a read-write
+     * transaction, so it is read from the primary database: a lagging replica could miss a user
+     * who just registered, or still return the password hash or role just replaced.
+     * @param email the email address to search for
+     * @return an Optional containing the user if found
+     */
+    @Transactional
+    @Query("SELECT u FROM Usuario u WHERE u.email = :email")
+    Optional<Usuario> findParaAutenticar(String email);
+
+    /**
+     * Finds the users with the given email addresses in a single query.
+     * @param emails the email addresses to search for
+     * @return the users found
+     */
+    List<Usuario> findByEmailIn(Collection<String> emails);
     
     /**
      * Checks if a user with the given email exists.
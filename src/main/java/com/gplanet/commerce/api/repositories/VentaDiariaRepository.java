@@ -0,0 +1,50 @@
+package com.gplanet.commerce.api.repositories;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.dtos.analitica.TotalesVentasProjection;
+import com.gplanet.commerce.api.dtos.analitica.VentaDiariaDTO;
+import com.gplanet.commerce.api.entities.VentaDiaria;
+
+/**
+ * Repository interface for managing the daily sales rollup (VentaDiaria).
+ * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Transactional(readOnly = true)
+public interface VentaDiariaRepository extends JpaRepository<VentaDiaria, LocalDate> {
+
+    /**
+     * Reads the sales of a range of days through the primary key, straight into a DTO projection.
+     * Days without purchases have no row.
+     *
+     * @param desde the first day, inclusive
+     * @param hasta the last day, inclusive
+     * @return the sales of the days with purchases, by ascending day
+     */
+    @Query("SELECT new com.gplanet.commerce.api.dtos.analitica.VentaDiariaDTO("
+           + "v.fecha, v.compras, v.unidades, v.ingresos) "
+           + "FROM VentaDiaria v WHERE v.fecha BETWEEN :desde AND :hasta ORDER BY v.fecha")
+    List<VentaDiariaDTO> findVentasEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    /**
+     * Adds up the sales of a range of days.
+     *
+     * @param desde the first day, inclusive
+     * @param hasta the last day, inclusive
+     * @return the sums, zero when there were no purchases
+     */
+    @Query("SELECT new com.gplanet.commerce.api.dtos.analitica.TotalesVentasProjection("
+           + "COALESCE(SUM(v.compras), 0L), COALESCE(SUM(v.unidades), 0L), COALESCE(SUM(v.ingresos), 0.00BD)) "
+           + "FROM VentaDiaria v WHERE v.fecha BETWEEN :desde AND :hasta")
+    TotalesVentasProjection sumarEntre(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+}
@@ -0,0 +1,36 @@
+package com.gplanet.commerce.api.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.dtos.analitica.VentaProductoDTO;
+import com.gplanet.commerce.api.entities.VentaProducto;
+
+/**
+ * Repository interface for managing the per-product sales rollup (VentaProducto).
+ * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Transactional(readOnly = true)
+public interface VentaProductoRepository extends JpaRepository<VentaProducto, Long> {
+
+    /**
+     * Reads the first products of the rollup in the given order, with their current name.
+     *
+     * @param sort the order, on the rollup's properties
+     * @param limite the maximum number of products
+     * @return the sales of the first products
+     */
+    @Query("SELECT new com.gplanet.commerce.api.dtos.analitica.VentaProductoDTO("
+           + "v.productoId, p.nombre, v.compras, v.unidades, v.ingresos) "
+           + "FROM VentaProducto v LEFT JOIN Producto p ON p.id = v.productoId")
+    List<VentaProductoDTO> findRanking(Sort sort, Limit limite);
+}
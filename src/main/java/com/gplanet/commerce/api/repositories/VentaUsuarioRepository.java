@@ -0,0 +1,36 @@
+package com.gplanet.commerce.api.repositories;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.dtos.analitica.VentaUsuarioDTO;
+import com.gplanet.commerce.api.entities.VentaUsuario;
+
+/**
+ * Repository interface for managing the per-customer sales rollup (VentaUsuario).
+ * 
+ * <p>Query methods run in a read-only transaction unless the caller already has one.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Transactional(readOnly = true)
+public interface VentaUsuarioRepository extends JpaRepository<VentaUsuario, Long> {
+
+    /**
+     * Reads the customers with the highest revenue through the index on it, with their current
+     * name and email.
+     *
+     * @param limite the maximum number of customers
+     * @return the sales of the best customers, highest revenue first
+     */
+    @Query("SELECT new com.gplanet.commerce.api.dtos.analitica.VentaUsuarioDTO("
+           + "v.usuarioId, u.nombre, u.email, v.compras, v.unidades, v.ingresos) "
+           + "FROM VentaUsuario v LEFT JOIN Usuario u ON u.id = v.usuarioId "
+           + "ORDER BY v.ingresos DESC, v.usuarioId")
+    List<VentaUsuarioDTO> findRanking(Limit limite);
+}
@@ -0,0 +1,615 @@
+package com.gplanet.commerce.api.search;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.DoubleDocValuesField;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopFieldCollectorManager;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.gplanet.commerce.api.configs.app.props.ProductoSearchProperties;
+import com.gplanet.commerce.api.dtos.producto.ProductStatus;
+import com.gplanet.commerce.api.entities.Producto;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Embedded Lucene inverted index over product names and descriptions.
+ *
+ * <p>Searches are ranked by relevance (BM25, name matches weighted above description
+ * matches) or sorted by any of the product sort fields using doc values, and only
+ * return product IDs; the caller loads the entities for the requested page.</p>
+ *
+ * <p>The index is built from the database at startup and kept in sync with the writes of
+ * this node by {@link ProductoSearchIndexListener}. Each build records the outbox position and
+ * the shared catalog version it was read at. {@link ProductoSearchIndexInitializer} then applies
+ * the product changes of other nodes one product at a time from the outbox, through
+ * {@link #aplicar}, and only builds the index again when it can't: the events it needs were
+ * purged, an update failed, or the outbox is disabled and another node changed the catalog
+ * version. The versions of the writes of this node are recorded through
+ * {@link #registrarVersionLocal}, so they don't count as changes of another node.</p>
+ *
+ * <p>A rebuild writes a new index while the current one keeps serving searches and receiving
+ * the writes of this node, which are replayed on the new index before it is swapped in. Until
+ * the first build completes, or after a failed update, {@link #search} returns an empty result
+ * so callers fall back to the database.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Component
+public class ProductoSearchIndex {
+
+    /**
+     * Sort property that orders search results by relevance.
+     */
+    public static final String RELEVANCE_SORT = "relevance";
+
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NOMBRE = "nombre";
+    private static final String FIELD_DESCRIPCION = "descripcion";
+    private static final String FIELD_ACTIVO = "activo";
+    private static final String SORT_ID = "id_sort";
+    private static final String SORT_NOMBRE = "nombre_sort";
+    private static final String SORT_PRECIO = "precio_sort";
+    private static final String SORT_FECHA = "fecha_creacion_sort";
+
+    private static final float NOMBRE_BOOST = 3.0f;
+    private static final float PREFIX_BOOST = 0.5f;
+
+    private final boolean enabled;
+    private final int maxResultWindow;
+    private final Analyzer analyzer = new SpanishFoldingAnalyzer();
+    private final Path indexPath;
+    // Held while the new index is written, which may take a while
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    private final ReentrantLock escritura = new ReentrantLock();
+    // Guarded by escritura: catalog versions of local writes above the indexed version
+    private final NavigableSet<Long> versionesLocales = new TreeSet<>();
+    // Guarded by escritura: local changes made while a rebuild runs, a null document for a removal
+    private Map<Long, Document> cambiosDuranteRebuild;
+    // Guarded by escritura: number of the index serving searches
+    private int generacion;
+    private volatile Indice indice;
+    private volatile boolean ready;
+    private volatile long indexedVersion = -1;
+    private volatile long posicionAplicada = -1;
+
+    /**
+     * Opens an empty index in memory or at the configured path.
+     *
+     * @param properties the search settings
+     * @throws IOException if the index directory cannot be opened
+     */
+    public ProductoSearchIndex(ProductoSearchProperties properties) throws IOException {
+        this.enabled = properties.isEnabled();
+        this.maxResultWindow = properties.getMaxResultWindow();
+        if (StringUtils.hasText(properties.getIndexPath())) {
+            this.indexPath = Path.of(properties.getIndexPath());
+        } else {
+            this.indexPath = null;
+        }
+        this.indice = abrir(0);
+    }
+
+    /**
+     * Indicates whether the index is complete and can serve searches.
+     *
+     * @return true once a rebuild has completed and no update has failed since
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the shared catalog version the index reflects: the one the last completed rebuild
+     * was read at, moved forward by the local writes applied since.
+     *
+     * @return the indexed catalog version, or -1 before the first rebuild
+     */
+    public long getIndexedVersion() {
+        return indexedVersion;
+    }
+
+    /**
+     * Returns the position of the last outbox event the index reflects.
+     *
+     * @return the applied outbox position, or -1 before the first rebuild
+     */
+    public long getPosicionAplicada() {
+        return posicionAplicada;
+    }
+
+    /**
+     * Builds a new index from the products returned by the batch loader and swaps it in for the
+     * current one, which keeps serving searches meanwhile. Products are read in ascending ID
+     * order, one batch at a time, until an empty batch is returned.
+     *
+     * @param version the shared catalog version read before the first batch
+     * @param posicion the last sequenced outbox position, read before the first batch
+     * @param batchLoader returns the next batch of products with an ID greater than the given one
+     * @return the number of indexed products
+     * @throws IOException if the index cannot be written
+     */
+    public long rebuild(long version, long posicion, LongFunction<List<Producto>> batchLoader) throws IOException {
+        reconstruccion.lock();
+        Indice nuevo = null;
+        try {
+            escritura.lock();
+            try {
+                nuevo = abrir(generacion + 1);
+                cambiosDuranteRebuild = new HashMap<>();
+            } finally {
+                escritura.unlock();
+            }
+            long total = 0;
+            List<Producto> batch = batchLoader.apply(0L);
+            while (!batch.isEmpty()) {
+                for (Producto producto : batch) {
+                    nuevo.writer().addDocument(toDocument(producto));
+                }
+                total += batch.size();
+                batch = batchLoader.apply(batch.get(batch.size() - 1).getId());
+            }
+            nuevo.writer().commit();
+            Indice anterior = sustituir(nuevo, version, posicion);
+            nuevo = null;
+            cerrar(anterior);
+            return total;
+        } finally {
+            terminarRebuild(nuevo);
+            reconstruccion.unlock();
+        }
+    }
+
+    /**
+     * Replays on the new index the local changes made while it was written, since the batch
+     * a product was read in may predate them, and swaps it in.
+     *
+     * @return the replaced index, to be closed by the caller
+     */
+    private Indice sustituir(Indice nuevo, long version, long posicion) throws IOException {
+        escritura.lock();
+        try {
+            for (Map.Entry<Long, Document> cambio : cambiosDuranteRebuild.entrySet()) {
+                aplicar(nuevo.writer(), cambio.getKey(), cambio.getValue());
+            }
+            nuevo.searcherManager().maybeRefreshBlocking();
+            Indice anterior = indice;
+            indice = nuevo;
+            generacion++;
+            versionesLocales.headSet(version, true).clear();
+            indexedVersion = avanzarVersion(version);
+            posicionAplicada = posicion;
+            ready = enabled;
+            return anterior;
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    private void terminarRebuild(Indice descartado) {
+        escritura.lock();
+        try {
+            cambiosDuranteRebuild = null;
+        } finally {
+            escritura.unlock();
+        }
+        if (descartado != null) {
+            cerrar(descartado);
+        }
+    }
+
+    /**
+     * Builds the index document for a product. Called when the change happens,
+     * so the document reflects the product state at that moment.
+     *
+     * @param producto the product to index
+     * @return the Lucene document
+     */
+    public Document toDocument(Producto producto) {
+        Document document = new Document();
+        document.add(new StringField(FIELD_ID, producto.getId().toString(), Field.Store.YES));
+        document.add(new NumericDocValuesField(SORT_ID, producto.getId()));
+        document.add(new StringField(FIELD_ACTIVO, String.valueOf(producto.isActivo()), Field.Store.NO));
+        if (producto.getNombre() != null) {
+            document.add(new TextField(FIELD_NOMBRE, producto.getNombre(), Field.Store.NO));
+            document.add(new SortedDocValuesField(SORT_NOMBRE,
+                new BytesRef(producto.getNombre().toLowerCase(Locale.ROOT))));
+        }
+        if (producto.getDescripcion() != null) {
+            document.add(new TextField(FIELD_DESCRIPCION, producto.getDescripcion(), Field.Store.NO));
+        }
+        if (producto.getPrecio() != null) {
+            document.add(new DoubleDocValuesField(SORT_PRECIO, producto.getPrecio().doubleValue()));
+        }
+        if (producto.getFechaCreacion() != null) {
+            document.add(new NumericDocValuesField(SORT_FECHA,
+                producto.getFechaCreacion().toInstant(ZoneOffset.UTC).toEpochMilli()));
+        }
+        return document;
+    }
+
+    /**
+     * Adds or replaces the document of a product and makes it visible to searches.
+     *
+     * @param id the product ID
+     * @param document the document built by {@link #toDocument(Producto)}
+     */
+    public void update(Long id, Document document) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            escribir(Map.of(id, document));
+        } catch (IOException | RuntimeException e) {
+            markStale("product " + id, e);
+        }
+    }
+
+    /**
+     * Removes the document of a product and makes the removal visible to searches.
+     *
+     * @param id the product ID
+     */
+    public void delete(Long id) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Map<Long, Document> cambio = new HashMap<>();
+            cambio.put(id, null);
+            escribir(cambio);
+        } catch (IOException | RuntimeException e) {
+            markStale("product " + id, e);
+        }
+    }
+
+    /**
+     * Applies the changes of other nodes read from the outbox and makes them visible to searches.
+     *
+     * @param documentos the document of each changed product, null for a product that no longer exists
+     * @param posicion the position of the last outbox event the changes cover
+     */
+    public void aplicar(Map<Long, Document> documentos, long posicion) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            escribir(documentos);
+            posicionAplicada = posicion;
+        } catch (IOException | RuntimeException e) {
+            markStale("the outbox events up to position " + posicion, e);
+        }
+    }
+
+    /**
+     * Records the shared catalog version a write of this node committed at. Once the writes of
+     * every version up to it are recorded, the index reflects it without a rebuild.
+     *
+     * @param version the catalog version after the write
+     */
+    public void registrarVersionLocal(long version) {
+        escritura.lock();
+        try {
+            if (version > indexedVersion) {
+                versionesLocales.add(version);
+                indexedVersion = avanzarVersion(indexedVersion);
+            }
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    /**
+     * Searches product names and descriptions.
+     *
+     * @param text the user's search text
+     * @param status the product status to filter by
+     * @param pageable the requested page and sort
+     * @return a page of matching product IDs in result order, or empty if the index
+     *         can't serve this request (not ready, unsupported sort, no searchable terms
+     *         or a page beyond the result window)
+     */
+    public Optional<Page<Long>> search(String text, ProductStatus status, Pageable pageable) {
+        if (!ready) {
+            return Optional.empty();
+        }
+        org.apache.lucene.search.Sort sort = toLuceneSort(pageable.getSort());
+        Query query = buildQuery(text, status);
+        long window = pageable.getOffset() + pageable.getPageSize();
+        if (sort == null || query == null || window > maxResultWindow) {
+            return Optional.empty();
+        }
+
+        SearcherManager searcherManager = indice.searcherManager();
+        IndexSearcher searcher = null;
+        try {
+            searcher = searcherManager.acquire();
+            TopFieldDocs topDocs = searcher.search(query,
+                new TopFieldCollectorManager(sort, (int) window, null, Integer.MAX_VALUE));
+            StoredFields storedFields = searcher.storedFields();
+            ScoreDoc[] hits = topDocs.scoreDocs;
+            List<Long> ids = new ArrayList<>(pageable.getPageSize());
+            for (int i = (int) pageable.getOffset(); i < hits.length; i++) {
+                ids.add(Long.valueOf(storedFields.document(hits[i].doc, Set.of(FIELD_ID)).get(FIELD_ID)));
+            }
+            return Optional.of(new PageImpl<>(ids, pageable, topDocs.totalHits.value));
+        } catch (AlreadyClosedException e) {
+            // A rebuild swapped the index while the search was running
+            return Optional.empty();
+        } catch (IOException e) {
+            log.error("Product search index query failed, falling back to database: {}", e.getMessage());
+            return Optional.empty();
+        } finally {
+            release(searcherManager, searcher);
+        }
+    }
+
+    /**
+     * Closes the index when the application shuts down.
+     *
+     * @throws IOException if the index cannot be closed cleanly
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        ready = false;
+        indice.close();
+    }
+
+    /**
+     * Builds the query: every search term must match the name or the description,
+     * either exactly or as a prefix, optionally filtered by status.
+     *
+     * @param text the user's search text
+     * @param status the product status to filter by
+     * @return the query, or null if the text contains no searchable terms
+     */
+    private Query buildQuery(String text, ProductStatus status) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String term : terms) {
+            Query termQuery = new BooleanQuery.Builder()
+                .add(new BoostQuery(new TermQuery(new Term(FIELD_NOMBRE, term)), NOMBRE_BOOST),
+                    BooleanClause.Occur.SHOULD)
+                .add(new TermQuery(new Term(FIELD_DESCRIPCION, term)), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(new Term(FIELD_NOMBRE, term)), PREFIX_BOOST),
+                    BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(new PrefixQuery(new Term(FIELD_DESCRIPCION, term)), PREFIX_BOOST),
+                    BooleanClause.Occur.SHOULD)
+                .build();
+            query.add(termQuery, BooleanClause.Occur.MUST);
+        }
+
+        switch (status) {
+            case ACTIVE:
+                query.add(new TermQuery(new Term(FIELD_ACTIVO, "true")), BooleanClause.Occur.FILTER);
+                break;
+            case INACTIVE:
+                query.add(new TermQuery(new Term(FIELD_ACTIVO, "false")), BooleanClause.Occur.FILTER);
+                break;
+            default:
+                break;
+        }
+        return query.build();
+    }
+
+    /**
+     * Runs the search text through the index analyzer.
+     *
+     * @param text the user's search text
+     * @return the distinct analyzed terms, in order
+     */
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(FIELD_NOMBRE, text)) {
+            CharTermAttribute attribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                String term = attribute.toString();
+                if (!terms.contains(term)) {
+                    terms.add(term);
+                }
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    /**
+     * Translates the requested sort into a Lucene sort backed by doc values.
+     * Ties are broken by product ID so paging is stable.
+     *
+     * @param sort the requested sort
+     * @return the Lucene sort, or null if a sort property isn't indexed
+     */
+    private org.apache.lucene.search.Sort toLuceneSort(Sort sort) {
+        List<SortField> fields = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            boolean reverse = order.isDescending();
+            switch (order.getProperty()) {
+                case RELEVANCE_SORT -> fields.add(SortField.FIELD_SCORE);
+                case "nombre" -> fields.add(new SortField(SORT_NOMBRE, SortField.Type.STRING, reverse));
+                case "precio" -> fields.add(new SortField(SORT_PRECIO, SortField.Type.DOUBLE, reverse));
+                case "fechaCreacion" -> fields.add(new SortField(SORT_FECHA, SortField.Type.LONG, reverse));
+                case "id" -> fields.add(new SortField(SORT_ID, SortField.Type.LONG, reverse));
+                default -> {
+                    return null;
+                }
+            }
+        }
+        if (fields.isEmpty()) {
+            fields.add(SortField.FIELD_SCORE);
+        }
+        fields.add(new SortField(SORT_ID, SortField.Type.LONG));
+        return new org.apache.lucene.search.Sort(fields.toArray(SortField[]::new));
+    }
+
+    /**
+     * Applies product changes to the current index, recording them so a running rebuild
+     * replays them on the index it is writing.
+     *
+     * @param documentos the document of each changed product, null for a removal
+     */
+    private void escribir(Map<Long, Document> documentos) throws IOException {
+        escritura.lock();
+        try {
+            if (cambiosDuranteRebuild != null) {
+                cambiosDuranteRebuild.putAll(documentos);
+            }
+            Indice actual = indice;
+            for (Map.Entry<Long, Document> cambio : documentos.entrySet()) {
+                aplicar(actual.writer(), cambio.getKey(), cambio.getValue());
+            }
+            actual.searcherManager().maybeRefreshBlocking();
+        } finally {
+            escritura.unlock();
+        }
+    }
+
+    private static void aplicar(IndexWriter writer, Long id, Document document) throws IOException {
+        if (document == null) {
+            writer.deleteDocuments(idTerm(id));
+        } else {
+            writer.updateDocument(idTerm(id), document);
+        }
+    }
+
+    /**
+     * Moves a catalog version forward over the consecutive versions of local writes.
+     * Must be called holding the write lock.
+     *
+     * @param version the version to start from
+     * @return the last version reached
+     */
+    private long avanzarVersion(long version) {
+        long actual = version;
+        while (versionesLocales.remove(actual + 1)) {
+            actual++;
+        }
+        return actual;
+    }
+
+    /**
+     * Opens an empty index. On disk, consecutive indexes alternate between two subdirectories
+     * of the index path, so the one being written never overwrites the one serving searches.
+     *
+     * @param numero the number of the index, counting every index swapped in
+     * @return the new index
+     * @throws IOException if the index directory cannot be opened
+     */
+    private Indice abrir(int numero) throws IOException {
+        Directory directory;
+        if (indexPath != null) {
+            directory = FSDirectory.open(indexPath.resolve(String.valueOf(numero % 2)));
+        } else {
+            directory = new ByteBuffersDirectory();
+        }
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE);
+        IndexWriter writer = new IndexWriter(directory, config);
+        return new Indice(directory, writer, new SearcherManager(writer, null));
+    }
+
+    private static void cerrar(Indice descartado) {
+        try {
+            descartado.close();
+        } catch (IOException e) {
+            log.warn("Could not close discarded product index: {}", e.getMessage());
+        }
+    }
+
+    private static void release(SearcherManager searcherManager, IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Could not release product index searcher: {}", e.getMessage());
+        }
+    }
+
+    private void markStale(String cambio, Exception e) {
+        ready = false;
+        log.error("Product search index update failed for {}, searches fall back to the database "
+            + "until the next rebuild: {}", cambio, e.getMessage());
+    }
+
+    private static Term idTerm(Long id) {
+        return new Term(FIELD_ID, id.toString());
+    }
+
+    /**
+     * An open index with its writer and the searchers over it.
+     *
+     * @param directory the directory holding the index
+     * @param writer the writer of the index
+     * @param searcherManager the near-real-time searchers of the writer
+     */
+    private record Indice(Directory directory, IndexWriter writer, SearcherManager searcherManager)
+            implements Closeable {
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(searcherManager, writer, directory);
+        }
+    }
+}
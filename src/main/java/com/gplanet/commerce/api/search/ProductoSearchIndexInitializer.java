@@ -0,0 +1,187 @@
+package com.gplanet.commerce.api.search;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.lucene.document.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.gplanet.commerce.api.cache.ProductoCatalogCache;
+import com.gplanet.commerce.api.configs.app.props.OutboxProperties;
+import com.gplanet.commerce.api.configs.app.props.ProductoSearchProperties;
+import com.gplanet.commerce.api.dtos.evento.EventType;
+import com.gplanet.commerce.api.entities.EventoOutbox;
+import com.gplanet.commerce.api.entities.OffsetOutbox;
+import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.outbox.OutboxRelay;
+import com.gplanet.commerce.api.repositories.CatalogoVersionRepository;
+import com.gplanet.commerce.api.repositories.EventoOutboxRepository;
+import com.gplanet.commerce.api.repositories.OffsetOutboxRepository;
+import com.gplanet.commerce.api.repositories.ProductoRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Builds the product search index from the database once the application is ready, and keeps
+ * it in sync with the writes made through other nodes sharing the database.
+ *
+ * <p>Every {@code refresh-interval}, a background thread reads the outbox events sequenced since
+ * the position the index reflects and re-indexes the products they changed, so the writes of
+ * other nodes reach this node's index within that interval. The index is only built again when
+ * it isn't ready, or when the events it needs were purged from the outbox. With the outbox
+ * disabled, it is built again whenever the shared catalog version moves past the one it
+ * reflects. The current index keeps serving searches while a new one is built.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductoSearchIndexInitializer {
+
+    private static final Set<EventType> CAMBIOS_INDEXADOS =
+        Set.of(EventType.PRODUCT_CREATED, EventType.PRODUCT_UPDATED, EventType.PRODUCT_DEACTIVATED);
+
+    private final ProductoSearchIndex searchIndex;
+    private final ProductoRepository productoRepository;
+    private final CatalogoVersionRepository catalogoVersionRepository;
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final OffsetOutboxRepository offsetOutboxRepository;
+    private final ProductoSearchProperties properties;
+    private final OutboxProperties outboxProperties;
+    private final ReentrantLock refresco = new ReentrantLock();
+    private ScheduledExecutorService executor;
+
+    /**
+     * Starts the index rebuild and the version checks when the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        if (!properties.isEnabled()) {
+            log.info("Product search index disabled, searches use the database");
+            return;
+        }
+        executor = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("producto-index-refresh").daemon().factory());
+        executor.scheduleWithFixedDelay(this::refresh, 0,
+            properties.getRefreshInterval().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies the catalog changes made through other nodes since the last refresh, rebuilding
+     * the index when they can't be applied one by one or when it isn't ready because the last
+     * rebuild or update failed. Concurrent calls run one after the other.
+     */
+    public void refresh() {
+        refresco.lock();
+        try {
+            // Read before the products, so a change made during the rebuild is applied afterwards
+            long version = catalogoVersionRepository
+                .findVersionByNombre(ProductoCatalogCache.CATALOG_VERSION).orElse(0L);
+            long posicion = posicionSecuenciada();
+            if (searchIndex.isReady() && alDia(version, posicion)) {
+                return;
+            }
+            rebuild(version, posicion);
+        } catch (RuntimeException e) {
+            log.error("Product search index refresh failed, searches use the database: {}", e.getMessage());
+        } finally {
+            refresco.unlock();
+        }
+    }
+
+    /**
+     * Brings the index up to date without a rebuild, if possible.
+     *
+     * @param version the current shared catalog version
+     * @param posicion the last sequenced outbox position
+     * @return true if the index reflects the catalog, false if it must be rebuilt
+     */
+    private boolean alDia(long version, long posicion) {
+        if (!outboxProperties.isEnabled()) {
+            return searchIndex.getIndexedVersion() == version;
+        }
+        Limit batchSize = Limit.of(properties.getRebuildBatchSize());
+        long aplicada = searchIndex.getPosicionAplicada();
+        while (aplicada < posicion) {
+            List<EventoOutbox> eventos = eventoOutboxRepository
+                .findByPosicionGreaterThanOrderByPosicionAsc(aplicada, batchSize);
+            if (eventos.isEmpty() || eventos.get(0).getPosicion() != aplicada + 1) {
+                log.info("Outbox events after position {} were purged, rebuilding the product search index",
+                    aplicada);
+                return false;
+            }
+            aplicada = aplicar(eventos);
+            if (!searchIndex.isReady()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Re-indexes the products changed by a batch of outbox events, reading their current state.
+     *
+     * @param eventos the events, in stream order
+     * @return the position of the last event of the batch
+     */
+    private long aplicar(List<EventoOutbox> eventos) {
+        Map<Long, Document> documentos = new HashMap<>();
+        for (EventoOutbox evento : eventos) {
+            if (CAMBIOS_INDEXADOS.contains(evento.getTipo())) {
+                documentos.put(evento.getAgregadoId(), null);
+            }
+        }
+        for (Producto producto : productoRepository.findAllById(documentos.keySet())) {
+            documentos.put(producto.getId(), searchIndex.toDocument(producto));
+        }
+        long posicion = eventos.get(eventos.size() - 1).getPosicion();
+        searchIndex.aplicar(documentos, posicion);
+        return posicion;
+    }
+
+    private long posicionSecuenciada() {
+        if (!outboxProperties.isEnabled()) {
+            return 0;
+        }
+        return offsetOutboxRepository.findById(OutboxRelay.SECUENCIADOR)
+            .map(OffsetOutbox::getPosicion)
+            .orElse(0L);
+    }
+
+    private void rebuild(long version, long posicion) {
+        long start = System.currentTimeMillis();
+        Limit batchSize = Limit.of(properties.getRebuildBatchSize());
+        try {
+            long total = searchIndex.rebuild(version, posicion, lastId ->
+                productoRepository.findByIdGreaterThanOrderByIdAsc(lastId, batchSize));
+            log.info("Product search index rebuilt with {} products at catalog version {} and outbox position {} "
+                + "in {} ms", total, version, posicion, System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            log.error("Product search index rebuild failed, searches use the database: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops the version checks.
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.gplanet.commerce.api.search;
+
+import org.apache.lucene.document.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gplanet.commerce.api.entities.Producto;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that keeps the {@link ProductoSearchIndex} in sync with product writes.
+ *
+ * <p>The index document is built when Hibernate flushes the change but only applied once the
+ * surrounding transaction commits, so rolled back changes never become searchable. Being an
+ * entity listener, it also covers writes made directly through the repository.</p>
+ *
+ * <p>Instantiated by Hibernate through Spring's bean container; the index is looked up lazily
+ * so the listener is a no-op in slices (such as JPA tests) that don't define it.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public class ProductoSearchIndexListener {
+
+    private final ObjectProvider<ProductoSearchIndex> searchIndex;
+
+    /**
+     * Constructs the listener.
+     *
+     * @param searchIndex lazy provider of the product search index
+     */
+    public ProductoSearchIndexListener(ObjectProvider<ProductoSearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    /**
+     * Indexes a created or updated product after commit.
+     *
+     * @param producto the saved product
+     */
+    @PostPersist
+    @PostUpdate
+    public void onSaved(Producto producto) {
+        ProductoSearchIndex index = searchIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        Long id = producto.getId();
+        Document document = index.toDocument(producto);
+        afterCommit(() -> index.update(id, document));
+    }
+
+    /**
+     * Removes a deleted product from the index after commit.
+     *
+     * @param producto the removed product
+     */
+    @PostRemove
+    public void onRemoved(Producto producto) {
+        ProductoSearchIndex index = searchIndex.getIfAvailable();
+        if (index == null) {
+            return;
+        }
+        Long id = producto.getId();
+        afterCommit(() -> index.delete(id));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.gplanet.commerce.api.search;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.es.SpanishAnalyzer;
+import org.apache.lucene.analysis.es.SpanishLightStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+
+/**
+ * Lucene analyzer for Spanish product text.
+ * Lowercases, removes Spanish stop words, folds accents and applies light stemming,
+ * so "Portátiles", "portatil" and "PORTÁTIL" all produce the same term.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public final class SpanishFoldingAnalyzer extends Analyzer {
+
+    /**
+     * Builds the tokenizer and filter chain used for both indexing and querying.
+     *
+     * @param fieldName the field being analyzed
+     * @return the token stream components
+     */
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        Tokenizer source = new StandardTokenizer();
+        TokenStream result = new LowerCaseFilter(source);
+        result = new StopFilter(result, SpanishAnalyzer.getDefaultStopSet());
+        result = new ASCIIFoldingFilter(result);
+        result = new SpanishLightStemFilter(result);
+        return new TokenStreamComponents(source, result);
+    }
+
+    /**
+     * Normalizes terms that are not tokenized, such as prefix query terms.
+     *
+     * @param fieldName the field being normalized
+     * @param in the input token stream
+     * @return the lowercased, accent-folded token stream
+     */
+    @Override
+    protected TokenStream normalize(String fieldName, TokenStream in) {
+        return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+    }
+}
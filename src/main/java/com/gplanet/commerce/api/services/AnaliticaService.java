@@ -0,0 +1,143 @@
+package com.gplanet.commerce.api.services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.analytics.RollupRebuildJob;
+import com.gplanet.commerce.api.dtos.analitica.ReconstruccionDTO;
+import com.gplanet.commerce.api.dtos.analitica.ResumenVentasDTO;
+import com.gplanet.commerce.api.dtos.analitica.SalesRanking;
+import com.gplanet.commerce.api.dtos.analitica.TotalesVentasProjection;
+import com.gplanet.commerce.api.dtos.analitica.VentaDiariaDTO;
+import com.gplanet.commerce.api.dtos.analitica.VentaProductoDTO;
+import com.gplanet.commerce.api.dtos.analitica.VentaUsuarioDTO;
+import com.gplanet.commerce.api.exceptions.InvalidDateRangeException;
+import com.gplanet.commerce.api.repositories.VentaDiariaRepository;
+import com.gplanet.commerce.api.repositories.VentaProductoRepository;
+import com.gplanet.commerce.api.repositories.VentaUsuarioRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service class that reads the sales analytics for administrators.
+ * Every figure comes from the rollups kept by {@link com.gplanet.commerce.api.analytics.RollupEventSink},
+ * whose rows grow with the days, products and customers but not with the purchases, so no
+ * read goes through the purchases or their line items. The rollups follow the purchases
+ * committed with the delay of the outbox relay.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnaliticaService {
+
+    private final VentaDiariaRepository ventaDiariaRepository;
+    private final VentaProductoRepository ventaProductoRepository;
+    private final VentaUsuarioRepository ventaUsuarioRepository;
+    private final RollupRebuildJob rollupRebuildJob;
+
+    /**
+     * Retrieves the sales of each day of a range.
+     *
+     * @param desde the first day, inclusive
+     * @param hasta the last day, inclusive
+     * @return the sales of the days with purchases, by ascending day
+     * @throws InvalidDateRangeException if the range ends before it starts
+     */
+    @Transactional(readOnly = true)
+    public List<VentaDiariaDTO> ventasDiarias(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        log.debug("Reading daily sales from {} to {}", desde, hasta);
+        return ventaDiariaRepository.findVentasEntre(desde, hasta);
+    }
+
+    /**
+     * Retrieves the sales totals of a range of days and the average basket.
+     *
+     * @param desde the first day, inclusive
+     * @param hasta the last day, inclusive
+     * @return the totals of the range, with the average total and units of a purchase
+     * @throws InvalidDateRangeException if the range ends before it starts
+     */
+    @Transactional(readOnly = true)
+    public ResumenVentasDTO resumen(LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        log.debug("Reading sales summary from {} to {}", desde, hasta);
+        TotalesVentasProjection totales = ventaDiariaRepository.sumarEntre(desde, hasta);
+        BigDecimal ticketMedio = BigDecimal.ZERO.setScale(2);
+        BigDecimal unidadesPorCompra = BigDecimal.ZERO.setScale(2);
+        if (totales.compras() > 0) {
+            BigDecimal compras = BigDecimal.valueOf(totales.compras());
+            ticketMedio = totales.ingresos().divide(compras, 2, RoundingMode.HALF_UP);
+            unidadesPorCompra = BigDecimal.valueOf(totales.unidades()).divide(compras, 2, RoundingMode.HALF_UP);
+        }
+        return new ResumenVentasDTO(desde, hasta, totales.compras(), totales.unidades(), totales.ingresos(),
+            ticketMedio, unidadesPorCompra);
+    }
+
+    /**
+     * Retrieves the best selling products since the first purchase.
+     *
+     * @param orden whether the products are ranked by revenue or by units sold
+     * @param limite the maximum number of products
+     * @return the sales of the first products in the ranking
+     */
+    @Transactional(readOnly = true)
+    public List<VentaProductoDTO> productosMasVendidos(SalesRanking orden, int limite) {
+        log.debug("Reading top {} products by {}", limite, orden);
+        String propiedad = "ingresos";
+        if (orden == SalesRanking.UNITS) {
+            propiedad = "unidades";
+        }
+        Sort sort = Sort.by(Sort.Direction.DESC, propiedad).and(Sort.by("productoId"));
+        return ventaProductoRepository.findRanking(sort, Limit.of(limite));
+    }
+
+    /**
+     * Retrieves the customers with the highest revenue since the first purchase.
+     *
+     * @param limite the maximum number of customers
+     * @return the sales of the best customers, highest revenue first
+     */
+    @Transactional(readOnly = true)
+    public List<VentaUsuarioDTO> mejoresClientes(int limite) {
+        log.debug("Reading top {} customers by revenue", limite);
+        return ventaUsuarioRepository.findRanking(Limit.of(limite));
+    }
+
+    /**
+     * Starts recomputing the rollups from the purchases in the background, unless a rebuild is
+     * running already on this node.
+     *
+     * @return the state of the rebuild started or running
+     */
+    public ReconstruccionDTO reconstruir() {
+        log.info("Sales rollup rebuild requested");
+        return rollupRebuildJob.iniciar();
+    }
+
+    /**
+     * Retrieves the state of the last rebuild run on this node.
+     *
+     * @return the state of the rebuild
+     */
+    public ReconstruccionDTO estadoReconstruccion() {
+        return rollupRebuildJob.estado();
+    }
+
+    private void validarRango(LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new InvalidDateRangeException("La fecha final no puede ser anterior a la inicial");
+        }
+    }
+}
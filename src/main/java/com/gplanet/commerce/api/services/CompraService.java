@@ -2,27 +2,50 @@ package com.gplanet.commerce.api.services;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraLineaProjection;
 import com.gplanet.commerce.api.dtos.compra.CompraMapper;
 import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
 import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.dtos.evento.EventType;
 import com.gplanet.commerce.api.entities.Compra;
 import com.gplanet.commerce.api.entities.CompraProducto;
 import com.gplanet.commerce.api.entities.Producto;
 import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.exceptions.ApiException;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
+import com.gplanet.commerce.api.exceptions.InvalidCursorException;
 import com.gplanet.commerce.api.exceptions.ResourceNotFoundException;
+import com.gplanet.commerce.api.outbox.OutboxEvents;
 import com.gplanet.commerce.api.repositories.CompraRepository;
 import com.gplanet.commerce.api.repositories.ProductoRepository;
 import com.gplanet.commerce.api.repositories.UsuarioRepository;
+import com.gplanet.commerce.api.utilities.CursorCodec;
 import com.gplanet.commerce.api.utilities.DatabaseOperationHandler;
 
 import lombok.RequiredArgsConstructor;
@@ -31,6 +54,7 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Service class that handles purchase-related operations including
  * creating new purchases and listing purchase history.
+ * Every purchase created is recorded in the outbox in the transaction that creates it.
  * 
  * @author Gustavo
  * @version 1.0
@@ -39,14 +63,20 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 @RequiredArgsConstructor
 public class CompraService {
+    private static final String USER_NOT_FOUND_MSG = "Usuario no encontrado";
+    // Non-null fields whose values can be handed to the client in a cursor
+    private static final Set<String> CURSOR_SORTS = Set.of("fecha", "total");
     private final CompraMapper compraMapper;
     private final CompraRepository compraRepository;
     private final ProductoRepository productoRepository;
     private final UsuarioRepository usuarioRepository;
+    private final InventarioService inventarioService;
+    private final OutboxEvents outboxEvents;
 
     /**
      * Lists purchases based on user role with pagination support.
      * Admins see all purchases, regular users see only their own purchases.
+     * The page is read through a DTO projection, so no entities are loaded.
      * 
      * @param email Email of the requesting user
      * @param page The page number (zero-based)
@@ -62,22 +92,25 @@ public class CompraService {
                 email, page, size, sort, direction);
         
         Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
+            .orElseThrow(() -> new UsernameNotFoundException(USER_NOT_FOUND_MSG));
             
         // Create Pageable object with sort direction
         Sort.Direction sortDirection = Sort.Direction.fromString(direction);
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
         
-        // Get paginated result based on user role
-        Page<Compra> comprasPage;
+        // Page the purchase IDs based on user role
+        Page<Long> idsPage;
         if (usuario.getRol() == Usuario.Role.ADMIN) {
-            comprasPage = compraRepository.findAll(pageable);
+            idsPage = compraRepository.findPageOfIds(pageable);
         } else {
-            comprasPage = compraRepository.findByUsuario(usuario, pageable);
+            idsPage = compraRepository.findPageOfIdsByUsuarioId(usuario.getId(), pageable);
         }
-        
-        // Map to DTOs
-        Page<CompraResponseDTO> result = comprasPage.map(compraMapper::toCompraResponseDTO);
+
+        // Read the page as flat projection rows and group them into DTOs
+        Page<CompraResponseDTO> result = new PageImpl<>(
+            cargarCompras(idsPage.getContent()),
+            idsPage.getPageable(),
+            idsPage.getTotalElements());
         
         log.debug("Found {} purchases on page {} of {}", 
                 result.getNumberOfElements(), 
@@ -87,32 +120,208 @@ public class CompraService {
         return result;
     }
 
+    /**
+     * Lists purchases based on user role like {@link #listarCompras}, but without computing
+     * the total number of purchases. Only whether a next page exists is reported.
+     * 
+     * @param email Email of the requesting user
+     * @param page The page number (zero-based)
+     * @param size The page size
+     * @param sort The field to sort by
+     * @param direction The sort direction (ASC or DESC)
+     * @return Slice of CompraResponseDTO containing the purchase information
+     * @throws UsernameNotFoundException if user is not found
+     */
+    @Transactional(readOnly = true)
+    public Slice<CompraResponseDTO> listarComprasSinTotal(
+            String email, int page, int size, String sort, String direction) {
+        log.debug("Listing purchases without total for user: {} - page: {}, size: {}, sort: {}, direction: {}",
+                email, page, size, sort, direction);
+
+        Usuario usuario = usuarioRepository.findByEmail(email)
+            .orElseThrow(() -> new UsernameNotFoundException(USER_NOT_FOUND_MSG));
+
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
+
+        Slice<Long> idsSlice;
+        if (usuario.getRol() == Usuario.Role.ADMIN) {
+            idsSlice = compraRepository.findSliceOfIds(pageable);
+        } else {
+            idsSlice = compraRepository.findSliceOfIdsByUsuarioId(usuario.getId(), pageable);
+        }
+        return new SliceImpl<>(cargarCompras(idsSlice.getContent()), idsSlice.getPageable(), idsSlice.hasNext());
+    }
+
+    /**
+     * Lists purchases based on user role with keyset (seek) pagination.
+     * Admins see all purchases, regular users see only their own purchases. Each page continues
+     * after the sort key and ID encoded in the cursor and no count query is run.
+     * 
+     * @param email Email of the requesting user
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param size The page size
+     * @param sort The field to sort by
+     * @param direction The sort direction (ASC or DESC)
+     * @return Window of CompraResponseDTO with the positions needed to build the next cursor
+     * @throws UsernameNotFoundException if user is not found
+     * @throws InvalidCursorException if the cursor is malformed or belongs to a different sort,
+     *         or the listing can't be paged by cursor in that sort
+     */
+    @Transactional(readOnly = true)
+    public Window<CompraResponseDTO> listarComprasCursor(
+            String email, String cursor, int size, String sort, String direction) {
+        log.debug("Listing purchases for user: {} with cursor pagination - size: {}, sort: {}, direction: {}",
+                email, size, sort, direction);
+
+        Usuario usuario = usuarioRepository.findByEmail(email)
+            .orElseThrow(() -> new UsernameNotFoundException(USER_NOT_FOUND_MSG));
+
+        Sort keysetSort = CursorCodec.keysetSort(sort, direction, CURSOR_SORTS);
+        KeysetScrollPosition position = CursorCodec.decode(cursor, Compra.class, keysetSort);
+
+        Specification<Compra> filtro = (root, query, cb) -> cb.conjunction();
+        if (usuario.getRol() != Usuario.Role.ADMIN) {
+            Long usuarioId = usuario.getId();
+            filtro = (root, query, cb) -> cb.equal(root.get("usuario").get("id"), usuarioId);
+        }
+        Window<Compra> window = compraRepository.findBy(filtro,
+            query -> query.sortBy(keysetSort).limit(size).scroll(position));
+
+        // Read the window's purchases through the projection, as in the paged listing
+        List<Long> ids = window.map(Compra::getId).getContent();
+        return Window.from(cargarCompras(ids), window::positionAt, window.hasNext());
+    }
+
+    /**
+     * Retrieves a purchase by its ID.
+     *
+     * @param id ID of the purchase
+     * @return CompraResponseDTO of the purchase
+     * @throws ResourceNotFoundException if the purchase doesn't exist
+     */
+    @Transactional(readOnly = true)
+    public CompraResponseDTO obtenerCompra(Long id) {
+        List<CompraResponseDTO> compras = cargarCompras(List.of(id));
+        if (compras.isEmpty()) {
+            throw new ResourceNotFoundException("Compra no encontrada");
+        }
+        return compras.get(0);
+    }
+
     /**
      * Processes a new purchase for a user, calculating totals and
      * creating all necessary purchase records.
+     * The purchase is persisted first, which only allocates its IDs (the table generator may need
+     * a second pooled connection, so never while a product row is locked), and the stock is then
+     * decremented before the rows are flushed at commit: the foreign keys of the purchase lines take
+     * shared locks on the product rows, and two purchases holding those while waiting to decrement
+     * the same product would deadlock.
      * 
      * @param email Email of the user making the purchase
      * @param compraDTO Data transfer object containing purchase information
      * @return CompraResponseDTO containing the created purchase information
      * @throws UsernameNotFoundException if user is not found
      * @throws ResourceNotFoundException if any product in the purchase is not found
+     * @throws InsufficientStockException if any product doesn't have the requested units in stock
      */
     @Transactional
     public CompraResponseDTO realizarCompra(String email, CompraDTO compraDTO) {
         log.info("Starting new purchase for user: {}", email);
         Usuario usuario = usuarioRepository.findByEmail(email)
-            .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
+            .orElseThrow(() -> new UsernameNotFoundException(USER_NOT_FOUND_MSG));
+
+        Map<Long, Producto> productos = cargarProductos(compraDTO.productos());
+        SortedMap<Long, Integer> cantidades = inventarioService.reservar(productos, compraDTO.productos());
+        Compra compra = nuevaCompra(usuario, compraDTO, productos);
+        Compra savedCompra = DatabaseOperationHandler.executeOperation(() -> 
+            compraRepository.save(compra)
+        );
+        inventarioService.descontar(cantidades);
+        CompraResponseDTO respuesta = compraMapper.toCompraResponseDTO(savedCompra);
+        outboxEvents.registrar(EventType.PURCHASE_CREATED, savedCompra.getId(), respuesta);
+        log.info("Purchase completed - ID: {}, Total: {}", savedCompra.getId(), savedCompra.getTotal());
+        return respuesta;
+    }
+
+    /**
+     * Processes a batch of queued purchases in a single transaction, so they share one commit.
+     * Each purchase is checked on its own, and one that fails is left out with its error while
+     * the others are written. The stock of all of them is decremented together, in one batch in
+     * ascending product ID order, after their rows were persisted, as for a single purchase.
+     *
+     * @param solicitudes the purchases, in arrival order
+     * @return the result of each purchase, in the same order
+     * @throws InsufficientStockException if other purchases took the stock since it was read; nothing
+     *         is written then, and the purchases have to be processed one by one
+     */
+    @Transactional
+    public List<ResultadoCompra> realizarComprasEnLote(List<SolicitudCompra> solicitudes) {
+        Set<String> emails = solicitudes.stream()
+            .map(SolicitudCompra::email)
+            .collect(Collectors.toSet());
+        Map<String, Usuario> usuarios = usuarioRepository.findByEmailIn(emails).stream()
+            .collect(Collectors.toMap(Usuario::getEmail, Function.identity()));
+        Set<Long> ids = solicitudes.stream()
+            .flatMap(solicitud -> solicitud.compra().productos().stream())
+            .map(CompraProductoDTO::productoId)
+            .collect(Collectors.toSet());
+        Map<Long, Producto> productos = productoRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Producto::getId, Function.identity()));
 
+        SortedMap<Long, Integer> reservadas = new TreeMap<>();
+        List<Compra> compras = new ArrayList<>(solicitudes.size());
+        List<RuntimeException> errores = new ArrayList<>(solicitudes.size());
+        for (SolicitudCompra solicitud : solicitudes) {
+            try {
+                Usuario usuario = usuarios.get(solicitud.email());
+                if (usuario == null) {
+                    throw new UsernameNotFoundException(USER_NOT_FOUND_MSG);
+                }
+                verificarProductos(solicitud.compra().productos(), productos);
+                inventarioService.reservar(productos, solicitud.compra().productos(), reservadas);
+                compras.add(nuevaCompra(usuario, solicitud.compra(), productos));
+                errores.add(null);
+            } catch (UsernameNotFoundException | ApiException e) {
+                compras.add(null);
+                errores.add(e);
+            }
+        }
+
+        List<Compra> validas = compras.stream().filter(Objects::nonNull).toList();
+        DatabaseOperationHandler.executeOperation(() -> compraRepository.saveAll(validas));
+        inventarioService.descontar(reservadas);
+        log.info("Purchase batch completed - {} of {} purchases written", validas.size(), solicitudes.size());
+
+        List<ResultadoCompra> resultados = new ArrayList<>(solicitudes.size());
+        for (int i = 0; i < solicitudes.size(); i++) {
+            if (compras.get(i) == null) {
+                resultados.add(new ResultadoCompra(null, errores.get(i)));
+            } else {
+                CompraResponseDTO respuesta = compraMapper.toCompraResponseDTO(compras.get(i));
+                outboxEvents.registrar(EventType.PURCHASE_CREATED, respuesta.id(), respuesta);
+                resultados.add(new ResultadoCompra(respuesta, null));
+            }
+        }
+        return resultados;
+    }
+
+    /**
+     * Builds a new purchase with a line per requested product and its total.
+     *
+     * @param usuario the buyer
+     * @param compraDTO the purchase lines
+     * @param productos the requested products keyed by ID
+     * @return the purchase, not persisted yet
+     */
+    private Compra nuevaCompra(Usuario usuario, CompraDTO compraDTO, Map<Long, Producto> productos) {
         Compra compra = new Compra();
         compra.setUsuario(usuario);
         compra.setFecha(LocalDateTime.now());
-        compra.setTotal(BigDecimal.ZERO);
-
         BigDecimal total = BigDecimal.ZERO;
 
         for (CompraProductoDTO item : compraDTO.productos()) {
-            Producto producto = productoRepository.findById(item.productoId())
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
+            Producto producto = productos.get(item.productoId());
 
             CompraProducto compraProducto = new CompraProducto();
             compraProducto.setProducto(producto);
@@ -125,11 +334,74 @@ public class CompraService {
             total = total.add(compraProducto.getSubtotal());
         }
 
-        compra.setTotal(total);        
-        Compra savedCompra = DatabaseOperationHandler.executeOperation(() -> 
-            compraRepository.save(compra)
-        );
-        log.info("Purchase completed - ID: {}, Total: {}", savedCompra.getId(), savedCompra.getTotal());
-        return compraMapper.toCompraResponseDTO(savedCompra);
+        compra.setTotal(total);
+        return compra;
+    }
+
+    /**
+     * Loads every product referenced by the purchase lines with a single set-based query
+     * and indexes them by ID for the line loop.
+     *
+     * @param items the purchase lines
+     * @return map of the requested products keyed by ID
+     * @throws ResourceNotFoundException if one or more products don't exist, listing all missing IDs
+     */
+    private Map<Long, Producto> cargarProductos(List<CompraProductoDTO> items) {
+        Set<Long> ids = items.stream()
+            .map(CompraProductoDTO::productoId)
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<Long, Producto> productos = productoRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        verificarProductos(items, productos);
+        return productos;
     }
+
+    /**
+     * Checks that every product referenced by the purchase lines was found.
+     *
+     * @param items the purchase lines
+     * @param productos the products found, keyed by ID
+     * @throws ResourceNotFoundException if one or more products don't exist, listing all missing IDs
+     */
+    private static void verificarProductos(List<CompraProductoDTO> items, Map<Long, Producto> productos) {
+        List<Long> faltantes = items.stream()
+            .map(CompraProductoDTO::productoId)
+            .distinct()
+            .filter(id -> !productos.containsKey(id))
+            .toList();
+        if (!faltantes.isEmpty()) {
+            throw new ResourceNotFoundException("Productos no encontrados: " + faltantes);
+        }
+    }
+
+    /**
+     * Reads the given purchases as flat projection rows and groups them into DTOs.
+     *
+     * @param ids IDs of the purchases, in the order they are returned
+     * @return List of CompraResponseDTO in the same order
+     */
+    private List<CompraResponseDTO> cargarCompras(List<Long> ids) {
+        List<CompraLineaProjection> lineas = List.of();
+        if (!ids.isEmpty()) {
+            lineas = compraRepository.findLineasByCompraIdIn(ids);
+        }
+        return compraMapper.toCompraResponseList(ids, lineas);
+    }
+
+    /**
+     * Purchase queued for a batch.
+     *
+     * @param email Email of the user making the purchase
+     * @param compra the purchase lines
+     */
+    public record SolicitudCompra(String email, CompraDTO compra) {}
+
+    /**
+     * Result of a purchase of a batch: the purchase written, or the error that left it out.
+     *
+     * @param compra the purchase written, or null if it failed
+     * @param error the reason the purchase failed, or null if it was written
+     */
+    public record ResultadoCompra(CompraResponseDTO compra, RuntimeException error) {}
 }
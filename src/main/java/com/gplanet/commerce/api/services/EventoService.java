@@ -0,0 +1,52 @@
+package com.gplanet.commerce.api.services;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.dtos.evento.EventoDTO;
+import com.gplanet.commerce.api.dtos.evento.EventoMapper;
+import com.gplanet.commerce.api.dtos.evento.EventosDTO;
+import com.gplanet.commerce.api.repositories.EventoOutboxRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service class that reads the stream of purchase and catalog changes recorded in the outbox.
+ * Consumers keep the position of the last event they have processed and read the events after
+ * it, so they follow the changes without scanning the purchase and product tables.
+ * 
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EventoService {
+
+    private final EventoOutboxRepository eventoOutboxRepository;
+    private final EventoMapper eventoMapper;
+
+    /**
+     * Reads the events following a position of the stream, through the index on the position.
+     * The read may run on a replica, so the newest events can show up on a later read, but
+     * never out of order.
+     *
+     * @param desde the position of the last event already processed, 0 to start from the oldest kept
+     * @param limite the maximum number of events
+     * @return the events in stream order, and the position to read the next ones from
+     */
+    @Transactional(readOnly = true)
+    public EventosDTO leerEventos(long desde, int limite) {
+        log.debug("Reading outbox events after position {} - limit: {}", desde, limite);
+        List<EventoDTO> eventos = eventoMapper.toEventoDTOList(
+            eventoOutboxRepository.findByPosicionGreaterThanOrderByPosicionAsc(desde, Limit.of(limite)));
+        if (eventos.isEmpty()) {
+            return new EventosDTO(eventos, desde);
+        }
+        return new EventosDTO(eventos, eventos.get(eventos.size() - 1).posicion());
+    }
+}
@@ -0,0 +1,191 @@
+package com.gplanet.commerce.api.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gplanet.commerce.api.cache.IdempotencyKeyCache;
+import com.gplanet.commerce.api.cache.IdempotencyKeyCache.Resultado;
+import com.gplanet.commerce.api.configs.app.props.IdempotencyProperties;
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.entities.ClaveIdempotencia;
+import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.exceptions.IdempotencyKeyException;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
+import com.gplanet.commerce.api.exceptions.ResourceNotFoundException;
+import com.gplanet.commerce.api.repositories.ClaveIdempotenciaRepository;
+import com.gplanet.commerce.api.repositories.UsuarioRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service class that makes purchase submissions idempotent by their {@code Idempotency-Key}.
+ *
+ * <p>A retried submission returns the purchase created by the first one instead of creating
+ * another. Duplicates reaching the same node wait for the first request through the
+ * {@link IdempotencyKeyCache}. Otherwise the key is inserted in the {@code idempotency_keys}
+ * table in the purchase transaction, before any stock is taken, and its unique index makes a
+ * duplicate on another node wait for that transaction and then read the stored purchase.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Service
+public class IdempotenciaService {
+    private static final String USER_NOT_FOUND_MSG = "Usuario no encontrado";
+    private static final long PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final CompraService compraService;
+    private final UsuarioRepository usuarioRepository;
+    private final ClaveIdempotenciaRepository claveIdempotenciaRepository;
+    private final IdempotencyKeyCache idempotencyKeyCache;
+    private final IdempotencyProperties properties;
+    private final TransactionTemplate transacciones;
+    private final AtomicLong nextPurge = new AtomicLong(System.nanoTime());
+
+    /**
+     * Constructs the IdempotenciaService.
+     *
+     * @param compraService the purchase service
+     * @param usuarioRepository the user repository
+     * @param claveIdempotenciaRepository the repository of the stored keys
+     * @param idempotencyKeyCache the cache of recent and in-flight submissions
+     * @param properties the idempotency settings
+     * @param transactionManager the transaction manager of the purchase transactions
+     */
+    public IdempotenciaService(CompraService compraService, UsuarioRepository usuarioRepository,
+            ClaveIdempotenciaRepository claveIdempotenciaRepository, IdempotencyKeyCache idempotencyKeyCache,
+            IdempotencyProperties properties, PlatformTransactionManager transactionManager) {
+        this.compraService = compraService;
+        this.usuarioRepository = usuarioRepository;
+        this.claveIdempotenciaRepository = claveIdempotenciaRepository;
+        this.idempotencyKeyCache = idempotencyKeyCache;
+        this.properties = properties;
+        // Read-write, so stored keys are always read from the primary database
+        this.transacciones = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Processes a purchase submitted with an idempotency key, or returns the purchase
+     * already created with the key.
+     *
+     * @param email Email of the user making the purchase
+     * @param clave Idempotency key sent by the client
+     * @param compraDTO Data transfer object containing purchase information
+     * @return CompraResponseDTO of the purchase created with the key
+     * @throws IdempotencyKeyException if the key was used for different purchase lines,
+     *         or the first request with the key is still in progress
+     * @throws UsernameNotFoundException if user is not found
+     * @throws ResourceNotFoundException if any product in the purchase is not found
+     * @throws InsufficientStockException if any product doesn't have the requested units in stock
+     */
+    public CompraResponseDTO realizarCompra(String email, String clave, CompraDTO compraDTO) {
+        String huella = huella(compraDTO);
+        return idempotencyKeyCache.get(email, clave, huella, () -> ejecutar(email, clave, huella, compraDTO));
+    }
+
+    private Resultado ejecutar(String email, String clave, String huella, CompraDTO compraDTO) {
+        purgarCaducadas();
+        try {
+            return transacciones.execute(status -> registrarYComprar(email, clave, huella, compraDTO));
+        } catch (DataIntegrityViolationException ex) {
+            // The same key was committed meanwhile by a request on another node
+            Optional<Resultado> guardado = transacciones.execute(status -> buscar(email, clave));
+            if (guardado == null || guardado.isEmpty()) {
+                throw ex;
+            }
+            log.info("Concurrent duplicate purchase answered from idempotency key: {}", clave);
+            return guardado.get();
+        }
+    }
+
+    private Resultado registrarYComprar(String email, String clave, String huella, CompraDTO compraDTO) {
+        Usuario usuario = usuarioRepository.findByEmail(email)
+            .orElseThrow(() -> new UsernameNotFoundException(USER_NOT_FOUND_MSG));
+        Optional<ClaveIdempotencia> existente =
+            claveIdempotenciaRepository.findByUsuarioIdAndClave(usuario.getId(), clave);
+        if (existente.isPresent()) {
+            if (vigente(existente.get())) {
+                log.info("Purchase replayed from idempotency key: {}", clave);
+                return resultado(existente.get());
+            }
+            claveIdempotenciaRepository.delete(existente.get());
+            claveIdempotenciaRepository.flush();
+        }
+
+        ClaveIdempotencia registro = new ClaveIdempotencia();
+        registro.setUsuarioId(usuario.getId());
+        registro.setClave(clave);
+        registro.setHuella(huella);
+        registro.setFechaCreacion(LocalDateTime.now());
+        // Inserted right away, so a duplicate on another node waits here on the unique index
+        claveIdempotenciaRepository.saveAndFlush(registro);
+
+        CompraResponseDTO compra = compraService.realizarCompra(email, compraDTO);
+        registro.setCompraId(compra.id());
+        return new Resultado(huella, compra);
+    }
+
+    /**
+     * Deletes the keys past their retention, at most once per minute, in a transaction of its own
+     * so the purchase transaction doesn't hold the locks of the deleted rows.
+     */
+    private void purgarCaducadas() {
+        long ahora = System.nanoTime();
+        long siguiente = nextPurge.get();
+        if (ahora - siguiente < 0 || !nextPurge.compareAndSet(siguiente, ahora + PURGE_INTERVAL_NANOS)) {
+            return;
+        }
+        int purgadas = claveIdempotenciaRepository.deleteByFechaCreacionBefore(
+            LocalDateTime.now().minus(properties.getRetention()));
+        if (purgadas > 0) {
+            log.debug("Purged {} expired idempotency keys", purgadas);
+        }
+    }
+
+    private Optional<Resultado> buscar(String email, String clave) {
+        return usuarioRepository.findByEmail(email)
+            .flatMap(usuario -> claveIdempotenciaRepository.findByUsuarioIdAndClave(usuario.getId(), clave))
+            .map(this::resultado);
+    }
+
+    private Resultado resultado(ClaveIdempotencia registro) {
+        return new Resultado(registro.getHuella(), compraService.obtenerCompra(registro.getCompraId()));
+    }
+
+    private boolean vigente(ClaveIdempotencia registro) {
+        return registro.getFechaCreacion().isAfter(LocalDateTime.now().minus(properties.getRetention()));
+    }
+
+    /**
+     * Computes the fingerprint of the purchase lines, in the order they were sent.
+     *
+     * @param compraDTO the submitted purchase
+     * @return the hex encoded SHA-256 of the lines
+     */
+    private static String huella(CompraDTO compraDTO) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (CompraProductoDTO item : compraDTO.productos()) {
+                digest.update((item.productoId() + ":" + item.cantidad() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
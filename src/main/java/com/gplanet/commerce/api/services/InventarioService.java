@@ -0,0 +1,154 @@
+package com.gplanet.commerce.api.services;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
+import com.gplanet.commerce.api.inventory.StockReservations;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Service class that takes the units sold by a purchase out of the product stock.
+ *
+ * <p>The stock is never read, changed and written back: each product is decremented with a
+ * conditional {@code UPDATE ... SET stock = stock - ? WHERE id = ? AND stock >= ?}, so concurrent
+ * purchases of the same product can't oversell it and hold its row lock only from the statement
+ * to the commit. The decrements of all the lines of a purchase are sent as one JDBC batch, in
+ * ascending product ID order, so two purchases always lock their common products in the same
+ * order and can't deadlock. Products whose stock is null aren't tracked and are never locked.</p>
+ *
+ * <p>Before that, a purchase is turned away without touching the database when the stock it
+ * read is already short, or when the optional in-memory {@link StockReservations} of
+ * flash-sale products have no units left.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventarioService {
+    private static final String DESCONTAR_SQL =
+        "UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ?";
+    private static final String SIN_STOCK_MSG = "Stock insuficiente para los productos: ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StockReservations stockReservations;
+
+    /**
+     * Adds up the units requested for each product with tracked stock and checks them
+     * against the stock read by the purchase and the in-memory reservations.
+     * The reserved units are given back if the purchase doesn't commit.
+     *
+     * @param productos the requested products keyed by ID, read by the purchase
+     * @param items the purchase lines
+     * @return units requested by product ID, in ascending ID order, to pass to {@link #descontar}
+     * @throws InsufficientStockException if a product is known to be short, listing all such products
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public SortedMap<Long, Integer> reservar(Map<Long, Producto> productos, List<CompraProductoDTO> items) {
+        return reservar(productos, items, new TreeMap<>());
+    }
+
+    /**
+     * Reserves the units of one purchase of a batch written in a single transaction, on top of
+     * the units already reserved by the earlier purchases of the batch.
+     *
+     * @param productos the requested products keyed by ID, read by the batch
+     * @param items the purchase lines
+     * @param reservadas units reserved so far by product ID; the units of the purchase are added
+     *        to them when it gets them all
+     * @return units requested by the purchase by product ID, in ascending ID order
+     * @throws InsufficientStockException if a product is known to be short, listing all such products
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public SortedMap<Long, Integer> reservar(Map<Long, Producto> productos, List<CompraProductoDTO> items,
+            SortedMap<Long, Integer> reservadas) {
+        SortedMap<Long, Integer> cantidades = new TreeMap<>();
+        for (CompraProductoDTO item : items) {
+            if (productos.get(item.productoId()).getStock() != null) {
+                try {
+                    cantidades.merge(item.productoId(), item.cantidad(), Math::addExact);
+                } catch (ArithmeticException e) {
+                    // Repeated lines adding up to more units than any stock can hold
+                    throw new InsufficientStockException(SIN_STOCK_MSG + List.of(item.productoId()));
+                }
+            }
+        }
+
+        List<Long> agotados = cantidades.entrySet().stream()
+            .filter(linea -> disponibles(productos, reservadas, linea.getKey()) < linea.getValue())
+            .map(Map.Entry::getKey)
+            .toList();
+        if (agotados.isEmpty()) {
+            agotados = stockReservations.reservar(cantidades, productos);
+        }
+        if (!agotados.isEmpty()) {
+            throw new InsufficientStockException(SIN_STOCK_MSG + agotados);
+        }
+        cantidades.forEach((id, cantidad) -> reservadas.merge(id, cantidad, Math::addExact));
+        return cantidades;
+    }
+
+    /**
+     * Decrements the stock of the given products in a single batch, in ascending ID order.
+     * Must run in the purchase transaction, which is rolled back if any product is short.
+     *
+     * @param cantidades units to take by product ID, as returned by {@link #reservar}
+     * @throws InsufficientStockException if a product doesn't have the units any more, listing all such products
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void descontar(SortedMap<Long, Integer> cantidades) {
+        if (cantidades.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Integer>> lineas = new ArrayList<>(cantidades.entrySet());
+        int[] filas = jdbcTemplate.batchUpdate(DESCONTAR_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> linea = lineas.get(i);
+                ps.setInt(1, linea.getValue());
+                ps.setLong(2, linea.getKey());
+                ps.setInt(3, linea.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lineas.size();
+            }
+        });
+
+        List<Long> agotados = new ArrayList<>();
+        for (int i = 0; i < filas.length; i++) {
+            if (filas[i] == 0) {
+                Long id = lineas.get(i).getKey();
+                agotados.add(id);
+                // The units held in memory were more than the stock left: read them again
+                stockReservations.invalidar(id);
+            }
+        }
+        if (!agotados.isEmpty()) {
+            log.info("Purchase rejected, stock sold out meanwhile for products: {}", agotados);
+            throw new InsufficientStockException(SIN_STOCK_MSG + agotados);
+        }
+    }
+
+    private static int disponibles(Map<Long, Producto> productos, Map<Long, Integer> reservadas, Long id) {
+        return productos.get(id).getStock() - reservadas.getOrDefault(id, 0);
+    }
+}
@@ -0,0 +1,73 @@
+package com.gplanet.commerce.api.services;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gplanet.commerce.api.cache.ProductoCatalogCache;
+import com.gplanet.commerce.api.dtos.evento.EventType;
+import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
+import com.gplanet.commerce.api.dtos.producto.StockDTO;
+import com.gplanet.commerce.api.inventory.StockReservations;
+import com.gplanet.commerce.api.outbox.OutboxEvents;
+import com.gplanet.commerce.api.search.ProductoSearchIndex;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records the product writes of {@link ProductoService} in the transaction that makes them:
+ * the outbox event, the shared catalog version and the in-memory state that has to follow
+ * the write once it commits.
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+@Component
+@RequiredArgsConstructor
+public class ProductoChangeRecorder {
+
+    private final ProductoCatalogCache productoCatalogCache;
+    private final ProductoSearchIndex productoSearchIndex;
+    private final StockReservations stockReservations;
+    private final OutboxEvents outboxEvents;
+
+    /**
+     * Records a change of the product listings. The shared catalog version is bumped and, once
+     * the write commits, recorded as reflected by the search index, which receives the write
+     * itself through its entity listener.
+     *
+     * @param tipo the kind of change
+     * @param productoId the ID of the product changed
+     * @param producto the product after the change
+     */
+    public void registrarCambio(EventType tipo, Long productoId, ProductoResponseDTO producto) {
+        long version = productoCatalogCache.registrarCambio();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    productoSearchIndex.registrarVersionLocal(version);
+                }
+            });
+        } else {
+            productoSearchIndex.registrarVersionLocal(version);
+        }
+        outboxEvents.registrar(tipo, productoId, producto);
+    }
+
+    /**
+     * Records a stock adjustment. The units held in memory for the product are read again
+     * once the adjustment is visible, whether it commits or not.
+     *
+     * @param stock the stock after the adjustment
+     */
+    public void registrarAjusteStock(StockDTO stock) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                stockReservations.invalidar(stock.productoId());
+            }
+        });
+        outboxEvents.registrar(EventType.STOCK_ADJUSTED, stock.productoId(), stock);
+    }
+}
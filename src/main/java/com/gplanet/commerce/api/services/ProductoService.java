@@ -1,51 +1,114 @@
 package com.gplanet.commerce.api.services;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 
+import com.gplanet.commerce.api.cache.ProductoCatalogCache;
+import com.gplanet.commerce.api.cache.ProductoCountCache;
+import com.gplanet.commerce.api.dtos.evento.EventType;
 import com.gplanet.commerce.api.dtos.producto.ProductStatus;
 import com.gplanet.commerce.api.dtos.producto.ProductoDTO;
 import com.gplanet.commerce.api.dtos.producto.ProductoMapper;
 import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
+import com.gplanet.commerce.api.dtos.producto.StockDTO;
 import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
+import com.gplanet.commerce.api.exceptions.InvalidCursorException;
 import com.gplanet.commerce.api.exceptions.ResourceNotFoundException;
 import com.gplanet.commerce.api.repositories.ProductoRepository;
+import com.gplanet.commerce.api.search.ProductoSearchIndex;
+import com.gplanet.commerce.api.utilities.CursorCodec;
 import com.gplanet.commerce.api.utilities.DatabaseOperationHandler;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Service class that handles product-related operations including
- * listing, creation, and logical deletion of products.
+ * listing, creation, logical deletion and stock adjustments of products.
+ * Every change is recorded in the outbox in the transaction that makes it.
+ *
+ * <p>Listings served from the in-memory catalog don't open a transaction, so they don't take a
+ * database connection. Every other listing reads and maps its products inside a read-only
+ * transaction.</p>
  * 
  * @author Gustavo
  * @version 1.0
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ProductoService {
+    private static final String PRODUCT_NOT_FOUND_MSG = "Producto no encontrado";
+    // Non-null fields whose values can be handed to the client in a cursor
+    private static final Set<String> CURSOR_SORTS = Set.of("nombre", "precio");
 
     private final ProductoMapper productoMapper;
     private final ProductoRepository productoRepository;
+    private final ProductoSearchIndex productoSearchIndex;
+    private final ProductoCountCache productoCountCache;
+    private final ProductoCatalogCache productoCatalogCache;
+    private final ProductoChangeRecorder productoChangeRecorder;
+    private final TransactionTemplate lecturas;
+
+    /**
+     * Constructs the ProductoService.
+     *
+     * @param productoMapper the product mapper
+     * @param productoRepository the product repository
+     * @param productoSearchIndex the full-text product index
+     * @param productoCountCache the cache of listing totals
+     * @param productoCatalogCache the in-memory catalog of active products
+     * @param productoChangeRecorder records the product changes in the outbox and the catalog version
+     * @param transactionManager the transaction manager of the read-only listing transactions
+     */
+    public ProductoService(ProductoMapper productoMapper, ProductoRepository productoRepository,
+            ProductoSearchIndex productoSearchIndex, ProductoCountCache productoCountCache,
+            ProductoCatalogCache productoCatalogCache, ProductoChangeRecorder productoChangeRecorder,
+            PlatformTransactionManager transactionManager) {
+        this.productoMapper = productoMapper;
+        this.productoRepository = productoRepository;
+        this.productoSearchIndex = productoSearchIndex;
+        this.productoCountCache = productoCountCache;
+        this.productoCatalogCache = productoCatalogCache;
+        this.productoChangeRecorder = productoChangeRecorder;
+        this.lecturas = new TransactionTemplate(transactionManager);
+        this.lecturas.setReadOnly(true);
+    }
 
     /**
      * Lists and searches products based on the specified status and search text with pagination support.
-     * Search is performed on both product name and description fields.
+     * Search is performed on both product name and description fields, through the full-text index
+     * when it is available (accent-insensitive, stemmed, optionally sorted by relevance) and through
+     * database LIKE queries otherwise. Unfiltered active listings are served from the
+     * {@link ProductoCatalogCache} and database totals from the {@link ProductoCountCache}.
      * 
      * @param status The status to filter products by
      * @param searchText Optional text to search within product name and description (case-insensitive)
      * @param page The page number (zero-based)
      * @param size The page size
-     * @param sort The field to sort by
+     * @param sort The field to sort by, or {@value ProductoSearchIndex#RELEVANCE_SORT} to rank search results
      * @param direction The sort direction (ASC or DESC)
      * @return Page of ProductoResponseDTO containing filtered and searched paginated products
      */
@@ -63,37 +126,108 @@ public class ProductoService {
         
         Sort.Direction sortDirection = Sort.Direction.fromString(direction);
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
+
+        // Unfiltered active listings are served from the in-memory catalog
+        Optional<Page<ProductoResponseDTO>> catalogo = buscarEnCatalogo(status, searchText, pageable);
+        if (catalogo.isPresent()) {
+            return catalogo.get();
+        }
+
+        return lecturas.execute(tx -> leerPagina(status, searchText, pageable));
+    }
+
+    /**
+     * Lists and searches products like {@link #listarProductos}, but without computing the
+     * total number of matching products. Only whether a next page exists is reported.
+     * 
+     * @param status The status to filter products by
+     * @param searchText Optional text to search within product name and description (case-insensitive)
+     * @param page The page number (zero-based)
+     * @param size The page size
+     * @param sort The field to sort by, or {@value ProductoSearchIndex#RELEVANCE_SORT} to rank search results
+     * @param direction The sort direction (ASC or DESC)
+     * @return Slice of ProductoResponseDTO containing filtered and searched products
+     */
+    public Slice<ProductoResponseDTO> listarProductosSinTotal(
+            ProductStatus status, 
+            String searchText, 
+            int page, 
+            int size, 
+            String sort, 
+            String direction) {
         
-        Page<Producto> productosPage;
+        log.debug("Listing products without total with status: {}, search: '{}' and pagination - page: {}, "
+                + "size: {}, sort: {}, direction: {}", 
+                status, searchText, page, size, sort, direction);
         
-        if (StringUtils.hasText(searchText)) {
-            String searchTerm = "%" + searchText.toLowerCase() + "%";
-            
-            // Get paginated results based on status and search text
-            switch (status) {
-                case ACTIVE:
-                    productosPage = productoRepository.findByActivoTrueAndSearch(searchTerm, pageable);
-                    break;
-                case INACTIVE:
-                    productosPage = productoRepository.findByActivoFalseAndSearch(searchTerm, pageable);
-                    break;
-                case ALL:
-                    productosPage = productoRepository.findBySearch(searchTerm, pageable);
-                    break;
-                default:
-                    productosPage = Page.empty(pageable);
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
+
+        Optional<Page<ProductoResponseDTO>> catalogo = buscarEnCatalogo(status, searchText, pageable);
+        if (catalogo.isPresent()) {
+            return catalogo.get();
+        }
+
+        return lecturas.execute(tx -> {
+            Optional<Page<Producto>> indexed = buscarEnIndice(status, searchText, pageable);
+            Slice<Producto> productos;
+            if (indexed.isPresent()) {
+                productos = indexed.get();
+            } else {
+                productos = consultarBaseDeDatos(status, searchText, sinRelevancia(pageable));
             }
-        } else {
-            // Original code for when no search is performed
-            productosPage = switch (status) {
-                case ACTIVE -> productoRepository.findByActivoTrue(pageable);
-                case INACTIVE -> productoRepository.findByActivoFalse(pageable);
-                case ALL -> productoRepository.findAll(pageable);
-            };
+            return productos.map(productoMapper::toProductoResponseDTO);
+        });
+    }
+
+    /**
+     * Lists and searches products with keyset (seek) pagination.
+     * Each page continues after the sort key and ID encoded in the cursor, so the cost per page
+     * doesn't grow with depth and no count query is run. Search uses the database LIKE filter.
+     *
+     * @param status The status to filter products by
+     * @param searchText Optional text to search within product name and description (case-insensitive)
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param size The page size
+     * @param sort The field to sort by
+     * @param direction The sort direction (ASC or DESC)
+     * @return Window of ProductoResponseDTO with the positions needed to build the next cursor
+     * @throws InvalidCursorException if the cursor is malformed or belongs to a different sort,
+     *         or the listing can't be paged by cursor in that sort
+     */
+    @Transactional(readOnly = true)
+    public Window<ProductoResponseDTO> listarProductosCursor(
+            ProductStatus status,
+            String searchText,
+            String cursor,
+            int size,
+            String sort,
+            String direction) {
+
+        log.debug("Listing products with status: {}, search: '{}' and cursor pagination - size: {}, "
+                + "sort: {}, direction: {}", status, searchText, size, sort, direction);
+
+        String keysetField = sort;
+        if (ProductoSearchIndex.RELEVANCE_SORT.equals(sort)) {
+            keysetField = "id";
         }
-        
-        // Map to DTOs
-        return productosPage.map(productoMapper::toProductoResponseDTO);
+        Sort keysetSort = CursorCodec.keysetSort(keysetField, direction, CURSOR_SORTS);
+        KeysetScrollPosition position = CursorCodec.decode(cursor, Producto.class, keysetSort);
+
+        Window<Producto> window = productoRepository.findBy(filtro(status, searchText),
+            query -> query.sortBy(keysetSort).limit(size).scroll(position));
+        return window.map(productoMapper::toProductoResponseDTO);
+    }
+
+    /**
+     * Returns the version of the product catalog, bumped by every product write.
+     * It is read from memory most of the time, so it is cheap enough to check before
+     * each listing.
+     *
+     * @return the current catalog version
+     */
+    public long versionCatalogo() {
+        return productoCatalogCache.version();
     }
 
     /**
@@ -111,8 +245,10 @@ public class ProductoService {
         Producto savedProducto = DatabaseOperationHandler.executeOperation(() -> 
             productoRepository.save(producto)
         );
+        ProductoResponseDTO respuesta = productoMapper.toProductoResponseDTO(savedProducto);
+        productoChangeRecorder.registrarCambio(EventType.PRODUCT_CREATED, savedProducto.getId(), respuesta);
         log.info("Product created with ID: {}", savedProducto.getId());
-        return productoMapper.toProductoResponseDTO(savedProducto);
+        return respuesta;
     }
 
     /**
@@ -127,15 +263,17 @@ public class ProductoService {
     public ProductoResponseDTO actualizarProducto(Long id, ProductoDTO productoDTO) {
         log.info("Updating product with ID: {}", id);
         Producto producto = productoRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
+            .orElseThrow(() -> new ResourceNotFoundException(PRODUCT_NOT_FOUND_MSG));
         
         productoMapper.updateProductoFromDTO(productoDTO, producto);
         
         Producto updatedProducto = DatabaseOperationHandler.executeOperation(() -> 
             productoRepository.save(producto)
         );
+        ProductoResponseDTO respuesta = productoMapper.toProductoResponseDTO(updatedProducto);
+        productoChangeRecorder.registrarCambio(EventType.PRODUCT_UPDATED, updatedProducto.getId(), respuesta);
         log.info("Product successfully updated - ID: {}", updatedProducto.getId());
-        return productoMapper.toProductoResponseDTO(updatedProducto);
+        return respuesta;
     }
 
     /**
@@ -148,9 +286,234 @@ public class ProductoService {
     public void eliminarProducto(Long id) {
         log.info("Attempting to delete product with ID: {}", id);
         Producto producto = productoRepository.findById(id)
-            .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado"));
+            .orElseThrow(() -> new ResourceNotFoundException(PRODUCT_NOT_FOUND_MSG));
         producto.setActivo(false);
         productoRepository.save(producto);
+        productoChangeRecorder.registrarCambio(
+            EventType.PRODUCT_DEACTIVATED, id, productoMapper.toProductoResponseDTO(producto));
         log.info("Product successfully marked as inactive - ID: {}", id);
     }
+
+    /**
+     * Returns the units in stock of a product.
+     *
+     * @param id ID of the product
+     * @return StockDTO with the units in stock, null if the product's stock isn't tracked
+     * @throws ResourceNotFoundException if product is not found
+     */
+    @Transactional(readOnly = true)
+    public StockDTO obtenerStock(Long id) {
+        Producto producto = productoRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException(PRODUCT_NOT_FOUND_MSG));
+        return new StockDTO(producto.getId(), producto.getStock());
+    }
+
+    /**
+     * Adds units to the stock of a product, or removes them when the quantity is negative.
+     * The adjustment is a single relative update, so it doesn't overwrite units sold
+     * meanwhile. A product whose stock isn't tracked starts being tracked from zero.
+     * The stock isn't part of the product listings, so the catalog version isn't bumped.
+     *
+     * @param id ID of the product
+     * @param cantidad Units to add, or to remove when negative
+     * @return StockDTO with the units in stock after the adjustment
+     * @throws ResourceNotFoundException if product is not found
+     * @throws InsufficientStockException if the product doesn't have the units to remove
+     */
+    @Transactional
+    public StockDTO ajustarStock(Long id, int cantidad) {
+        log.info("Adjusting stock of product {} by {}", id, cantidad);
+        if (productoRepository.ajustarStock(id, cantidad) == 0) {
+            if (!productoRepository.existsById(id)) {
+                throw new ResourceNotFoundException(PRODUCT_NOT_FOUND_MSG);
+            }
+            throw new InsufficientStockException("Stock insuficiente para retirar " + -cantidad
+                + " unidades del producto " + id);
+        }
+        StockDTO stock = new StockDTO(id, productoRepository.findStockById(id));
+        productoChangeRecorder.registrarAjusteStock(stock);
+        log.info("Stock of product {} is now {}", id, stock.stock());
+        return stock;
+    }
+
+    /**
+     * Reads a page of products through the search index or the database, with its total.
+     * Runs inside the read-only listing transaction.
+     *
+     * @param status The status to filter products by
+     * @param searchText Optional text to search for
+     * @param pageable The requested page and sort
+     * @return Page of ProductoResponseDTO with the total number of matching products
+     */
+    private Page<ProductoResponseDTO> leerPagina(ProductStatus status, String searchText, Pageable pageable) {
+        // The index reports its hit count, so no count query is needed
+        Optional<Page<Producto>> indexed = buscarEnIndice(status, searchText, pageable);
+        if (indexed.isPresent()) {
+            return indexed.get().map(productoMapper::toProductoResponseDTO);
+        }
+
+        // The count only runs when the page size and offset don't already give the total
+        Slice<Producto> productos = consultarBaseDeDatos(status, searchText, sinRelevancia(pageable));
+        Page<Producto> productosPage = PageableExecutionUtils.getPage(
+            productos.getContent(), pageable, () -> contarEnBaseDeDatos(status, searchText));
+
+        // Map to DTOs
+        return productosPage.map(productoMapper::toProductoResponseDTO);
+    }
+
+    /**
+     * Reads an unfiltered page of active products from the in-memory catalog.
+     *
+     * @param status The status to filter products by
+     * @param searchText Optional text to search for
+     * @param pageable The requested page and sort
+     * @return Page of products, or empty if the listing is filtered or the catalog can't serve it
+     */
+    private Optional<Page<ProductoResponseDTO>> buscarEnCatalogo(
+            ProductStatus status, String searchText, Pageable pageable) {
+        if (status != ProductStatus.ACTIVE || StringUtils.hasText(searchText)) {
+            return Optional.empty();
+        }
+        return productoCatalogCache.buscar(pageable);
+    }
+
+    /**
+     * Searches products through the full-text index.
+     *
+     * @param status The status to filter products by
+     * @param searchText Optional text to search for
+     * @param pageable The requested page and sort
+     * @return Page of matching products, or empty if there is no search text or the index can't answer it
+     */
+    private Optional<Page<Producto>> buscarEnIndice(ProductStatus status, String searchText, Pageable pageable) {
+        if (!StringUtils.hasText(searchText)) {
+            return Optional.empty();
+        }
+        return productoSearchIndex.search(searchText, status, pageable).map(this::cargarEnOrden);
+    }
+
+    /**
+     * Reads a slice of products from the database, with LIKE queries on name and description
+     * when there is search text. No count query is run.
+     *
+     * @param status The status to filter products by
+     * @param searchText Optional text to search for
+     * @param pageable The requested page and sort
+     * @return Slice of matching products
+     */
+    private Slice<Producto> consultarBaseDeDatos(ProductStatus status, String searchText, Pageable pageable) {
+        if (!StringUtils.hasText(searchText)) {
+            return switch (status) {
+                case ACTIVE -> productoRepository.findByActivoTrue(pageable);
+                case INACTIVE -> productoRepository.findByActivoFalse(pageable);
+                case ALL -> productoRepository.findAllBy(pageable);
+            };
+        }
+
+        String searchTerm = patronBusqueda(searchText);
+        
+        // Get paginated results based on status and search text
+        switch (status) {
+            case ACTIVE:
+                return productoRepository.findByActivoTrueAndSearch(searchTerm, pageable);
+            case INACTIVE:
+                return productoRepository.findByActivoFalseAndSearch(searchTerm, pageable);
+            case ALL:
+                return productoRepository.findBySearch(searchTerm, pageable);
+            default:
+                return new SliceImpl<>(List.of(), pageable, false);
+        }
+    }
+
+    /**
+     * Counts the products matching a database listing, through the count cache.
+     *
+     * @param status The status to filter products by
+     * @param searchText Optional text to search for
+     * @return The number of matching products
+     */
+    private long contarEnBaseDeDatos(ProductStatus status, String searchText) {
+        if (!StringUtils.hasText(searchText)) {
+            return productoCountCache.get(status, "", () -> switch (status) {
+                case ACTIVE -> productoRepository.countByActivoTrue();
+                case INACTIVE -> productoRepository.countByActivoFalse();
+                case ALL -> productoRepository.count();
+            });
+        }
+
+        String searchTerm = patronBusqueda(searchText);
+        return productoCountCache.get(status, searchTerm, () -> switch (status) {
+            case ACTIVE -> productoRepository.countByActivoTrueAndSearch(searchTerm);
+            case INACTIVE -> productoRepository.countByActivoFalseAndSearch(searchTerm);
+            case ALL -> productoRepository.countBySearch(searchTerm);
+        });
+    }
+
+    /**
+     * Loads the products of a page of search index hits, keeping the index order.
+     * Hits whose product no longer exists are skipped.
+     *
+     * @param ids Page of product IDs returned by the search index
+     * @return Page of products in the same order
+     */
+    private Page<Producto> cargarEnOrden(Page<Long> ids) {
+        Map<Long, Producto> productos = productoRepository.findAllById(ids.getContent()).stream()
+            .collect(Collectors.toMap(Producto::getId, Function.identity()));
+        List<Producto> content = ids.getContent().stream()
+            .map(productos::get)
+            .filter(Objects::nonNull)
+            .toList();
+        return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+    }
+
+    /**
+     * Drops the relevance sort, which only the search index understands, for database queries.
+     *
+     * @param pageable The requested page and sort
+     * @return The same page request, unsorted if it was sorted by relevance
+     */
+    private Pageable sinRelevancia(Pageable pageable) {
+        if (pageable.getSort().getOrderFor(ProductoSearchIndex.RELEVANCE_SORT) != null) {
+            return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        }
+        return pageable;
+    }
+
+    /**
+     * Builds the status and search filter used by the cursor listing.
+     *
+     * @param status The status to filter products by
+     * @param searchText Optional text to search within product name and description
+     * @return Specification matching the requested products
+     */
+    private Specification<Producto> filtro(ProductStatus status, String searchText) {
+        Specification<Producto> filtro = (root, query, cb) -> cb.conjunction();
+        switch (status) {
+            case ACTIVE:
+                filtro = (root, query, cb) -> cb.isTrue(root.get("activo"));
+                break;
+            case INACTIVE:
+                filtro = (root, query, cb) -> cb.isFalse(root.get("activo"));
+                break;
+            default:
+                break;
+        }
+        if (StringUtils.hasText(searchText)) {
+            String searchTerm = patronBusqueda(searchText);
+            filtro = filtro.and((root, query, cb) -> cb.or(
+                cb.like(cb.lower(root.get("nombre")), searchTerm),
+                cb.like(cb.lower(root.get("descripcion")), searchTerm)));
+        }
+        return filtro;
+    }
+
+    /**
+     * Builds the case-insensitive LIKE pattern for a search text.
+     *
+     * @param searchText The text to search for
+     * @return The lower-case pattern matching the text anywhere
+     */
+    private static String patronBusqueda(String searchText) {
+        return "%" + searchText.toLowerCase() + "%";
+    }
 }
@@ -36,7 +36,7 @@ public class UsuarioDetallesService implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Usuario usuario = usuarioRepository.findByEmail(email)
+        Usuario usuario = usuarioRepository.findParaAutenticar(email)
             .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado"));
 
         return new User(
@@ -1,16 +1,24 @@
 package com.gplanet.commerce.api.services;
 
 import java.time.LocalDateTime;
+import java.util.Set;
 
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.gplanet.commerce.api.configs.security.CredentialCache;
 import com.gplanet.commerce.api.dtos.usuario.ActualizacionUsuarioDTO;
 import com.gplanet.commerce.api.dtos.usuario.CambioPasswdDTO;
 import com.gplanet.commerce.api.dtos.usuario.LoginDTO;
@@ -19,10 +27,12 @@ import com.gplanet.commerce.api.dtos.usuario.UsuarioDTO;
 import com.gplanet.commerce.api.dtos.usuario.UsuarioMapper;
 import com.gplanet.commerce.api.dtos.usuario.UsuarioResponseDTO;
 import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.exceptions.InvalidCursorException;
 import com.gplanet.commerce.api.exceptions.InvalidPasswordException;
 import com.gplanet.commerce.api.exceptions.PasswordMismatchException;
 import com.gplanet.commerce.api.exceptions.ResourceNotFoundException;
 import com.gplanet.commerce.api.repositories.UsuarioRepository;
+import com.gplanet.commerce.api.utilities.CursorCodec;
 import com.gplanet.commerce.api.utilities.DatabaseOperationHandler;
 
 import lombok.RequiredArgsConstructor;
@@ -41,9 +51,12 @@ import lombok.extern.slf4j.Slf4j;
 public class UsuarioService {
     
     private static final String USER_NOT_FOUND_MSG = "Usuario no encontrado";
+    // Non-null fields whose values can be handed to the client in a cursor
+    private static final Set<String> CURSOR_SORTS = Set.of("nombre", "email", "rol");
     private final UsuarioMapper usuarioMapper;
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CredentialCache credentialCache;
 
     /**
      * Registers a new user in the system.
@@ -103,7 +116,7 @@ public class UsuarioService {
     public UsuarioResponseDTO login(LoginDTO loginDTO) {
         log.info("Login attempt for user: {}", loginDTO.email());
         try {
-            Usuario usuario = usuarioRepository.findByEmail(loginDTO.email())
+            Usuario usuario = usuarioRepository.findParaAutenticar(loginDTO.email())
                 .orElseThrow(() -> new ResourceNotFoundException(
                     "No existe ningún usuario con el email proporcionado"
                 ));
@@ -140,6 +153,7 @@ public class UsuarioService {
         Usuario updatedUsuario = DatabaseOperationHandler.executeOperation(() -> 
             usuarioRepository.save(usuario)
         );
+        evictCachedCredentials(email);
         log.info("Profile updated successfully for user: {}", updatedUsuario.getEmail());
         return usuarioMapper.toUsuarioResponseDTO(updatedUsuario);
     }
@@ -177,6 +191,7 @@ public class UsuarioService {
         // Update password
         usuario.setPassword(passwordEncoder.encode(cambioPasswdDTO.newPassword()));
         usuarioRepository.save(usuario);
+        evictCachedCredentials(email);
         log.info("Password successfully changed for user: {}", email);
     }
     
@@ -187,6 +202,7 @@ public class UsuarioService {
      * @return UsuarioResponseDTO containing the user's information
      * @throws UsernameNotFoundException if user is not found
      */
+    @Transactional(readOnly = true)
     public UsuarioResponseDTO obtenerPerfil(String email) {
         log.debug("Retrieving profile for user: {}", email);
         Usuario usuario = usuarioRepository.findByEmail(email)
@@ -204,6 +220,7 @@ public class UsuarioService {
      * @param direction The sort direction (ASC or DESC)
      * @return Page of UsuarioResponseDTO containing paginated users' information
      */
+    @Transactional(readOnly = true)
     public Page<UsuarioResponseDTO> listarUsuarios(int page, int size, String sort, String direction) {
         log.debug("Listing users with pagination - page: {}, size: {}, sort: {}, direction: {}", 
                 page, size, sort, direction);
@@ -226,6 +243,52 @@ public class UsuarioService {
         return result;
     }
 
+    /**
+     * Lists all users in the system like {@link #listarUsuarios}, but without computing
+     * the total number of users. Only whether a next page exists is reported.
+     * 
+     * @param page The page number (zero-based)
+     * @param size The page size
+     * @param sort The field to sort by
+     * @param direction The sort direction (ASC or DESC)
+     * @return Slice of UsuarioResponseDTO containing the users' information
+     */
+    @Transactional(readOnly = true)
+    public Slice<UsuarioResponseDTO> listarUsuariosSinTotal(int page, int size, String sort, String direction) {
+        log.debug("Listing users without total - page: {}, size: {}, sort: {}, direction: {}", 
+                page, size, sort, direction);
+
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sort));
+        return usuarioRepository.findAllBy(pageable).map(usuarioMapper::toUsuarioResponseDTO);
+    }
+
+    /**
+     * Lists all users in the system with keyset (seek) pagination.
+     * Each page continues after the sort key and ID encoded in the cursor and no count query is run.
+     * 
+     * @param cursor The cursor returned with the previous page, or null for the first page
+     * @param size The page size
+     * @param sort The field to sort by
+     * @param direction The sort direction (ASC or DESC)
+     * @return Window of UsuarioResponseDTO with the positions needed to build the next cursor
+     * @throws InvalidCursorException if the cursor is malformed or belongs to a different sort,
+     *         or the listing can't be paged by cursor in that sort
+     */
+    @Transactional(readOnly = true)
+    public Window<UsuarioResponseDTO> listarUsuariosCursor(String cursor, int size, String sort, String direction) {
+        log.debug("Listing users with cursor pagination - size: {}, sort: {}, direction: {}", 
+                size, sort, direction);
+
+        Sort keysetSort = CursorCodec.keysetSort(sort, direction, CURSOR_SORTS);
+        KeysetScrollPosition position = CursorCodec.decode(cursor, Usuario.class, keysetSort);
+
+        Specification<Usuario> todos = (root, query, cb) -> cb.conjunction();
+        Window<Usuario> window = usuarioRepository.findBy(todos,
+            query -> query.sortBy(keysetSort).limit(size).scroll(position));
+        return window.map(usuarioMapper::toUsuarioResponseDTO);
+    }
+
     /**
      * Updates a user's role.
      * 
@@ -243,6 +306,26 @@ public class UsuarioService {
         
         usuario.setRol(newRole);
         usuarioRepository.save(usuario);
+        evictCachedCredentials(usuario.getEmail());
         log.info("Role successfully updated for user ID: {}", userId);
     }
+
+    /**
+     * Evicts the cached credentials of a user right away and once more after the current
+     * transaction commits, so a request racing with the update cannot re-cache the old
+     * password or role.
+     *
+     * @param email Email of the user whose cached credentials are evicted
+     */
+    private void evictCachedCredentials(String email) {
+        credentialCache.evictUser(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    credentialCache.evictUser(email);
+                }
+            });
+        }
+    }
 }
@@ -0,0 +1,161 @@
+package com.gplanet.commerce.api.utilities;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
+import org.springframework.format.support.DefaultFormattingConversionService;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gplanet.commerce.api.exceptions.InvalidCursorException;
+
+/**
+ * Utility class for keyset (seek) pagination cursors.
+ *
+ * <p>A cursor is the Base64url encoded JSON map of the sort key values of the last
+ * row of a page, e.g. {@code {"fecha":"2024-01-15T10:30","id":"8"}}. Values are stored
+ * as strings and converted back to the entity property types on decode, so the
+ * cursor stays opaque to clients and independent of the JSON date settings.</p>
+ *
+ * @author Gustavo
+ * @version 1.0
+ */
+public final class CursorCodec {
+
+    private static final String ID_PROPERTY = "id";
+    private static final String INVALID_CURSOR = "Cursor inválido";
+    private static final String SORT_MISMATCH = "El cursor no corresponde al orden solicitado";
+    private static final String SORT_NOT_ALLOWED = "No se puede paginar por cursor ordenando por: ";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, String>> KEYS_TYPE = new TypeReference<>() { };
+    private static final ConversionService CONVERSION = isoConversionService();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     * Throws UnsupportedOperationException if called.
+     */
+    private CursorCodec() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /**
+     * Builds the sort used for keyset pagination: the requested field followed by
+     * the ID as a unique tie-breaker, both in the requested direction.
+     *
+     * <p>Only the given fields can be sorted by. Their values end up in the cursor, so they
+     * must be safe to hand to the client and never null: a null key can't be encoded, and
+     * would leave the rows after it out of the keyset predicate.</p>
+     *
+     * @param sort the field to sort by
+     * @param direction the sort direction (ASC or DESC)
+     * @param allowed the non-null fields the entity can be sorted by, besides the ID
+     * @return the keyset sort
+     * @throws InvalidCursorException if the field isn't one of the allowed ones
+     */
+    public static Sort keysetSort(String sort, String direction, Set<String> allowed) {
+        if (!ID_PROPERTY.equals(sort) && !allowed.contains(sort)) {
+            throw new InvalidCursorException(SORT_NOT_ALLOWED + sort);
+        }
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        if (ID_PROPERTY.equals(sort)) {
+            return Sort.by(sortDirection, ID_PROPERTY);
+        }
+        return Sort.by(sortDirection, sort, ID_PROPERTY);
+    }
+
+    /**
+     * Encodes a keyset scroll position as an opaque cursor.
+     *
+     * @param position the position of the last row of a page
+     * @return the cursor, or null if the position isn't a keyset position
+     */
+    public static String encode(ScrollPosition position) {
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            return null;
+        }
+        Map<String, String> keys = new LinkedHashMap<>();
+        keyset.getKeys().forEach((property, value) ->
+            keys.put(property, CONVERSION.convert(value, String.class)));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(keys));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cursor could not be encoded", e);
+        }
+    }
+
+    /**
+     * Decodes a cursor into the scroll position that continues after it.
+     *
+     * @param cursor the cursor returned with the previous page, or null/blank for the first page
+     * @param entityType the entity being paged, used to restore the key value types
+     * @param sort the keyset sort of the request; the cursor must carry exactly its properties
+     * @return the scroll position to continue from
+     * @throws InvalidCursorException if the cursor is malformed or belongs to a different sort
+     */
+    public static KeysetScrollPosition decode(String cursor, Class<?> entityType, Sort sort) {
+        if (!StringUtils.hasText(cursor)) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, String> encoded;
+        try {
+            encoded = MAPPER.readValue(Base64.getUrlDecoder().decode(cursor), KEYS_TYPE);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidCursorException(INVALID_CURSOR);
+        }
+
+        BeanWrapper entity = new BeanWrapperImpl(entityType);
+        Map<String, Object> keys = new LinkedHashMap<>();
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            if (!encoded.containsKey(property)) {
+                throw new InvalidCursorException(SORT_MISMATCH);
+            }
+            keys.put(property, convert(encoded.get(property), entity.getPropertyType(property)));
+        }
+        if (keys.size() != encoded.size()) {
+            throw new InvalidCursorException(SORT_MISMATCH);
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    /**
+     * Creates the conversion service used for key values: the default converters
+     * plus ISO-8601 formatting for the java.time types.
+     *
+     * @return the conversion service
+     */
+    private static ConversionService isoConversionService() {
+        DefaultFormattingConversionService service = new DefaultFormattingConversionService(false);
+        DateTimeFormatterRegistrar registrar = new DateTimeFormatterRegistrar();
+        registrar.setUseIsoFormat(true);
+        registrar.registerFormatters(service);
+        return service;
+    }
+
+    private static Object convert(String value, Class<?> type) {
+        if (value == null) {
+            throw new InvalidCursorException(INVALID_CURSOR);
+        }
+        if (type == null) {
+            throw new InvalidCursorException(SORT_MISMATCH);
+        }
+        try {
+            return CONVERSION.convert(value, type);
+        } catch (ConversionException e) {
+            throw new InvalidCursorException(INVALID_CURSOR);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.gplanet.commerce.api.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.gplanet.commerce.api.analytics.AcumuladoVentas.Totales;
+import com.gplanet.commerce.api.dtos.analitica.LineaVentaProjection;
+
+/**
+ * Unit tests for AcumuladoVentas.
+ * Tests that a purchase is counted once per day, customer and product whatever its number of lines,
+ * and that merging the totals of separate chunks gives the totals of all the purchases.
+ */
+class AcumuladoVentasTest {
+    private static final LocalDateTime LUNES = LocalDateTime.of(2025, 6, 2, 10, 30);
+    private static final LocalDateTime MARTES = LocalDateTime.of(2025, 6, 3, 23, 59);
+
+    @Test
+    void sumar_CompraConVariasLineas_CuentaUnaCompraYTodasLasUnidades() {
+        AcumuladoVentas acumulado = new AcumuladoVentas();
+
+        acumulado.sumar(List.of(
+            linea(1L, 7L, LUNES, "70.00", 100L, 2, "50.00"),
+            linea(1L, 7L, LUNES, "70.00", 200L, 4, "20.00"),
+            linea(2L, 8L, LUNES, "25.00", 100L, 1, "25.00")));
+
+        assertEquals(2, acumulado.getCompras());
+        assertTotales(acumulado.getDias().get(LUNES.toLocalDate()), 2, 7, "95.00");
+        assertTotales(acumulado.getUsuarios().get(7L), 1, 6, "70.00");
+        assertTotales(acumulado.getProductos().get(100L), 2, 3, "75.00");
+        assertTotales(acumulado.getProductos().get(200L), 1, 4, "20.00");
+    }
+
+    @Test
+    void sumar_ProductoRepetidoEnUnaCompra_CuentaUnaCompraDelProducto() {
+        AcumuladoVentas acumulado = new AcumuladoVentas();
+
+        acumulado.sumar(List.of(
+            linea(1L, 7L, LUNES, "40.00", 100L, 2, "20.00"),
+            linea(1L, 7L, LUNES, "40.00", 100L, 2, "20.00"),
+            linea(2L, 7L, LUNES, "10.00", 100L, 1, "10.00")));
+
+        assertTotales(acumulado.getProductos().get(100L), 2, 5, "50.00");
+    }
+
+    @Test
+    void sumar_CompraSinLineas_CuentaLaCompraSinProductos() {
+        AcumuladoVentas acumulado = new AcumuladoVentas();
+
+        acumulado.sumar(List.of(linea(3L, 7L, MARTES, "0.00", null, null, null)));
+
+        assertTotales(acumulado.getDias().get(MARTES.toLocalDate()), 1, 0, "0.00");
+        assertTrue(acumulado.getProductos().isEmpty());
+    }
+
+    @Test
+    void sumar_AcumuladosDeFragmentos_IgualQueTodasLasComprasJuntas() {
+        List<LineaVentaProjection> primerFragmento = List.of(
+            linea(1L, 7L, LUNES, "50.00", 100L, 2, "50.00"),
+            linea(2L, 8L, MARTES, "10.00", 200L, 2, "10.00"));
+        List<LineaVentaProjection> segundoFragmento = List.of(
+            linea(3L, 7L, MARTES, "30.00", 100L, 1, "25.00"),
+            linea(3L, 7L, MARTES, "30.00", 200L, 1, "5.00"));
+        AcumuladoVentas juntas = new AcumuladoVentas();
+        juntas.sumar(primerFragmento);
+        juntas.sumar(segundoFragmento);
+        AcumuladoVentas primero = new AcumuladoVentas();
+        primero.sumar(primerFragmento);
+        AcumuladoVentas segundo = new AcumuladoVentas();
+        segundo.sumar(segundoFragmento);
+
+        AcumuladoVentas fusionado = new AcumuladoVentas();
+        fusionado.sumar(primero);
+        fusionado.sumar(segundo);
+
+        assertEquals(juntas.getCompras(), fusionado.getCompras());
+        for (LocalDate dia : List.of(LUNES.toLocalDate(), MARTES.toLocalDate())) {
+            Totales esperados = juntas.getDias().get(dia);
+            assertTotales(fusionado.getDias().get(dia), esperados.getCompras(), esperados.getUnidades(),
+                esperados.getIngresos().toPlainString());
+        }
+        assertTotales(fusionado.getUsuarios().get(7L), 2, 4, "80.00");
+        assertTotales(fusionado.getProductos().get(200L), 2, 3, "15.00");
+    }
+
+    private static LineaVentaProjection linea(Long compraId, Long usuarioId, LocalDateTime fecha, String total,
+            Long productoId, Integer cantidad, String subtotal) {
+        BigDecimal importe = null;
+        if (subtotal != null) {
+            importe = new BigDecimal(subtotal);
+        }
+        return new LineaVentaProjection(compraId, usuarioId, fecha, new BigDecimal(total), productoId, cantidad,
+            importe);
+    }
+
+    private static void assertTotales(Totales totales, long compras, long unidades, String ingresos) {
+        assertEquals(compras, totales.getCompras());
+        assertEquals(unidades, totales.getUnidades());
+        assertEquals(new BigDecimal(ingresos), totales.getIngresos());
+    }
+}
@@ -0,0 +1,34 @@
+package com.gplanet.commerce.api.analytics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import org.junit.jupiter.api.Test;
+
+import com.gplanet.commerce.api.configs.app.props.OutboxProperties;
+import com.gplanet.commerce.api.repositories.CompraRepository;
+
+/**
+ * Unit tests for RollupEventSink.
+ * Tests that the rollups can't be enabled without the outbox relay that feeds them.
+ */
+class RollupEventSinkTest {
+
+    @Test
+    void constructor_OutboxDeshabilitado_Falla() {
+        OutboxProperties outbox = new OutboxProperties();
+        outbox.setEnabled(false);
+
+        assertThrows(IllegalStateException.class,
+            () -> new RollupEventSink(mock(CompraRepository.class), mock(RollupStore.class), outbox));
+    }
+
+    @Test
+    void constructor_OutboxHabilitado_CreaElSink() {
+        RollupEventSink sink = new RollupEventSink(
+            mock(CompraRepository.class), mock(RollupStore.class), new OutboxProperties());
+
+        assertEquals(RollupEventSink.NOMBRE, sink.nombre());
+    }
+}
@@ -13,6 +13,8 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -28,22 +30,35 @@ import org.springframework.http.MediaType;
 import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gplanet.commerce.api.configs.app.props.PurchaseIngestionProperties;
 import com.gplanet.commerce.api.dtos.compra.CompraDTO;
 import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
 import com.gplanet.commerce.api.dtos.compra.CompraProductoResponseDTO;
 import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.dtos.compra.IngestaCompraDTO;
+import com.gplanet.commerce.api.dtos.compra.IngestionStatus;
 import com.gplanet.commerce.api.exceptions.ResourceNotFoundException;
+import com.gplanet.commerce.api.ingestion.CompraIngestionPipeline;
+import com.gplanet.commerce.api.ingestion.CompraIngestionPipeline.Pedido;
 import com.gplanet.commerce.api.services.CompraService;
+import com.gplanet.commerce.api.services.IdempotenciaService;
 import com.gplanet.commerce.api.services.UsuarioDetallesService;
 
 @WebMvcTest(CompraController.class)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, PurchaseIngestionProperties.class})
+@TestPropertySource(properties = {
+    "rate-limit.user.capacity=100",
+    "rate-limit.user.refill=100",
+    "rate-limit.groups.write.capacity=100",
+    "rate-limit.groups.write.refill=100"
+})
 class CompraControllerTest {
     
     @Autowired
@@ -55,6 +70,12 @@ class CompraControllerTest {
     @MockitoBean
     private CompraService compraService;
 
+    @MockitoBean
+    private IdempotenciaService idempotenciaService;
+
+    @MockitoBean
+    private CompraIngestionPipeline compraIngestionPipeline;
+
     @MockitoBean
     private UsuarioDetallesService usuarioDetallesService;
     
@@ -105,6 +126,102 @@ class CompraControllerTest {
         verify(compraService).realizarCompra(eq(TEST_USER_EMAIL), any(CompraDTO.class));
     }
 
+    @Test
+    @DisplayName("Should create purchase through the idempotency key when the header is sent")
+    void realizarCompra_WithIdempotencyKey_UsesIdempotentSubmission() throws Exception {
+        // Arrange
+        CompraDTO requestDTO = createValidCompraDTO();
+        CompraResponseDTO responseDTO = createMockCompraResponseDTO();
+
+        when(idempotenciaService.realizarCompra(eq(TEST_USER_EMAIL), eq("clave-1"), any(CompraDTO.class)))
+            .thenReturn(responseDTO);
+
+        // Act & Assert
+        mockMvc.perform(post(BASE_URL + "/nueva")
+                .with(user(TEST_USER_EMAIL).roles("USER"))
+                .header("Idempotency-Key", "clave-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDTO)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(responseDTO.id()));
+
+        verify(compraService, never()).realizarCompra(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer 202 with the status URL when the client prefers an asynchronous response")
+    void realizarCompra_IngestionEnabledRespondAsync_ReturnsAccepted() throws Exception {
+        // Arrange
+        CompraDTO requestDTO = createValidCompraDTO();
+        Pedido pedido = new Pedido("ticket-1", TEST_USER_EMAIL, requestDTO, new CompletableFuture<>());
+
+        when(compraIngestionPipeline.isEnabled()).thenReturn(true);
+        when(compraIngestionPipeline.encolar(eq(TEST_USER_EMAIL), any(CompraDTO.class))).thenReturn(pedido);
+
+        // Act & Assert
+        mockMvc.perform(post(BASE_URL + "/nueva")
+                .with(user(TEST_USER_EMAIL).roles("USER"))
+                .header("Prefer", "respond-async, wait=5")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDTO)))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string("Location", "/api/compras/pendientes/ticket-1"));
+
+        verify(compraIngestionPipeline, never()).esperar(any());
+        verify(compraService, never()).realizarCompra(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should answer with the purchase once its batch is committed when ingestion is enabled")
+    void realizarCompra_IngestionEnabled_ReturnsPurchaseAfterCommit() throws Exception {
+        // Arrange
+        CompraDTO requestDTO = createValidCompraDTO();
+        CompraResponseDTO responseDTO = createMockCompraResponseDTO();
+        Pedido pedido = new Pedido("ticket-1", TEST_USER_EMAIL, requestDTO, new CompletableFuture<>());
+
+        when(compraIngestionPipeline.isEnabled()).thenReturn(true);
+        when(compraIngestionPipeline.encolar(eq(TEST_USER_EMAIL), any(CompraDTO.class))).thenReturn(pedido);
+        when(compraIngestionPipeline.esperar(pedido)).thenReturn(Optional.of(responseDTO));
+
+        // Act & Assert
+        mockMvc.perform(post(BASE_URL + "/nueva")
+                .with(user(TEST_USER_EMAIL).roles("USER"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requestDTO)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(responseDTO.id()));
+
+        verify(compraService, never()).realizarCompra(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return the status of a queued purchase")
+    void obtenerEstadoCompra_TicketExists_ReturnsStatus() throws Exception {
+        // Arrange
+        CompraResponseDTO responseDTO = createMockCompraResponseDTO();
+        when(compraIngestionPipeline.estado("ticket-1", TEST_USER_EMAIL)).thenReturn(Optional.of(
+            new IngestaCompraDTO("ticket-1", IngestionStatus.COMPLETED, responseDTO, null)));
+
+        // Act & Assert
+        mockMvc.perform(get(BASE_URL + "/pendientes/ticket-1")
+                .with(user(TEST_USER_EMAIL).roles("USER")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.estado").value("COMPLETED"))
+            .andExpect(jsonPath("$.compra.id").value(responseDTO.id()));
+    }
+
+    @Test
+    @DisplayName("Should return 404 when the queued purchase is unknown")
+    void obtenerEstadoCompra_TicketUnknown_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(compraIngestionPipeline.estado("ticket-1", TEST_USER_EMAIL)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(get(BASE_URL + "/pendientes/ticket-1")
+                .with(user(TEST_USER_EMAIL).roles("USER")))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("Should return 400 when purchase request has no products")
     void realizarCompra_EmptyProductList_ReturnsBadRequest() throws Exception {
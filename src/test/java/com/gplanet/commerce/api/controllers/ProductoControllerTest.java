@@ -22,6 +22,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -34,6 +35,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gplanet.commerce.api.configs.app.props.ProductoHttpCacheProperties;
 import com.gplanet.commerce.api.dtos.producto.ProductStatus;
 import com.gplanet.commerce.api.dtos.producto.ProductoDTO;
 import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
@@ -42,7 +44,7 @@ import com.gplanet.commerce.api.services.ProductoService;
 import com.gplanet.commerce.api.services.UsuarioDetallesService;
 
 @WebMvcTest(ProductoController.class)
-@Import(TestSecurityConfig.class)
+@Import({TestSecurityConfig.class, ProductoHttpCacheProperties.class})
 @DisplayName("Producto Controller Tests")
 class ProductoControllerTest {
 
@@ -336,6 +338,47 @@ class ProductoControllerTest {
                     .andExpect(status().isForbidden())
                     .andDo(MockMvcResultHandlers.print());
         }
+
+        @Test
+        @WithAnonymousUser
+        @DisplayName("Should send the catalog ETag and the Cache-Control of the status filter")
+        void listarProductos_ReturnsETagAndCacheControl() throws Exception {
+            when(productoService.versionCatalogo()).thenReturn(7L);
+            when(productoService.listarProductos(eq(ProductStatus.ACTIVE), eq(null), eq(0), eq(10), eq("nombre"), eq("ASC")))
+                    .thenReturn(new PageImpl<>(Collections.emptyList()));
+
+            mockMvc.perform(get("/api/productos/listar"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"productos-7\""))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "public, max-age=60"));
+        }
+
+        @Test
+        @WithAnonymousUser
+        @DisplayName("Should return 304 without reading products when the ETag still matches")
+        void listarProductos_MatchingETag_Returns304() throws Exception {
+            when(productoService.versionCatalogo()).thenReturn(7L);
+
+            mockMvc.perform(get("/api/productos/listar")
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"productos-7\""))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"productos-7\""))
+                    .andExpect(content().string(""));
+
+            verify(productoService, never()).listarProductos(any(), any(), anyInt(), anyInt(), any(), any());
+        }
+
+        @Test
+        @WithAnonymousUser
+        @DisplayName("Should return 403 instead of 304 when the status is not allowed")
+        void listarProductos_MatchingETagForbiddenStatus_Returns403() throws Exception {
+            when(productoService.versionCatalogo()).thenReturn(7L);
+
+            mockMvc.perform(get("/api/productos/listar")
+                    .param("status", "INACTIVE")
+                    .header(HttpHeaders.IF_NONE_MATCH, "\"productos-7\""))
+                    .andExpect(status().isForbidden());
+        }
     }
 
     @Nested
@@ -8,10 +8,12 @@ import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
 
 import com.gplanet.commerce.api.configs.app.props.CorsProperties;
+import com.gplanet.commerce.api.configs.app.props.CredentialCacheProperties;
+import com.gplanet.commerce.api.configs.security.CredentialCache;
 import com.gplanet.commerce.api.configs.security.SecurityConfig;
 
 @Configuration
-@Import(SecurityConfig.class)
+@Import({SecurityConfig.class, CredentialCache.class, CredentialCacheProperties.class})
 public class TestSecurityConfig {
     
     @Bean
@@ -26,6 +26,7 @@ import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.test.context.support.WithAnonymousUser;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -45,6 +46,10 @@ import com.gplanet.commerce.api.services.UsuarioService;
 
 @WebMvcTest(UsuarioController.class)
 @Import(TestSecurityConfig.class)
+@TestPropertySource(properties = {
+    "rate-limit.unauthenticated.capacity=100",
+    "rate-limit.unauthenticated.refill=100"
+})
 class UsuarioControllerTest {
     
     @Autowired
@@ -0,0 +1,136 @@
+package com.gplanet.commerce.api.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gplanet.commerce.api.configs.app.data.ReplicaRoutingDataSource;
+
+/**
+ * Unit tests for ReplicaRoutingDataSource.
+ * Tests the round-robin over the replicas, the skipping of failed replicas and the fallback to the primary.
+ */
+class ReplicaRoutingDataSourceTest {
+    private DataSource primary;
+    private DataSource replica1;
+    private DataSource replica2;
+    private Connection conexionPrimaria;
+    private Connection conexion1;
+    private Connection conexion2;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        primary = mock(DataSource.class);
+        replica1 = mock(DataSource.class);
+        replica2 = mock(DataSource.class);
+        conexionPrimaria = mock(Connection.class);
+        conexion1 = mock(Connection.class);
+        conexion2 = mock(Connection.class);
+        when(primary.getConnection()).thenReturn(conexionPrimaria);
+        when(replica1.getConnection()).thenReturn(conexion1);
+        when(replica2.getConnection()).thenReturn(conexion2);
+    }
+
+    @Test
+    void getConnection_ReplicasDisponibles_AlternaEntreEllas() throws SQLException {
+        ReplicaRoutingDataSource routing = crear(Duration.ofSeconds(30));
+
+        assertSame(conexion1, routing.getConnection());
+        assertSame(conexion2, routing.getConnection());
+        assertSame(conexion1, routing.getConnection());
+
+        assertEquals(2, routing.getReplicas().get(0).connections());
+        assertEquals(1, routing.getReplicas().get(1).connections());
+        assertEquals(0, routing.getPrimaryFallbacks());
+    }
+
+    @Test
+    void getConnection_ReplicaCaida_LaSaltaDuranteElIntervalo() throws SQLException {
+        when(replica1.getConnection()).thenThrow(caida());
+        ReplicaRoutingDataSource routing = crear(Duration.ofSeconds(30));
+
+        assertSame(conexion2, routing.getConnection());
+        assertSame(conexion2, routing.getConnection());
+        assertSame(conexion2, routing.getConnection());
+
+        verify(replica1, times(1)).getConnection();
+        assertFalse(routing.getReplicas().get(0).available());
+        assertTrue(routing.getReplicas().get(1).available());
+    }
+
+    @Test
+    void getConnection_ReplicaRecuperada_VuelveAUsarlaTrasElIntervalo() throws SQLException {
+        when(replica1.getConnection())
+            .thenThrow(caida())
+            .thenReturn(conexion1);
+        ReplicaRoutingDataSource routing = crear(Duration.ZERO);
+
+        assertSame(conexion2, routing.getConnection());
+        assertSame(conexion2, routing.getConnection());
+        assertSame(conexion1, routing.getConnection());
+
+        assertTrue(routing.getReplicas().get(0).available());
+    }
+
+    @Test
+    void getConnection_TodasCaidas_LeeDelPrimario() throws SQLException {
+        when(replica1.getConnection()).thenThrow(caida());
+        when(replica2.getConnection()).thenThrow(caida());
+        ReplicaRoutingDataSource routing = crear(Duration.ofSeconds(30));
+
+        assertSame(conexionPrimaria, routing.getConnection());
+        assertSame(conexionPrimaria, routing.getConnection());
+
+        verify(replica1, times(1)).getConnection();
+        verify(replica2, times(1)).getConnection();
+        assertEquals(2, routing.getPrimaryFallbacks());
+    }
+
+    @Test
+    void getConnection_PoolDeReplicaAgotado_NoLaMarcaCaida() throws SQLException {
+        when(replica1.getConnection())
+            .thenThrow(new SQLTransientConnectionException("replica-1 - Connection is not available"))
+            .thenReturn(conexion1);
+        ReplicaRoutingDataSource routing = crear(Duration.ofSeconds(30));
+
+        assertSame(conexion2, routing.getConnection());
+        assertTrue(routing.getReplicas().get(0).available());
+        assertSame(conexion2, routing.getConnection());
+        assertSame(conexion1, routing.getConnection());
+
+        assertEquals(0, routing.getPrimaryFallbacks());
+    }
+
+    /**
+     * Builds the exception Hikari throws when the replica can't be reached: the pool timeout,
+     * with the failure to connect as its cause.
+     */
+    private static SQLException caida() {
+        return new SQLTransientConnectionException("replica - Connection is not available", "08001",
+            new SQLException("Connection refused", "08001"));
+    }
+
+    private ReplicaRoutingDataSource crear(Duration retryInterval) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", replica1);
+        replicas.put("replica-2", replica2);
+        return new ReplicaRoutingDataSource(primary, replicas, retryInterval);
+    }
+}
@@ -0,0 +1,128 @@
+package com.gplanet.commerce.api.data;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.gplanet.commerce.api.configs.app.data.BoundedDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Runs platform-thread and virtual-thread request handling at high concurrency, with the
+ * database access bounded by {@link BoundedDataSource} over a Hikari pool.
+ *
+ * <p>Each simulated request waits on an upstream call and then runs a short query. The platform
+ * mode uses a pool of Tomcat's default 200 worker threads; the virtual mode starts one virtual
+ * thread per request. Both timings are logged for comparison, but only the bound on the
+ * connections is asserted: which mode finishes first depends on the machine running the build.</p>
+ */
+class VirtualThreadLoadTest {
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+    private static final int POOL_SIZE = 10;
+    private static final int TOMCAT_MAX_THREADS = 200;
+    private static final int PETICIONES = 2_000;
+    private static final long ESPERA_EXTERNA_MS = 50;
+    private static final long CONSULTA_MS = 1;
+
+    private HikariDataSource hikari;
+    private BoundedDataSource dataSource;
+    private final AtomicInteger maxActivas = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:virtualthreads;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(Duration.ofSeconds(30).toMillis());
+        hikari = new HikariDataSource(config);
+        dataSource = new BoundedDataSource(hikari, POOL_SIZE, Duration.ofSeconds(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hikari.close();
+    }
+
+    @Test
+    void hilosVirtuales_AltaConcurrencia_NoSuperanElPool() throws Exception {
+        // Act
+        long platformMs = ejecutar(Executors.newFixedThreadPool(TOMCAT_MAX_THREADS));
+        long virtualMs = ejecutar(Executors.newVirtualThreadPerTaskExecutor());
+        LOG.info("{} requests - platform threads ({}): {} ms ({} req/s); virtual threads: {} ms ({} req/s)",
+            PETICIONES, TOMCAT_MAX_THREADS, platformMs, PETICIONES * 1000 / platformMs,
+            virtualMs, PETICIONES * 1000 / virtualMs);
+
+        // Assert
+        assertTrue(maxActivas.get() <= POOL_SIZE, "up to " + maxActivas.get() + " connections in use");
+        assertEquals(0, dataSource.getActiveConnections());
+    }
+
+    @Test
+    void getConnection_SinPermisos_FallaTrasElTimeout() throws Exception {
+        BoundedDataSource limitado = new BoundedDataSource(hikari, 1, Duration.ofMillis(50));
+
+        try (Connection connection = limitado.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, limitado::getConnection);
+        }
+        try (Connection connection = limitado.getConnection()) {
+            assertEquals(1, limitado.getActiveConnections());
+        }
+    }
+
+    @Test
+    void close_DobleCierre_LiberaUnSoloPermiso() throws Exception {
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        assertEquals(0, dataSource.getActiveConnections());
+        try (Connection otra = dataSource.getConnection()) {
+            assertEquals(1, dataSource.getActiveConnections());
+        }
+    }
+
+    private long ejecutar(ExecutorService executor) throws Exception {
+        long inicio = System.nanoTime();
+        try (executor) {
+            List<Future<?>> peticiones = new ArrayList<>();
+            for (int i = 0; i < PETICIONES; i++) {
+                peticiones.add(executor.submit(() -> {
+                    peticion();
+                    return null;
+                }));
+            }
+            for (Future<?> peticion : peticiones) {
+                peticion.get();
+            }
+        }
+        return (System.nanoTime() - inicio) / 1_000_000;
+    }
+
+    private void peticion() throws Exception {
+        Thread.sleep(ESPERA_EXTERNA_MS);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            maxActivas.accumulateAndGet(dataSource.getActiveConnections(), Math::max);
+            statement.execute("SELECT 1");
+            Thread.sleep(CONSULTA_MS);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.gplanet.commerce.api.filters;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.gplanet.commerce.api.configs.app.props.RequestLoggingProperties;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import jakarta.servlet.FilterChain;
+
+/**
+ * JMH benchmark of the per-request overhead of RequestLoggingFilter.
+ *
+ * <p>The filter runs around an empty chain with an authenticated request, and its log lines are
+ * formatted with the file pattern into a discarding stream, so the logging cost is part of the
+ * measurement. {@link #baseline()} runs the filter as it was before these changes, for comparison:
+ * a random UUID per request, the Basic credentials decoded to find the user, and two INFO lines.
+ * It doesn't sample, so its rows are the same for every rate. A sample rate of 1 logs every
+ * request with the current filter; the other rates show what sampling saves. Run it with:</p>
+ *
+ * <pre>
+ * mvn -B test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test \
+ *     -Dexec.args="-cp %classpath org.openjdk.jmh.Main RequestLoggingFilterBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestLoggingFilterBenchmark {
+
+    @Param({"1", "100"})
+    private int sampleRate;
+
+    private RequestLoggingFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+    private Logger filterLogger;
+    private OutputStreamAppender<ILoggingEvent> appender;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RequestLoggingProperties properties = new RequestLoggingProperties();
+        properties.setSampleRate(sampleRate);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("requestLoggingProperties", properties);
+        filter = new RequestLoggingFilter(beanFactory.getBeanProvider(RequestLoggingProperties.class));
+
+        request = new MockHttpServletRequest("GET", "/api/productos/listar");
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("Authorization", "Basic " + Base64.getEncoder()
+            .encodeToString("user@example.com:secret".getBytes(StandardCharsets.UTF_8)));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %-5level [%thread] [%X{requestId}] [%X{userId}] %logger{36}: %msg%n");
+        encoder.start();
+        appender = new OutputStreamAppender<>();
+        appender.setContext(context);
+        appender.setEncoder(encoder);
+        appender.setOutputStream(OutputStream.nullOutputStream());
+        appender.start();
+
+        filterLogger = context.getLogger(RequestLoggingFilter.class);
+        filterLogger.setLevel(ch.qos.logback.classic.Level.INFO);
+        filterLogger.setAdditive(false);
+        filterLogger.addAppender(appender);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        filterLogger.detachAppender(appender);
+        filterLogger.setAdditive(true);
+        filterLogger.setLevel(null);
+        appender.stop();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse doFilter() throws Exception {
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse baseline() throws Exception {
+        MDC.put(RequestLoggingFilter.REQUEST_ID, UUID.randomUUID().toString().substring(0, 8));
+        MDC.put(RequestLoggingFilter.USER_ID, baselineUserId());
+        try {
+            filterLogger.info("Request initiated: {} {} [{}]",
+                request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
+            long startTime = System.currentTimeMillis();
+            chain.doFilter(request, response);
+            filterLogger.info("Request completed: {} {} - {} in {}ms",
+                request.getMethod(), request.getRequestURI(),
+                response.getStatus(), System.currentTimeMillis() - startTime);
+        } finally {
+            MDC.clear();
+        }
+        return response;
+    }
+
+    /**
+     * The user lookup of the filter before these changes, which ran ahead of Spring Security
+     * and decoded the Authorization header on every request.
+     */
+    private String baselineUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !"anonymousUser".equals(auth.getPrincipal())) {
+            return auth.getName();
+        }
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Basic ")) {
+            try {
+                String credentials = new String(Base64.getDecoder().decode(authHeader.substring("Basic ".length())));
+                return credentials.split(":", 2)[0];
+            } catch (IllegalArgumentException ex) {
+                return "anonymous";
+            }
+        }
+        return "anonymous";
+    }
+}
@@ -0,0 +1,150 @@
+package com.gplanet.commerce.api.filters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.gplanet.commerce.api.configs.app.props.RequestLoggingProperties;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+
+/**
+ * Unit tests for RequestLoggingFilter.
+ * Tests request id handling and sampling of the request log; its overhead is measured by
+ * {@link RequestLoggingFilterBenchmark}.
+ */
+class RequestLoggingFilterTest {
+    private RequestLoggingProperties properties;
+    private RequestLoggingFilter filter;
+    private ch.qos.logback.classic.Logger filterLogger;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RequestLoggingProperties();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("requestLoggingProperties", properties);
+        filter = new RequestLoggingFilter(beanFactory.getBeanProvider(RequestLoggingProperties.class));
+
+        filterLogger = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(RequestLoggingFilter.class);
+        filterLogger.setLevel(Level.INFO);
+        filterLogger.setAdditive(false);
+        appender = new ListAppender<>();
+        appender.start();
+        filterLogger.addAppender(appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filterLogger.detachAppender(appender);
+        filterLogger.setAdditive(true);
+        filterLogger.setLevel(null);
+    }
+
+    @Test
+    void doFilter_SinRequestId_GeneraUnoDistintoPorPeticion() throws Exception {
+        MockHttpServletResponse primera = new MockHttpServletResponse();
+        MockHttpServletResponse segunda = new MockHttpServletResponse();
+        String[] enMdc = new String[1];
+
+        filter.doFilter(request(), primera, (req, res) -> enMdc[0] = MDC.get(RequestLoggingFilter.REQUEST_ID));
+        filter.doFilter(request(), segunda, new MockFilterChain());
+
+        String requestId = primera.getHeader(RequestLoggingFilter.REQUEST_ID_HEADER);
+        assertTrue(requestId != null && !requestId.isEmpty());
+        assertNotEquals(requestId, segunda.getHeader(RequestLoggingFilter.REQUEST_ID_HEADER));
+        assertEquals(requestId, enMdc[0]);
+        assertNull(MDC.get(RequestLoggingFilter.REQUEST_ID));
+    }
+
+    @Test
+    void doFilter_ConRequestIdValido_LoRespeta() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(RequestLoggingFilter.REQUEST_ID_HEADER, "gw-4f2a.17:abc_9");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals("gw-4f2a.17:abc_9", response.getHeader(RequestLoggingFilter.REQUEST_ID_HEADER));
+    }
+
+    @Test
+    void doFilter_ConRequestIdInvalido_GeneraOtro() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(RequestLoggingFilter.REQUEST_ID_HEADER, "abc\nINFO forged line");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertNotEquals("abc\nINFO forged line", response.getHeader(RequestLoggingFilter.REQUEST_ID_HEADER));
+    }
+
+    @Test
+    void doFilter_UnaLineaPorPeticion() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage()
+            .startsWith("Request completed: GET /api/productos/listar [203.0.113.7] - 200 in "));
+    }
+
+    @Test
+    void doFilter_Muestreo_OmitePeticionesCorrectasPeroNoErrores() throws Exception {
+        properties.setSampleRate(Integer.MAX_VALUE);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+        filter.doFilter(request(), new MockHttpServletResponse(), (req, res) ->
+            ((MockHttpServletResponse) res).setStatus(404));
+
+        assertEquals(1, appender.list.size());
+        assertEquals(404, appender.list.get(0).getArgumentArray()[3]);
+    }
+
+    @Test
+    void doFilter_Muestreo_SiempreRegistraPeticionesLentas() throws Exception {
+        properties.setSampleRate(Integer.MAX_VALUE);
+        properties.setSlowThreshold(Duration.ZERO);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals(1, appender.list.size());
+    }
+
+    @Test
+    void doFilter_Excepcion_RegistraElFallo() {
+        properties.setSampleRate(Integer.MAX_VALUE);
+        FilterChain falla = (req, res) -> {
+            throw new ServletException("boom");
+        };
+
+        assertThrows(ServletException.class, () -> filter.doFilter(request(), new MockHttpServletResponse(), falla));
+
+        assertEquals(1, appender.list.size());
+        assertEquals(Level.WARN, appender.list.get(0).getLevel());
+        assertNull(MDC.get(RequestLoggingFilter.USER_ID));
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/productos/listar");
+        request.setRemoteAddr("203.0.113.7");
+        return request;
+    }
+}
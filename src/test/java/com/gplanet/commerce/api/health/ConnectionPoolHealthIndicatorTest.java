@@ -0,0 +1,111 @@
+package com.gplanet.commerce.api.health;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+import com.gplanet.commerce.api.configs.app.data.BoundedDataSource;
+import com.gplanet.commerce.api.configs.app.health.ConnectionPoolHealthIndicator;
+import com.gplanet.commerce.api.configs.app.props.ConnectionPoolAlertProperties;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for ConnectionPoolHealthIndicator.
+ * Tests the reported pool usage and the warning thresholds over a Hikari pool on H2.
+ */
+class ConnectionPoolHealthIndicatorTest {
+    private static final int POOL_SIZE = 4;
+
+    private HikariDataSource hikari;
+    private SimpleMeterRegistry registry;
+    private ConnectionPoolAlertProperties alerts;
+    private ConnectionPoolHealthIndicator indicator;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:poolhealth;DB_CLOSE_DELAY=-1");
+        config.setUsername("sa");
+        config.setPoolName("test-pool");
+        config.setMaximumPoolSize(POOL_SIZE);
+        config.setConnectionTimeout(Duration.ofMillis(250).toMillis());
+        config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        hikari = new HikariDataSource(config);
+
+        alerts = new ConnectionPoolAlertProperties();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", registry);
+        indicator = new ConnectionPoolHealthIndicator(new BoundedDataSource(hikari, POOL_SIZE, Duration.ofSeconds(1)),
+            alerts, beanFactory.getBeanProvider(MeterRegistry.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        hikari.close();
+    }
+
+    @Test
+    void health_PoolLibre_RetornaUpConDetalles() {
+        Health health = indicator.health();
+
+        assertEquals(Status.UP, health.getStatus());
+        assertEquals("test-pool", health.getDetails().get("pool"));
+        assertEquals(0, health.getDetails().get("active"));
+        assertEquals(POOL_SIZE, health.getDetails().get("max"));
+        assertEquals(0L, health.getDetails().get("timeouts"));
+    }
+
+    @Test
+    void health_PoolAgotado_RetornaWarningConUmbrales() throws SQLException {
+        Connection[] connections = new Connection[POOL_SIZE];
+        for (int i = 0; i < POOL_SIZE; i++) {
+            connections[i] = hikari.getConnection();
+        }
+        try {
+            assertThrows(SQLException.class, hikari::getConnection);
+
+            Health health = indicator.health();
+
+            assertEquals(ConnectionPoolHealthIndicator.WARNING, health.getStatus());
+            assertEquals("100%", health.getDetails().get("utilization"));
+            assertEquals(1L, health.getDetails().get("timeouts"));
+            assertTrue(((List<?>) health.getDetails().get("exceeded")).contains("utilization"));
+        } finally {
+            for (Connection connection : connections) {
+                connection.close();
+            }
+        }
+    }
+
+    @Test
+    void health_UmbralNoAlcanzado_RetornaUp() throws SQLException {
+        alerts.setUtilizationThreshold(1.0);
+
+        try (Connection connection = hikari.getConnection()) {
+            Health health = indicator.health();
+
+            assertEquals(Status.UP, health.getStatus());
+            assertEquals(1, health.getDetails().get("active"));
+            assertFalse(health.getDetails().containsKey("exceeded"));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.gplanet.commerce.api.ingestion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gplanet.commerce.api.configs.app.props.PurchaseIngestionProperties;
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.dtos.compra.IngestionStatus;
+import com.gplanet.commerce.api.ingestion.CompraIngestionPipeline.Pedido;
+import com.gplanet.commerce.api.services.CompraService;
+import com.gplanet.commerce.api.services.CompraService.ResultadoCompra;
+
+/**
+ * Unit tests for CompraIngestionPipeline.
+ * Tests that the single writer thread survives a batch failing with an {@link Error}.
+ */
+class CompraIngestionPipelineTest {
+    private static final String EMAIL = "ingesta@example.com";
+    private static final CompraDTO COMPRA = new CompraDTO(List.of(new CompraProductoDTO(1L, 1)));
+
+    private CompraService compraService;
+    private CompraIngestionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        PurchaseIngestionProperties properties = new PurchaseIngestionProperties();
+        properties.setEnabled(true);
+        compraService = mock(CompraService.class);
+        pipeline = new CompraIngestionPipeline(properties, compraService);
+        pipeline.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void encolar_LoteFallaConError_RechazaSusComprasYSigueEscribiendo() {
+        CompraResponseDTO escrita = new CompraResponseDTO(1L, "Ingesta", LocalDateTime.now(), BigDecimal.TEN, List.of());
+        Error fallo = new StackOverflowError("fallo del lote");
+        when(compraService.realizarComprasEnLote(anyList()))
+            .thenThrow(fallo)
+            .thenReturn(List.of(new ResultadoCompra(escrita, null)));
+
+        Pedido fallido = pipeline.encolar(EMAIL, COMPRA);
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> pipeline.esperar(fallido));
+        Pedido siguiente = pipeline.encolar(EMAIL, COMPRA);
+
+        assertSame(fallo, ex.getCause());
+        assertEquals(IngestionStatus.REJECTED, fallido.estado().estado());
+        assertEquals(Optional.of(escrita), pipeline.esperar(siguiente));
+    }
+}
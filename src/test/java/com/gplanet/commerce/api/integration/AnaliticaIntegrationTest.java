@@ -0,0 +1,294 @@
+package com.gplanet.commerce.api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import com.gplanet.commerce.api.analytics.RollupEventSink;
+import com.gplanet.commerce.api.analytics.RollupRebuildJob;
+import com.gplanet.commerce.api.dtos.analitica.RebuildStatus;
+import com.gplanet.commerce.api.dtos.analitica.ReconstruccionDTO;
+import com.gplanet.commerce.api.dtos.analitica.ResumenVentasDTO;
+import com.gplanet.commerce.api.dtos.analitica.SalesRanking;
+import com.gplanet.commerce.api.dtos.analitica.VentaProductoDTO;
+import com.gplanet.commerce.api.dtos.analitica.VentaUsuarioDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.entities.OffsetOutbox;
+import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.outbox.OutboxRelay;
+import com.gplanet.commerce.api.repositories.EventoOutboxRepository;
+import com.gplanet.commerce.api.repositories.OffsetOutboxRepository;
+import com.gplanet.commerce.api.services.AnaliticaService;
+import com.gplanet.commerce.api.services.CompraService;
+
+/**
+ * Integration tests for the admin sales analytics.
+ * The rollups follow the committed purchases, the dashboards are read without going through
+ * the purchases, and a rebuild running next to new purchases counts each of them once.
+ */
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:analitica;DB_CLOSE_DELAY=-1",
+    "outbox.enabled=true",
+    "outbox.poll-interval=20ms",
+    "analytics.enabled=true",
+    "analytics.rebuild.chunk-size=7",
+    "analytics.rebuild.parallelism=3"
+})
+class AnaliticaIntegrationTest extends BaseIntegrationTest {
+    private static final String BASE_URL = "/api/admin/ventas";
+    private static final String ANA_EMAIL = "ana@example.com";
+    private static final String LUIS_EMAIL = "luis@example.com";
+    private static final int HILOS = 8;
+    private static final int COMPRAS = 60;
+
+    @Autowired
+    private CompraService compraService;
+
+    @Autowired
+    private AnaliticaService analiticaService;
+
+    @Autowired
+    private RollupRebuildJob rollupRebuildJob;
+
+    @Autowired
+    private OffsetOutboxRepository offsetOutboxRepository;
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    private Usuario ana;
+    private Long tecladoId;
+    private Long ratonId;
+
+    @BeforeEach
+    void configurarDatosPrueba() {
+        crearUsuarioAdmin();
+        ana = crearUsuario("Ana", ANA_EMAIL, "ana123", Usuario.Role.USER);
+        crearUsuario("Luis", LUIS_EMAIL, "luis123", Usuario.Role.USER);
+        tecladoId = crearProducto("Teclado", "Producto para pruebas", "25.00", true, null).getId();
+        ratonId = crearProducto("Raton", "Producto para pruebas", "10.00", true, null).getId();
+        // Start every test from rollups matching the purchases left, none
+        esperarRelay();
+        esperarReconstruccion();
+    }
+
+    @Test
+    void realizarCompra_Confirmada_ActualizaLosRollups() throws Exception {
+        comprar(ANA_EMAIL, new CompraProductoDTO(tecladoId, 2), new CompraProductoDTO(ratonId, 1));
+        comprar(ANA_EMAIL, new CompraProductoDTO(ratonId, 3));
+        comprar(LUIS_EMAIL, new CompraProductoDTO(tecladoId, 1));
+        esperarRelay();
+        String hoy = LocalDate.now().toString();
+
+        mockMvc.perform(get(BASE_URL + "/diarias")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].fecha").value(hoy))
+            .andExpect(jsonPath("$[0].compras").value(3))
+            .andExpect(jsonPath("$[0].unidades").value(7))
+            .andExpect(jsonPath("$[0].ingresos").value(115.0));
+
+        mockMvc.perform(get(BASE_URL + "/resumen")
+                .param("desde", hoy)
+                .param("hasta", hoy)
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.compras").value(3))
+            .andExpect(jsonPath("$.ingresos").value(115.0))
+            .andExpect(jsonPath("$.ticketMedio").value(38.33))
+            .andExpect(jsonPath("$.unidadesPorCompra").value(2.33));
+
+        mockMvc.perform(get(BASE_URL + "/productos")
+                .param("orden", "UNITS")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].nombre").value("Raton"))
+            .andExpect(jsonPath("$[0].unidades").value(4))
+            .andExpect(jsonPath("$[1].nombre").value("Teclado"))
+            .andExpect(jsonPath("$[1].compras").value(2));
+
+        mockMvc.perform(get(BASE_URL + "/productos")
+                .param("limite", "1")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].nombre").value("Teclado"))
+            .andExpect(jsonPath("$[0].ingresos").value(75.0));
+
+        mockMvc.perform(get(BASE_URL + "/clientes")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].usuarioId").value(ana.getId()))
+            .andExpect(jsonPath("$[0].email").value(ANA_EMAIL))
+            .andExpect(jsonPath("$[0].compras").value(2))
+            .andExpect(jsonPath("$[0].ingresos").value(90.0))
+            .andExpect(jsonPath("$[1].email").value(LUIS_EMAIL));
+    }
+
+    @Test
+    void leerAnalitica_MuchasCompras_NoConsultaLasCompras() {
+        for (int i = 0; i < 20; i++) {
+            comprar(ANA_EMAIL, new CompraProductoDTO(tecladoId, 1), new CompraProductoDTO(ratonId, 1));
+        }
+        esperarRelay();
+        LocalDate hoy = LocalDate.now();
+
+        SqlStatementCounter.reset();
+        ResumenVentasDTO resumen = analiticaService.resumen(hoy, hoy);
+        analiticaService.ventasDiarias(hoy.minusDays(29), hoy);
+        analiticaService.productosMasVendidos(SalesRanking.REVENUE, 10);
+        analiticaService.mejoresClientes(10);
+
+        assertEquals(20, resumen.compras());
+        assertEquals(0, SqlStatementCounter.selectsFrom("compras"));
+        assertEquals(0, SqlStatementCounter.selectsFrom("compra_productos"));
+    }
+
+    @Test
+    void reconstruir_ConComprasConcurrentes_CuentaCadaCompraUnaVez() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            comprar(LUIS_EMAIL, new CompraProductoDTO(ratonId, 1));
+        }
+        esperarRelay();
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> compras = new ArrayList<>();
+            for (int i = 0; i < COMPRAS; i++) {
+                compras.add(executor.submit(() -> comprar(ANA_EMAIL, new CompraProductoDTO(tecladoId, 1))));
+                if (i == COMPRAS / 3) {
+                    rollupRebuildJob.iniciar();
+                }
+            }
+            for (Future<?> compra : compras) {
+                compra.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        ReconstruccionDTO reconstruccion = esperarFinReconstruccion();
+        esperarRelay();
+
+        assertEquals(RebuildStatus.COMPLETED, reconstruccion.estado());
+        assertEquals(reconstruccion.fragmentos(), reconstruccion.fragmentosCompletados());
+        LocalDate hoy = LocalDate.now();
+        ResumenVentasDTO resumen = analiticaService.resumen(hoy, hoy);
+        assertEquals(25 + COMPRAS, resumen.compras());
+        assertEquals(new BigDecimal("1750.00"), resumen.ingresos());
+        List<VentaProductoDTO> productos = analiticaService.productosMasVendidos(SalesRanking.UNITS, 10);
+        assertEquals(List.of(tecladoId, ratonId), productos.stream().map(VentaProductoDTO::productoId).toList());
+        assertEquals(List.of((long) COMPRAS, 25L), productos.stream().map(VentaProductoDTO::unidades).toList());
+        List<VentaUsuarioDTO> clientes = analiticaService.mejoresClientes(10);
+        assertEquals(List.of((long) COMPRAS, 25L), clientes.stream().map(VentaUsuarioDTO::compras).toList());
+    }
+
+    @Test
+    void reconstruir_UsuarioAdmin_RetornaAcceptedYLuegoElEstado() throws Exception {
+        for (int i = 0; i < 30; i++) {
+            comprar(ANA_EMAIL, new CompraProductoDTO(ratonId, 1));
+        }
+        esperarRelay();
+
+        mockMvc.perform(post(BASE_URL + "/reconstruccion")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isAccepted())
+            .andExpect(header().string(HttpHeaders.LOCATION, "/api/admin/ventas/reconstruccion"))
+            .andExpect(jsonPath("$.inicio").exists());
+        esperarFinReconstruccion();
+
+        String respuesta = mockMvc.perform(get(BASE_URL + "/reconstruccion")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.estado").value("COMPLETED"))
+            .andExpect(jsonPath("$.compras").value(30))
+            .andReturn().getResponse().getContentAsString();
+        ReconstruccionDTO reconstruccion = objectMapper.readValue(respuesta, ReconstruccionDTO.class);
+        assertTrue(reconstruccion.fragmentos() > 1, reconstruccion.fragmentos() + " chunks");
+        assertEquals(reconstruccion.fragmentos(), reconstruccion.fragmentosCompletados());
+        assertEquals(30, analiticaService.resumen(LocalDate.now(), LocalDate.now()).compras());
+    }
+
+    @Test
+    void resumen_RangoInvertido_RetornaBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/resumen")
+                .param("desde", "2025-06-30")
+                .param("hasta", "2025-06-01")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void ventasDiarias_UsuarioNormal_RetornaForbidden() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/diarias")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ANA_EMAIL, "ana123")))
+            .andExpect(status().isForbidden());
+    }
+
+    private void comprar(String email, CompraProductoDTO... productos) {
+        compraService.realizarCompra(email, new CompraDTO(List.of(productos)));
+    }
+
+    private void esperarReconstruccion() {
+        rollupRebuildJob.iniciar();
+        assertEquals(RebuildStatus.COMPLETED, esperarFinReconstruccion().estado());
+    }
+
+    private ReconstruccionDTO esperarFinReconstruccion() {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        ReconstruccionDTO estado = rollupRebuildJob.estado();
+        while (estado.estado() == RebuildStatus.RUNNING) {
+            assertTrue(System.nanoTime() < limite, "the rollup rebuild did not finish");
+            dormir();
+            estado = rollupRebuildJob.estado();
+        }
+        return estado;
+    }
+
+    /**
+     * Waits until the relay has sequenced every committed event and added it to the rollups.
+     */
+    private void esperarRelay() {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!eventoOutboxRepository.findByPosicionIsNullOrderByIdAsc(Limit.of(1)).isEmpty()
+                || posicion(RollupEventSink.NOMBRE) < posicion(OutboxRelay.SECUENCIADOR)) {
+            assertTrue(System.nanoTime() < limite, "the outbox relay did not catch up");
+            dormir();
+        }
+    }
+
+    private long posicion(String consumidor) {
+        return offsetOutboxRepository.findById(consumidor).map(OffsetOutbox::getPosicion).orElse(0L);
+    }
+
+    private static void dormir() {
+        try {
+            Thread.sleep(10);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
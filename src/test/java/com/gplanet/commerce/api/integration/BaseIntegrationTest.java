@@ -1,9 +1,14 @@
 package com.gplanet.commerce.api.integration;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Base64;
+import java.util.List;
 import java.util.Optional;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -13,6 +18,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gplanet.commerce.api.entities.Producto;
 import com.gplanet.commerce.api.entities.Usuario;
 import com.gplanet.commerce.api.repositories.CompraRepository;
 import com.gplanet.commerce.api.repositories.ProductoRepository;
@@ -48,6 +54,17 @@ public abstract class BaseIntegrationTest {
         compraRepository.deleteAll();
         productoRepository.deleteAll();
         usuarioRepository.deleteAll();
+        SqlStatementCounter.resetOutsideTransaction();
+    }
+
+    /**
+     * Open Session In View is disabled, so a statement run outside a transaction means an
+     * entity or lazy association was loaded after its service method returned.
+     */
+    @AfterEach
+    void verificarLimitesTransaccionales() {
+        assertEquals(List.of(), SqlStatementCounter.outsideTransaction(),
+            "SQL executed outside a transaction");
     }
     
     protected Usuario crearUsuarioAdmin() {
@@ -70,6 +87,22 @@ public abstract class BaseIntegrationTest {
         return usuarioRepository.save(usuario);
     }
     
+    protected Producto crearProducto(String nombre, Integer stock) {
+        return crearProducto(nombre, "Producto para pruebas", "10.00", true, stock);
+    }
+
+    protected Producto crearProducto(String nombre, String descripcion, String precio, boolean activo,
+            Integer stock) {
+        Producto producto = new Producto();
+        producto.setNombre(nombre);
+        producto.setDescripcion(descripcion);
+        producto.setPrecio(new BigDecimal(precio));
+        producto.setActivo(activo);
+        producto.setFechaCreacion(LocalDateTime.now());
+        producto.setStock(stock);
+        return productoRepository.save(producto);
+    }
+    
     protected String obtenerBasicAuthHeader(String username, String password) {
         String auth = username + ":" + password;
         return "Basic " + Base64.getEncoder().encodeToString(auth.getBytes());
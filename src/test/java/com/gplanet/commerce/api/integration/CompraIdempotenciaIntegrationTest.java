@@ -0,0 +1,176 @@
+package com.gplanet.commerce.api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.gplanet.commerce.api.cache.IdempotencyKeyCache;
+import com.gplanet.commerce.api.configs.app.props.IdempotencyProperties;
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.repositories.ClaveIdempotenciaRepository;
+import com.gplanet.commerce.api.services.CompraService;
+import com.gplanet.commerce.api.services.IdempotenciaService;
+
+/**
+ * Integration tests for purchases submitted with an Idempotency-Key.
+ * Retries and concurrent duplicates must create a single purchase and take its stock once.
+ */
+class CompraIdempotenciaIntegrationTest extends BaseIntegrationTest {
+    private static final String BASE_URL = "/api/compras";
+    private static final String USER_EMAIL = "idempotente@example.com";
+    private static final String USER_PASSWORD = "idempotente123";
+    private static final int HILOS = 8;
+
+    @Autowired
+    private IdempotenciaService idempotenciaService;
+
+    @Autowired
+    private CompraService compraService;
+
+    @Autowired
+    private ClaveIdempotenciaRepository claveIdempotenciaRepository;
+
+    @Autowired
+    private IdempotencyProperties idempotencyProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Long productoId;
+    private String clave;
+
+    @BeforeEach
+    void configurarDatosPrueba() {
+        claveIdempotenciaRepository.deleteAll();
+        crearUsuario("Idempotente", USER_EMAIL, USER_PASSWORD, Usuario.Role.USER);
+        productoId = crearProducto("Producto idempotente", 10).getId();
+        // The in-memory keys outlive the database cleanup, so every test uses a new one
+        clave = UUID.randomUUID().toString();
+    }
+
+    @Test
+    void realizarCompra_MismaClaveReintentada_DevuelveLaCompraOriginal() throws Exception {
+        CompraDTO compra = new CompraDTO(List.of(new CompraProductoDTO(productoId, 2)));
+
+        Long primera = leerId(comprar(clave, compra).andExpect(status().isOk()));
+        Long reintento = leerId(comprar(clave, compra)
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.productos[0].cantidad").value(2)));
+
+        assertEquals(primera, reintento);
+        assertEquals(1, compraRepository.count());
+        assertEquals(8, productoRepository.findStockById(productoId));
+    }
+
+    @Test
+    void realizarCompra_MismaClaveConOtrosProductos_RetornaUnprocessableEntity() throws Exception {
+        comprar(clave, new CompraDTO(List.of(new CompraProductoDTO(productoId, 2))))
+            .andExpect(status().isOk());
+
+        comprar(clave, new CompraDTO(List.of(new CompraProductoDTO(productoId, 3))))
+            .andExpect(status().isUnprocessableEntity());
+
+        assertEquals(1, compraRepository.count());
+        assertEquals(8, productoRepository.findStockById(productoId));
+    }
+
+    @Test
+    void realizarCompra_ClaveDemasiadoLarga_RetornaBadRequest() throws Exception {
+        comprar("x".repeat(101), new CompraDTO(List.of(new CompraProductoDTO(productoId, 1))))
+            .andExpect(status().isBadRequest());
+
+        assertEquals(0, compraRepository.count());
+    }
+
+    @Test
+    void realizarCompra_DuplicadosConcurrentes_CreanUnaSolaCompra() throws Exception {
+        CompraDTO compra = new CompraDTO(List.of(new CompraProductoDTO(productoId, 1)));
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Long> ids = new ArrayList<>();
+        try {
+            List<Future<CompraResponseDTO>> duplicados = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                duplicados.add(executor.submit(() -> {
+                    salida.await();
+                    return idempotenciaService.realizarCompra(USER_EMAIL, clave, compra);
+                }));
+            }
+            salida.countDown();
+            for (Future<CompraResponseDTO> duplicado : duplicados) {
+                ids.add(duplicado.get(30, TimeUnit.SECONDS).id());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, ids.stream().distinct().count());
+        assertEquals(1, compraRepository.count());
+        assertEquals(9, productoRepository.findStockById(productoId));
+    }
+
+    @Test
+    void realizarCompra_ClaveGuardadaEnOtroNodo_DevuelveLaCompraDeLaBaseDeDatos() {
+        CompraDTO compra = new CompraDTO(List.of(new CompraProductoDTO(productoId, 2)));
+        CompraResponseDTO original = idempotenciaService.realizarCompra(USER_EMAIL, clave, compra);
+
+        // A second node has none of the keys of this one in memory
+        IdempotenciaService otroNodo = new IdempotenciaService(compraService, usuarioRepository,
+            claveIdempotenciaRepository, new IdempotencyKeyCache(idempotencyProperties),
+            idempotencyProperties, transactionManager);
+        CompraResponseDTO reintento = otroNodo.realizarCompra(USER_EMAIL, clave, compra);
+
+        assertEquals(original.id(), reintento.id());
+        assertEquals(1, compraRepository.count());
+        assertEquals(8, productoRepository.findStockById(productoId));
+    }
+
+    @Test
+    void realizarCompra_PrimerIntentoFallido_ElReintentoCreaLaCompra() throws Exception {
+        CompraDTO compra = new CompraDTO(List.of(new CompraProductoDTO(productoId, 12)));
+
+        comprar(clave, compra).andExpect(status().isConflict());
+        assertEquals(0, claveIdempotenciaRepository.count());
+
+        productoRepository.ajustarStock(productoId, 5);
+        comprar(clave, compra).andExpect(status().isOk());
+
+        assertEquals(1, compraRepository.count());
+        assertEquals(3, productoRepository.findStockById(productoId));
+    }
+
+    private ResultActions comprar(String idempotencyKey, CompraDTO compra) throws Exception {
+        return mockMvc.perform(post(BASE_URL + "/nueva")
+            .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(USER_EMAIL, USER_PASSWORD))
+            .header("Idempotency-Key", idempotencyKey)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(compra)));
+    }
+
+    private Long leerId(ResultActions resultado) throws Exception {
+        return objectMapper.readValue(resultado.andReturn().getResponse().getContentAsString(),
+            CompraResponseDTO.class).id();
+    }
+}
@@ -10,10 +10,13 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
@@ -23,6 +26,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import com.gplanet.commerce.api.dtos.compra.CompraDTO;
 import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
@@ -30,7 +34,10 @@ import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
 import com.gplanet.commerce.api.entities.Compra;
 import com.gplanet.commerce.api.entities.Producto;
 import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.services.CompraService;
+import com.jayway.jsonpath.JsonPath;
 
+import jakarta.persistence.EntityManager;
 import jakarta.transaction.Transactional;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
@@ -42,6 +49,12 @@ class CompraIntegrationTest extends BaseIntegrationTest {
     private static final String USER_EMAIL = "buyer@example.com";
     private static final String USER_PASSWORD = "buyer123";
     private Long productoId;
+
+    @Autowired
+    private CompraService compraService;
+
+    @Autowired
+    private EntityManager entityManager;
     
     @BeforeEach
     void configurarDatosPrueba() {
@@ -120,4 +133,141 @@ class CompraIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.pageSize").value(10))
                 .andExpect(jsonPath("$.pageNumber").value(0));
     }
+
+    @Test
+    void realizarCompra_VariosProductos_NumeroDeConsultasConstante() {
+        // Arrange
+        List<CompraProductoDTO> variosProductos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            variosProductos.add(new CompraProductoDTO(crearProducto("Producto " + i, null).getId(), 1));
+        }
+
+        // Act
+        SqlStatementCounter.reset();
+        compraService.realizarCompra(USER_EMAIL, new CompraDTO(List.of(new CompraProductoDTO(productoId, 1))));
+        int consultasUnProducto = SqlStatementCounter.selects();
+
+        SqlStatementCounter.reset();
+        compraService.realizarCompra(USER_EMAIL, new CompraDTO(variosProductos));
+        int consultasVariosProductos = SqlStatementCounter.selects();
+
+        // Assert
+        assertEquals(consultasUnProducto, consultasVariosProductos);
+    }
+
+    @Test
+    void realizarCompra_VariosProductos_NumeroDeInsertsConstante() {
+        // Arrange
+        List<CompraProductoDTO> variosProductos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            variosProductos.add(new CompraProductoDTO(crearProducto("Producto " + i, null).getId(), 1));
+        }
+        CompraDTO compraUnProducto = new CompraDTO(List.of(new CompraProductoDTO(productoId, 1)));
+        compraService.realizarCompra(USER_EMAIL, compraUnProducto);
+        entityManager.flush();
+
+        // Act
+        SqlStatementCounter.reset();
+        compraService.realizarCompra(USER_EMAIL, compraUnProducto);
+        entityManager.flush();
+        int insertsUnProducto = SqlStatementCounter.inserts();
+
+        SqlStatementCounter.reset();
+        compraService.realizarCompra(USER_EMAIL, new CompraDTO(variosProductos));
+        entityManager.flush();
+        int insertsVariosProductos = SqlStatementCounter.inserts();
+
+        // Assert
+        assertEquals(2, insertsUnProducto);
+        assertEquals(insertsUnProducto, insertsVariosProductos);
+    }
+
+    @Test
+    void listarCompras_VariosProductosPorCompra_NumeroDeConsultasConstante() {
+        // Arrange
+        List<CompraProductoDTO> variosProductos = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            variosProductos.add(new CompraProductoDTO(crearProducto("Producto " + i, null).getId(), 1));
+        }
+        crearUsuario("Other", "other@example.com", USER_PASSWORD, Usuario.Role.USER);
+        for (int i = 0; i < 3; i++) {
+            compraService.realizarCompra(USER_EMAIL, new CompraDTO(List.of(new CompraProductoDTO(productoId, 1))));
+            compraService.realizarCompra("other@example.com", new CompraDTO(variosProductos));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        SqlStatementCounter.reset();
+        compraService.listarCompras(USER_EMAIL, 0, 10, "fecha", "DESC");
+        int consultasUnProducto = SqlStatementCounter.selects();
+
+        entityManager.clear();
+        SqlStatementCounter.reset();
+        Page<CompraResponseDTO> compras = compraService.listarCompras("other@example.com", 0, 10, "fecha", "DESC");
+        int consultasVariosProductos = SqlStatementCounter.selects();
+
+        // Assert
+        assertEquals(3, compras.getNumberOfElements());
+        assertEquals(5, compras.getContent().get(0).productos().size());
+        assertEquals(consultasUnProducto, consultasVariosProductos);
+    }
+
+    @Test
+    void listarComprasCursor_VariasPaginas_RecorreSoloComprasPropias() throws Exception {
+        // Arrange
+        crearUsuario("Other", "other@example.com", USER_PASSWORD, Usuario.Role.USER);
+        CompraDTO compraDTO = new CompraDTO(List.of(new CompraProductoDTO(productoId, 1)));
+        Set<Long> esperadas = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            esperadas.add(compraService.realizarCompra(USER_EMAIL, compraDTO).id());
+            compraService.realizarCompra("other@example.com", compraDTO);
+        }
+        // Reload from the database so the dates carry the stored precision
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act - walk every page sorted by date
+        Set<Long> recorridas = new HashSet<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder request = get(BASE_URL + "/listar/cursor")
+                    .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(USER_EMAIL, USER_PASSWORD))
+                    .param("size", "2")
+                    .param("sort", "fecha")
+                    .param("direction", "DESC");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String json = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+            List<Integer> ids = JsonPath.read(json, "$.content[*].id");
+            ids.forEach(id -> assertTrue(recorridas.add(id.longValue())));
+            cursor = JsonPath.read(json, "$.nextCursor");
+            paginas++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(3, paginas);
+        assertEquals(esperadas, recorridas);
+    }
+
+    @Test
+    void listarComprasCursor_CursorInvalido_RetornaBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/listar/cursor")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(USER_EMAIL, USER_PASSWORD))
+                .param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listarComprasCursor_TamanoCero_RetornaBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/listar/cursor")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(USER_EMAIL, USER_PASSWORD))
+                .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package com.gplanet.commerce.api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraLineaProjection;
+import com.gplanet.commerce.api.dtos.compra.CompraMapper;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.services.CompraService;
+
+/**
+ * Checks that the DTO projection path of the purchase history returns the same page as the
+ * entity path (a page of entities mapped with their lazily loaded line items), and logs the heap
+ * each allocates per page.
+ * The figures depend on the JIT and GC state, so they are reported rather than asserted.
+ */
+class CompraListadoAllocationTest extends BaseIntegrationTest {
+    private static final Logger LOG = LoggerFactory.getLogger(CompraListadoAllocationTest.class);
+    private static final String USER_EMAIL = "bench@example.com";
+    private static final int COMPRAS = 40;
+    private static final int PRODUCTOS_POR_COMPRA = 5;
+    private static final int WARMUP = 30;
+    private static final int ITERACIONES = 100;
+
+    @Autowired
+    private CompraService compraService;
+
+    @Autowired
+    private CompraMapper compraMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate readOnlyTx;
+    private Long usuarioId;
+    private final Pageable pageable = PageRequest.of(0, 20, Sort.by(Sort.Direction.DESC, "fecha"));
+
+    @BeforeEach
+    void configurarDatos() {
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+
+        usuarioId = crearUsuario("Bench", USER_EMAIL, "bench123", Usuario.Role.USER).getId();
+        List<CompraProductoDTO> items = new ArrayList<>();
+        for (int i = 0; i < PRODUCTOS_POR_COMPRA; i++) {
+            items.add(new CompraProductoDTO(crearProducto("Bench " + i, null).getId(), 2));
+        }
+        for (int i = 0; i < COMPRAS; i++) {
+            compraService.realizarCompra(USER_EMAIL, new CompraDTO(items));
+        }
+    }
+
+    @Test
+    void listarCompras_Proyeccion_RetornaLaMismaPaginaQueEntidades() {
+        // Arrange
+        Supplier<List<CompraResponseDTO>> entidades = () -> readOnlyTx.execute(status ->
+            compraRepository.findAllByUsuarioIdWithProductos(usuarioId, pageable)
+                .map(compraMapper::toCompraResponseDTO).getContent());
+        Supplier<List<CompraResponseDTO>> proyeccion = () -> readOnlyTx.execute(status -> {
+            Page<Long> ids = compraRepository.findPageOfIdsByUsuarioId(usuarioId, pageable);
+            List<CompraLineaProjection> lineas = compraRepository.findLineasByCompraIdIn(ids.getContent());
+            return compraMapper.toCompraResponseList(ids.getContent(), lineas);
+        });
+
+        // Act
+        long bytesEntidades = bytesPorPagina(entidades);
+        long bytesProyeccion = bytesPorPagina(proyeccion);
+        LOG.info("Purchase page allocation - entity path: {} bytes, projection path: {} bytes",
+            bytesEntidades, bytesProyeccion);
+
+        // Assert
+        assertEquals(entidades.get(), proyeccion.get());
+    }
+
+    private long bytesPorPagina(Supplier<List<CompraResponseDTO>> ruta) {
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP; i++) {
+            ruta.get();
+        }
+        long antes = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERACIONES; i++) {
+            ruta.get();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - antes) / ITERACIONES;
+    }
+}
@@ -0,0 +1,59 @@
+package com.gplanet.commerce.api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.inventory.StockReservations;
+
+/**
+ * Runs the stock concurrency tests with the in-memory reservations of every product enabled,
+ * and checks that the counters follow the database.
+ */
+@TestPropertySource(properties = {
+    "inventory.reservations.enabled=true",
+    "inventory.reservations.stripes=4",
+    "inventory.reservations.refresh-interval=1m"
+})
+class FlashSaleStockIntegrationTest extends StockConcurrencyIntegrationTest {
+
+    @Autowired
+    private StockReservations stockReservations;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void realizarCompra_ProductoAgotado_ContadoresEnMemoriaACero() throws Exception {
+        Long productoId = crearProducto("Producto flash", STOCK).getId();
+
+        int vendidas = comprarEnParalelo(i -> List.of(new CompraProductoDTO(productoId, 1)));
+
+        assertEquals(STOCK, vendidas);
+        assertEquals(0, stockReservations.disponibles(productoId));
+    }
+
+    @Test
+    void realizarCompra_TransaccionRevertida_DevuelveLasUnidadesReservadas() {
+        Long productoId = crearProducto("Producto reservado", 10).getId();
+        compraService.realizarCompra(USER_EMAIL, new CompraDTO(List.of(new CompraProductoDTO(productoId, 1))));
+        assertEquals(9, stockReservations.disponibles(productoId));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+            compraService.realizarCompra(USER_EMAIL, new CompraDTO(List.of(new CompraProductoDTO(productoId, 3))));
+            assertEquals(6, stockReservations.disponibles(productoId));
+            tx.setRollbackOnly();
+        });
+
+        assertEquals(9, stockReservations.disponibles(productoId));
+        assertEquals(9, productoRepository.findStockById(productoId));
+    }
+}
@@ -0,0 +1,295 @@
+package com.gplanet.commerce.api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.gplanet.commerce.api.configs.app.props.OutboxProperties;
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.dtos.evento.EventType;
+import com.gplanet.commerce.api.dtos.evento.EventoDTO;
+import com.gplanet.commerce.api.dtos.evento.EventosDTO;
+import com.gplanet.commerce.api.dtos.producto.ProductoDTO;
+import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
+import com.gplanet.commerce.api.entities.OffsetOutbox;
+import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
+import com.gplanet.commerce.api.outbox.MemoryEventSink;
+import com.gplanet.commerce.api.outbox.OutboxRelay;
+import com.gplanet.commerce.api.repositories.EventoOutboxRepository;
+import com.gplanet.commerce.api.repositories.OffsetOutboxRepository;
+import com.gplanet.commerce.api.services.CompraService;
+import com.gplanet.commerce.api.services.EventoService;
+import com.gplanet.commerce.api.services.ProductoService;
+
+/**
+ * Integration tests for the transactional outbox of purchase and catalog changes.
+ * Committed changes reach the stream and the sinks in commit order without gaps, rolled back
+ * ones never do, and consumers read only the events after their position.
+ */
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+    "outbox.enabled=true",
+    "outbox.poll-interval=20ms",
+    "outbox.batch-size=7",
+    "outbox.file.enabled=true",
+    "outbox.file.node-id=nodo-1",
+    "outbox.file.path=target/outbox/events-${random.uuid}.jsonl"
+})
+class OutboxIntegrationTest extends BaseIntegrationTest {
+    private static final String BASE_URL = "/api/admin/eventos";
+    private static final String USER_EMAIL = "outbox@example.com";
+    private static final int HILOS = 8;
+    private static final int COMPRAS = 40;
+    private static final String FILE_SINK = "file@nodo-1";
+
+    @Autowired
+    private CompraService compraService;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private EventoService eventoService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private MemoryEventSink memoryEventSink;
+
+    @Autowired
+    private EventoOutboxRepository eventoOutboxRepository;
+
+    @Autowired
+    private OffsetOutboxRepository offsetOutboxRepository;
+
+    @Autowired
+    private OutboxProperties outboxProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long inicio;
+
+    @BeforeEach
+    void configurarDatosPrueba() {
+        crearUsuarioAdmin();
+        crearUsuario("Outbox", USER_EMAIL, "outbox123", Usuario.Role.USER);
+        inicio = esperarRelay();
+    }
+
+    @Test
+    void cambios_Confirmados_LleganAlStreamEnOrden() throws Exception {
+        ProductoResponseDTO producto = productoService.crearProducto(
+            new ProductoDTO("Producto outbox", "Producto para pruebas del outbox", new BigDecimal("10.0"), true, 0));
+        productoService.ajustarStock(producto.id(), 5);
+        CompraResponseDTO compra = compraService.realizarCompra(USER_EMAIL,
+            new CompraDTO(List.of(new CompraProductoDTO(producto.id(), 2))));
+        productoService.eliminarProducto(producto.id());
+        esperarRelay();
+
+        EventosDTO leidos = eventoService.leerEventos(inicio, 100);
+
+        assertEquals(List.of(EventType.PRODUCT_CREATED, EventType.STOCK_ADJUSTED, EventType.PURCHASE_CREATED,
+            EventType.PRODUCT_DEACTIVATED), leidos.eventos().stream().map(EventoDTO::tipo).toList());
+        assertEquals(LongStream.rangeClosed(inicio + 1, inicio + 4).boxed().toList(),
+            leidos.eventos().stream().map(EventoDTO::posicion).toList());
+        assertEquals(inicio + 4, leidos.siguiente());
+        EventoDTO evento = leidos.eventos().get(2);
+        assertEquals(compra.id(), evento.agregadoId());
+        JsonNode payload = objectMapper.readTree(evento.payload());
+        assertEquals(2, payload.path("productos").path(0).path("cantidad").asInt());
+        assertEquals(5, objectMapper.readTree(leidos.eventos().get(1).payload()).path("stock").asInt());
+    }
+
+    @Test
+    void realizarCompra_Revertida_NoDejaEvento() {
+        ProductoResponseDTO producto = productoService.crearProducto(
+            new ProductoDTO("Producto escaso", "Producto con una unidad", new BigDecimal("10.0"), true, 1));
+        long antes = esperarRelay();
+
+        assertThrows(InsufficientStockException.class, () -> compraService.realizarCompra(USER_EMAIL,
+            new CompraDTO(List.of(new CompraProductoDTO(producto.id(), 2)))));
+
+        assertEquals(antes, esperarRelay());
+        assertEquals(List.of(), eventoService.leerEventos(antes, 100).eventos());
+    }
+
+    @Test
+    void realizarCompra_Concurrentes_PosicionesSinHuecosYEntregadasALosSinks() throws Exception {
+        ProductoResponseDTO producto = productoService.crearProducto(new ProductoDTO(
+            "Producto concurrente", "Producto para compras concurrentes", new BigDecimal("10.0"), true, 1_000));
+        long desde = esperarRelay();
+
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        List<Long> compras = new ArrayList<>();
+        try {
+            List<Future<CompraResponseDTO>> futuros = new ArrayList<>();
+            for (int i = 0; i < COMPRAS; i++) {
+                futuros.add(executor.submit(() -> compraService.realizarCompra(USER_EMAIL,
+                    new CompraDTO(List.of(new CompraProductoDTO(producto.id(), 1))))));
+            }
+            for (Future<CompraResponseDTO> futuro : futuros) {
+                compras.add(futuro.get(30, TimeUnit.SECONDS).id());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long hasta = esperarRelay();
+
+        // Read page by page, as a consumer would, from the position of each previous page
+        List<EventoDTO> eventos = new ArrayList<>();
+        long posicion = desde;
+        EventosDTO pagina;
+        do {
+            pagina = eventoService.leerEventos(posicion, 9);
+            eventos.addAll(pagina.eventos());
+            posicion = pagina.siguiente();
+        } while (!pagina.eventos().isEmpty());
+
+        assertEquals(desde + COMPRAS, hasta);
+        assertEquals(LongStream.rangeClosed(desde + 1, hasta).boxed().toList(),
+            eventos.stream().map(EventoDTO::posicion).toList());
+        assertEquals(compras.stream().sorted().toList(),
+            eventos.stream().map(EventoDTO::agregadoId).sorted().toList());
+        assertEquals(eventos, memoryEventSink.leer(desde, COMPRAS + 10));
+        assertEquals(hasta, offsetOutboxRepository.findById(FILE_SINK).orElseThrow().getPosicion());
+    }
+
+    @Test
+    void fileSink_EventosEntregados_UnaLineaJsonPorEvento() throws Exception {
+        ProductoResponseDTO producto = productoService.crearProducto(new ProductoDTO(
+            "Producto fichero", "Producto para el sink de fichero", new BigDecimal("10.0"), true, null));
+        long hasta = esperarRelay();
+
+        List<String> lineas = Files.readAllLines(Path.of(outboxProperties.getFile().getPath()),
+            StandardCharsets.UTF_8);
+        List<Long> posiciones = new ArrayList<>();
+        for (String linea : lineas) {
+            posiciones.add(objectMapper.readTree(linea).path("posicion").asLong());
+        }
+        JsonNode ultima = objectMapper.readTree(lineas.get(lineas.size() - 1));
+
+        assertEquals(LongStream.rangeClosed(posiciones.get(0), hasta).boxed().toList(), posiciones);
+        assertEquals("PRODUCT_CREATED", ultima.path("tipo").asText());
+        assertEquals("Producto fichero", ultima.path("payload").path("nombre").asText());
+        assertEquals(producto.id(), ultima.path("agregadoId").asLong());
+    }
+
+    @Test
+    void relay_PosicionBorrada_LaRegistraDeNuevoSinRepetirPosiciones() {
+        long antes = esperarRelay();
+        jdbcTemplate.update("DELETE FROM outbox_offsets WHERE consumidor = ?", OutboxRelay.SECUENCIADOR);
+
+        ProductoResponseDTO producto = productoService.crearProducto(new ProductoDTO(
+            "Producto tras borrado", "Producto creado tras perder la posición", new BigDecimal("10.0"), true, null));
+        long despues = esperarRelay();
+
+        assertEquals(antes + 1, despues);
+        List<EventoDTO> eventos = eventoService.leerEventos(antes, 10).eventos();
+        assertEquals(List.of(producto.id()), eventos.stream().map(EventoDTO::agregadoId).toList());
+    }
+
+    @Test
+    void purga_SinkDeOtroNodoRetrasado_LimitaLasPosicionesPurgables() {
+        productoService.crearProducto(new ProductoDTO(
+            "Producto purga", "Producto para pruebas de la purga", new BigDecimal("10.0"), true, null));
+        long ultima = esperarRelay();
+        assertEquals(ultima, offsetOutboxRepository.findPosicionMinimaExcepto(OutboxRelay.SECUENCIADOR).orElseThrow());
+
+        // Another node's file sink, registered in the shared table but not delivered to by this node
+        offsetOutboxRepository.save(new OffsetOutbox("file@nodo-2", 0L, LocalDateTime.now()));
+        try {
+            assertEquals(0L, offsetOutboxRepository.findPosicionMinimaExcepto(OutboxRelay.SECUENCIADOR).orElseThrow());
+        } finally {
+            offsetOutboxRepository.deleteById("file@nodo-2");
+        }
+    }
+
+    @Test
+    void leerEventos_UsuarioAdmin_RetornaEventosDesdeLaPosicion() throws Exception {
+        productoService.crearProducto(new ProductoDTO(
+            "Producto admin", "Producto para el endpoint de eventos", new BigDecimal("10.0"), true, null));
+        esperarRelay();
+
+        mockMvc.perform(get(BASE_URL)
+                .param("desde", String.valueOf(inicio))
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.eventos[0].posicion").value(inicio + 1))
+            .andExpect(jsonPath("$.eventos[0].tipo").value("PRODUCT_CREATED"))
+            .andExpect(jsonPath("$.eventos[0].payload.nombre").value("Producto admin"))
+            .andExpect(jsonPath("$.siguiente").value(inicio + 1));
+    }
+
+    @Test
+    void leerEventos_UsuarioNormal_RetornaForbidden() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(USER_EMAIL, "outbox123")))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void leerEventos_LimiteExcesivo_RetornaBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                .param("limite", "1001")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD)))
+            .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Waits until the relay has sequenced every committed event and delivered it to every sink.
+     * The last position is read from the database after checking no event is left to sequence.
+     *
+     * @return the last position sequenced
+     */
+    private long esperarRelay() {
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (true) {
+            boolean pendientes = !eventoOutboxRepository.findByPosicionIsNullOrderByIdAsc(Limit.of(1)).isEmpty();
+            long ultima = posicion(OutboxRelay.SECUENCIADOR);
+            if (!pendientes && posicion(FILE_SINK) == ultima && outboxRelay.posicion("memory") == ultima) {
+                return ultima;
+            }
+            assertTrue(System.nanoTime() < limite, "the outbox relay did not catch up");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private long posicion(String consumidor) {
+        return offsetOutboxRepository.findById(consumidor).map(OffsetOutbox::getPosicion).orElse(0L);
+    }
+}
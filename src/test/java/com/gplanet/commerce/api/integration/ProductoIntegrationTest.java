@@ -1,5 +1,10 @@
 package com.gplanet.commerce.api.integration;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -7,6 +12,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -15,10 +23,14 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
+import com.gplanet.commerce.api.dtos.producto.AjusteStockDTO;
 import com.gplanet.commerce.api.dtos.producto.ProductoDTO;
 import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
+import com.gplanet.commerce.api.entities.Producto;
 import com.gplanet.commerce.api.entities.Usuario;
+import com.jayway.jsonpath.JsonPath;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @AutoConfigureMockMvc
@@ -101,6 +113,75 @@ class ProductoIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.precio").value("149.99"));
     }
 
+    @Test
+    void ajustarStock_Admin_AjustaSinQueLaActualizacionLoPise() throws Exception {
+        // Arrange
+        crearUsuarioAdmin();
+        String admin = obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD);
+        ProductoDTO productoDTO = new ProductoDTO("Producto Stock", "Con stock", new BigDecimal("10.00"), true, 10);
+        MvcResult createResult = mockMvc.perform(post(BASE_URL + "/crear")
+                .header(HttpHeaders.AUTHORIZATION, admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(productoDTO)))
+                .andExpect(status().isOk())
+                .andReturn();
+        Long id = objectMapper.readValue(createResult.getResponse().getContentAsString(), ProductoResponseDTO.class).id();
+
+        // Act & Assert: an update of the product keeps the stock
+        ProductoDTO actualizacion = new ProductoDTO("Producto Stock", "Editado", new BigDecimal("12.00"), true, 0);
+        mockMvc.perform(put(BASE_URL + "/actualizar/" + id)
+                .header(HttpHeaders.AUTHORIZATION, admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(actualizacion)))
+                .andExpect(status().isOk());
+        mockMvc.perform(patch(BASE_URL + "/stock/" + id)
+                .header(HttpHeaders.AUTHORIZATION, admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AjusteStockDTO(5))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productoId").value(id))
+                .andExpect(jsonPath("$.stock").value(15));
+        mockMvc.perform(patch(BASE_URL + "/stock/" + id)
+                .header(HttpHeaders.AUTHORIZATION, admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AjusteStockDTO(-20))))
+                .andExpect(status().isConflict());
+        mockMvc.perform(get(BASE_URL + "/stock/" + id)
+                .header(HttpHeaders.AUTHORIZATION, admin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(15));
+    }
+
+    @Test
+    void ajustarStock_ProductoSinStockControlado_EmpiezaDesdeCero() throws Exception {
+        // Arrange
+        crearUsuarioAdmin();
+        String admin = obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD);
+        Producto producto = new Producto();
+        producto.setNombre("Producto Sin Stock");
+        producto.setPrecio(new BigDecimal("10.00"));
+        producto.setActivo(true);
+        producto.setFechaCreacion(LocalDateTime.now());
+        Long id = productoRepository.save(producto).getId();
+
+        // Act & Assert
+        mockMvc.perform(get(BASE_URL + "/stock/" + id)
+                .header(HttpHeaders.AUTHORIZATION, admin))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").doesNotExist());
+        mockMvc.perform(patch(BASE_URL + "/stock/" + id)
+                .header(HttpHeaders.AUTHORIZATION, admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AjusteStockDTO(3))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stock").value(3));
+        mockMvc.perform(patch(BASE_URL + "/stock/999999")
+                .header(HttpHeaders.AUTHORIZATION, admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AjusteStockDTO(3))))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void actualizarProducto_Usuario_RetornaForbidden() throws Exception {
         // Arrange
@@ -145,4 +226,257 @@ class ProductoIntegrationTest extends BaseIntegrationTest {
                 .content(objectMapper.writeValueAsString(updateProducto)))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void listarProductosCursor_SinAutenticacion_RecorreTodosSinDuplicados() throws Exception {
+        // Arrange - repeated prices force the ID tiebreak inside the keyset
+        Set<Long> esperados = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto " + i);
+            producto.setDescripcion("Descripción " + i);
+            producto.setPrecio(new BigDecimal(10 + (i % 5) + ".50"));
+            producto.setActivo(true);
+            producto.setFechaCreacion(LocalDateTime.now());
+            esperados.add(productoRepository.save(producto).getId());
+        }
+
+        // Act
+        Set<Long> recorridos = new HashSet<>();
+        BigDecimal precioAnterior = BigDecimal.ZERO;
+        String cursor = null;
+        int paginas = 0;
+        do {
+            MockHttpServletRequestBuilder request = get(BASE_URL + "/listar/cursor")
+                    .param("size", "10")
+                    .param("sort", "precio")
+                    .param("direction", "ASC");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            String json = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.pageSize").value(10))
+                    .andExpect(jsonPath("$.totalElements").doesNotExist())
+                    .andReturn().getResponse().getContentAsString();
+            List<Integer> ids = JsonPath.read(json, "$.content[*].id");
+            List<Number> precios = JsonPath.read(json, "$.content[*].precio");
+            ids.forEach(id -> assertTrue(recorridos.add(id.longValue())));
+            for (Number precio : precios) {
+                BigDecimal actual = new BigDecimal(precio.toString());
+                assertTrue(actual.compareTo(precioAnterior) >= 0);
+                precioAnterior = actual;
+            }
+            cursor = JsonPath.read(json, "$.nextCursor");
+            paginas++;
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(3, paginas);
+        assertEquals(esperados, recorridos);
+    }
+
+    @Test
+    void listarProductosCursor_CursorDeOtroOrden_RetornaBadRequest() throws Exception {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto " + i);
+            producto.setPrecio(new BigDecimal("10.00"));
+            producto.setActivo(true);
+            producto.setFechaCreacion(LocalDateTime.now());
+            productoRepository.save(producto);
+        }
+        String json = mockMvc.perform(get(BASE_URL + "/listar/cursor")
+                .param("size", "1")
+                .param("sort", "nombre"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(json, "$.nextCursor");
+
+        // Act & Assert
+        mockMvc.perform(get(BASE_URL + "/listar/cursor")
+                .param("size", "1")
+                .param("sort", "precio")
+                .param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listarProductosCursor_UsuarioNoAdminInactivos_RetornaForbidden() throws Exception {
+        // Arrange
+        crearUsuario("Regular user", USER_EMAIL, USER_PASSWORD, Usuario.Role.USER);
+
+        // Act & Assert
+        mockMvc.perform(get(BASE_URL + "/listar/cursor")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(USER_EMAIL, USER_PASSWORD))
+                .param("status", "INACTIVE"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void listarProductosCursor_OrdenPorCampoNulable_RetornaBadRequest() throws Exception {
+        // Arrange
+        crearUsuario("Regular user", USER_EMAIL, USER_PASSWORD, Usuario.Role.USER);
+
+        // Act & Assert
+        mockMvc.perform(get(BASE_URL + "/listar/cursor")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(USER_EMAIL, USER_PASSWORD))
+                .param("sort", "descripcion"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listarProductos_SinTotal_OmiteTotalesYRecorrePaginas() throws Exception {
+        // Arrange
+        crearProductosActivos(7);
+
+        // Act & Assert
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .param("size", "5")
+                .param("includeTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.lastPage").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist())
+                .andExpect(jsonPath("$.totalPages").doesNotExist());
+
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .param("page", "1")
+                .param("size", "5")
+                .param("includeTotal", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.lastPage").value(true));
+    }
+
+    @Test
+    void listarProductos_ConTotal_CuentaUnaVezHastaQueCambianLosProductos() throws Exception {
+        // Arrange - listing all statuses goes to the database; the first request also caches the credentials
+        crearUsuarioAdmin();
+        crearProductosActivos(7);
+        String authHeader = obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD);
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .param("status", "ALL")
+                .param("includeTotal", "false"))
+                .andExpect(status().isOk());
+
+        // Act & Assert - the second request is served from the count cache
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .param("status", "ALL")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(7));
+        int consultasPrimera = SqlStatementCounter.selects();
+
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .param("status", "ALL")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(7));
+        assertEquals(consultasPrimera - 1, SqlStatementCounter.selects());
+
+        // A product write invalidates the cached total
+        crearProductosActivos(1);
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .param("status", "ALL")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(8));
+    }
+
+    @Test
+    void listarProductos_Activos_SeSirvenDelCatalogoEnMemoria() throws Exception {
+        // Arrange
+        crearUsuarioAdmin();
+        String authHeader = obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD);
+        crearProductosActivos(3);
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .param("sort", "precio"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3));
+
+        // Act & Assert - served from memory without touching the database
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .param("size", "2")
+                .param("sort", "nombre")
+                .param("direction", "DESC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].nombre").value("Producto 2"))
+                .andExpect(jsonPath("$.content[1].nombre").value("Producto 1"))
+                .andExpect(jsonPath("$.totalElements").value(3));
+        assertEquals(0, SqlStatementCounter.selectsFrom("productos"));
+        assertEquals(0, SqlStatementCounter.selectsFrom("catalog_versions"));
+
+        // A product created through the API is listed right away
+        ProductoDTO nuevo = new ProductoDTO("Producto Nuevo", "Descripción", new BigDecimal("5.00"), true);
+        mockMvc.perform(post(BASE_URL + "/crear")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(nuevo)))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .param("sort", "precio"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(4))
+                .andExpect(jsonPath("$.content[0].nombre").value("Producto Nuevo"));
+    }
+
+    @Test
+    void listarProductos_ConETagVigente_Retorna304HastaQueCambiaElCatalogo() throws Exception {
+        // Arrange
+        crearUsuarioAdmin();
+        String authHeader = obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD);
+        crearProductosActivos(2);
+        String etag = mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert - an unchanged catalog is not read again
+        SqlStatementCounter.reset();
+        mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        assertEquals(0, SqlStatementCounter.selectsFrom("productos"));
+        assertEquals(0, SqlStatementCounter.selectsFrom("catalog_versions"));
+
+        // A product written through the API changes the ETag
+        ProductoDTO nuevo = new ProductoDTO("Producto Nuevo", "Descripción", new BigDecimal("5.00"), true);
+        mockMvc.perform(post(BASE_URL + "/crear")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(nuevo)))
+                .andExpect(status().isOk());
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/listar")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3))
+                .andReturn();
+        assertNotEquals(etag, result.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    private void crearProductosActivos(int cantidad) {
+        long existentes = productoRepository.count();
+        for (int i = 0; i < cantidad; i++) {
+            Producto producto = new Producto();
+            producto.setNombre("Producto " + (existentes + i));
+            producto.setPrecio(new BigDecimal("10.00"));
+            producto.setActivo(true);
+            producto.setFechaCreacion(LocalDateTime.now());
+            productoRepository.save(producto);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.gplanet.commerce.api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.gplanet.commerce.api.cache.ProductoCatalogCache;
+import com.gplanet.commerce.api.dtos.producto.ProductoDTO;
+import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.repositories.CatalogoVersionRepository;
+import com.gplanet.commerce.api.search.ProductoSearchIndex;
+import com.gplanet.commerce.api.search.ProductoSearchIndexInitializer;
+import com.gplanet.commerce.api.services.ProductoService;
+
+class ProductoSearchIntegrationTest extends BaseIntegrationTest {
+    private static final String LISTAR_URL = "/api/productos/listar";
+
+    @Autowired
+    private ProductoSearchIndex productoSearchIndex;
+
+    @Autowired
+    private ProductoSearchIndexInitializer productoSearchIndexInitializer;
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private CatalogoVersionRepository catalogoVersionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void esperarIndice() throws InterruptedException {
+        // Catches up with the catalog changes of earlier tests before the background check does
+        productoSearchIndexInitializer.refresh();
+        long limite = System.currentTimeMillis() + 10_000;
+        while (!productoSearchIndex.isReady() && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+        }
+        assertTrue(productoSearchIndex.isReady(), "search index was not rebuilt at startup");
+    }
+
+    @Test
+    void buscar_SinAcentosNiMayusculas_EncuentraProducto() throws Exception {
+        // Arrange
+        crearProducto("Portátil Gamer", "Equipo potente para juegos", "10.00", true, null);
+        crearProducto("Ratón inalámbrico", "Ergonómico", "10.00", true, null);
+
+        // Act & Assert
+        mockMvc.perform(get(LISTAR_URL).param("searchText", "portatiles"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].nombre").value("Portátil Gamer"));
+
+        mockMvc.perform(get(LISTAR_URL).param("searchText", "RATON"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].nombre").value("Ratón inalámbrico"));
+    }
+
+    @Test
+    void buscar_OrdenRelevancia_PriorizaCoincidenciaEnNombre() throws Exception {
+        // Arrange
+        crearProducto("Taza de cerámica", "Ideal para acompañar tu cafetera", "10.00", true, null);
+        crearProducto("Cafetera Express", "Prepara café en minutos", "10.00", true, null);
+
+        // Act & Assert
+        mockMvc.perform(get(LISTAR_URL)
+                .param("searchText", "cafetera")
+                .param("sort", "relevance")
+                .param("direction", "DESC"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(2))
+                .andExpect(jsonPath("$.content[0].nombre").value("Cafetera Express"))
+                .andExpect(jsonPath("$.content[1].nombre").value("Taza de cerámica"));
+    }
+
+    @Test
+    void buscar_PrefijoDeTermino_EncuentraProducto() throws Exception {
+        // Arrange
+        crearProducto("Monitor Ultrawide", "Pantalla curva", "10.00", true, null);
+
+        // Act & Assert
+        mockMvc.perform(get(LISTAR_URL).param("searchText", "ultraw"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void buscar_ProductoEliminado_DejaDeAparecerEnActivos() throws Exception {
+        // Arrange
+        Producto producto = crearProducto("Teclado Mecánico", "Switches azules", "10.00", true, null);
+        mockMvc.perform(get(LISTAR_URL).param("searchText", "teclado"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        // Act
+        productoService.eliminarProducto(producto.getId());
+
+        // Assert
+        mockMvc.perform(get(LISTAR_URL).param("searchText", "teclado"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(0));
+    }
+
+    @Test
+    void crearProducto_CambioLocal_AvanzaLaVersionIndexadaSinReconstruir() throws Exception {
+        // Act
+        productoService.crearProducto(
+            new ProductoDTO("Lámpara de escritorio", "Luz cálida regulable", new BigDecimal("10.00"), true));
+
+        // Assert: the index already reflects the version its own write moved the catalog to
+        long version = catalogoVersionRepository
+            .findVersionByNombre(ProductoCatalogCache.CATALOG_VERSION).orElse(0L);
+        assertEquals(version, productoSearchIndex.getIndexedVersion());
+        mockMvc.perform(get(LISTAR_URL).param("searchText", "lampara"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    @Test
+    void buscar_CambioDesdeOtroNodo_SeIndexaAlCambiarLaVersion() throws Exception {
+        // Arrange
+        Producto producto = crearProducto("Auriculares Bluetooth", "Cancelación de ruido", "10.00", true, null);
+        long version = catalogoVersionRepository
+            .findVersionByNombre(ProductoCatalogCache.CATALOG_VERSION).orElse(0L);
+
+        // Act: another node renames the product and moves the shared catalog version
+        jdbcTemplate.update("UPDATE productos SET nombre = ? WHERE id = ?", "Altavoz Portátil", producto.getId());
+        jdbcTemplate.update("MERGE INTO catalog_versions (catalog_name, catalog_version) KEY (catalog_name) VALUES (?, ?)",
+            ProductoCatalogCache.CATALOG_VERSION, version + 1);
+        productoSearchIndexInitializer.refresh();
+
+        // Assert
+        assertEquals(version + 1, productoSearchIndex.getIndexedVersion());
+        mockMvc.perform(get(LISTAR_URL).param("searchText", "altavoz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(1))
+                .andExpect(jsonPath("$.content[0].nombre").value("Altavoz Portátil"));
+    }
+}
@@ -0,0 +1,111 @@
+package com.gplanet.commerce.api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.TestPropertySource;
+
+import com.gplanet.commerce.api.configs.app.data.ReadWriteRoutingDataSource;
+import com.gplanet.commerce.api.configs.app.data.ReplicaRoutingDataSource;
+import com.gplanet.commerce.api.configs.app.data.ReplicaRoutingDataSource.ReplicaStatus;
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.dtos.usuario.LoginDTO;
+import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.services.CompraService;
+import com.gplanet.commerce.api.services.UsuarioDetallesService;
+import com.gplanet.commerce.api.services.UsuarioService;
+
+/**
+ * Integration tests for the read replica routing.
+ * Both replicas point to the primary's H2 database, so the data is the same everywhere and
+ * the routing is observed through the connections each replica hands out.
+ */
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:replicas;DB_CLOSE_DELAY=-1",
+    "datasource.replicas.enabled=true",
+    "datasource.replicas.urls[0]=jdbc:h2:mem:replicas;DB_CLOSE_DELAY=-1",
+    "datasource.replicas.urls[1]=jdbc:h2:mem:replicas;DB_CLOSE_DELAY=-1"
+})
+class ReadReplicaIntegrationTest extends BaseIntegrationTest {
+    private static final String USER_EMAIL = "replica@example.com";
+
+    @Autowired
+    private CompraService compraService;
+
+    @Autowired
+    private UsuarioDetallesService usuarioDetallesService;
+
+    @Autowired
+    private UsuarioService usuarioService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private ReplicaRoutingDataSource replicas;
+    private Long productoId;
+
+    @BeforeEach
+    void configurarDatosPrueba() throws SQLException {
+        replicas = dataSource.unwrap(ReadWriteRoutingDataSource.class).getReplicas();
+        crearUsuario("Replica", USER_EMAIL, "replica123", Usuario.Role.USER);
+
+        productoId = crearProducto("Producto Replica", "Producto para pruebas de réplicas", "10.0", true, null)
+            .getId();
+    }
+
+    @Test
+    void realizarCompra_TransaccionDeEscritura_NoUsaLasReplicas() {
+        long antes = conexionesReplicas();
+
+        CompraResponseDTO compra = compraService.realizarCompra(USER_EMAIL,
+            new CompraDTO(List.of(new CompraProductoDTO(productoId, 2))));
+
+        assertEquals(0, new BigDecimal("20").compareTo(compra.total()));
+        assertEquals(antes, conexionesReplicas());
+    }
+
+    @Test
+    void listarCompras_TransaccionDeLectura_LeeDeLasReplicasEnTurno() {
+        compraService.realizarCompra(USER_EMAIL, new CompraDTO(List.of(new CompraProductoDTO(productoId, 1))));
+        List<ReplicaStatus> antes = replicas.getReplicas();
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(1, compraService.listarCompras(USER_EMAIL, 0, 10, "fecha", "DESC").getTotalElements());
+        }
+
+        List<ReplicaStatus> despues = replicas.getReplicas();
+        for (int i = 0; i < despues.size(); i++) {
+            assertTrue(despues.get(i).available());
+            assertTrue(despues.get(i).connections() > antes.get(i).connections(),
+                despues.get(i).name() + " was not used");
+        }
+        assertEquals(0, replicas.getPrimaryFallbacks());
+    }
+
+    @Test
+    void autenticar_UsuarioRecienRegistrado_LeeDelPrimario() {
+        long antes = conexionesReplicas();
+
+        UserDetails usuario = usuarioDetallesService.loadUserByUsername(USER_EMAIL);
+        usuarioService.login(new LoginDTO(USER_EMAIL, "replica123"));
+
+        assertEquals(USER_EMAIL, usuario.getUsername());
+        assertEquals(antes, conexionesReplicas());
+    }
+
+    private long conexionesReplicas() {
+        return replicas.getReplicas().stream().mapToLong(ReplicaStatus::connections).sum();
+    }
+}
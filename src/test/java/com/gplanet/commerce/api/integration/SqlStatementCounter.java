@@ -0,0 +1,72 @@
+package com.gplanet.commerce.api.integration;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hibernate statement inspector used by the integration tests to count the SQL statements
+ * issued while exercising a use case. Registered through
+ * {@code hibernate.session_factory.statement_inspector} in the test profile.
+ *
+ * <p>It also records the statements Hibernate runs outside a Spring transaction, such as a lazy
+ * association loaded after the service returned. {@link BaseIntegrationTest} fails any test
+ * that leaves one behind. Statements of the outbox relay thread are checked for that, but not counted.</p>
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final String RELAY_THREAD = "outbox-relay";
+    private static final AtomicInteger SELECTS = new AtomicInteger();
+    private static final AtomicInteger INSERTS = new AtomicInteger();
+    private static final List<String> SELECT_STATEMENTS = new CopyOnWriteArrayList<>();
+    private static final List<String> OUTSIDE_TRANSACTION = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        String normalized = sql.stripLeading().toLowerCase(Locale.ROOT);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            OUTSIDE_TRANSACTION.add(Thread.currentThread().getName() + ": " + normalized);
+        }
+        if (RELAY_THREAD.equals(Thread.currentThread().getName())) {
+            // The outbox relay polls in the background, outside the use case being measured
+            return sql;
+        }
+        if (normalized.startsWith("select")) {
+            SELECTS.incrementAndGet();
+            SELECT_STATEMENTS.add(normalized);
+        } else if (normalized.startsWith("insert")) {
+            INSERTS.incrementAndGet();
+        }
+        return sql;
+    }
+
+    public static void reset() {
+        SELECTS.set(0);
+        INSERTS.set(0);
+        SELECT_STATEMENTS.clear();
+    }
+
+    public static int selects() {
+        return SELECTS.get();
+    }
+
+    public static int selectsFrom(String table) {
+        String from = " from " + table.toLowerCase(Locale.ROOT) + " ";
+        return (int) SELECT_STATEMENTS.stream().filter(sql -> sql.contains(from)).count();
+    }
+
+    public static int inserts() {
+        return INSERTS.get();
+    }
+
+    public static void resetOutsideTransaction() {
+        OUTSIDE_TRANSACTION.clear();
+    }
+
+    public static List<String> outsideTransaction() {
+        return List.copyOf(OUTSIDE_TRANSACTION);
+    }
+}
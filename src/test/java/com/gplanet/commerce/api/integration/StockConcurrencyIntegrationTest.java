@@ -0,0 +1,189 @@
+package com.gplanet.commerce.api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
+import com.gplanet.commerce.api.services.CompraService;
+
+/**
+ * Integration tests for the stock decrements at checkout under contention.
+ * Many threads buy the same products at once, and no product may be sold beyond its stock.
+ * Purchases queue on the row lock of the product, so H2 waits for it as long as MySQL would
+ * rather than its default second. There are fewer threads than pooled connections, since the
+ * table generator of the purchase IDs borrows a second connection when it allocates a new block.
+ */
+@TestPropertySource(properties = "spring.datasource.url=jdbc:h2:mem:stock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+class StockConcurrencyIntegrationTest extends BaseIntegrationTest {
+    protected static final String USER_EMAIL = "stock@example.com";
+    protected static final int STOCK = 25;
+    protected static final int COMPRADORES = 60;
+    private static final int HILOS = 8;
+
+    @Autowired
+    protected CompraService compraService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void configurarDatosPrueba() {
+        crearUsuario("Stock", USER_EMAIL, "stock123", Usuario.Role.USER);
+    }
+
+    @Test
+    void realizarCompra_ConcurrenteSobreUnProducto_NoVendeMasQueElStock() throws Exception {
+        Long productoId = crearProducto("Producto agotable", STOCK).getId();
+
+        int vendidas = comprarEnParalelo(i -> List.of(new CompraProductoDTO(productoId, 1)));
+
+        assertEquals(STOCK, vendidas);
+        assertEquals(0, productoRepository.findStockById(productoId));
+        assertEquals(STOCK, unidadesVendidas(productoId));
+    }
+
+    @Test
+    void realizarCompra_LineasEnOrdenInverso_SinInterbloqueosNiSobreventa() throws Exception {
+        Long primeroId = crearProducto("Producto A", STOCK).getId();
+        Long segundoId = crearProducto("Producto B", STOCK).getId();
+
+        // Half of the purchases list the products the other way round
+        int vendidas = comprarEnParalelo(i -> {
+            if (i % 2 == 0) {
+                return List.of(new CompraProductoDTO(primeroId, 1), new CompraProductoDTO(segundoId, 1));
+            }
+            return List.of(new CompraProductoDTO(segundoId, 1), new CompraProductoDTO(primeroId, 1));
+        });
+
+        assertEquals(STOCK, vendidas);
+        assertEquals(0, productoRepository.findStockById(primeroId));
+        assertEquals(0, productoRepository.findStockById(segundoId));
+        assertEquals(STOCK, unidadesVendidas(primeroId));
+        assertEquals(STOCK, unidadesVendidas(segundoId));
+    }
+
+    @Test
+    void realizarCompra_LineasRepetidas_DescuentaLaSumaDeUnidades() {
+        Long productoId = crearProducto("Producto repetido", 4).getId();
+        CompraDTO compra = new CompraDTO(List.of(
+            new CompraProductoDTO(productoId, 2),
+            new CompraProductoDTO(productoId, 3)));
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+            () -> compraService.realizarCompra(USER_EMAIL, compra));
+
+        assertEquals("Stock insuficiente para los productos: [" + productoId + "]", ex.getMessage());
+        assertEquals(4, productoRepository.findStockById(productoId));
+        assertEquals(0, compraRepository.count());
+    }
+
+    @Test
+    void realizarCompra_LineasRepetidasQueDesbordan_RechazaLaCompra() {
+        Long productoId = crearProducto("Producto desbordado", STOCK).getId();
+        CompraDTO compra = new CompraDTO(List.of(
+            new CompraProductoDTO(productoId, Integer.MAX_VALUE),
+            new CompraProductoDTO(productoId, Integer.MAX_VALUE)));
+
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+            () -> compraService.realizarCompra(USER_EMAIL, compra));
+
+        assertEquals("Stock insuficiente para los productos: [" + productoId + "]", ex.getMessage());
+        assertEquals(STOCK, productoRepository.findStockById(productoId));
+        assertEquals(0, compraRepository.count());
+    }
+
+    @Test
+    void realizarCompra_UnProductoSinStock_NoGuardaNingunaLinea() {
+        Long conStockId = crearProducto("Producto con stock", 10).getId();
+        Long agotadoId = crearProducto("Producto agotado", 0).getId();
+        CompraDTO compra = new CompraDTO(List.of(
+            new CompraProductoDTO(conStockId, 1),
+            new CompraProductoDTO(agotadoId, 1)));
+
+        assertThrows(InsufficientStockException.class, () -> compraService.realizarCompra(USER_EMAIL, compra));
+
+        assertEquals(10, productoRepository.findStockById(conStockId));
+        assertEquals(0, compraRepository.count());
+    }
+
+    @Test
+    void realizarCompra_ProductoSinStockControlado_NoLimitaLasUnidades() {
+        Long productoId = crearProducto("Producto sin control", null).getId();
+
+        compraService.realizarCompra(USER_EMAIL, new CompraDTO(List.of(new CompraProductoDTO(productoId, 1000))));
+
+        assertNull(productoRepository.findStockById(productoId));
+        assertEquals(1000, unidadesVendidas(productoId));
+    }
+
+    /**
+     * Runs {@value #COMPRADORES} purchases at once from a pool of threads, all released together.
+     *
+     * @param lineas the lines of each purchase by its index
+     * @return the number of purchases that went through; the others must fail for lack of stock
+     */
+    protected int comprarEnParalelo(LineasCompra lineas) throws Exception {
+        AtomicInteger vendidas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> compras = new ArrayList<>();
+            for (int i = 0; i < COMPRADORES; i++) {
+                CompraDTO compra = new CompraDTO(lineas.de(i));
+                compras.add(executor.submit(() -> {
+                    salida.await();
+                    try {
+                        compraService.realizarCompra(USER_EMAIL, compra);
+                        vendidas.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rechazadas.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> compra : compras) {
+                compra.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(COMPRADORES, vendidas.get() + rechazadas.get());
+        return vendidas.get();
+    }
+
+    private int unidadesVendidas(Long productoId) {
+        Integer unidades = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(cantidad), 0) FROM compra_productos WHERE producto_id = ?", Integer.class, productoId);
+        return unidades;
+    }
+
+    /**
+     * Lines of the purchase with the given index.
+     */
+    @FunctionalInterface
+    protected interface LineasCompra {
+        List<CompraProductoDTO> de(int indice);
+    }
+}
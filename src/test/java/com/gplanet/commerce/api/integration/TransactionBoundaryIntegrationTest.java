@@ -0,0 +1,96 @@
+package com.gplanet.commerce.api.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.hibernate.LazyInitializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
+import com.gplanet.commerce.api.entities.Compra;
+import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.services.CompraService;
+
+/**
+ * Integration tests for the transaction boundaries of the read endpoints.
+ * Open Session In View is disabled, so every endpoint must build its response inside the
+ * transactions of its service. {@link BaseIntegrationTest} fails the test if any SQL runs
+ * outside them, and touching a lazy association after the transaction throws.
+ */
+class TransactionBoundaryIntegrationTest extends BaseIntegrationTest {
+    private static final String USER_EMAIL = "boundary@example.com";
+    private static final String USER_PASSWORD = "boundary123";
+
+    @Autowired
+    private CompraService compraService;
+
+    @Autowired
+    private Environment environment;
+
+    private Long compraId;
+
+    @BeforeEach
+    void configurarDatosPrueba() {
+        crearUsuarioAdmin();
+        crearUsuario("Boundary", USER_EMAIL, USER_PASSWORD, Usuario.Role.USER);
+        Producto activo = crearProducto("Producto activo", "Producto para pruebas", "10.00", true, null);
+        Producto inactivo = crearProducto("Producto inactivo", "Producto para pruebas", "10.00", false, null);
+        compraId = compraService.realizarCompra(USER_EMAIL, new CompraDTO(List.of(
+            new CompraProductoDTO(activo.getId(), 2),
+            new CompraProductoDTO(inactivo.getId(), 1)))).id();
+    }
+
+    @Test
+    void openInView_ConfiguracionPrincipal_Deshabilitado() {
+        assertFalse(environment.getProperty("spring.jpa.open-in-view", Boolean.class, true));
+    }
+
+    @Test
+    void endpointsDeLectura_SinOpenSessionInView_RespondenDentroDeTransacciones() throws Exception {
+        String usuario = obtenerBasicAuthHeader(USER_EMAIL, USER_PASSWORD);
+        String admin = obtenerBasicAuthHeader(ADMIN_EMAIL, ADMIN_PASSWORD);
+
+        List<MockHttpServletRequestBuilder> peticiones = List.of(
+            get("/api/productos/listar"),
+            get("/api/productos/listar").param("includeTotal", "false"),
+            get("/api/productos/listar").param("searchText", "producto"),
+            get("/api/productos/listar").param("status", "ALL").header(HttpHeaders.AUTHORIZATION, admin),
+            get("/api/productos/listar").param("status", "INACTIVE").param("includeTotal", "false")
+                .header(HttpHeaders.AUTHORIZATION, admin),
+            get("/api/productos/listar/cursor"),
+            get("/api/compras/listar").header(HttpHeaders.AUTHORIZATION, usuario),
+            get("/api/compras/listar").param("includeTotal", "false").header(HttpHeaders.AUTHORIZATION, admin),
+            get("/api/compras/listar/cursor").header(HttpHeaders.AUTHORIZATION, usuario),
+            get("/api/usuarios/perfil").header(HttpHeaders.AUTHORIZATION, usuario),
+            get("/api/usuarios/admin/listar").header(HttpHeaders.AUTHORIZATION, admin),
+            get("/api/usuarios/admin/listar").param("includeTotal", "false").header(HttpHeaders.AUTHORIZATION, admin),
+            get("/api/usuarios/admin/listar/cursor").header(HttpHeaders.AUTHORIZATION, admin));
+
+        for (MockHttpServletRequestBuilder peticion : peticiones) {
+            mockMvc.perform(peticion).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void asociacionPerezosa_FueraDeTransaccion_LanzaExcepcion() {
+        Compra compra = compraRepository.findById(compraId).orElseThrow();
+
+        assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+        assertThrows(LazyInitializationException.class, () -> compra.getProductos().size());
+        assertThrows(LazyInitializationException.class, () -> compra.getUsuario().getEmail());
+        assertEquals(List.of(), SqlStatementCounter.outsideTransaction());
+    }
+}
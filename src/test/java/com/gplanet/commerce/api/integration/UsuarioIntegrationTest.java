@@ -385,4 +385,48 @@ class UsuarioIntegrationTest extends BaseIntegrationTest {
                 .param("newRole", "ADMIN"))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void listarUsuariosCursor_UsuarioAdmin_RecorreTodosLosUsuarios() throws Exception {
+        // Arrange
+        crearUsuarioAdmin();
+        for (int i = 0; i < 4; i++) {
+            crearUsuario("User " + i, "user" + i + "@example.com", TEST_PASSWORD, Usuario.Role.USER);
+        }
+        String authHeader = obtenerBasicAuthHeader(TEST_ADMIN_EMAIL, TEST_ADMIN_PASSWORD);
+
+        // Act
+        String primera = mockMvc.perform(get(BASE_URL + "/admin/listar/cursor")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .param("size", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(primera, "$.nextCursor");
+
+        // Assert
+        mockMvc.perform(get(BASE_URL + "/admin/listar/cursor")
+                .header(HttpHeaders.AUTHORIZATION, authHeader)
+                .param("size", "3")
+                .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content[*].email").value(hasItems("user2@example.com", "user3@example.com")))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void listarUsuariosCursor_OrdenPorPassword_RetornaBadRequest() throws Exception {
+        // Arrange
+        crearUsuarioAdmin();
+
+        // Act & Assert
+        mockMvc.perform(get(BASE_URL + "/admin/listar/cursor")
+                .header(HttpHeaders.AUTHORIZATION, obtenerBasicAuthHeader(TEST_ADMIN_EMAIL, TEST_ADMIN_PASSWORD))
+                .param("sort", "password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+}
@@ -0,0 +1,187 @@
+package com.gplanet.commerce.api.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.gplanet.commerce.api.configs.app.props.StockReservationProperties;
+import com.gplanet.commerce.api.entities.Producto;
+
+/**
+ * Unit tests for StockReservations.
+ * Tests the striped counters under contention, and that units are given back on rollback
+ * and when another product of the purchase is short.
+ */
+class StockReservationsTest {
+    private static final int HILOS = 32;
+
+    private StockReservationProperties properties;
+    private StockReservations reservations;
+
+    @BeforeEach
+    void setUp() {
+        properties = new StockReservationProperties();
+        properties.setEnabled(true);
+        properties.setStripes(8);
+        properties.setRefreshInterval(Duration.ofMinutes(1));
+        reservations = new StockReservations(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void reservar_ConcurrenteSobreUnProducto_NoReservaMasQueElStock() throws Exception {
+        Map<Long, Producto> productos = Map.of(1L, producto(1L, 1_000));
+        AtomicInteger reservadas = new AtomicInteger();
+        CountDownLatch salida = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(HILOS);
+        try {
+            List<Future<?>> hilos = new ArrayList<>();
+            for (int i = 0; i < HILOS; i++) {
+                int cantidad = i % 3 + 1;
+                hilos.add(executor.submit(() -> {
+                    salida.await();
+                    // A take can fail while another thread holds units it is giving back, so retry
+                    // as long as there are enough units left
+                    while (reservations.disponibles(1L) == null || reservations.disponibles(1L) >= cantidad) {
+                        if (reservarYConfirmar(cantidades(1L, cantidad), productos)) {
+                            reservadas.addAndGet(cantidad);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            salida.countDown();
+            for (Future<?> hilo : hilos) {
+                hilo.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // No unit is reserved twice or lost, and what's left can't serve the largest purchase
+        assertEquals(1_000, reservadas.get() + reservations.disponibles(1L));
+        assertTrue(reservations.disponibles(1L) < 3);
+    }
+
+    @Test
+    void reservar_TransaccionRevertida_DevuelveLasUnidades() {
+        Map<Long, Producto> productos = Map.of(1L, producto(1L, 10));
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertEquals(List.of(), reservations.reservar(cantidades(1L, 4), productos));
+        assertEquals(6, reservations.disponibles(1L));
+        completar(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertEquals(10, reservations.disponibles(1L));
+    }
+
+    @Test
+    void reservar_OtroProductoAgotado_DevuelveLasUnidadesTomadas() {
+        Map<Long, Producto> productos = Map.of(1L, producto(1L, 10), 2L, producto(2L, 1));
+        SortedMap<Long, Integer> cantidades = cantidades(1L, 3);
+        cantidades.put(2L, 2);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertEquals(List.of(2L), reservations.reservar(cantidades, productos));
+
+        assertEquals(10, reservations.disponibles(1L));
+        assertEquals(1, reservations.disponibles(2L));
+        assertEquals(List.of(), TransactionSynchronizationManager.getSynchronizations());
+    }
+
+    @Test
+    void reservar_ProductoNoSeleccionado_NoLoCuentaEnMemoria() {
+        properties.getProductIds().add(2L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertEquals(List.of(), reservations.reservar(cantidades(1L, 50), Map.of(1L, producto(1L, 10))));
+
+        assertNull(reservations.disponibles(1L));
+    }
+
+    @Test
+    void reservar_Deshabilitado_NoNecesitaTransaccion() {
+        properties.setEnabled(false);
+
+        assertEquals(List.of(), reservations.reservar(cantidades(1L, 50), Map.of(1L, producto(1L, 10))));
+        assertNull(reservations.disponibles(1L));
+    }
+
+    @Test
+    void reservar_SinTransaccion_LanzaExcepcion() {
+        Map<Long, Producto> productos = Map.of(1L, producto(1L, 10));
+        SortedMap<Long, Integer> cantidades = cantidades(1L, 1);
+
+        assertThrows(IllegalStateException.class, () -> reservations.reservar(cantidades, productos));
+    }
+
+    @Test
+    void invalidar_ProductoReservado_LeeDeNuevoElStock() {
+        TransactionSynchronizationManager.initSynchronization();
+        reservations.reservar(cantidades(1L, 4), Map.of(1L, producto(1L, 10)));
+        completar(TransactionSynchronization.STATUS_COMMITTED);
+
+        reservations.invalidar(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        reservations.reservar(cantidades(1L, 1), Map.of(1L, producto(1L, 20)));
+
+        assertEquals(19, reservations.disponibles(1L));
+    }
+
+    private boolean reservarYConfirmar(SortedMap<Long, Integer> cantidades, Map<Long, Producto> productos) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            boolean reservado = reservations.reservar(cantidades, productos).isEmpty();
+            TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            return reservado;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void completar(int status) {
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        syncs.forEach(sync -> sync.afterCompletion(status));
+    }
+
+    private static SortedMap<Long, Integer> cantidades(Long productoId, int cantidad) {
+        SortedMap<Long, Integer> cantidades = new TreeMap<>();
+        cantidades.put(productoId, cantidad);
+        return cantidades;
+    }
+
+    private static Producto producto(Long id, int stock) {
+        Producto producto = new Producto();
+        producto.setId(id);
+        producto.setStock(stock);
+        return producto;
+    }
+}
@@ -0,0 +1,140 @@
+package com.gplanet.commerce.api.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import com.gplanet.commerce.api.configs.app.logging.AsyncLoggingMetrics;
+import com.gplanet.commerce.api.configs.app.logging.NonBlockingAsyncAppender;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for NonBlockingAsyncAppender and AsyncLoggingMetrics.
+ * Tests that a full queue drops and counts events without blocking when the appender never blocks,
+ * and keeps ERROR events when it does.
+ */
+class NonBlockingAsyncAppenderTest {
+    private LoggerContext context;
+    private CountDownLatch liberar;
+    private List<ILoggingEvent> escritos;
+    private NonBlockingAsyncAppender appender;
+    private AppenderBase<ILoggingEvent> lento;
+    private CountDownLatch ocupado;
+
+    @BeforeEach
+    void setUp() {
+        context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        liberar = new CountDownLatch(1);
+        escritos = new CopyOnWriteArrayList<>();
+        ocupado = new CountDownLatch(1);
+
+        // Slow appender: holds the worker on the first event until released
+        lento = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                ocupado.countDown();
+                try {
+                    liberar.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                escritos.add(event);
+            }
+        };
+        lento.setContext(context);
+        lento.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberar.countDown();
+        if (appender != null) {
+            appender.stop();
+            context.getLogger(Logger.ROOT_LOGGER_NAME).detachAppender(appender);
+        }
+    }
+
+    @Test
+    void append_ColaLlenaSinBloqueo_DescartaSinBloquear() throws InterruptedException {
+        iniciar(true);
+
+        appender.doAppend(evento(Level.INFO, "descartado"));
+        appender.doAppend(evento(Level.DEBUG, "descartado"));
+
+        assertEquals(2, appender.getDroppedEvents());
+    }
+
+    @Test
+    void append_ColaLlenaBloqueante_EsperaParaNoPerderErrores() throws Exception {
+        iniciar(false);
+
+        CompletableFuture<Void> error = CompletableFuture.runAsync(() -> appender.doAppend(evento(Level.ERROR, "error")));
+        Thread.sleep(100);
+        assertFalse(error.isDone());
+
+        liberar.countDown();
+        error.get(5, TimeUnit.SECONDS);
+        appender.stop();
+
+        assertEquals(List.of("primero", "segundo", "error"), escritos.stream().map(ILoggingEvent::getMessage).toList());
+        assertEquals(0, appender.getDroppedEvents());
+    }
+
+    @Test
+    void bindTo_ExponeColaYDescartes() throws InterruptedException {
+        iniciar(true);
+        context.getLogger(Logger.ROOT_LOGGER_NAME).addAppender(appender);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        new AsyncLoggingMetrics().bindTo(registry);
+
+        appender.doAppend(evento(Level.INFO, "descartado"));
+
+        assertEquals(1.0, registry.get("logback.async.queue.size").tag("appender", "test-async").gauge().value());
+        assertEquals(0.0, registry.get("logback.async.queue.remaining").tag("appender", "test-async").gauge().value());
+        assertEquals(1.0, registry.get("logback.async.dropped").tag("appender", "test-async").functionCounter().count());
+    }
+
+    /**
+     * Starts the appender with a queue of one event and fills it: the worker takes the first
+     * event and blocks, and the second one takes the only slot.
+     *
+     * @param neverBlock whether the appender drops events instead of blocking on a full queue
+     */
+    private void iniciar(boolean neverBlock) throws InterruptedException {
+        appender = new NonBlockingAsyncAppender();
+        appender.setName("test-async");
+        appender.setContext(context);
+        appender.setQueueSize(1);
+        appender.setDiscardingThreshold(0);
+        appender.setNeverBlock(neverBlock);
+        appender.addAppender(lento);
+        appender.start();
+
+        appender.doAppend(evento(Level.INFO, "primero"));
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS));
+        appender.doAppend(evento(Level.INFO, "segundo"));
+    }
+
+    private LoggingEvent evento(Level level, String message) {
+        Logger logger = context.getLogger(NonBlockingAsyncAppenderTest.class);
+        return new LoggingEvent(Logger.class.getName(), logger, level, message, null, null);
+    }
+}
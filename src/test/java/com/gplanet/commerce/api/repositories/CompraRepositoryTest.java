@@ -7,10 +7,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
@@ -32,6 +34,9 @@ class CompraRepositoryTest {
     
     @Autowired
     private ProductoRepository productoRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
     
     private Usuario usuario;
     private Producto producto;
@@ -157,4 +162,54 @@ class CompraRepositoryTest {
         assertTrue(comprasPage.getContent().get(0).getFecha().isAfter(yesterday));
         assertTrue(comprasPage.getContent().get(0).getFecha().isBefore(tomorrow));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllByUsuarioIdWithProductos_MultipleItems_PagesInDatabase() {
+        // Arrange
+        for (int i = 1; i <= 3; i++) {
+            Compra compra = new Compra();
+            compra.setUsuario(usuario);
+            compra.setFecha(LocalDateTime.now().minusDays(i));
+            compra.setTotal(new BigDecimal("30.00"));
+            for (int j = 0; j < 3; j++) {
+                CompraProducto compraProducto = new CompraProducto();
+                compraProducto.setProducto(producto);
+                compraProducto.setCantidad(1);
+                compraProducto.setSubtotal(new BigDecimal("10.00"));
+                compra.addCompraProducto(compraProducto);
+            }
+            compraRepository.save(compra);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        // Act
+        Page<Compra> comprasPage = compraRepository.findAllByUsuarioIdWithProductos(
+            usuario.getId(),
+            PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "fecha"))
+        );
+
+        // Assert
+        assertEquals(3, comprasPage.getTotalElements());
+        assertEquals(2, comprasPage.getNumberOfElements());
+        assertTrue(comprasPage.getContent().get(0).getFecha()
+            .isAfter(comprasPage.getContent().get(1).getFecha()));
+        comprasPage.getContent().forEach(compra -> {
+            assertTrue(Hibernate.isInitialized(compra.getUsuario()));
+            assertEquals(3, compra.getProductos().size());
+        });
+    }
+
+    @Test
+    void findAllByUsuarioIdWithProductos_NoPurchases_ReturnsEmptyPage() {
+        // Act
+        Page<Compra> comprasPage = compraRepository.findAllByUsuarioIdWithProductos(
+            usuario.getId(),
+            PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "fecha"))
+        );
+
+        // Assert
+        assertTrue(comprasPage.isEmpty());
+        assertEquals(0, comprasPage.getTotalElements());
+    }
+}
@@ -1,6 +1,7 @@
 package com.gplanet.commerce.api.repositories;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -12,8 +13,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 
 import com.gplanet.commerce.api.entities.Producto;
@@ -80,10 +81,12 @@ class ProductoRepositoryTest {
         productoRepository.save(inactiveProduct);
         
         // Act
-        Page<Producto> activeProducts = productoRepository.findByActivoTrue(PageRequest.of(0, 10));
+        Slice<Producto> activeProducts = productoRepository.findByActivoTrue(PageRequest.of(0, 10));
         
         // Assert
-        assertEquals(1, activeProducts.getTotalElements());
+        assertEquals(1, productoRepository.countByActivoTrue());
+        assertEquals(1, activeProducts.getNumberOfElements());
+        assertFalse(activeProducts.hasNext());
         assertTrue(activeProducts.getContent().get(0).isActivo());
         assertEquals("Active Product", activeProducts.getContent().get(0).getNombre());
     }
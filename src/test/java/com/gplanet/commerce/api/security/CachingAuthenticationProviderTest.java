@@ -0,0 +1,126 @@
+package com.gplanet.commerce.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.gplanet.commerce.api.configs.app.props.CredentialCacheProperties;
+import com.gplanet.commerce.api.configs.security.CachingAuthenticationProvider;
+import com.gplanet.commerce.api.configs.security.CredentialCache;
+
+class CachingAuthenticationProviderTest {
+    private static final String EMAIL = "user@example.com";
+    private static final String PASSWORD = "secret";
+
+    private AuthenticationProvider delegate;
+    private CredentialCache credentialCache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        CredentialCacheProperties properties = new CredentialCacheProperties();
+        properties.setMaxSize(100);
+        properties.setTtl(Duration.ofMinutes(1));
+        credentialCache = new CredentialCache(properties);
+        delegate = mock(AuthenticationProvider.class);
+        provider = new CachingAuthenticationProvider(delegate, credentialCache);
+
+        when(delegate.authenticate(any(Authentication.class))).thenAnswer(invocation -> {
+            Authentication request = invocation.getArgument(0);
+            if (!PASSWORD.equals(request.getCredentials())) {
+                throw new BadCredentialsException("Bad credentials");
+            }
+            return UsernamePasswordAuthenticationToken.authenticated(
+                request.getName(), null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+        });
+    }
+
+    @Test
+    void authenticate_RepeatedCredentials_DelegatesOnlyOnce() {
+        Authentication first = provider.authenticate(token(PASSWORD));
+        Authentication second = provider.authenticate(token(PASSWORD));
+
+        assertNotSame(first, second);
+        assertEquals(first.getPrincipal(), second.getPrincipal());
+        assertEquals(first.getAuthorities(), second.getAuthorities());
+        assertTrue(second.isAuthenticated());
+        verify(delegate, times(1)).authenticate(any(Authentication.class));
+    }
+
+    @Test
+    void authenticate_CacheHit_UsesTheDetailsOfTheCurrentRequest() {
+        UsernamePasswordAuthenticationToken first = token(PASSWORD);
+        first.setDetails("203.0.113.7");
+        provider.authenticate(first);
+        UsernamePasswordAuthenticationToken second = token(PASSWORD);
+        second.setDetails("198.51.100.1");
+
+        assertEquals("198.51.100.1", provider.authenticate(second).getDetails());
+    }
+
+    @Test
+    void authenticate_WrongPassword_IsNeverServedFromCache() {
+        provider.authenticate(token(PASSWORD));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("wrong")));
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token("wrong")));
+        verify(delegate, times(3)).authenticate(any(Authentication.class));
+    }
+
+    @Test
+    void evictUser_ForcesNewVerification() {
+        provider.authenticate(token(PASSWORD));
+
+        credentialCache.evictUser(EMAIL);
+        provider.authenticate(token(PASSWORD));
+
+        verify(delegate, times(2)).authenticate(any(Authentication.class));
+    }
+
+    @Test
+    void evictUser_DifferentEmailCase_ForcesNewVerification() {
+        Authentication otherCase = UsernamePasswordAuthenticationToken.unauthenticated("User@Example.com", PASSWORD);
+        provider.authenticate(otherCase);
+
+        credentialCache.evictUser(EMAIL);
+        provider.authenticate(otherCase);
+
+        verify(delegate, times(2)).authenticate(any(Authentication.class));
+    }
+
+    @Test
+    void bindTo_ExposesHitAndMissMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        credentialCache.bindTo(registry);
+
+        provider.authenticate(token(PASSWORD));
+        provider.authenticate(token(PASSWORD));
+
+        assertEquals(1.0, registry.get("cache.gets")
+            .tags("cache", CredentialCache.CACHE_NAME, "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets")
+            .tags("cache", CredentialCache.CACHE_NAME, "result", "miss").functionCounter().count());
+    }
+
+    private UsernamePasswordAuthenticationToken token(String password) {
+        return UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, password);
+    }
+}
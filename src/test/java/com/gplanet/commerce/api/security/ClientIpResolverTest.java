@@ -0,0 +1,59 @@
+package com.gplanet.commerce.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.gplanet.commerce.api.configs.security.ratelimiting.ClientIpResolver;
+
+class ClientIpResolverTest {
+    private static final String PROXY = "10.0.0.5";
+    private static final String CLIENT = "203.0.113.7";
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("10.0.0.0/8", "192.168.1.1"));
+
+    @Test
+    void resolve_SinProxyConfiable_IgnoraLaCabecera() {
+        MockHttpServletRequest request = request(CLIENT, "198.51.100.1");
+
+        assertEquals(CLIENT, resolver.resolve(request));
+    }
+
+    @Test
+    void resolve_DesdeProxyConfiable_UsaLaUltimaDireccionNoConfiable() {
+        MockHttpServletRequest request = request(PROXY, "198.51.100.1, " + CLIENT + ", 192.168.1.1");
+
+        assertEquals(CLIENT, resolver.resolve(request));
+    }
+
+    @Test
+    void resolve_TodosLosSaltosConfiables_UsaElPrimero() {
+        MockHttpServletRequest request = request(PROXY, "10.1.1.1, 192.168.1.1");
+
+        assertEquals("10.1.1.1", resolver.resolve(request));
+    }
+
+    @Test
+    void resolve_DireccionNoValida_NoLaSalta() {
+        MockHttpServletRequest request = request(PROXY, CLIENT + ", unknown");
+
+        assertEquals("unknown", resolver.resolve(request));
+    }
+
+    @Test
+    void resolve_SinProxiesConfigurados_UsaLaConexion() {
+        ClientIpResolver sinProxies = new ClientIpResolver(List.of());
+
+        assertEquals(PROXY, sinProxies.resolve(request(PROXY, CLIENT)));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+}
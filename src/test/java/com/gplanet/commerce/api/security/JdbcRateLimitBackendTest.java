@@ -0,0 +1,103 @@
+package com.gplanet.commerce.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.gplanet.commerce.api.configs.security.ratelimiting.JdbcSelectForUpdateProxyManager;
+import com.gplanet.commerce.api.configs.security.ratelimiting.JdbcRateLimitBackend;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.Refill;
+
+class JdbcRateLimitBackendTest {
+    private static final String KEY = "user:user@example.com|USER";
+    private static final BucketConfiguration LIMITS = BucketConfiguration.builder()
+        .addLimit(Bandwidth.classic(3, Refill.greedy(1, Duration.ofHours(1))))
+        .build();
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource("jdbc:h2:mem:ratelimit;DB_CLOSE_DELAY=-1", "sa", "sa");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS rate_limit_buckets");
+        jdbcTemplate.execute("CREATE TABLE rate_limit_buckets (bucket_key VARCHAR(255) PRIMARY KEY, "
+            + "state VARBINARY(1024) NOT NULL, expires_at BIGINT NOT NULL)");
+    }
+
+    @Test
+    void bucket_DosNodos_CompartenLosTokens() {
+        Bucket nodoA = nodo(0).bucket(KEY, LIMITS);
+        Bucket nodoB = nodo(0).bucket(KEY, LIMITS);
+
+        assertTrue(nodoA.tryConsume(2));
+        assertTrue(nodoB.tryConsume(1));
+        assertFalse(nodoA.tryConsume(1));
+        assertFalse(nodoB.tryConsume(1));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_buckets", Integer.class));
+    }
+
+    @Test
+    void bucket_ConSincronizacionPorLotes_NoEscribeEnCadaPeticion() {
+        Bucket nodo = nodo(10).bucket(KEY, LIMITS);
+        assertTrue(nodo.tryConsume(1));
+        byte[] despuesDelPrimero = estado();
+
+        assertTrue(nodo.tryConsume(1));
+
+        assertArrayEquals(despuesDelPrimero, estado());
+    }
+
+    @Test
+    void release_ConTokensLocales_LosEscribeEnLaTabla() {
+        JdbcRateLimitBackend backend = nodo(10);
+        Bucket nodo = backend.bucket(KEY, LIMITS);
+        assertTrue(nodo.tryConsume(1));
+        assertTrue(nodo.tryConsume(1));
+
+        backend.release(nodo);
+
+        assertFalse(nodo(0).bucket(KEY, LIMITS).tryConsume(2));
+    }
+
+    @Test
+    void removeProxy_BorraElBucket() {
+        JdbcSelectForUpdateProxyManager proxyManager =
+            new JdbcSelectForUpdateProxyManager(dataSource, "rate_limit_buckets", Duration.ofSeconds(1));
+        new JdbcRateLimitBackend(proxyManager, 0, Duration.ofSeconds(1)).bucket(KEY, LIMITS).tryConsume(3);
+
+        proxyManager.removeProxy(KEY);
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rate_limit_buckets", Integer.class));
+    }
+
+    @Test
+    void constructor_NombreDeTablaNoValido_Falla() {
+        assertThrows(IllegalArgumentException.class,
+            () -> new JdbcSelectForUpdateProxyManager(
+                dataSource, "buckets; DROP TABLE usuario", Duration.ofSeconds(1)));
+    }
+
+    private JdbcRateLimitBackend nodo(long syncTokens) {
+        return new JdbcRateLimitBackend(new JdbcSelectForUpdateProxyManager(
+            dataSource, "rate_limit_buckets", Duration.ofSeconds(1)), syncTokens, Duration.ofMinutes(1));
+    }
+
+    private byte[] estado() {
+        return jdbcTemplate.queryForObject("SELECT state FROM rate_limit_buckets WHERE bucket_key = ?", byte[].class, KEY);
+    }
+}
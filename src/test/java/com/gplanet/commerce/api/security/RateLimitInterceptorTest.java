@@ -0,0 +1,150 @@
+package com.gplanet.commerce.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import com.gplanet.commerce.api.configs.app.props.RateLimitGroupProperties;
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitBackend;
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitCost;
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitInterceptor;
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitingConfig;
+import com.gplanet.commerce.api.exceptions.RateLimitExceededException;
+
+class RateLimitInterceptorTest {
+    private RateLimitingConfig config;
+    private RateLimitInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitGroupProperties.Group write = new RateLimitGroupProperties.Group();
+        write.setCapacity(6);
+        write.setRefill(6);
+        RateLimitGroupProperties groupProperties = new RateLimitGroupProperties();
+        groupProperties.getGroups().put("write", write);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("rateLimitGroupProperties", groupProperties);
+
+        config = new RateLimitingConfig(
+            beanFactory.getBeanProvider(RateLimitBackend.class),
+            beanFactory.getBeanProvider(RateLimitGroupProperties.class));
+        ReflectionTestUtils.setField(config, "trustedProxies", List.of());
+        ReflectionTestUtils.setField(config, "unauthenticatedCapacity", 2);
+        ReflectionTestUtils.setField(config, "unauthenticatedRefill", 1);
+        ReflectionTestUtils.setField(config, "unauthenticatedMaxClients", 100L);
+        ReflectionTestUtils.setField(config, "userCapacity", 10);
+        ReflectionTestUtils.setField(config, "userRefill", 5);
+        ReflectionTestUtils.setField(config, "adminCapacity", 20);
+        ReflectionTestUtils.setField(config, "adminRefill", 10);
+        ReflectionTestUtils.setField(config, "authenticatedMaxUsers", 100L);
+        ReflectionTestUtils.setField(config, "windowMinutes", 1);
+        ReflectionTestUtils.invokeMethod(config, "initBucketStores");
+        interceptor = new RateLimitInterceptor(config);
+
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+            "user@example.com", null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void preHandle_SinAnotacion_ConsumeUnTokenYEnviaCabeceras() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request(), response, handler("leer")));
+
+        assertEquals("10", response.getHeader("RateLimit-Limit"));
+        assertEquals("9", response.getHeader("RateLimit-Remaining"));
+        assertEquals("12", response.getHeader("RateLimit-Reset"));
+        assertEquals("5;w=60;burst=10", response.getHeader("RateLimit-Policy"));
+        assertEquals("9", response.getHeader("X-Rate-Limit-Remaining"));
+    }
+
+    @Test
+    void preHandle_ConCoste_ConsumeElCosteDeAmbosBuckets() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        interceptor.preHandle(request(), response, handler("escribir"));
+
+        assertEquals(7, config.resolveBucket(request()).bucket().getAvailableTokens());
+        assertEquals(3, config.resolveGroupBucket(request(), "write").orElseThrow().bucket().getAvailableTokens());
+        assertEquals("6", response.getHeader("RateLimit-Limit"));
+        assertEquals("3", response.getHeader("RateLimit-Remaining"));
+    }
+
+    @Test
+    void preHandle_GrupoAgotado_RechazaSinConsumirElBucketGeneral() throws Exception {
+        interceptor.preHandle(request(), new MockHttpServletResponse(), handler("escribir"));
+        interceptor.preHandle(request(), new MockHttpServletResponse(), handler("escribir"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThrows(RateLimitExceededException.class,
+            () -> interceptor.preHandle(request(), response, handler("escribir")));
+
+        assertEquals(4, config.resolveBucket(request()).bucket().getAvailableTokens());
+        assertEquals("0", response.getHeader("RateLimit-Remaining"));
+        assertEquals("30", response.getHeader("Retry-After"));
+        assertEquals("30", response.getHeader("X-Rate-Limit-Retry-After-Seconds"));
+    }
+
+    @Test
+    void preHandle_GeneralAgotado_DevuelveLosTokensDelGrupo() throws Exception {
+        config.resolveBucket(request()).bucket().tryConsume(9);
+
+        assertThrows(RateLimitExceededException.class,
+            () -> interceptor.preHandle(request(), new MockHttpServletResponse(), handler("escribir")));
+
+        assertEquals(6, config.resolveGroupBucket(request(), "write").orElseThrow().bucket().getAvailableTokens());
+    }
+
+    @Test
+    void preHandle_CosteMayorQueLaCapacidad_AcotaRetryAfter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThrows(RateLimitExceededException.class,
+            () -> interceptor.preHandle(request(), response, handler("importar")));
+
+        assertEquals("60", response.getHeader("Retry-After"));
+        assertEquals("60", response.getHeader("X-Rate-Limit-Retry-After-Seconds"));
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("203.0.113.7");
+        return request;
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Endpoints(), Endpoints.class.getDeclaredMethod(method));
+    }
+
+    static class Endpoints {
+        void leer() {
+        }
+
+        @RateLimitCost(value = 3, group = "write")
+        void escribir() {
+        }
+
+        @RateLimitCost(value = 50, group = "write")
+        void importar() {
+        }
+    }
+}
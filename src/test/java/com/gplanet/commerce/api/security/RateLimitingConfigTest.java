@@ -0,0 +1,213 @@
+package com.gplanet.commerce.api.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.gplanet.commerce.api.configs.app.props.RateLimitGroupProperties;
+import com.gplanet.commerce.api.configs.security.ratelimiting.JdbcRateLimitBackend;
+import com.gplanet.commerce.api.configs.security.ratelimiting.JdbcSelectForUpdateProxyManager;
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitBackend;
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitBucket;
+import com.gplanet.commerce.api.configs.security.ratelimiting.RateLimitingConfig;
+
+import io.github.bucket4j.Bucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimitingConfigTest {
+    private RateLimitingConfig config;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitGroupProperties.Group write = new RateLimitGroupProperties.Group();
+        write.setCapacity(4);
+        write.setRefill(2);
+        RateLimitGroupProperties groupProperties = new RateLimitGroupProperties();
+        groupProperties.getGroups().put("write", write);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("rateLimitGroupProperties", groupProperties);
+
+        config = crearConfig(beanFactory);
+    }
+
+    private static RateLimitingConfig crearConfig(DefaultListableBeanFactory beanFactory) {
+        RateLimitingConfig rateLimitingConfig = new RateLimitingConfig(
+            beanFactory.getBeanProvider(RateLimitBackend.class),
+            beanFactory.getBeanProvider(RateLimitGroupProperties.class));
+        ReflectionTestUtils.setField(rateLimitingConfig, "trustedProxies", List.of());
+        ReflectionTestUtils.setField(rateLimitingConfig, "unauthenticatedCapacity", 2);
+        ReflectionTestUtils.setField(rateLimitingConfig, "unauthenticatedRefill", 1);
+        ReflectionTestUtils.setField(rateLimitingConfig, "unauthenticatedMaxClients", 100L);
+        ReflectionTestUtils.setField(rateLimitingConfig, "userCapacity", 3);
+        ReflectionTestUtils.setField(rateLimitingConfig, "userRefill", 1);
+        ReflectionTestUtils.setField(rateLimitingConfig, "adminCapacity", 10);
+        ReflectionTestUtils.setField(rateLimitingConfig, "adminRefill", 5);
+        ReflectionTestUtils.setField(rateLimitingConfig, "authenticatedMaxUsers", 100L);
+        ReflectionTestUtils.setField(rateLimitingConfig, "windowMinutes", 1);
+        ReflectionTestUtils.invokeMethod(rateLimitingConfig, "initBucketStores");
+        return rateLimitingConfig;
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void resolveBucket_MismaIp_ComparteElBucketYSeAgota() {
+        Bucket bucket = config.resolveBucket(request("203.0.113.7")).bucket();
+
+        assertSame(bucket, config.resolveBucket(request("203.0.113.7")).bucket());
+        assertTrue(bucket.tryConsume(1));
+        assertTrue(bucket.tryConsume(1));
+        assertFalse(config.resolveBucket(request("203.0.113.7")).bucket().tryConsume(1));
+    }
+
+    @Test
+    void resolveBucket_IpsDistintas_UsanBucketsDistintos() {
+        assertNotSame(config.resolveBucket(request("203.0.113.7")).bucket(),
+            config.resolveBucket(request("198.51.100.1")).bucket());
+    }
+
+    @Test
+    void resolveBucket_UsuarioAnonimo_SeLimitaPorIp() {
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken(
+            "key", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+
+        assertNotSame(config.resolveBucket(request("203.0.113.7")).bucket(),
+            config.resolveBucket(request("198.51.100.1")).bucket());
+        assertSame(config.resolveBucket(request("203.0.113.7")).bucket(),
+            config.resolveBucket(request("203.0.113.7")).bucket());
+    }
+
+    @Test
+    void resolveBucket_MismoUsuario_ReutilizaElBucket() {
+        autenticar("user@example.com", "ROLE_USER");
+        Bucket bucket = config.resolveBucket(request("203.0.113.7")).bucket();
+
+        assertSame(bucket, config.resolveBucket(request("198.51.100.1")).bucket());
+        assertEquals(3, bucket.getAvailableTokens());
+    }
+
+    @Test
+    void resolveBucket_CambioDeRol_UsaUnBucketConLosNuevosLimites() {
+        autenticar("user@example.com", "ROLE_USER");
+        Bucket usuario = config.resolveBucket(request("203.0.113.7")).bucket();
+        usuario.tryConsume(3);
+
+        autenticar("user@example.com", "ROLE_ADMIN");
+        Bucket admin = config.resolveBucket(request("203.0.113.7")).bucket();
+
+        assertNotSame(usuario, admin);
+        assertEquals(10, admin.getAvailableTokens());
+    }
+
+    @Test
+    void resolveGroupBucket_GrupoConfigurado_UsaSusPropiosLimites() {
+        autenticar("user@example.com", "ROLE_USER");
+        RateLimitBucket grupo = config.resolveGroupBucket(request("203.0.113.7"), "write").orElseThrow();
+
+        assertNotSame(config.resolveBucket(request("203.0.113.7")).bucket(), grupo.bucket());
+        assertSame(grupo.bucket(), config.resolveGroupBucket(request("198.51.100.1"), "write").orElseThrow().bucket());
+        assertEquals(4, grupo.capacity());
+        assertEquals(4, grupo.bucket().getAvailableTokens());
+    }
+
+    @Test
+    void resolveGroupBucket_GrupoSinLimites_RetornaVacio() {
+        assertTrue(config.resolveGroupBucket(request("203.0.113.7"), "auth").isEmpty());
+    }
+
+    @Test
+    void bindTo_ExponeTamanoYMemoriaEstimada() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        config.bindTo(registry);
+
+        autenticar("user@example.com", "ROLE_USER");
+        config.resolveBucket(request("203.0.113.7"));
+        autenticar("admin@example.com", "ROLE_ADMIN");
+        config.resolveBucket(request("203.0.113.7"));
+
+        assertEquals(2.0, registry.get("cache.size")
+            .tags("cache", RateLimitingConfig.USER_BUCKETS).gauge().value());
+        assertTrue(registry.get("cache.memory.estimated")
+            .tags("cache", RateLimitingConfig.USER_BUCKETS).gauge().value() > 0);
+        assertEquals(0.0, registry.get("cache.evictions")
+            .tags("cache", RateLimitingConfig.CLIENT_BUCKETS).functionCounter().count());
+    }
+
+    @Test
+    void resolveGroupBucket_BackendJdbcConGruposDeRecargaDistinta_NoPurgaFilasEnUso() {
+        DriverManagerDataSource dataSource =
+            new DriverManagerDataSource("jdbc:h2:mem:ratelimitgroups;DB_CLOSE_DELAY=-1", "sa", "sa");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS rate_limit_buckets");
+        jdbcTemplate.execute("CREATE TABLE rate_limit_buckets (bucket_key VARCHAR(255) PRIMARY KEY, "
+            + "state VARBINARY(1024) NOT NULL, expires_at BIGINT NOT NULL)");
+        JdbcSelectForUpdateProxyManager proxyManager =
+            new JdbcSelectForUpdateProxyManager(dataSource, "rate_limit_buckets", Duration.ofSeconds(1));
+        // Full again after 1 minute, while the slowest bucket keeps every proxy cached for 3 minutes
+        RateLimitGroupProperties.Group search = new RateLimitGroupProperties.Group();
+        search.setCapacity(2);
+        search.setRefill(2);
+        RateLimitGroupProperties.Group write = new RateLimitGroupProperties.Group();
+        write.setCapacity(4);
+        write.setRefill(2);
+        RateLimitGroupProperties groupProperties = new RateLimitGroupProperties();
+        groupProperties.getGroups().put("search", search);
+        groupProperties.getGroups().put("write", write);
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("rateLimitGroupProperties", groupProperties);
+        beanFactory.registerSingleton("rateLimitBackend",
+            new JdbcRateLimitBackend(proxyManager, 10, Duration.ofSeconds(1)));
+        RateLimitingConfig jdbcConfig = crearConfig(beanFactory);
+
+        assertTrue(jdbcConfig.resolveGroupBucket(request("203.0.113.7"), "search").orElseThrow()
+            .bucket().tryConsume(1));
+        assertTrue(jdbcConfig.resolveGroupBucket(request("203.0.113.7"), "write").orElseThrow()
+            .bucket().tryConsume(1));
+        long now = System.currentTimeMillis();
+        // Past its own refill and the sync timeout, but its proxy is still cached
+        jdbcTemplate.update("UPDATE rate_limit_buckets SET expires_at = ? WHERE bucket_key = ?",
+            now - Duration.ofMinutes(2).toMillis(), "ip:203.0.113.7#search");
+        // Past the longest time any proxy stays cached
+        jdbcTemplate.update("UPDATE rate_limit_buckets SET expires_at = ? WHERE bucket_key = ?",
+            now - Duration.ofMinutes(10).toMillis(), "ip:203.0.113.7#write");
+        ReflectionTestUtils.setField(proxyManager, "nextPurge", 0L);
+
+        jdbcConfig.resolveBucket(request("198.51.100.1"));
+
+        List<String> keys = jdbcTemplate.queryForList("SELECT bucket_key FROM rate_limit_buckets", String.class);
+        assertTrue(keys.contains("ip:203.0.113.7#search"));
+        assertFalse(keys.contains("ip:203.0.113.7#write"));
+    }
+
+    private static void autenticar(String email, String role) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+            email, null, AuthorityUtils.createAuthorityList(role)));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
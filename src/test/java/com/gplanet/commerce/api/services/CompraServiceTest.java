@@ -1,13 +1,17 @@
 package com.gplanet.commerce.api.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -15,12 +19,17 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -30,13 +39,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import com.gplanet.commerce.api.dtos.compra.CompraDTO;
+import com.gplanet.commerce.api.dtos.compra.CompraLineaProjection;
 import com.gplanet.commerce.api.dtos.compra.CompraMapper;
 import com.gplanet.commerce.api.dtos.compra.CompraProductoDTO;
 import com.gplanet.commerce.api.dtos.compra.CompraResponseDTO;
+import com.gplanet.commerce.api.dtos.evento.EventType;
 import com.gplanet.commerce.api.entities.Compra;
 import com.gplanet.commerce.api.entities.Producto;
 import com.gplanet.commerce.api.entities.Usuario;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
 import com.gplanet.commerce.api.exceptions.ResourceNotFoundException;
+import com.gplanet.commerce.api.outbox.OutboxEvents;
 import com.gplanet.commerce.api.repositories.CompraRepository;
 import com.gplanet.commerce.api.repositories.ProductoRepository;
 import com.gplanet.commerce.api.repositories.UsuarioRepository;
@@ -54,6 +67,12 @@ class CompraServiceTest {
     
     @Mock
     private UsuarioRepository usuarioRepository;
+
+    @Mock
+    private InventarioService inventarioService;
+
+    @Mock
+    private OutboxEvents outboxEvents;
     
     @InjectMocks
     private CompraService compraService;
@@ -117,13 +136,16 @@ class CompraServiceTest {
     @Test
     void listarCompras_UserRole_ReturnsUserCompras() {
         // Arrange
-        Page<Compra> comprasPage = new PageImpl<>(Collections.singletonList(compra));
+        Page<Long> idsPage = new PageImpl<>(Collections.singletonList(compra.getId()));
+        List<CompraLineaProjection> lineas = Collections.singletonList(linea());
         when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
             .thenReturn(Optional.of(usuarioNormal));
-        when(compraRepository.findByUsuario(eq(usuarioNormal), any(Pageable.class)))
-            .thenReturn(comprasPage);
-        when(compraMapper.toCompraResponseDTO(compra))
-            .thenReturn(compraResponseDTO);
+        when(compraRepository.findPageOfIdsByUsuarioId(eq(usuarioNormal.getId()), any(Pageable.class)))
+            .thenReturn(idsPage);
+        when(compraRepository.findLineasByCompraIdIn(idsPage.getContent()))
+            .thenReturn(lineas);
+        when(compraMapper.toCompraResponseList(idsPage.getContent(), lineas))
+            .thenReturn(Collections.singletonList(compraResponseDTO));
             
         // Act
         Page<CompraResponseDTO> result = compraService.listarCompras(
@@ -138,20 +160,24 @@ class CompraServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(compraResponseDTO, result.getContent().get(0));
-        verify(compraRepository).findByUsuario(eq(usuarioNormal), any(Pageable.class));
-        verify(compraRepository, never()).findAll(any(Pageable.class));
+        verify(compraRepository).findPageOfIdsByUsuarioId(eq(usuarioNormal.getId()), any(Pageable.class));
+        verify(compraRepository, never()).findPageOfIds(any(Pageable.class));
+        verify(compraMapper, never()).toCompraResponseDTO(any(Compra.class));
     }
 
     @Test
     void listarCompras_AdminRole_ReturnsAllCompras() {
         // Arrange
-        Page<Compra> comprasPage = new PageImpl<>(Collections.singletonList(compra));
+        Page<Long> idsPage = new PageImpl<>(Collections.singletonList(compra.getId()));
+        List<CompraLineaProjection> lineas = Collections.singletonList(linea());
         when(usuarioRepository.findByEmail(usuarioAdmin.getEmail()))
             .thenReturn(Optional.of(usuarioAdmin));
-        when(compraRepository.findAll(any(Pageable.class)))
-            .thenReturn(comprasPage);
-        when(compraMapper.toCompraResponseDTO(compra))
-            .thenReturn(compraResponseDTO);
+        when(compraRepository.findPageOfIds(any(Pageable.class)))
+            .thenReturn(idsPage);
+        when(compraRepository.findLineasByCompraIdIn(idsPage.getContent()))
+            .thenReturn(lineas);
+        when(compraMapper.toCompraResponseList(idsPage.getContent(), lineas))
+            .thenReturn(Collections.singletonList(compraResponseDTO));
             
         // Act
         Page<CompraResponseDTO> result = compraService.listarCompras(
@@ -166,8 +192,27 @@ class CompraServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertEquals(compraResponseDTO, result.getContent().get(0));
-        verify(compraRepository).findAll(any(Pageable.class));
-        verify(compraRepository, never()).findByUsuario(any(), any(Pageable.class));
+        verify(compraRepository).findPageOfIds(any(Pageable.class));
+        verify(compraRepository, never()).findPageOfIdsByUsuarioId(any(), any(Pageable.class));
+    }
+
+    @Test
+    void listarCompras_EmptyPage_SkipsProjectionQuery() {
+        // Arrange
+        when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
+            .thenReturn(Optional.of(usuarioNormal));
+        when(compraRepository.findPageOfIdsByUsuarioId(eq(usuarioNormal.getId()), any(Pageable.class)))
+            .thenReturn(Page.empty());
+        when(compraMapper.toCompraResponseList(Collections.emptyList(), Collections.emptyList()))
+            .thenReturn(Collections.emptyList());
+
+        // Act
+        Page<CompraResponseDTO> result = compraService.listarCompras(
+            usuarioNormal.getEmail(), 0, 10, "fecha", "DESC");
+
+        // Assert
+        assertEquals(0, result.getTotalElements());
+        verify(compraRepository, never()).findLineasByCompraIdIn(any());
     }
 
     @Test
@@ -181,15 +226,18 @@ class CompraServiceTest {
             () -> compraService.listarCompras("nonexistent@example.com", 0, 10, "fecha", "DESC"));
     }
     
+    private CompraLineaProjection linea() {
+        return new CompraLineaProjection(compra.getId(), usuarioNormal.getNombre(), compra.getFecha(),
+            compra.getTotal(), 1L, "Producto 1", new BigDecimal("100.00"), 2, new BigDecimal("200.00"));
+    }
+
     @Test
     void realizarCompra_Success() {
         // Arrange
         when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
             .thenReturn(Optional.of(usuarioNormal));
-        when(productoRepository.findById(1L))
-            .thenReturn(Optional.of(producto1));
-        when(productoRepository.findById(2L))
-            .thenReturn(Optional.of(producto2));
+        when(productoRepository.findAllById(anyCollection()))
+            .thenReturn(Arrays.asList(producto1, producto2));
         when(compraRepository.save(any(Compra.class)))
             .thenReturn(compra);
         when(compraMapper.toCompraResponseDTO(any(Compra.class)))
@@ -221,23 +269,44 @@ class CompraServiceTest {
         // Arrange
         when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
             .thenReturn(Optional.of(usuarioNormal));
-        when(productoRepository.findById(anyLong()))
-            .thenReturn(Optional.empty());
+        when(productoRepository.findAllById(anyCollection()))
+            .thenReturn(Collections.emptyList());
             
         // Act & Assert
         assertThrows(ResourceNotFoundException.class,
             () -> compraService.realizarCompra(usuarioNormal.getEmail(), compraDTO));
     }
+
+    @Test
+    void realizarCompra_SomeProductsNotFound_ListsAllMissingIds() {
+        // Arrange
+        CompraDTO compraConFaltantes = new CompraDTO(Arrays.asList(
+            new CompraProductoDTO(1L, 1),
+            new CompraProductoDTO(7L, 1),
+            new CompraProductoDTO(9L, 2)
+        ));
+        when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
+            .thenReturn(Optional.of(usuarioNormal));
+        when(productoRepository.findAllById(anyCollection()))
+            .thenReturn(Collections.singletonList(producto1));
+
+        // Act
+        ResourceNotFoundException ex = assertThrows(ResourceNotFoundException.class,
+            () -> compraService.realizarCompra(usuarioNormal.getEmail(), compraConFaltantes));
+
+        // Assert
+        assertEquals("Productos no encontrados: [7, 9]", ex.getMessage());
+        verify(productoRepository, never()).findById(anyLong());
+        verify(compraRepository, never()).save(any(Compra.class));
+    }
     
     @Test
     void realizarCompra_CalculatesCorrectTotal() {
         // Arrange
         when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
             .thenReturn(Optional.of(usuarioNormal));
-        when(productoRepository.findById(1L))
-            .thenReturn(Optional.of(producto1));
-        when(productoRepository.findById(2L))
-            .thenReturn(Optional.of(producto2));
+        when(productoRepository.findAllById(anyCollection()))
+            .thenReturn(Arrays.asList(producto1, producto2));
         when(compraRepository.save(any(Compra.class)))
             .thenAnswer(invocation -> {
                 Compra savedCompra = invocation.getArgument(0);
@@ -256,4 +325,112 @@ class CompraServiceTest {
         BigDecimal expectedTotal = new BigDecimal("400.00"); // (100 * 2) + (200 * 1)
         assertEquals(expectedTotal, savedCompra.getTotal());
     }
-}
\ No newline at end of file
+
+    @Test
+    void realizarCompra_ConStock_DescuentaTrasAsignarLosIds() {
+        // Arrange
+        SortedMap<Long, Integer> cantidades = new TreeMap<>(Map.of(1L, 2, 2L, 1));
+        when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
+            .thenReturn(Optional.of(usuarioNormal));
+        when(productoRepository.findAllById(anyCollection()))
+            .thenReturn(Arrays.asList(producto1, producto2));
+        when(inventarioService.reservar(any(), eq(compraDTO.productos())))
+            .thenReturn(cantidades);
+        when(compraRepository.save(any(Compra.class)))
+            .thenReturn(compra);
+
+        // Act
+        compraService.realizarCompra(usuarioNormal.getEmail(), compraDTO);
+
+        // Assert
+        InOrder orden = inOrder(inventarioService, compraRepository);
+        orden.verify(inventarioService).reservar(any(), eq(compraDTO.productos()));
+        orden.verify(compraRepository).save(any(Compra.class));
+        orden.verify(inventarioService).descontar(cantidades);
+    }
+
+    @Test
+    void realizarCompra_Success_RegistraElEventoEnLaTransaccion() {
+        // Arrange
+        when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
+            .thenReturn(Optional.of(usuarioNormal));
+        when(productoRepository.findAllById(anyCollection()))
+            .thenReturn(Arrays.asList(producto1, producto2));
+        when(compraRepository.save(any(Compra.class)))
+            .thenReturn(compra);
+        when(compraMapper.toCompraResponseDTO(compra))
+            .thenReturn(compraResponseDTO);
+
+        // Act
+        compraService.realizarCompra(usuarioNormal.getEmail(), compraDTO);
+
+        // Assert
+        verify(outboxEvents).registrar(EventType.PURCHASE_CREATED, compra.getId(), compraResponseDTO);
+    }
+
+    @Test
+    void realizarCompra_StockInsuficiente_NoRegistraEvento() {
+        // Arrange
+        when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
+            .thenReturn(Optional.of(usuarioNormal));
+        when(productoRepository.findAllById(anyCollection()))
+            .thenReturn(Arrays.asList(producto1, producto2));
+        when(inventarioService.reservar(any(), eq(compraDTO.productos())))
+            .thenThrow(new InsufficientStockException("Stock insuficiente para los productos: [1]"));
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class,
+            () -> compraService.realizarCompra(usuarioNormal.getEmail(), compraDTO));
+        verify(outboxEvents, never()).registrar(any(), any(), any());
+    }
+
+    @Test
+    void realizarCompra_StockInsuficiente_NoGuardaLaCompra() {
+        // Arrange
+        when(usuarioRepository.findByEmail(usuarioNormal.getEmail()))
+            .thenReturn(Optional.of(usuarioNormal));
+        when(productoRepository.findAllById(anyCollection()))
+            .thenReturn(Arrays.asList(producto1, producto2));
+        when(inventarioService.reservar(any(), eq(compraDTO.productos())))
+            .thenThrow(new InsufficientStockException("Stock insuficiente para los productos: [1]"));
+
+        // Act & Assert
+        assertThrows(InsufficientStockException.class,
+            () -> compraService.realizarCompra(usuarioNormal.getEmail(), compraDTO));
+        verify(inventarioService, never()).descontar(any());
+        verify(compraRepository, never()).save(any(Compra.class));
+    }
+
+    @Test
+    void realizarComprasEnLote_UnaCompraRechazada_GuardaLasDemasYDescuentaUnaVez() {
+        // Arrange
+        CompraDTO otraCompra = new CompraDTO(Collections.singletonList(new CompraProductoDTO(1L, 1)));
+        List<CompraService.SolicitudCompra> solicitudes = Arrays.asList(
+            new CompraService.SolicitudCompra(usuarioNormal.getEmail(), compraDTO),
+            new CompraService.SolicitudCompra("nadie@example.com", otraCompra),
+            new CompraService.SolicitudCompra(usuarioNormal.getEmail(), otraCompra));
+        when(usuarioRepository.findByEmailIn(anyCollection()))
+            .thenReturn(Collections.singletonList(usuarioNormal));
+        when(productoRepository.findAllById(anyCollection()))
+            .thenReturn(Arrays.asList(producto1, producto2));
+        when(compraMapper.toCompraResponseDTO(any(Compra.class)))
+            .thenReturn(compraResponseDTO);
+
+        // Act
+        List<CompraService.ResultadoCompra> resultados = compraService.realizarComprasEnLote(solicitudes);
+
+        // Assert
+        assertEquals(3, resultados.size());
+        assertNotNull(resultados.get(0).compra());
+        assertInstanceOf(UsernameNotFoundException.class, resultados.get(1).error());
+        assertNotNull(resultados.get(2).compra());
+        ArgumentCaptor<List<Compra>> comprasCaptor = ArgumentCaptor.captor();
+        InOrder orden = inOrder(inventarioService, compraRepository);
+        orden.verify(inventarioService, times(2)).reservar(any(), any(), any());
+        orden.verify(compraRepository).saveAll(comprasCaptor.capture());
+        orden.verify(inventarioService).descontar(any());
+        assertEquals(2, comprasCaptor.getValue().size());
+        verify(compraRepository, never()).save(any(Compra.class));
+        verify(outboxEvents, times(2)).registrar(eq(EventType.PURCHASE_CREATED), any(), eq(compraResponseDTO));
+    }
+}
@@ -0,0 +1,216 @@
+package com.gplanet.commerce.api.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.gplanet.commerce.api.cache.ProductoCatalogCache;
+import com.gplanet.commerce.api.configs.app.props.ProductoCatalogCacheProperties;
+import com.gplanet.commerce.api.dtos.producto.ProductoMapper;
+import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
+import com.gplanet.commerce.api.entities.CatalogoVersion;
+import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.repositories.CatalogoVersionRepository;
+import com.gplanet.commerce.api.repositories.ProductoRepository;
+
+/**
+ * Unit tests for ProductoCatalogCache.
+ * Tests paging, ordering and invalidation of the in-memory active catalog.
+ */
+class ProductoCatalogCacheTest {
+
+    private ProductoCatalogCacheProperties properties;
+    private ProductoRepository productoRepository;
+    private CatalogoVersionRepository catalogoVersionRepository;
+    private ProductoCatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ProductoCatalogCacheProperties();
+        properties.setVersionCheckInterval(Duration.ofMinutes(1));
+        productoRepository = mock(ProductoRepository.class);
+        catalogoVersionRepository = mock(CatalogoVersionRepository.class);
+        ProductoMapper productoMapper = mock(ProductoMapper.class);
+        when(productoMapper.toProductoResponseDTO(any(Producto.class))).thenAnswer(invocation -> {
+            Producto producto = invocation.getArgument(0);
+            return new ProductoResponseDTO(producto.getId(), producto.getNombre(), producto.getDescripcion(),
+                producto.getPrecio(), producto.getFechaCreacion(), producto.isActivo());
+        });
+        when(catalogoVersionRepository.findVersionByNombre(ProductoCatalogCache.CATALOG_VERSION))
+            .thenReturn(Optional.of(0L));
+        // In the order of an accent- and case-insensitive database collation
+        when(productoRepository.findByActivoTrueOrderByNombreAscIdAsc()).thenReturn(List.of(
+            producto(2L, "Árbol", "10.00"),
+            producto(3L, "balón", "20.00"),
+            producto(1L, "Zapato", "30.00")));
+
+        catalogCache = new ProductoCatalogCache(properties, productoRepository, productoMapper, catalogoVersionRepository);
+    }
+
+    @Test
+    void buscar_SegundaConsulta_NoRecargaElCatalogo() {
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("precio")));
+
+        verify(productoRepository, times(1)).findByActivoTrueOrderByNombreAscIdAsc();
+    }
+
+    @Test
+    void buscar_OrdenDescendentePaginado_RetornaLaPaginaPedida() {
+        Page<ProductoResponseDTO> pagina = catalogCache
+            .buscar(PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "precio"))).orElseThrow();
+
+        assertEquals(List.of(2L), ids(pagina));
+        assertEquals(3, pagina.getTotalElements());
+        assertEquals(2, pagina.getTotalPages());
+    }
+
+    @Test
+    void buscar_OrdenPorNombre_MantieneElOrdenDeLaBaseDeDatos() {
+        Page<ProductoResponseDTO> pagina = catalogCache.buscar(PageRequest.of(0, 10, Sort.by("nombre"))).orElseThrow();
+        Page<ProductoResponseDTO> descendente = catalogCache
+            .buscar(PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "nombre"))).orElseThrow();
+
+        assertEquals(List.of(2L, 3L, 1L), ids(pagina));
+        assertEquals(List.of(1L, 3L, 2L), ids(descendente));
+    }
+
+    @Test
+    void buscar_OrdenPorId_OrdenaEnMemoria() {
+        Page<ProductoResponseDTO> pagina = catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id"))).orElseThrow();
+
+        assertEquals(List.of(1L, 2L, 3L), ids(pagina));
+    }
+
+    @Test
+    void buscar_OrdenNoSoportado_NoUsaLaCache() {
+        assertTrue(catalogCache.buscar(PageRequest.of(0, 10, Sort.by("descripcion"))).isEmpty());
+        assertTrue(catalogCache.buscar(PageRequest.of(0, 10, Sort.by("precio", "nombre"))).isEmpty());
+        verify(productoRepository, never()).findByActivoTrueOrderByNombreAscIdAsc();
+    }
+
+    @Test
+    void buscar_VersionCompartidaCambiada_RecargaElCatalogo() {
+        properties.setVersionCheckInterval(Duration.ZERO);
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+
+        when(catalogoVersionRepository.findVersionByNombre(ProductoCatalogCache.CATALOG_VERSION))
+            .thenReturn(Optional.of(1L));
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+
+        verify(productoRepository, times(2)).findByActivoTrueOrderByNombreAscIdAsc();
+    }
+
+    @Test
+    void invalidar_ObligaARecargarElCatalogo() {
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+
+        catalogCache.invalidar();
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+
+        verify(productoRepository, times(2)).findByActivoTrueOrderByNombreAscIdAsc();
+    }
+
+    @Test
+    void buscar_CatalogoDemasiadoGrande_NoUsaLaCache() {
+        properties.setMaxMemory(DataSize.ofBytes(100));
+
+        assertTrue(catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id"))).isEmpty());
+    }
+
+    @Test
+    void buscar_CatalogoDemasiadoGrandeEnNuevaVersion_CuentaSinRecargarNiContarAciertos() {
+        properties.setMaxMemory(DataSize.ofBytes(100));
+        properties.setVersionCheckInterval(Duration.ZERO);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        catalogCache.bindTo(registry);
+        when(productoRepository.countByActivoTrue()).thenReturn(3L);
+
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+        when(catalogoVersionRepository.findVersionByNombre(ProductoCatalogCache.CATALOG_VERSION))
+            .thenReturn(Optional.of(1L));
+        assertTrue(catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id"))).isEmpty());
+
+        verify(productoRepository, times(1)).findByActivoTrueOrderByNombreAscIdAsc();
+        verify(productoRepository, times(1)).countByActivoTrue();
+        assertEquals(0.0, registry.get("cache.gets")
+            .tags("cache", ProductoCatalogCache.CACHE_NAME, "result", "hit").functionCounter().count());
+        assertEquals(3.0, registry.get("cache.gets")
+            .tags("cache", ProductoCatalogCache.CACHE_NAME, "result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void buscar_CatalogoReducidoBajoElLimite_VuelveACargarlo() {
+        properties.setMaxMemory(DataSize.ofBytes(100));
+        properties.setVersionCheckInterval(Duration.ZERO);
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+
+        properties.setMaxMemory(DataSize.ofMegabytes(1));
+        when(productoRepository.countByActivoTrue()).thenReturn(3L);
+        when(catalogoVersionRepository.findVersionByNombre(ProductoCatalogCache.CATALOG_VERSION))
+            .thenReturn(Optional.of(1L));
+
+        assertTrue(catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id"))).isPresent());
+        verify(productoRepository, times(2)).findByActivoTrueOrderByNombreAscIdAsc();
+    }
+
+    @Test
+    void registrarCambio_SinFilaDeVersion_LaCrea() {
+        when(catalogoVersionRepository.incrementVersion(ProductoCatalogCache.CATALOG_VERSION)).thenReturn(0);
+
+        catalogCache.registrarCambio();
+
+        verify(catalogoVersionRepository).save(any(CatalogoVersion.class));
+    }
+
+    @Test
+    void bindTo_ExponeAciertosYFallos() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        catalogCache.bindTo(registry);
+
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+        catalogCache.buscar(PageRequest.of(0, 10, Sort.by("id")));
+
+        assertEquals(1.0, registry.get("cache.gets")
+            .tags("cache", ProductoCatalogCache.CACHE_NAME, "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets")
+            .tags("cache", ProductoCatalogCache.CACHE_NAME, "result", "miss").functionCounter().count());
+        assertEquals(3.0, registry.get("cache.size").gauge().value());
+    }
+
+    private static List<Long> ids(Page<ProductoResponseDTO> pagina) {
+        return pagina.getContent().stream().map(ProductoResponseDTO::id).toList();
+    }
+
+    private static Producto producto(Long id, String nombre, String precio) {
+        Producto producto = new Producto();
+        producto.setId(id);
+        producto.setNombre(nombre);
+        producto.setPrecio(new BigDecimal(precio));
+        producto.setFechaCreacion(LocalDateTime.now());
+        producto.setActivo(true);
+        return producto;
+    }
+}
@@ -0,0 +1,85 @@
+package com.gplanet.commerce.api.services;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.gplanet.commerce.api.cache.ProductoCatalogCache;
+import com.gplanet.commerce.api.dtos.evento.EventType;
+import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
+import com.gplanet.commerce.api.dtos.producto.StockDTO;
+import com.gplanet.commerce.api.inventory.StockReservations;
+import com.gplanet.commerce.api.outbox.OutboxEvents;
+import com.gplanet.commerce.api.search.ProductoSearchIndex;
+
+/**
+ * Unit tests for ProductoChangeRecorder.
+ * Tests that product writes are recorded in the outbox and reach the in-memory state only once
+ * the transaction completes.
+ */
+@ExtendWith(MockitoExtension.class)
+class ProductoChangeRecorderTest {
+
+    @Mock
+    private ProductoCatalogCache productoCatalogCache;
+
+    @Mock
+    private ProductoSearchIndex productoSearchIndex;
+
+    @Mock
+    private StockReservations stockReservations;
+
+    @Mock
+    private OutboxEvents outboxEvents;
+
+    @InjectMocks
+    private ProductoChangeRecorder productoChangeRecorder;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void registrarCambio_Confirmado_RegistraLaVersionEnElIndice() {
+        ProductoResponseDTO producto = new ProductoResponseDTO(1L, "Producto", "Descripción",
+            new BigDecimal("10.00"), LocalDateTime.now(), true);
+        when(productoCatalogCache.registrarCambio()).thenReturn(5L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        productoChangeRecorder.registrarCambio(EventType.PRODUCT_UPDATED, 1L, producto);
+
+        verify(outboxEvents).registrar(EventType.PRODUCT_UPDATED, 1L, producto);
+        verify(productoSearchIndex, never()).registrarVersionLocal(5L);
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        verify(productoSearchIndex).registrarVersionLocal(5L);
+    }
+
+    @Test
+    void registrarAjusteStock_Revertido_InvalidaLasReservas() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        productoChangeRecorder.registrarAjusteStock(new StockDTO(1L, 7));
+
+        verify(outboxEvents).registrar(EventType.STOCK_ADJUSTED, 1L, new StockDTO(1L, 7));
+        verify(stockReservations, never()).invalidar(1L);
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+            TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_ROLLED_BACK);
+        verify(stockReservations).invalidar(1L);
+    }
+}
@@ -18,6 +18,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.LongSupplier;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -27,15 +28,24 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.gplanet.commerce.api.cache.ProductoCatalogCache;
+import com.gplanet.commerce.api.cache.ProductoCountCache;
 import com.gplanet.commerce.api.dtos.producto.ProductStatus;
+import com.gplanet.commerce.api.dtos.evento.EventType;
 import com.gplanet.commerce.api.dtos.producto.ProductoDTO;
 import com.gplanet.commerce.api.dtos.producto.ProductoMapper;
 import com.gplanet.commerce.api.dtos.producto.ProductoResponseDTO;
 import com.gplanet.commerce.api.entities.Producto;
+import com.gplanet.commerce.api.exceptions.InsufficientStockException;
 import com.gplanet.commerce.api.exceptions.ResourceNotFoundException;
 import com.gplanet.commerce.api.repositories.ProductoRepository;
+import com.gplanet.commerce.api.search.ProductoSearchIndex;
 
 /**
  * Unit tests for ProductoService.
@@ -50,6 +60,21 @@ class ProductoServiceTest {
     @Mock
     private ProductoRepository productoRepository;
 
+    @Mock
+    private ProductoSearchIndex productoSearchIndex;
+
+    @Mock
+    private ProductoCountCache productoCountCache;
+
+    @Mock
+    private ProductoCatalogCache productoCatalogCache;
+
+    @Mock
+    private ProductoChangeRecorder productoChangeRecorder;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private ProductoService productoService;
 
@@ -154,7 +179,7 @@ class ProductoServiceTest {
         // Arrange
         List<Producto> todosLosProductos = List.of(producto, productoInactivo);
         Page<Producto> mockPage = new PageImpl<>(todosLosProductos);
-        when(productoRepository.findAll(any(Pageable.class))).thenReturn(mockPage);
+        when(productoRepository.findAllBy(any(Pageable.class))).thenReturn(mockPage);
         when(productoMapper.toProductoResponseDTO(producto)).thenReturn(productoResponseDTO);
         when(productoMapper.toProductoResponseDTO(productoInactivo))
             .thenReturn(productoInactivoResponseDTO);
@@ -167,7 +192,7 @@ class ProductoServiceTest {
         assertEquals(2, resultado.getTotalElements());
         assertTrue(resultado.getContent().contains(productoResponseDTO));
         assertTrue(resultado.getContent().contains(productoInactivoResponseDTO));
-        verify(productoRepository).findAll(any(Pageable.class));
+        verify(productoRepository).findAllBy(any(Pageable.class));
         verify(productoMapper, times(2)).toProductoResponseDTO(any(Producto.class));
     }
     
@@ -277,6 +302,122 @@ class ProductoServiceTest {
         verify(productoRepository, never()).findByActivoTrueAndSearch(anyString(), any(Pageable.class));
     }
 
+    /**
+     * Verifies that searches are served by the full-text index when it can answer them,
+     * keeping the index order.
+     */
+    @Test
+    void listarProductos_ConIndiceDisponible_DebeUsarIndiceYConservarOrden() {
+        // Arrange
+        Page<Long> hits = new PageImpl<>(List.of(2L, 1L), PageRequest.of(0, 10), 2);
+        when(productoSearchIndex.search(eq("producto"), eq(ProductStatus.ALL), any(Pageable.class)))
+            .thenReturn(Optional.of(hits));
+        when(productoRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(producto, productoInactivo));
+        when(productoMapper.toProductoResponseDTO(producto)).thenReturn(productoResponseDTO);
+        when(productoMapper.toProductoResponseDTO(productoInactivo)).thenReturn(productoInactivoResponseDTO);
+
+        // Act
+        Page<ProductoResponseDTO> resultado = productoService.listarProductos(
+            ProductStatus.ALL, "producto", 0, 10, "relevance", "DESC");
+
+        // Assert
+        assertEquals(2, resultado.getTotalElements());
+        assertEquals(List.of(productoInactivoResponseDTO, productoResponseDTO), resultado.getContent());
+        verify(productoRepository, never()).findBySearch(anyString(), any(Pageable.class));
+    }
+
+    /**
+     * Verifies that a relevance sort is dropped when the search falls back to the database.
+     */
+    @Test
+    void listarProductos_OrdenRelevanciaSinIndice_DebeConsultarBaseDeDatosSinOrden() {
+        // Arrange
+        when(productoRepository.findByActivoTrueAndSearch(eq("%test%"), any(Pageable.class)))
+            .thenReturn(new PageImpl<>(List.of(producto)));
+        when(productoMapper.toProductoResponseDTO(producto)).thenReturn(productoResponseDTO);
+
+        // Act
+        productoService.listarProductos(ProductStatus.ACTIVE, "Test", 0, 10, "relevance", "DESC");
+
+        // Assert
+        verify(productoRepository).findByActivoTrueAndSearch(eq("%test%"), eq(PageRequest.of(0, 10)));
+    }
+
+    /**
+     * Verifies that the total of a full page is read through the count cache.
+     */
+    @Test
+    void listarProductos_PaginaCompleta_DebeObtenerTotalDeLaCache() {
+        // Arrange
+        Slice<Producto> slice = new SliceImpl<>(List.of(producto, productoInactivo), PageRequest.of(0, 2), true);
+        when(productoRepository.findByActivoTrueAndSearch(eq("%product%"), any(Pageable.class))).thenReturn(slice);
+        when(productoCountCache.get(eq(ProductStatus.ACTIVE), eq("%product%"), any(LongSupplier.class)))
+            .thenReturn(7L);
+
+        // Act
+        Page<ProductoResponseDTO> resultado = productoService.listarProductos(
+            ProductStatus.ACTIVE, "Product", 0, 2, "nombre", "ASC");
+
+        // Assert
+        assertEquals(7, resultado.getTotalElements());
+        assertEquals(4, resultado.getTotalPages());
+    }
+
+    /**
+     * Verifies that listing without total never counts products.
+     */
+    @Test
+    void listarProductosSinTotal_NoDebeContarProductos() {
+        // Arrange
+        Slice<Producto> slice = new SliceImpl<>(List.of(producto), PageRequest.of(0, 1), true);
+        when(productoRepository.findByActivoTrue(any(Pageable.class))).thenReturn(slice);
+        when(productoMapper.toProductoResponseDTO(producto)).thenReturn(productoResponseDTO);
+
+        // Act
+        Slice<ProductoResponseDTO> resultado = productoService.listarProductosSinTotal(
+            ProductStatus.ACTIVE, null, 0, 1, "nombre", "ASC");
+
+        // Assert
+        assertTrue(resultado.hasNext());
+        assertEquals(List.of(productoResponseDTO), resultado.getContent());
+        verify(productoCountCache, never()).get(any(), anyString(), any(LongSupplier.class));
+        verify(productoRepository, never()).countByActivoTrue();
+    }
+
+    /**
+     * Verifies that unfiltered active listings are served from the in-memory catalog.
+     */
+    @Test
+    void listarProductos_ActivosSinBusqueda_DebeUsarCatalogoEnMemoria() {
+        // Arrange
+        Page<ProductoResponseDTO> pagina = new PageImpl<>(List.of(productoResponseDTO));
+        when(productoCatalogCache.buscar(any(Pageable.class))).thenReturn(Optional.of(pagina));
+
+        // Act
+        Page<ProductoResponseDTO> resultado = productoService.listarProductos(ProductStatus.ACTIVE, null, 0, 10, "nombre", "ASC");
+
+        // Assert
+        assertEquals(pagina, resultado);
+        verify(productoRepository, never()).findByActivoTrue(any(Pageable.class));
+        verify(productoCountCache, never()).get(any(), any(), any(LongSupplier.class));
+    }
+
+    /**
+     * Verifies that filtered listings never go through the in-memory catalog.
+     */
+    @Test
+    void listarProductos_ConBusqueda_NoDebeUsarCatalogoEnMemoria() {
+        // Arrange
+        when(productoRepository.findByActivoTrueAndSearch(anyString(), any(Pageable.class)))
+            .thenReturn(new SliceImpl<>(List.of()));
+
+        // Act
+        productoService.listarProductos(ProductStatus.ACTIVE, "test", 0, 10, "nombre", "ASC");
+
+        // Assert
+        verify(productoCatalogCache, never()).buscar(any(Pageable.class));
+    }
+
     /**
      * Verifies successful product creation.
      */
@@ -298,6 +439,7 @@ class ProductoServiceTest {
         verify(productoMapper).toProducto(productoDTO);
         verify(productoRepository).save(any(Producto.class));
         verify(productoMapper).toProductoResponseDTO(producto);
+        verify(productoChangeRecorder).registrarCambio(EventType.PRODUCT_CREATED, producto.getId(), productoResponseDTO);
     }
 
     /**
@@ -315,6 +457,7 @@ class ProductoServiceTest {
         assertFalse(producto.isActivo());
         verify(productoRepository).findById(1L);
         verify(productoRepository).save(producto);
+        verify(productoChangeRecorder).registrarCambio(eq(EventType.PRODUCT_DEACTIVATED), eq(1L), any());
     }
 
     @Test
@@ -330,6 +473,32 @@ class ProductoServiceTest {
         verify(productoRepository, never()).save(any());
     }
 
+    @Test
+    void ajustarStock_ProductoNoExiste_LanzaExcepcion() {
+        // Arrange
+        when(productoRepository.ajustarStock(1L, 5)).thenReturn(0);
+        when(productoRepository.existsById(1L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> productoService.ajustarStock(1L, 5));
+        verify(productoChangeRecorder, never()).registrarAjusteStock(any());
+    }
+
+    @Test
+    void ajustarStock_RetiraMasUnidadesDeLasQueHay_LanzaExcepcion() {
+        // Arrange
+        when(productoRepository.ajustarStock(1L, -5)).thenReturn(0);
+        when(productoRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        InsufficientStockException ex = assertThrows(InsufficientStockException.class,
+            () -> productoService.ajustarStock(1L, -5));
+
+        // Assert
+        assertEquals("Stock insuficiente para retirar 5 unidades del producto 1", ex.getMessage());
+        verify(productoRepository, never()).findStockById(any());
+    }
+
     @Test
     void crearProducto_DebeManipularErroresDeBD() {
         // Arrange
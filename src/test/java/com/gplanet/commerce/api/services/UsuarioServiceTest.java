@@ -28,6 +28,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.gplanet.commerce.api.configs.security.CredentialCache;
 import com.gplanet.commerce.api.dtos.usuario.ActualizacionUsuarioDTO;
 import com.gplanet.commerce.api.dtos.usuario.CambioPasswdDTO;
 import com.gplanet.commerce.api.dtos.usuario.LoginDTO;
@@ -50,6 +51,9 @@ class UsuarioServiceTest {
 
     @Mock
     private UsuarioMapper usuarioMapper;
+
+    @Mock
+    private CredentialCache credentialCache;
     
     @InjectMocks
     private UsuarioService usuarioService;
@@ -157,6 +161,7 @@ class UsuarioServiceTest {
             usuarioService.changePassword(userEmail, contrasenaDTO));
         
         verify(usuarioRepository).save(usuario);
+        verify(credentialCache).evictUser(userEmail);
         assertEquals("encodedNewPassword", usuario.getPassword());
     }
 
@@ -172,7 +177,7 @@ class UsuarioServiceTest {
             usuario.getRol(), usuario.getFechaCreacion()
         );
 
-        when(usuarioRepository.findByEmail(email)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.findParaAutenticar(email)).thenReturn(Optional.of(usuario));
         when(passwordEncoder.matches(password, usuario.getPassword())).thenReturn(true);
         when(usuarioMapper.toUsuarioResponseDTO(usuario)).thenReturn(expectedResponse);
 
@@ -195,7 +200,7 @@ class UsuarioServiceTest {
         Usuario usuario = createTestUsuario();
         LoginDTO loginDTO = new LoginDTO(email, password);
 
-        when(usuarioRepository.findByEmail(email)).thenReturn(Optional.of(usuario));
+        when(usuarioRepository.findParaAutenticar(email)).thenReturn(Optional.of(usuario));
         when(passwordEncoder.matches(password, usuario.getPassword())).thenReturn(false);
 
         // Act & Assert
@@ -209,7 +214,7 @@ class UsuarioServiceTest {
         String password = "password123";
         LoginDTO loginDTO = new LoginDTO(email, password);
 
-        when(usuarioRepository.findByEmail(email)).thenReturn(Optional.empty());
+        when(usuarioRepository.findParaAutenticar(email)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> usuarioService.login(loginDTO));
@@ -302,6 +307,7 @@ class UsuarioServiceTest {
         assertEquals(newRole, usuario.getRol());
         verify(usuarioRepository).findById(userId);
         verify(usuarioRepository).save(usuario);
+        verify(credentialCache).evictUser(usuario.getEmail());
     }
 
     @Test
@@ -318,6 +324,7 @@ class UsuarioServiceTest {
         
         verify(usuarioRepository).findById(userId);
         verify(usuarioRepository, never()).save(any());
+        verify(credentialCache, never()).evictUser(any());
     }
 
     @Test